@@ -0,0 +1,120 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.PresenceLeaseProperty;
+import com.example.chatservice.property.PresenceWriteProperty;
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
+import com.example.chatservice.property.UserRouteCacheProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드 재시작 후 50k 클라이언트가 한꺼번에 재접속할 때의 presence 등록 처리량 (handshakes/s).
+ * perHandshake: 핸드셰이크 스레드마다 Lua 스크립트 + 무효화 publish 를 각각 기다리는 기존 방식
+ * coalesced: PresenceWriteCoalescer 로 모아서 반영 (모든 등록이 Redis 에 반영될 때까지 측정)
+ *
+ * 로컬 Redis 필요 (-Dredis.host / -Dredis.port, 기본 localhost:6379).
+ * ./gradlew jmh -Pjmh.includes=PresenceRegistrationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PresenceRegistrationBenchmark {
+
+    private static final int CLIENTS = 50_000;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedissonClient redissonClient;
+    private RedisTemplate<String, Object> redisTemplate;
+    private ServerInfoProvider serverInfoProvider;
+    private UserRouteCache userRouteCache;
+    private ExecutorService writerExecutor;
+    private PresenceWriteCoalescer coalescer;
+
+    @Setup
+    public void setUp() {
+        String host = System.getProperty("redis.host", "localhost");
+        int port = Integer.getInteger("redis.port", 6379);
+
+        connectionFactory = new LettuceConnectionFactory(host, port);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + host + ":" + port);
+        redissonClient = Redisson.create(config);
+
+        serverInfoProvider = new ServerInfoProvider();
+        serverInfoProvider.init();
+        PresenceLeaseRegistry leaseRegistry = new PresenceLeaseRegistry(redisTemplate, serverInfoProvider,
+                Executors.newSingleThreadScheduledExecutor(), new PresenceLeaseProperty());
+        RedisCircuitBreaker redisCircuitBreaker =
+                new RedisCircuitBreaker(new RedisCircuitBreakerProperty(), new SimpleMeterRegistry());
+        userRouteCache = new UserRouteCache(redisTemplate, redissonClient, leaseRegistry,
+                new UserRouteCacheProperty(), redisCircuitBreaker, new SimpleMeterRegistry());
+        userRouteCache.init();
+
+        writerExecutor = Executors.newSingleThreadExecutor(Thread.ofVirtual().factory());
+        coalescer = new PresenceWriteCoalescer(redisTemplate, serverInfoProvider, userRouteCache,
+                writerExecutor, new PresenceWriteProperty(), redisCircuitBreaker, new SimpleMeterRegistry());
+        coalescer.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        coalescer.stop();
+        userRouteCache.shutdown();
+        redissonClient.shutdown();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public void perHandshake() throws Exception {
+        String server = serverInfoProvider.getServerAddress();
+        String nodeUsers = PresenceLeaseRegistry.nodeUsersKey(server);
+        try (ExecutorService handshakes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long userId = 0; userId < CLIENTS; userId++) {
+                long id = userId;
+                handshakes.submit(() -> {
+                    redisTemplate.execute(PresenceWriteCoalescer.PRESENCE_BATCH_SCRIPT,
+                            List.of(nodeUsers, "user:" + id, "user:" + id + ":devices"), server, "C:" + id);
+                    userRouteCache.invalidateEverywhere(List.of(id));
+                });
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public void coalesced() throws Exception {
+        CompletableFuture<?>[] registered = new CompletableFuture<?>[CLIENTS];
+        try (ExecutorService handshakes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int userId = 0; userId < CLIENTS; userId++) {
+                int id = userId;
+                handshakes.submit(() -> registered[id] = coalescer.connect((long) id));
+            }
+        }
+        CompletableFuture.allOf(registered).get(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.chatservice.common.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 방 하나(recipients 명)에 메시지 한 건을 팬아웃할 때 수신자별 직렬화 vs OutboundPayload 공유 비교.
+ * ./gradlew jmh -Pjmh.includes=FanOutEncodeBenchmark (gc.alloc.rate.norm 으로 팬아웃 1회당 할당량 확인)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutEncodeBenchmark {
+
+    @Param({"10", "500"})
+    private int recipients;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> messageData;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        messageData = new HashMap<>();
+        messageData.put("messageId", 712_345_678_901_234_567L);
+        messageData.put("senderId", 1234L);
+        messageData.put("content", "안녕하세요 오늘 저녁 같이 드실래요?");
+        messageData.put("chatRoomId", 98_765L);
+        messageData.put("sentAt", LocalDateTime.of(2025, 1, 1, 12, 0).toString());
+    }
+
+    @Benchmark
+    public void perRecipient(Blackhole bh) throws Exception {
+        // 기존 sendToUser 경로: 수신자마다 writeValueAsString + TextMessage
+        for (int i = 0; i < recipients; i++) {
+            bh.consume(new TextMessage(objectMapper.writeValueAsString(messageData)));
+        }
+    }
+
+    @Benchmark
+    public void sharedPayload(Blackhole bh) {
+        OutboundPayload payload = OutboundPayload.of(messageData, objectMapper);
+        for (int i = 0; i < recipients; i++) {
+            bh.consume(payload.textMessage());
+        }
+    }
+
+    @Benchmark
+    public void sharedBinaryPayload(Blackhole bh) {
+        OutboundPayload payload = OutboundPayload.of(messageData, objectMapper);
+        for (int i = 0; i < recipients; i++) {
+            bh.consume(payload.binaryMessage());
+        }
+    }
+}
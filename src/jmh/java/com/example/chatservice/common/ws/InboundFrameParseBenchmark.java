@@ -0,0 +1,51 @@
+package com.example.chatservice.common.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 Map 기반 파싱 vs 스트리밍 InboundFrameParser 비교.
+ * ./gradlew jmh -Pjmh.includes=InboundFrameParseBenchmark (gc 프로파일러로 프레임당 할당량 확인)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InboundFrameParseBenchmark {
+
+    private static final String PAYLOAD =
+            "{\"content\":\"안녕하세요 오늘 저녁 같이 드실래요?\",\"chatRoomId\":1234567,\"receiverId\":7654321}";
+
+    private ObjectMapper objectMapper;
+    private InboundFrameParser parser;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        parser = new InboundFrameParser(objectMapper);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void mapPath(Blackhole bh) throws Exception {
+        // WebSocketHandler의 기존 경로
+        Map<String, Object> messageData = objectMapper.readValue(PAYLOAD, Map.class);
+        String content = messageData.containsKey("content") ? messageData.get("content").toString() : PAYLOAD;
+        Long chatRoomId = Long.valueOf(messageData.get("chatRoomId").toString());
+        Long receiverId = Long.valueOf(messageData.get("receiverId").toString());
+        bh.consume(content);
+        bh.consume(chatRoomId);
+        bh.consume(receiverId);
+    }
+
+    @Benchmark
+    public InboundFrame streamingPath() throws Exception {
+        return parser.parse(PAYLOAD);
+    }
+}
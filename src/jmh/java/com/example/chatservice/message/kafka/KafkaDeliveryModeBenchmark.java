@@ -0,0 +1,175 @@
+package com.example.chatservice.message.kafka;
+
+import com.example.chatservice.property.KafkaDeliveryProperty;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.LongDeserializer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Kafka 대체 경로의 전달 방식별 비용 - 메시지 batch 하나를 발행하고 모든 노드가 자기 몫을 받기까지의 시간.
+ * BROADCAST: 노드마다 chat-messages 전체를 읽는다 (클러스터 consume = 노드 수 x 메시지 수)
+ * ROUTED: fan-out 단계 하나가 chat-messages 를 읽어 메시지마다 참여자가 있는 노드 토픽으로만 다시 발행하고,
+ *         노드는 자기 토픽만 읽는다 (클러스터 consume = 메시지 수 + 메시지 x 참여 노드 수)
+ * 세션 전달 / 라우팅 조회는 빼고 브로커 왕복과 consume 량 차이만 잰다. 메시지 i 의 참여 노드는 i 부터 nodesPerMessage 개.
+ *
+ * 내장 KRaft 브로커를 띄우므로 외부 Kafka 불필요.
+ * ./gradlew jmh -Pjmh.includes=KafkaDeliveryModeBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class KafkaDeliveryModeBenchmark {
+
+    private static final String CHAT_TOPIC = "chat-messages";
+    private static final int PARTITIONS = 3;
+    private static final int BATCH = 2_000;
+
+    @Param({"BROADCAST", "ROUTED"})
+    private KafkaDeliveryProperty.Mode mode;
+
+    @Param({"4", "16"})
+    private int nodes;
+
+    /** 메시지 하나의 수신자가 흩어져 있는 노드 수 (1:1 / 소규모 방이면 1~2) */
+    @Param({"1", "2"})
+    private int nodesPerMessage;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private KafkaProducer<Long, byte[]> producer;
+    private final List<Thread> pollers = new ArrayList<>();
+    private volatile boolean running;
+    private AtomicLong[] received;
+    private long[] expectedPerBatch;
+    private long seq;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KafkaDeliveryProperty property = new KafkaDeliveryProperty();
+        String[] nodeTopics = IntStream.range(0, nodes)
+                .mapToObj(i -> NodeDeliveryProducer.topicFor(property, "localhost:" + (8080 + i)))
+                .toArray(String[]::new);
+        List<String> topics = new ArrayList<>(List.of(nodeTopics));
+        topics.add(CHAT_TOPIC);
+
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, topics.toArray(String[]::new));
+        broker.afterPropertiesSet();
+        producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.ACKS_CONFIG, "1",
+                ProducerConfig.LINGER_MS_CONFIG, 1,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, LongSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+        payload = ("{\"messageId\":712345678901234567,\"senderId\":1234,\"chatRoomId\":98765,"
+                + "\"content\":\"안녕하세요 오늘 저녁 같이 드실래요?\",\"sentAt\":\"2025-01-01T12:00:00\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        received = new AtomicLong[nodes];
+        expectedPerBatch = new long[nodes];
+        running = true;
+        for (int node = 0; node < nodes; node++) {
+            received[node] = new AtomicLong();
+            if (mode == KafkaDeliveryProperty.Mode.BROADCAST) {
+                expectedPerBatch[node] = BATCH;
+                startPoller(CHAT_TOPIC, received[node], null);
+            } else {
+                startPoller(nodeTopics[node], received[node], null);
+            }
+        }
+        if (mode == KafkaDeliveryProperty.Mode.ROUTED) {
+            // 메시지 i 는 i % nodes 부터 nodesPerMessage 개 노드로 - batch 크기가 nodes 의 배수라 노드별 몫이 일정
+            for (int node = 0; node < nodes; node++) {
+                expectedPerBatch[node] = (long) BATCH / nodes * nodesPerMessage;
+            }
+            startPoller(CHAT_TOPIC, null, nodeTopics);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread poller : pollers) {
+            poller.join(5_000);
+        }
+        producer.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public long publishAndDeliverBatch() throws Exception {
+        long[] baseline = Arrays.stream(received).mapToLong(AtomicLong::get).toArray();
+        for (int i = 0; i < BATCH; i++) {
+            producer.send(new ProducerRecord<>(CHAT_TOPIC, seq++, payload));
+        }
+        producer.flush();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (int node = 0; node < nodes; node++) {
+            while (received[node].get() - baseline[node] < expectedPerBatch[node]) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException("node " + node + " received "
+                            + (received[node].get() - baseline[node]) + "/" + expectedPerBatch[node]);
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * 토픽의 모든 파티션을 직접 assign 해 poll (그룹 rebalance 없이).
+     * routeTo 가 있으면 fan-out 단계 - key(메시지 순번) 로 참여 노드를 정해 그 노드 토픽으로 다시 발행
+     */
+    private void startPoller(String topic, AtomicLong counter, String[] routeTo) {
+        Thread poller = Thread.ofPlatform().daemon().name("poll-" + topic).start(() -> {
+            try (KafkaConsumer<Long, byte[]> consumer = new KafkaConsumer<>(Map.of(
+                    ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                    ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                    ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                    ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, LongDeserializer.class,
+                    ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class))) {
+                consumer.assign(IntStream.range(0, PARTITIONS).mapToObj(p -> new TopicPartition(topic, p)).toList());
+                while (running) {
+                    for (ConsumerRecord<Long, byte[]> record : consumer.poll(Duration.ofMillis(50))) {
+                        if (routeTo == null) {
+                            counter.incrementAndGet();
+                            continue;
+                        }
+                        int first = (int) (record.key() % routeTo.length);
+                        for (int k = 0; k < nodesPerMessage; k++) {
+                            producer.send(new ProducerRecord<>(routeTo[(first + k) % routeTo.length], record.key(), record.value()));
+                        }
+                    }
+                    if (routeTo != null) {
+                        producer.flush();
+                    }
+                }
+            }
+        });
+        pollers.add(poller);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.common.RedisCircuitBreaker;
+import com.example.chatservice.common.ServerInfoProvider;
+import com.example.chatservice.message.channel.RedisNodeChannelTransport;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.message.envelope.EnvelopeFanout;
+import com.example.chatservice.property.InternalHttpClientProperty;
+import com.example.chatservice.property.MessageForwardProperty;
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
+import com.example.chatservice.property.RedisNodeChannelProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * 다른 노드로 envelope 하나를 보내고 결과(미전달 receiverId)를 받기까지의 왕복 지연 (전송 방식별).
+ * HTTP: InternalMessageClient -> 로컬 HttpServer (바이너리 envelope 디코딩 후 응답)
+ * REDIS: RedisNodeChannelTransport 두 개 (보내는 노드 / 받는 노드) 가 node:{serverAddress} 채널로 주고받음
+ * 받는 쪽의 세션 전달은 빈 fanout 으로 대체해 전송 경로만 잰다.
+ *
+ * 로컬 Redis 필요 (-Dredis.host / -Dredis.port, 기본 localhost:6379).
+ * ./gradlew jmh -Pjmh.includes=DeliveryTransportBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DeliveryTransportBenchmark {
+
+    private static final String SENDER = "bench-sender:8081";
+    private static final String RECEIVER = "bench-receiver:8082";
+
+    @Param({"HTTP", "REDIS"})
+    private MessageForwardProperty.Transport transport;
+
+    /** envelope 하나에 묶인 delivery 수 (ForwardCoalescer window 에 모인 메시지 수) */
+    @Param({"1", "32"})
+    private int deliveries;
+
+    private HttpServer httpServer;
+    private RedissonClient redissonClient;
+    private RedisNodeChannelTransport senderChannel;
+    private RedisNodeChannelTransport receiverChannel;
+    private DeliveryTransport deliveryTransport;
+    private String targetAddress;
+    private DeliveryEnvelope envelope;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<DeliveryEnvelope.Delivery> batch = new ArrayList<>(deliveries);
+        byte[] json = ("{\"messageId\":712345678901234567,\"senderId\":1234,\"chatRoomId\":98765,"
+                + "\"content\":\"안녕하세요 오늘 저녁 같이 드실래요?\",\"sentAt\":\"2025-01-01T12:00:00\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < deliveries; i++) {
+            batch.add(new DeliveryEnvelope.Delivery(712_345_678_901_234_567L + i, 98_765L,
+                    LongStream.rangeClosed(1, 5).toArray(), json, null));
+        }
+        envelope = DeliveryEnvelope.of(batch);
+
+        if (transport == MessageForwardProperty.Transport.HTTP) {
+            setUpHttp();
+        } else {
+            setUpRedis();
+        }
+    }
+
+    private void setUpHttp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        EnvelopeFanout fanout = emptyFanout();
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/internal/message/envelope", exchange -> {
+            DeliveryEnvelope received = DeliveryEnvelopeCodec.decodeBinary(
+                    ByteBuffer.wrap(exchange.getRequestBody().readAllBytes()));
+            byte[] body = objectMapper.writeValueAsBytes(fanout.deliver(received));
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        httpServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        httpServer.start();
+
+        targetAddress = "localhost:" + httpServer.getAddress().getPort();
+        deliveryTransport = new InternalMessageClient(HttpClient.newHttpClient(), objectMapper,
+                new DeliveryEnvelopeCodec(objectMapper), new InternalHttpClientProperty(), new MessageForwardProperty());
+    }
+
+    private void setUpRedis() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + System.getProperty("redis.host", "localhost")
+                + ":" + Integer.getInteger("redis.port", 6379));
+        redissonClient = Redisson.create(config);
+
+        RedisCircuitBreaker redisCircuitBreaker =
+                new RedisCircuitBreaker(new RedisCircuitBreakerProperty(), new SimpleMeterRegistry());
+        senderChannel = new RedisNodeChannelTransport(redissonClient, fixedAddress(SENDER), emptyFanout(),
+                redisCircuitBreaker, new RedisNodeChannelProperty());
+        receiverChannel = new RedisNodeChannelTransport(redissonClient, fixedAddress(RECEIVER), emptyFanout(),
+                redisCircuitBreaker, new RedisNodeChannelProperty());
+        senderChannel.subscribe();
+        receiverChannel.subscribe();
+
+        targetAddress = RECEIVER;
+        deliveryTransport = senderChannel;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        if (redissonClient != null) {
+            senderChannel.unsubscribe();
+            receiverChannel.unsubscribe();
+            redissonClient.shutdown();
+        }
+    }
+
+    @Benchmark
+    public long[][] roundTrip() throws Exception {
+        return deliveryTransport.send(targetAddress, envelope).get(5, TimeUnit.SECONDS);
+    }
+
+    /** 세션 전달 없이 모두 전달된 것으로 응답 */
+    private static EnvelopeFanout emptyFanout() {
+        return new EnvelopeFanout(null) {
+            @Override
+            public long[][] deliver(DeliveryEnvelope envelope) {
+                long[][] notConnected = new long[envelope.deliveries().size()][];
+                for (int i = 0; i < notConnected.length; i++) {
+                    notConnected[i] = new long[0];
+                }
+                return notConnected;
+            }
+        };
+    }
+
+    private static ServerInfoProvider fixedAddress(String address) {
+        return new ServerInfoProvider() {
+            @Override
+            public String getServerAddress() {
+                return address;
+            }
+        };
+    }
+}
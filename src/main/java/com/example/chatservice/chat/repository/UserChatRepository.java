@@ -35,6 +35,12 @@ public interface UserChatRepository extends JpaRepository<UserChat, Long> {
     @Query("SELECT uc FROM UserChat uc JOIN FETCH uc.user WHERE uc.chatRoom.id = :chatRoomId AND uc.leavedAt IS NULL")
     List<UserChat> findActiveByChatRoomWithUser(@Param("chatRoomId") Long chatRoomId);
 
+    @Query("SELECT uc.user.id FROM UserChat uc WHERE uc.chatRoom.id = :chatRoomId AND uc.leavedAt IS NULL")
+    List<Long> findActiveUserIdsByChatRoomId(@Param("chatRoomId") Long chatRoomId);
+
+    @Query("SELECT uc.chatRoom.id FROM UserChat uc WHERE uc.user.id = :userId AND uc.leavedAt IS NULL")
+    List<Long> findActiveChatRoomIdsByUserId(@Param("userId") Long userId);
+
     @Query("SELECT uc FROM UserChat uc WHERE uc.user.id = :userId ORDER BY uc.lastMessageId DESC")
     List<UserChat> findByUserIdOrderByLastMessageIdDesc(@Param("userId") Long userId);
 
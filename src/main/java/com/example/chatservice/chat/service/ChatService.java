@@ -38,6 +38,7 @@ public class ChatService {
     private final ReadStatusRepository readStatusRepository;
     private final MessageRepository messageRepository;
     private final ReadStatusService readStatusService;
+    private final RoomMembershipNotifier roomMembershipNotifier;
 
     @Transactional
     public ChatResponse createChatRoom(Long currentUserId, ChatRequest chatRequest) {
@@ -90,6 +91,8 @@ public class ChatService {
                 readStatusService.getOrCreateReadStatus(user, chatRoom);
             }
 
+            // 접속 중인 참여자의 노드 로컬 인덱스에 새 방 반영
+            roomMembershipNotifier.joinedAfterCommit(chatRoom.getId(), uniqueUserIds);
         }
 
         return new ChatResponse(chatRoom.getId(), chatRoom.getType());
@@ -226,6 +229,8 @@ public class ChatService {
 
         // ReadStatus도 생성 (채팅방 참여 시 읽음 상태 초기화)
         readStatusService.getOrCreateReadStatus(user, chatRoom);
+
+        roomMembershipNotifier.joinedAfterCommit(chatId, List.of(userId));
     }
 /**
     // @ExceptionHandler(RuntimeException.class)
@@ -245,6 +250,8 @@ public class ChatService {
 
         userChat.leaveChatRoom();
         chatKeyUpdate(chatRoom);
+
+        roomMembershipNotifier.leftAfterCommit(chatRoomId, currentUserId);
     }
 
     private void chatKeyUpdate(ChatRoom chatRoom) {
@@ -0,0 +1,101 @@
+package com.example.chatservice.chat.service;
+
+import com.example.chatservice.common.LocalRoomIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅방 가입/나가기를 모든 노드의 LocalRoomIndex 에 전파 (Redis pub/sub).
+ * HTTP 요청을 받은 노드와 유저의 WebSocket 이 붙은 노드가 다를 수 있기 때문에 로컬 반영만으로는 부족하다.
+ * payload: "JOIN|LEAVE:{chatRoomId}:{userId},{userId}..."
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomMembershipNotifier {
+
+    private static final String TOPIC = "room-membership";
+    private static final String JOIN = "JOIN";
+    private static final String LEAVE = "LEAVE";
+
+    private final RedissonClient redissonClient;
+    private final LocalRoomIndex localRoomIndex;
+
+    private RTopic topic;
+    private int listenerId;
+
+    @PostConstruct
+    void init() {
+        topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, payload) -> apply(payload));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        topic.removeListener(listenerId);
+    }
+
+    public void joinedAfterCommit(Long chatRoomId, Collection<Long> userIds) {
+        publishAfterCommit(JOIN, chatRoomId, userIds);
+    }
+
+    public void leftAfterCommit(Long chatRoomId, Long userId) {
+        publishAfterCommit(LEAVE, chatRoomId, List.of(userId));
+    }
+
+    private void publishAfterCommit(String type, Long chatRoomId, Collection<Long> userIds) {
+        String payload = type + ":" + chatRoomId + ":" +
+                userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(payload);
+            return;
+        }
+        // 롤백된 가입/나가기가 인덱스에 반영되지 않도록 커밋 후 전파
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        publish(payload);
+                    }
+                }
+        );
+    }
+
+    private void publish(String payload) {
+        try {
+            topic.publish(payload);
+        } catch (Exception e) {
+            // 전파 실패 시 해당 유저의 다음 접속 때 DB 에서 다시 읽어 옴
+            log.error("Failed to publish room membership change {}: {}", payload, e.getMessage());
+        }
+    }
+
+    void apply(String payload) {
+        try {
+            String[] parts = payload.split(":", 3);
+            Long chatRoomId = Long.parseLong(parts[1]);
+            for (String userId : parts[2].split(",")) {
+                if (JOIN.equals(parts[0])) {
+                    localRoomIndex.subscribe(Long.parseLong(userId), chatRoomId);
+                } else if (LEAVE.equals(parts[0])) {
+                    localRoomIndex.unsubscribe(Long.parseLong(userId), chatRoomId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed room membership payload: {}", payload);
+        }
+    }
+}
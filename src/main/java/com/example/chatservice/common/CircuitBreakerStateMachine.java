@@ -0,0 +1,130 @@
+package com.example.chatservice.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * CLOSED -> OPEN -> HALF_OPEN -> CLOSED 상태 전이 (RedisCircuitBreaker, ForwardCircuitBreaker 의 대상 노드별 breaker 공통).
+ * 연속 실패가 failureThreshold 에 닿으면 OPEN, openMillis 가 지나면 HALF_OPEN 에서 시험 요청 하나만 통과시키고
+ * 그 결과로 CLOSED / OPEN 을 정한다. 설정값은 매번 supplier 로 읽으므로 런타임에 바뀐 값도 반영된다.
+ * allowRequest() 는 상태가 바뀔 때마다 올라가는 세대 번호를 permit 으로 돌려주고, 결과는 그 permit 과 함께 알린다 -
+ * 이전 상태에서 통과한 느린 호출의 결과가 시험 요청 대신 HALF_OPEN 을 닫거나 새로 연 OPEN 을 연장하지 않도록.
+ * 전이 카운터는 호출 쪽이 미리 등록해서 넘긴다 (transitionCounters) - 전이 때마다 registry 를 조회하지 않도록
+ */
+public class CircuitBreakerStateMachine {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    /** allowRequest() 가 요청을 막았을 때의 permit */
+    public static final long NO_PERMIT = -1L;
+
+    private final IntSupplier failureThreshold;
+    private final LongSupplier openMillis;
+    private final Map<State, Counter> transitionCounters;
+    private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, 0L));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAtNanos;
+
+    public CircuitBreakerStateMachine(IntSupplier failureThreshold, LongSupplier openMillis,
+                                      Map<State, Counter> transitionCounters) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.transitionCounters = transitionCounters;
+    }
+
+    /**
+     * 상태별 전이 카운터를 한 번에 등록 (name{state=closed|half_open|open})
+     */
+    public static Map<State, Counter> transitionCounters(MeterRegistry meterRegistry, String name) {
+        Map<State, Counter> counters = new EnumMap<>(State.class);
+        for (State state : State.values()) {
+            counters.put(state, Counter.builder(name)
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        return counters;
+    }
+
+    public State getState() {
+        return phase.get().state();
+    }
+
+    public int consecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * @return 통과면 이번 상태의 permit (onSuccess / onFailure 에 그대로 넘김), 막혔으면 NO_PERMIT
+     */
+    public long allowRequest() {
+        Phase current = phase.get();
+        if (current.state() == State.CLOSED) {
+            return current.generation();
+        }
+        if (current.state() == State.OPEN
+                && System.nanoTime() - openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(openMillis.getAsLong())) {
+            transition(current, State.HALF_OPEN);
+            current = phase.get();
+        }
+        // HALF_OPEN 에서는 한 번에 시험 요청 하나만 통과
+        if (current.state() == State.HALF_OPEN && current.trialInFlight().compareAndSet(false, true)) {
+            return current.generation();
+        }
+        return NO_PERMIT;
+    }
+
+    /**
+     * @param permit 이 호출이 통과할 때 allowRequest() 가 준 값 - 그 뒤 상태가 바뀌었으면 결과를 무시
+     * @return 이번 성공으로 HALF_OPEN -> CLOSED 가 됐으면 true (복구 처리는 호출 쪽에서)
+     */
+    public boolean onSuccess(long permit) {
+        Phase current = phase.get();
+        if (permit != current.generation()) {
+            return false;
+        }
+        consecutiveFailures.set(0);
+        return current.state() == State.HALF_OPEN && transition(current, State.CLOSED);
+    }
+
+    /**
+     * @param permit 이 호출이 통과할 때 allowRequest() 가 준 값 - 그 뒤 상태가 바뀌었으면 결과를 무시
+     * @return 이번 실패로 OPEN 이 됐으면 true
+     */
+    public boolean onFailure(long permit) {
+        Phase current = phase.get();
+        if (permit != current.generation()) {
+            return false;
+        }
+        if (current.state() == State.HALF_OPEN
+                || consecutiveFailures.incrementAndGet() >= failureThreshold.getAsInt()) {
+            openedAtNanos = System.nanoTime();
+            return transition(current, State.OPEN);
+        }
+        return false;
+    }
+
+    private boolean transition(Phase from, State to) {
+        if (phase.compareAndSet(from, new Phase(to, from.generation() + 1))) {
+            transitionCounters.get(to).increment();
+            return true;
+        }
+        return false;
+    }
+
+    /** 상태 + 세대. 상태가 바뀔 때마다 새 인스턴스라 HALF_OPEN 의 시험 요청 플래그도 전이마다 새로 시작한다 */
+    private record Phase(State state, long generation, AtomicBoolean trialInFlight) {
+
+        Phase(State state, long generation) {
+            this(state, generation, new AtomicBoolean(false));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.chat.repository.UserChatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 이 노드에 접속한 유저 기준의 chatRoomId -> 로컬 유저 인덱스.
+ * Kafka 메시지 하나마다 참여자 DB 조회 + Redis multiGet 을 하던 팬아웃을 메모리 조회 한 번으로 대체한다.
+ *
+ * 접속(첫 디바이스) 시 유저의 참여 방 목록을 한 번 읽어 오고, 끊길 때(마지막 디바이스) 제거한다.
+ * 유저별 상태(디바이스 세션 / 방 목록) 변경은 모두 userEntries.compute 안에서 하므로,
+ * 재접속과 이전 세션 종료가 겹쳐도 "마지막 디바이스인가" 판단과 제거가 한 번에 일어난다.
+ * 가입/나가기는 RoomMembershipNotifier 가 모든 노드에 전파하며, 이 노드에 없는 유저에 대한 변경은 무시된다.
+ * 방 목록 조회가 실패해도 같은 유저의 다른 디바이스가 접속 중이면 entry 를 유지하고 RELOAD_DELAY_MILLIS 뒤에 다시 조회한다.
+ */
+@Slf4j
+@Component
+public class LocalRoomIndex {
+
+    private static final long RELOAD_DELAY_MILLIS = 1_000;
+
+    private final Map<Long, Set<Long>> roomToUsers = new ConcurrentHashMap<>();
+    private final Map<Long, UserEntry> userEntries = new ConcurrentHashMap<>();
+
+    private final UserChatRepository userChatRepository;
+    private final ScheduledExecutorService reloadScheduler;
+
+    public LocalRoomIndex(UserChatRepository userChatRepository,
+                          @Qualifier("retryScheduler") ScheduledExecutorService reloadScheduler) {
+        this.userChatRepository = userChatRepository;
+        this.reloadScheduler = reloadScheduler;
+    }
+
+    /**
+     * 디바이스 세션 하나의 접속. 방 목록을 아직 읽지 않은 유저면 이 호출이 DB 에서 읽어 인덱싱한다.
+     * 조회가 실패하면 이 세션만 빼고 예외를 다시 던진다. 다른 디바이스가 남아 있으면 entry 는 그대로 두고 나중에 다시 조회하며,
+     * 그 전에 접속하는 디바이스가 있으면 그 디바이스가 조회한다.
+     */
+    public void onUserConnected(Long userId, String sessionId) {
+        AtomicBoolean loader = new AtomicBoolean(false);
+        UserEntry entry = userEntries.compute(userId, (id, current) -> {
+            UserEntry e = current != null ? current : new UserEntry();
+            e.sessionIds.add(sessionId);
+            if (!e.loaded && !e.loading) {
+                e.loading = true;
+                loader.set(true);
+            }
+            return e;
+        });
+        if (!loader.get()) {
+            return; // 같은 유저의 다른 디바이스가 이미 인덱싱함 (또는 인덱싱 중)
+        }
+
+        try {
+            load(userId, entry);
+        } catch (RuntimeException e) {
+            if (releaseLoader(userId, entry, sessionId)) {
+                scheduleReload(userId, entry);
+            }
+            throw e;
+        }
+    }
+
+    /** 디바이스 세션 하나의 종료. 마지막 디바이스면 유저의 방 인덱스를 모두 제거 (같은 세션으로 여러 번 불려도 안전) */
+    public void onUserDisconnected(Long userId, String sessionId) {
+        userEntries.computeIfPresent(userId, (id, entry) -> removeSession(userId, entry, sessionId));
+    }
+
+    /** 가입 - 이 노드에 접속 중인 유저일 때만 반영 */
+    public void subscribe(Long userId, Long chatRoomId) {
+        userEntries.computeIfPresent(userId, (id, entry) -> {
+            addToRoom(userId, entry, chatRoomId);
+            return entry;
+        });
+    }
+
+    /** 나가기 - 이 노드에 접속 중인 유저일 때만 반영 */
+    public void unsubscribe(Long userId, Long chatRoomId) {
+        userEntries.computeIfPresent(userId, (id, entry) -> {
+            if (entry.rooms.remove(chatRoomId)) {
+                removeFromRoom(chatRoomId, userId);
+            }
+            return entry;
+        });
+    }
+
+    /** 이 노드에 접속 중인 방 참여자. 없으면 빈 set (할당 없음) */
+    public Collection<Long> getLocalUsers(Long chatRoomId) {
+        Set<Long> users = roomToUsers.get(chatRoomId);
+        return users != null ? users : Set.of();
+    }
+
+    public boolean isSubscribed(Long userId, Long chatRoomId) {
+        UserEntry entry = userEntries.get(userId);
+        return entry != null && entry.rooms.contains(chatRoomId);
+    }
+
+    public int getIndexedRoomCount() {
+        return roomToUsers.size();
+    }
+
+    /** 조회는 compute 밖에서 - 조회 중에 도착한 가입/나가기 이벤트는 entry 에 바로 반영된다 */
+    private void load(Long userId, UserEntry entry) {
+        List<Long> chatRoomIds = userChatRepository.findActiveChatRoomIdsByUserId(userId);
+
+        userEntries.computeIfPresent(userId, (id, current) -> {
+            if (current != entry) {
+                return current; // 조회 중에 모든 디바이스가 끊김
+            }
+            for (Long chatRoomId : chatRoomIds) {
+                addToRoom(userId, current, chatRoomId);
+            }
+            current.loading = false;
+            current.loaded = true;
+            return current;
+        });
+        log.debug("Indexed user {} in {} rooms", userId, entry.rooms.size());
+    }
+
+    /**
+     * 조회 실패 후 조회 권한을 내려놓는다. failedSessionId 가 있으면 그 세션도 뺀다
+     * @return 아직 접속 중인 디바이스가 있어 다시 조회해야 하면 true
+     */
+    private boolean releaseLoader(Long userId, UserEntry entry, String failedSessionId) {
+        AtomicBoolean reload = new AtomicBoolean(false);
+        userEntries.computeIfPresent(userId, (id, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            current.loading = false;
+            UserEntry remaining = failedSessionId != null ? removeSession(userId, current, failedSessionId) : current;
+            reload.set(remaining != null);
+            return remaining;
+        });
+        return reload.get();
+    }
+
+    private void scheduleReload(Long userId, UserEntry entry) {
+        // DB 조회가 스케줄러 스레드를 잡지 않도록 실행은 virtual thread 에서
+        Runnable reload = () -> Thread.ofVirtual().name("room-index-reload").start(() -> reload(userId, entry));
+        reloadScheduler.schedule(reload, RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void reload(Long userId, UserEntry entry) {
+        AtomicBoolean loader = new AtomicBoolean(false);
+        userEntries.computeIfPresent(userId, (id, current) -> {
+            if (current == entry && !current.loaded && !current.loading) {
+                current.loading = true;
+                loader.set(true);
+            }
+            return current;
+        });
+        if (!loader.get()) {
+            return; // 그 사이 모든 디바이스가 끊겼거나 새로 접속한 디바이스가 조회함
+        }
+
+        try {
+            load(userId, entry);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload rooms of user {}, retrying in {}ms: {}", userId, RELOAD_DELAY_MILLIS, e.getMessage());
+            if (releaseLoader(userId, entry, null)) {
+                scheduleReload(userId, entry);
+            }
+        }
+    }
+
+    /** userEntries.compute 안에서만 호출. 남은 세션이 없으면 null (entry 제거) */
+    private UserEntry removeSession(Long userId, UserEntry entry, String sessionId) {
+        entry.sessionIds.remove(sessionId);
+        if (!entry.sessionIds.isEmpty()) {
+            return entry;
+        }
+        for (Long chatRoomId : entry.rooms) {
+            removeFromRoom(chatRoomId, userId);
+        }
+        return null;
+    }
+
+    private void addToRoom(Long userId, UserEntry entry, Long chatRoomId) {
+        entry.rooms.add(chatRoomId);
+        roomToUsers.compute(chatRoomId, (id, users) -> {
+            Set<Long> members = users != null ? users : ConcurrentHashMap.newKeySet();
+            members.add(userId);
+            return members;
+        });
+    }
+
+    private void removeFromRoom(Long chatRoomId, Long userId) {
+        roomToUsers.computeIfPresent(chatRoomId, (id, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    /** 유저 하나의 로컬 상태. sessionIds / loaded / loading 은 userEntries.compute 안에서만 읽고 쓴다 */
+    private static final class UserEntry {
+
+        private final Set<String> sessionIds = new HashSet<>();
+        /** isSubscribed 가 compute 밖에서 읽으므로 concurrent set */
+        private final Set<Long> rooms = ConcurrentHashMap.newKeySet();
+        private boolean loaded;
+        private boolean loading;
+    }
+}
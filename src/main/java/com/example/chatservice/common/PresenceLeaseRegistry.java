@@ -0,0 +1,212 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.PresenceLeaseProperty;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드별 presence lease.
+ * - presence:node:{server}        : 노드 heartbeat 키 (TTL = leaseTtlSeconds, renewIntervalSeconds 마다 갱신)
+ * - presence:node:{server}:users  : 그 노드에 디바이스가 하나라도 있는 유저 (SessionManager 의 Lua 스크립트가 관리)
+ * - presence:nodes                : lease 를 등록한 노드 목록
+ *
+ * 노드가 removeSession 없이 죽으면 user:{id} 가 죽은 주소를 계속 가리킨다. 조회 쪽은 isAlive 로 걸러서
+ * 죽은 주소로 포워딩하지 않고, 처음 발견한 노드 하나가 그 노드의 유저 set 을 chunk 단위로 한 번에 정리한다.
+ * 생존 확인은 갱신 주기마다 MGET 한 번으로 하고, 조회 경로에서는 로컬 스냅샷만 본다 (추가 왕복 없음).
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(PresenceLeaseProperty.class)
+public class PresenceLeaseRegistry {
+
+    private static final String NODES_KEY = "presence:nodes";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ServerInfoProvider serverInfoProvider;
+    private final ScheduledExecutorService leaseScheduler;
+    private final PresenceLeaseProperty leaseProperty;
+
+    // lease 가 사라진 노드 -> 처음 발견한 시각. 정리 후 presence:nodes 에서 빠져도 retention 동안은 죽은 것으로 취급
+    private final Map<String, Long> deadNodes = new ConcurrentHashMap<>();
+    // 마지막 확인에서 lease 가 살아 있던 노드 (자신 포함). Redis 장애 중에도 직전 스냅샷을 그대로 씀
+    private volatile Set<String> liveNodes = Set.of();
+    private ScheduledFuture<?> renewTask;
+    // Redis 장애 뒤에는 다른 노드도 lease 를 갱신하지 못했으므로, 그들이 다시 갱신할 시간(lease TTL)만큼 정리를 미룸
+    private volatile long checkNodesAfter;
+
+    public PresenceLeaseRegistry(RedisTemplate<String, Object> redisTemplate,
+                                 ServerInfoProvider serverInfoProvider,
+                                 @Qualifier("presenceLeaseScheduler") ScheduledExecutorService leaseScheduler,
+                                 PresenceLeaseProperty leaseProperty) {
+        this.redisTemplate = redisTemplate;
+        this.serverInfoProvider = serverInfoProvider;
+        this.leaseScheduler = leaseScheduler;
+        this.leaseProperty = leaseProperty;
+    }
+
+    public static String leaseKey(String serverAddress) {
+        return "presence:node:" + serverAddress;
+    }
+
+    public static String nodeUsersKey(String serverAddress) {
+        return "presence:node:" + serverAddress + ":users";
+    }
+
+    @PostConstruct
+    void start() {
+        String self = serverInfoProvider.getServerAddress();
+        try {
+            // 같은 주소로 재시작한 경우 이전 프로세스의 세션은 모두 사라졌으므로 먼저 정리
+            sweepUsers(self);
+            renew();
+        } catch (Exception e) {
+            log.error("Failed to register presence lease for {}: {}", self, e.getMessage());
+        }
+        long interval = leaseProperty.getRenewIntervalSeconds();
+        renewTask = leaseScheduler.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (renewTask != null) {
+            renewTask.cancel(false);
+        }
+    }
+
+    /**
+     * 조회한 라우팅의 노드가 살아 있는지 (로컬 스냅샷). 모르는 노드는 방금 뜬 노드일 수 있으므로 살아 있는 것으로 본다.
+     */
+    public boolean isAlive(String serverAddress) {
+        return serverAddress.equals(serverInfoProvider.getServerAddress()) || !deadNodes.containsKey(serverAddress);
+    }
+
+    /**
+     * 마지막 확인 시점에 살아 있던 노드 (자신 포함, 로컬 스냅샷). Redis degraded 로 라우팅을 조회할 수 없을 때 전체 노드로 보내는 용도
+     */
+    public Set<String> liveNodes() {
+        Set<String> nodes = liveNodes;
+        return nodes.isEmpty() ? Set.of(serverInfoProvider.getServerAddress()) : nodes;
+    }
+
+    /** drain 으로 presence 를 모두 정리한 뒤 lease 반납 - 다른 노드가 정리할 것이 없음 */
+    public void resign() {
+        stop();
+        String self = serverInfoProvider.getServerAddress();
+        try {
+            redisTemplate.delete(List.of(leaseKey(self), nodeUsersKey(self)));
+            redisTemplate.opsForSet().remove(NODES_KEY, self);
+        } catch (Exception e) {
+            log.error("Failed to resign presence lease of {}: {}", self, e.getMessage());
+        }
+    }
+
+    private void tick() {
+        try {
+            renew();
+            if (System.currentTimeMillis() >= checkNodesAfter) {
+                checkNodes();
+            }
+        } catch (Exception e) {
+            // 갱신 실패가 반복되면 lease 가 만료되어 다른 노드가 이 노드의 유저를 정리함
+            log.error("Presence lease tick failed: {}", e.getMessage());
+            checkNodesAfter = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseProperty.getLeaseTtlSeconds());
+        }
+    }
+
+    private void renew() {
+        String self = serverInfoProvider.getServerAddress();
+        redisTemplate.opsForValue().set(leaseKey(self), String.valueOf(System.currentTimeMillis()),
+                Duration.ofSeconds(leaseProperty.getLeaseTtlSeconds()));
+        redisTemplate.opsForSet().add(NODES_KEY, self);
+    }
+
+    private void checkNodes() {
+        String self = serverInfoProvider.getServerAddress();
+        Set<Object> registered = redisTemplate.opsForSet().members(NODES_KEY);
+
+        Set<String> candidates = new LinkedHashSet<>(deadNodes.keySet());
+        if (registered != null) {
+            registered.forEach(node -> candidates.add((String) node));
+        }
+        candidates.remove(self);
+        if (candidates.isEmpty()) {
+            liveNodes = Set.of(self);
+            return;
+        }
+
+        // 노드 수만큼의 EXISTS 대신 MGET 한 번
+        List<String> nodes = new ArrayList<>(candidates);
+        List<Object> leases = redisTemplate.opsForValue().multiGet(nodes.stream().map(PresenceLeaseRegistry::leaseKey).toList());
+        if (leases == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Set<String> live = new LinkedHashSet<>();
+        live.add(self);
+        for (int i = 0; i < nodes.size(); i++) {
+            String node = nodes.get(i);
+            if (leases.get(i) != null) {
+                deadNodes.remove(node); // 같은 주소로 다시 떴음
+                live.add(node);
+                continue;
+            }
+            if (deadNodes.putIfAbsent(node, now) == null) {
+                log.warn("Presence lease of node {} expired", node);
+            }
+            if (registered != null && registered.contains(node)) {
+                sweep(node);
+            }
+        }
+        liveNodes = Set.copyOf(live);
+        deadNodes.values().removeIf(since ->
+                now - since > TimeUnit.SECONDS.toMillis(leaseProperty.getDeadNodeRetentionSeconds()));
+    }
+
+    /** 죽은 노드 정리 - 여러 노드가 동시에 발견해도 락을 잡은 한 노드만 수행 */
+    private void sweep(String deadNode) {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent("presence:sweep:" + deadNode,
+                serverInfoProvider.getServerAddress(), Duration.ofSeconds(leaseProperty.getLeaseTtlSeconds()));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        int swept = sweepUsers(deadNode);
+        redisTemplate.opsForSet().remove(NODES_KEY, deadNode);
+        log.warn("Swept presence of {} users on dead node {}", swept, deadNode);
+    }
+
+    /**
+     * 노드의 유저 set 을 chunk 단위로 꺼내(SPOP) 그 노드의 디바이스 수를 지우고 라우팅을 남은 노드로 넘기거나 삭제
+     */
+    private int sweepUsers(String node) {
+        String usersKey = nodeUsersKey(node);
+        int chunkSize = leaseProperty.getSweepChunkSize();
+        int swept = 0;
+        List<Object> userIds;
+        while ((userIds = redisTemplate.opsForSet().pop(usersKey, chunkSize)) != null && !userIds.isEmpty()) {
+            List<String> keys = new ArrayList<>(userIds.size() * 2);
+            for (Object userId : userIds) {
+                keys.addAll(SessionManager.presenceKeys(Long.valueOf((String) userId)));
+            }
+            Long released = redisTemplate.execute(SessionManager.RELEASE_SERVER_SCRIPT, keys, node);
+            swept += released != null ? released.intValue() : 0;
+        }
+        return swept;
+    }
+}
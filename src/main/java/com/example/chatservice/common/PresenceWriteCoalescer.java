@@ -0,0 +1,260 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.PresenceWriteProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 접속/해제 presence 쓰기를 몇 ms 동안 모아 Lua 스크립트 한 번(왕복 한 번)으로 반영.
+ * 노드 재시작 후 재접속이 몰릴 때 핸드셰이크마다 Redis 왕복을 기다리지 않도록 핸드셰이크 스레드는 큐에 넣고 바로 돌아간다.
+ * 로컬 세션은 이미 등록된 상태라 이 노드로의 전달은 바로 되고, 다른 노드에서 보이는 시점만 최대 maxDelayMillis + 왕복만큼 늦다.
+ *
+ * 한 스레드가 들어온 순서대로 반영하므로 같은 유저의 접속 -> 해제 순서가 뒤집히지 않는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(PresenceWriteProperty.class)
+public class PresenceWriteCoalescer {
+
+    /** 종료 시 쓰기 스레드가 진행 중인 배치를 끝낼 때까지 기다리는 상한 */
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    /**
+     * KEYS[1]=presence:node:{server}:users, KEYS[2n]=user:{id}, KEYS[2n+1]=user:{id}:devices
+     * ARGV[1]=serverAddress, ARGV[n+1]="C:{userId}" (접속) | "D:{userId}" (해제) | "S:{userId}:{디바이스 수}" (재동기화)
+     *
+     * 접속: 서버별 디바이스 수 +1, 라우팅 키는 현재 서버로, 노드 유저 set 에 추가
+     * 해제: 서버별 디바이스 수 -1. 남은 디바이스가 없을 때만 라우팅 키 제거,
+     *       이 서버의 마지막 디바이스인데 다른 서버에 디바이스가 남아 있으면 라우팅을 그 서버로 넘김
+     * 재동기화: Redis 장애 후 로컬 세션 기준으로 서버별 디바이스 수를 덮어씀 (멱등)
+     */
+    static final RedisScript<Long> PRESENCE_BATCH_SCRIPT = new DefaultRedisScript<>(
+            "local server = ARGV[1] " +
+            "for i = 2, #ARGV do " +
+            "  local route = KEYS[(i - 1) * 2] " +
+            "  local devices = KEYS[(i - 1) * 2 + 1] " +
+            "  local op = string.sub(ARGV[i], 1, 1) " +
+            "  local userId = string.sub(ARGV[i], 3) " +
+            "  if op == 'S' then " +
+            "    local sep = string.find(userId, ':', 1, true) " +
+            "    redis.call('HSET', devices, server, string.sub(userId, sep + 1)) " +
+            "    userId = string.sub(userId, 1, sep - 1) " +
+            "    redis.call('SET', route, server) " +
+            "    redis.call('SADD', KEYS[1], userId) " +
+            "  elseif op == 'C' then " +
+            "    redis.call('HINCRBY', devices, server, 1) " +
+            "    redis.call('SET', route, server) " +
+            "    redis.call('SADD', KEYS[1], userId) " +
+            "  else " +
+            "    local n = redis.call('HINCRBY', devices, server, -1) " +
+            "    if n <= 0 then redis.call('HDEL', devices, server) redis.call('SREM', KEYS[1], userId) end " +
+            "    local counts = redis.call('HGETALL', devices) " +
+            "    if #counts == 0 then redis.call('DEL', route) " +
+            "    elseif n <= 0 and redis.call('GET', route) == server then redis.call('SET', route, counts[1]) end " +
+            "  end " +
+            "end " +
+            "return #ARGV - 1", Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ServerInfoProvider serverInfoProvider;
+    private final UserRouteCache userRouteCache;
+    private final ExecutorService writerExecutor;
+    private final PresenceWriteProperty writeProperty;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+
+    private final BlockingQueue<PresenceWrite> queue;
+    private final DistributionSummary batchSize;
+    private final Counter overflowCounter;
+    private volatile boolean running = true;
+
+    public PresenceWriteCoalescer(RedisTemplate<String, Object> redisTemplate,
+                                  ServerInfoProvider serverInfoProvider,
+                                  UserRouteCache userRouteCache,
+                                  @Qualifier("presenceWriteExecutor") ExecutorService writerExecutor,
+                                  PresenceWriteProperty writeProperty,
+                                  RedisCircuitBreaker redisCircuitBreaker,
+                                  MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.serverInfoProvider = serverInfoProvider;
+        this.userRouteCache = userRouteCache;
+        this.writerExecutor = writerExecutor;
+        this.writeProperty = writeProperty;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.queue = new ArrayBlockingQueue<>(writeProperty.getQueueCapacity());
+
+        this.batchSize = DistributionSummary.builder("chat.presence.write.batch.size")
+                .description("Connect/disconnect presence updates applied per Redis round trip")
+                .register(meterRegistry);
+        Gauge.builder("chat.presence.write.queued", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("chat.presence.write.overflow")
+                .description("Presence updates written directly because the coalescing queue stayed full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (writeProperty.isCoalesceEnabled()) {
+            writerExecutor.submit(this::run);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writerExecutor.shutdownNow();
+        try {
+            // 쓰기 스레드가 들고 있던 배치를 먼저 반영해야 남은 큐의 쓰기와 Redis 에 도착하는 순서가 뒤바뀌지 않음
+            if (!writerExecutor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Presence writer did not stop within {}s; flushing remaining updates anyway", STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushNow();
+    }
+
+    public CompletableFuture<Void> connect(Long userId) {
+        return submit(new PresenceWrite(Op.CONNECT, userId, 0));
+    }
+
+    public CompletableFuture<Void> disconnect(Long userId) {
+        return submit(new PresenceWrite(Op.DISCONNECT, userId, 0));
+    }
+
+    /** Redis 복구 후 이 서버의 디바이스 수를 로컬 세션 기준으로 다시 씀 (장애 중 유실된 접속 반영) */
+    public CompletableFuture<Void> resync(Long userId, int deviceCount) {
+        return submit(new PresenceWrite(Op.RESYNC, userId, deviceCount));
+    }
+
+    /** 큐에 남은 쓰기를 호출 스레드에서 바로 반영 (drain 시 presence 일괄 정리 전) */
+    public void flushNow() {
+        List<PresenceWrite> batch = new ArrayList<>();
+        while (queue.drainTo(batch, writeProperty.getMaxBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private CompletableFuture<Void> submit(PresenceWrite write) {
+        if (!writeProperty.isCoalesceEnabled() || !running) {
+            flush(List.of(write));
+            return write.done;
+        }
+        try {
+            if (queue.offer(write, writeProperty.getOfferTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                return write.done;
+            }
+            // 쓰기 스레드가 크게 밀린 상태 - 핸드셰이크를 계속 막는 대신 바로 씀.
+            // 큐에 남은 같은 유저의 이전 쓰기보다 먼저 반영될 수 있으므로 overflow 카운터로 감시하고 queueCapacity 를 조정한다
+            overflowCounter.increment();
+            log.warn("Presence write queue full for {}ms, writing {} of user {} directly",
+                    writeProperty.getOfferTimeoutMillis(), write.op(), write.userId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(List.of(write));
+        return write.done;
+    }
+
+    private void run() {
+        int maxBatchSize = writeProperty.getMaxBatchSize();
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(writeProperty.getMaxDelayMillis());
+        List<PresenceWrite> batch = new ArrayList<>(maxBatchSize);
+
+        boolean interrupted = false;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                // 첫 요청 이후 maxDelay 동안 뒤따르는 요청을 모음 (이미 밀려 있으면 바로 채워짐)
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PresenceWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 종료 - 들고 있던 배치는 인터럽트 플래그 없이 반영해야 Redis 호출이 인터럽트로 실패하지 않음
+                interrupted = true;
+                running = false;
+            }
+            flush(batch);
+            batch.clear();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<PresenceWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        String serverAddress = serverInfoProvider.getServerAddress();
+        List<String> keys = new ArrayList<>(batch.size() * 2 + 1);
+        Object[] args = new Object[batch.size() + 1];
+        Set<Long> userIds = new LinkedHashSet<>();
+
+        keys.add(PresenceLeaseRegistry.nodeUsersKey(serverAddress));
+        args[0] = serverAddress;
+        for (int i = 0; i < batch.size(); i++) {
+            PresenceWrite write = batch.get(i);
+            keys.add("user:" + write.userId());
+            keys.add("user:" + write.userId() + ":devices");
+            args[i + 1] = switch (write.op()) {
+                case CONNECT -> "C:" + write.userId();
+                case DISCONNECT -> "D:" + write.userId();
+                case RESYNC -> "S:" + write.userId() + ":" + write.deviceCount();
+            };
+            userIds.add(write.userId());
+        }
+
+        // Redis 실패해도 로컬 세션은 유지 (서버 간 라우팅만 실패) - 복구 시 SessionManager 가 재동기화
+        redisCircuitBreaker.run(() -> {
+            redisTemplate.execute(PRESENCE_BATCH_SCRIPT, keys, args);
+            batchSize.record(batch.size());
+            // 다른 노드에 캐시된 이전 라우팅 제거 (배치당 publish 한 번)
+            userRouteCache.invalidateEverywhere(userIds);
+            batch.forEach(write -> write.done.complete(null));
+        }, () -> {
+            log.warn("Dropped {} presence updates while Redis is unavailable", batch.size());
+            IllegalStateException unavailable = new IllegalStateException("Redis unavailable");
+            batch.forEach(write -> write.done.completeExceptionally(unavailable));
+        });
+    }
+
+    private enum Op { CONNECT, DISCONNECT, RESYNC }
+
+    private record PresenceWrite(Op op, Long userId, int deviceCount, CompletableFuture<Void> done) {
+        PresenceWrite(Op op, Long userId, int deviceCount) {
+            this(op, userId, deviceCount, new CompletableFuture<>());
+        }
+    }
+}
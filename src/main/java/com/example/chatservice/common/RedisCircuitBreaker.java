@@ -0,0 +1,142 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 전송 경로의 Redis 호출(라우팅 조회, 핫룸 카운터, pending flush, presence 쓰기)을 감싸는 circuit breaker.
+ * 연속 실패가 쌓이면 OPEN 이 되어 Redis 를 호출하지 않고 바로 fallback 을 쓴다 (degraded 모드):
+ * - 라우팅: 로컬 세션 + Kafka 브로드캐스트로만 전달
+ * - 핫룸 감지: 노드 로컬 카운터
+ * - lastMessageId: 디바운스 없이 바로 DB
+ * openMillis 가 지나면 시험 호출 하나로 복구를 확인하고, 복구되면 등록된 recovery 리스너(presence 재동기화 등)를 실행한다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(RedisCircuitBreakerProperty.class)
+public class RedisCircuitBreaker {
+
+    // breaker 를 끈 상태에서 통과시킨 호출 (상태 머신의 permit 은 0 이상)
+    private static final long DISABLED_PERMIT = -2L;
+
+    private final RedisCircuitBreakerProperty breakerProperty;
+    private final CircuitBreakerStateMachine stateMachine;
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter slowCounter;
+    private final Counter rejectedCounter;
+
+    public RedisCircuitBreaker(RedisCircuitBreakerProperty breakerProperty, MeterRegistry meterRegistry) {
+        this.breakerProperty = breakerProperty;
+        this.stateMachine = new CircuitBreakerStateMachine(
+                breakerProperty::getFailureThreshold,
+                breakerProperty::getOpenMillis,
+                CircuitBreakerStateMachine.transitionCounters(meterRegistry, "chat.redis.breaker.transitions"));
+
+        Gauge.builder("chat.redis.breaker.state", stateMachine, machine -> machine.getState().ordinal())
+                .description("Redis circuit breaker state (0=closed, 1=half-open, 2=open)")
+                .register(meterRegistry);
+        this.successCounter = callCounter(meterRegistry, "success");
+        this.failureCounter = callCounter(meterRegistry, "failure");
+        this.slowCounter = callCounter(meterRegistry, "slow");
+        this.rejectedCounter = callCounter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Redis 호출. OPEN 이거나 호출이 실패하면 fallback 결과를 반환한다 (예외를 던지지 않음)
+     */
+    public <T> T call(Supplier<T> redisCall, Supplier<T> fallback) {
+        long permit = allowRequest();
+        if (permit == CircuitBreakerStateMachine.NO_PERMIT) {
+            rejectedCounter.increment();
+            return fallback.get();
+        }
+        long start = System.nanoTime();
+        try {
+            T result = redisCall.get();
+            onResult(permit, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            log.warn("Redis call failed (state={}): {}", stateMachine.getState(), e.getMessage());
+            onFailure(permit);
+            return fallback.get();
+        }
+    }
+
+    public void run(Runnable redisCall, Runnable fallback) {
+        call(() -> {
+            redisCall.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    /** CLOSED 가 아니면 degraded 모드 */
+    public boolean isDegraded() {
+        return breakerProperty.isEnabled() && stateMachine.getState() != CircuitBreakerStateMachine.State.CLOSED;
+    }
+
+    public CircuitBreakerStateMachine.State getState() {
+        return stateMachine.getState();
+    }
+
+    /** OPEN/HALF_OPEN -> CLOSED 로 돌아올 때 별도 virtual thread 에서 실행 */
+    public void addRecoveryListener(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    /** breaker 를 끈 상태면 상태 머신을 거치지 않음 (결과도 반영하지 않음) */
+    private long allowRequest() {
+        return breakerProperty.isEnabled() ? stateMachine.allowRequest() : DISABLED_PERMIT;
+    }
+
+    private void onResult(long permit, long elapsedNanos) {
+        if (elapsedNanos > TimeUnit.MILLISECONDS.toNanos(breakerProperty.getSlowCallMillis())) {
+            slowCounter.increment();
+            onFailure(permit);
+            return;
+        }
+        successCounter.increment();
+        if (permit != DISABLED_PERMIT && stateMachine.onSuccess(permit)) {
+            log.info("Redis circuit breaker closed - leaving degraded mode");
+            recoveryListeners.forEach(listener -> Thread.ofVirtual().name("redis-recovery").start(() -> {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    log.error("Redis recovery listener failed", e);
+                }
+            }));
+        }
+    }
+
+    private void onFailure(long permit) {
+        failureCounter.increment();
+        if (permit == DISABLED_PERMIT) {
+            return;
+        }
+        if (stateMachine.onFailure(permit)) {
+            log.error("Redis circuit breaker opened after {} consecutive failures - entering degraded mode",
+                    stateMachine.consecutiveFailures());
+        }
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("chat.redis.breaker.calls")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -1,102 +1,258 @@
 package com.example.chatservice.common;
 
+import com.example.chatservice.common.ws.OutboundPayload;
+import com.example.chatservice.common.ws.OutboundSessionPipeline;
+import com.example.chatservice.common.ws.WebSocketCompressor;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PreDestroy;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class SessionManager {
 
-    private final Map<Long, WebSocketSession> userSessions = new ConcurrentHashMap<>();
-    private final Map<Long, Object> sessionLocks = new ConcurrentHashMap<>();  // WebSocket 전송 동기화용
+    /**
+     * 종료(drain) 또는 죽은 노드 정리(PresenceLeaseRegistry) 시 유저 여러 명의 해당 서버 디바이스 수를 한 번에 정리.
+     * KEYS = [user:{id}, user:{id}:devices] * N, ARGV[1]=serverAddress
+     */
+    static final RedisScript<Long> RELEASE_SERVER_SCRIPT = new DefaultRedisScript<>(
+            "local released = 0 " +
+            "for i = 1, #KEYS, 2 do " +
+            "  redis.call('HDEL', KEYS[i + 1], ARGV[1]) " +
+            "  local remaining = redis.call('HKEYS', KEYS[i + 1]) " +
+            "  if #remaining == 0 then redis.call('DEL', KEYS[i]) " +
+            "  elseif redis.call('GET', KEYS[i]) == ARGV[1] then redis.call('SET', KEYS[i], remaining[1]) end " +
+            "  released = released + 1 " +
+            "end " +
+            "return released", Long.class);
+
+    // 유저 한 명이 여러 디바이스로 접속 가능. 전송(순회)이 등록/해제보다 훨씬 잦으므로 copy-on-write
+    private final Map<Long, Set<WebSocketSession>> userSessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    // drain 중 presence 를 일괄 정리한 뒤에는 개별 close 에서 Redis 를 건드리지 않음
+    private volatile boolean presenceReleased;
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
     private final ServerInfoProvider serverInfoProvider;
+    private final WebSocketCompressor webSocketCompressor;
+    private final OutboundSessionPipeline outboundSessionPipeline;
+    private final UserRouteCache userRouteCache;
+    private final PresenceLeaseRegistry presenceLeaseRegistry;
+    private final PresenceWriteCoalescer presenceWriteCoalescer;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+
+    @PostConstruct
+    void registerRecovery() {
+        redisCircuitBreaker.addRecoveryListener(this::resyncPresence);
+    }
 
     public void addSession(Long userId, WebSocketSession session) {
         try {
-            userSessions.put(userId, session);
-            sessionLocks.putIfAbsent(userId, new Object());  // 동기화용 lock 생성
+            userSessions.compute(userId, (id, sessions) -> {
+                Set<WebSocketSession> devices = sessions != null ? sessions : new CopyOnWriteArraySet<>();
+                if (devices.add(session)) {
+                    sessionCount.incrementAndGet();
+                }
+                return devices;
+            });
 
-            // Redis에 저장: user:{userId} -> serverAddress
+            // Redis에 저장: user:{userId} -> serverAddress, user:{userId}:devices -> {serverAddress: 디바이스 수}
+            // 재접속이 몰릴 때 왕복을 줄이도록 몇 ms 모아서 한 번에 반영 (핸드셰이크 스레드는 기다리지 않음)
             String serverAddress = serverInfoProvider.getServerAddress();
-            try {
-                redisTemplate.opsForValue().set("user:" + userId, serverAddress);
-            } catch (Exception e) {
-                log.error("Failed to save user {} to Redis, but session is registered locally. Error: {}", 
-                        userId, e.getMessage());
-                // Redis 실패해도 로컬 세션은 유지 (서버 간 통신만 실패)
-            }
+            presenceWriteCoalescer.connect(userId);
 
-            log.info("User {} connected to server {}. Total sessions: {}",
-                    userId, serverAddress, userSessions.size());
+            log.info("User {} connected to server {} (devices on this server: {}). Total sessions: {}",
+                    userId, serverAddress, getDeviceCount(userId), sessionCount.get());
         } catch (Exception e) {
             log.error("Failed to add session for user {}", userId, e);
             throw e;
         }
     }
 
-    public void removeSession(Long userId) {
-        userSessions.remove(userId);
-        sessionLocks.remove(userId);  // lock도 함께 제거
-        redisTemplate.delete("user:" + userId);
+    /**
+     * 해당 디바이스 세션만 제거. 같은 유저의 다른 디바이스 세션과 라우팅은 유지됨
+     * (이미 제거된 세션이면 아무것도 하지 않으므로 close 콜백/유휴 정리 중복 호출에 안전)
+     */
+    public void removeSession(Long userId, WebSocketSession session) {
+        boolean[] removed = new boolean[1];
+        userSessions.computeIfPresent(userId, (id, sessions) -> {
+            removed[0] = sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        if (!removed[0]) {
+            return;
+        }
+        sessionCount.decrementAndGet();
 
-        log.info("User {} disconnected. Total sessions: {}", userId, userSessions.size());
+        if (presenceReleased) {
+            return;
+        }
+        presenceWriteCoalescer.disconnect(userId);
+        log.info("User {} device disconnected (devices on this server: {}). Total sessions: {}",
+                userId, getDeviceCount(userId), sessionCount.get());
+    }
+
+    /**
+     * 하트비트 ping 전송. 일반 메시지와 같은 아웃바운드 큐를 거침
+     */
+    public boolean sendPing(Long userId, WebSocketSession session) {
+        return outboundSessionPipeline.enqueue(session, new PingMessage());
     }
 
-    public void sendToUser(Long userId, Object message) {
-        WebSocketSession session = userSessions.get(userId);
-        Object lock = sessionLocks.get(userId);
-
-        if (session != null && session.isOpen() && lock != null) {
-            // WebSocket sendMessage()는 thread-safe하지 않으므로 동기화 필요
-            synchronized (lock) {
-                try {
-                    String jsonMessage = objectMapper.writeValueAsString(message);
-                    session.sendMessage(new TextMessage(jsonMessage));
-                    log.info("Message sent to user {}: {}", userId, jsonMessage);
-                } catch (IOException e) {
-                    log.error("Failed to send message to user {}", userId, e);
+    /**
+     * 팬아웃 전에 한 번만 호출해 만든 payload 를 여러 수신자에게 재사용
+     */
+    public OutboundPayload encode(Object message) {
+        return OutboundPayload.of(message, objectMapper);
+    }
+
+    /**
+     * 단건 전송. 같은 메시지를 여러 유저에게 보낼 때는 encode() 후 sendToUser(userId, payload) 를 사용
+     */
+    public boolean sendToUser(Long userId, Object message) {
+        return sendToUser(userId, encode(message));
+    }
+
+    /**
+     * 유저의 모든 디바이스로 전송. JSON 직렬화 / 바이너리 프레임 / 압축은 payload 에 캐시되어 한 번만 수행됨
+     * @return 이 서버에 유저 세션이 없으면 false (라우팅이 stale 이었음 - 호출 쪽에서 다시 조회)
+     */
+    public boolean sendToUser(Long userId, OutboundPayload payload) {
+        Set<WebSocketSession> sessions = userSessions.get(userId);
+
+        if (sessions == null || sessions.isEmpty()) {
+            log.warn("User {} session not found or closed", userId);
+            return false;
+        }
+
+        for (WebSocketSession session : sessions) {
+            if (!session.isOpen()) {
+                continue;
+            }
+            try {
+                // 바이너리 서브 프로토콜 세션은 varint 프레임, 압축을 협상한 세션은 deflate 된 binary 프레임
+                WebSocketMessage<?> frame = webSocketCompressor.encode(session, payload);
+
+                // 소켓 쓰기는 세션 워커가 비동기로 처리 - 느린 클라이언트가 호출 스레드를 막지 않음
+                if (outboundSessionPipeline.enqueue(session, frame)) {
+                    log.debug("Message queued to user {} (session {})", userId, session.getId());
                 }
+            } catch (RuntimeException e) {
+                log.error("Failed to send message to user {} (session {})", userId, session.getId(), e);
             }
-        } else {
-            log.warn("User {} session not found or closed", userId);
         }
+        return true;
+    }
+
+    /**
+     * 이 서버에 접속한 모든 유저의 presence 를 chunkSize 명 단위 Lua 스크립트로 정리 (세션 수만큼의 왕복 대신 N / chunkSize 번)
+     */
+    public void releaseAllPresence(int chunkSize) {
+        presenceReleased = true;
+        // 아직 반영되지 않은 접속/해제를 먼저 반영해야 일괄 정리 뒤에 되살아나지 않음
+        presenceWriteCoalescer.flushNow();
+        String serverAddress = serverInfoProvider.getServerAddress();
+
+        List<Long> userIds = new ArrayList<>(chunkSize);
+        int released = 0;
+        for (Long userId : userSessions.keySet()) {
+            userIds.add(userId);
+            if (userIds.size() >= chunkSize) {
+                released += releasePresenceChunk(userIds, serverAddress);
+                userIds.clear();
+            }
+        }
+        if (!userIds.isEmpty()) {
+            released += releasePresenceChunk(userIds, serverAddress);
+        }
+        log.info("Released presence of {} users on server {}", released, serverAddress);
+        // 이 노드의 유저 set / lease 도 반납 - 다른 노드가 죽은 노드로 보고 다시 정리하지 않도록
+        presenceLeaseRegistry.resign();
+    }
+
+    /**
+     * Redis 장애가 끝난 뒤 이 서버의 presence 를 로컬 세션 기준으로 다시 맞춘다.
+     * 장애 중 유실된 해제는 노드 유저 set 에 남은 유저 중 로컬 세션이 없는 유저를 정리하고,
+     * 유실된 접속은 유저별 디바이스 수를 덮어쓰는 재동기화 쓰기로 반영한다 (둘 다 멱등).
+     */
+    void resyncPresence() {
+        if (presenceReleased) {
+            return;
+        }
+        String serverAddress = serverInfoProvider.getServerAddress();
+        Set<Object> registered = redisTemplate.opsForSet().members(PresenceLeaseRegistry.nodeUsersKey(serverAddress));
+
+        List<Long> stale = new ArrayList<>();
+        if (registered != null) {
+            for (Object member : registered) {
+                Long userId = Long.valueOf((String) member);
+                if (!userSessions.containsKey(userId)) {
+                    stale.add(userId);
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            redisTemplate.opsForSet().remove(PresenceLeaseRegistry.nodeUsersKey(serverAddress), stale.stream().map(String::valueOf).toArray());
+            releasePresenceChunk(stale, serverAddress);
+        }
+
+        userSessions.forEach((userId, sessions) -> presenceWriteCoalescer.resync(userId, sessions.size()));
+        log.info("Resynced presence after Redis recovery: {} local users, {} stale users released",
+                userSessions.size(), stale.size());
+    }
+
+    private int releasePresenceChunk(List<Long> userIds, String serverAddress) {
+        List<String> keys = new ArrayList<>(userIds.size() * 2);
+        userIds.forEach(userId -> keys.addAll(presenceKeys(userId)));
+        try {
+            Long released = redisTemplate.execute(RELEASE_SERVER_SCRIPT, keys, serverAddress);
+            userRouteCache.invalidateEverywhere(userIds);
+            return released != null ? released.intValue() : 0;
+        } catch (Exception e) {
+            log.error("Failed to release presence chunk of {} users: {}", userIds.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    public List<WebSocketSession> getAllSessions() {
+        List<WebSocketSession> sessions = new ArrayList<>(sessionCount.get());
+        userSessions.values().forEach(sessions::addAll);
+        return sessions;
     }
 
     public boolean isUserConnected(Long userId) {
         return userSessions.containsKey(userId);
     }
 
-    public int getSessionCount() {
-        return userSessions.size();
+    public int getDeviceCount(Long userId) {
+        Set<WebSocketSession> sessions = userSessions.get(userId);
+        return sessions != null ? sessions.size() : 0;
     }
 
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
 
-//    @PreDestroy
-//    public void gracefulStop() throws IOException, InterruptedException {
-//        int count = 0;
-//        for (WebSocketSession session : sessions) {
-//            session.close();
-//            count++;
-//            if (count == 1000) {
-//                count = 0;
-//                Thread.sleep(3000);
-//            }
-//        }
-//    }
-
+    static List<String> presenceKeys(Long userId) {
+        return List.of("user:" + userId, "user:" + userId + ":devices");
+    }
 }
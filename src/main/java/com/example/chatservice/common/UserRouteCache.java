@@ -0,0 +1,324 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.UserRouteCacheProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * user:{id} -> serverAddress 라우팅의 노드 로컬 캐시 (크기 / TTL 제한).
+ * 여러 디바이스가 서로 다른 노드에 접속한 유저는 user:{id}:devices 의 노드 목록도 따로 캐시한다 (getDeviceServers).
+ * 접속/해제 시 SessionManager 가 Redis pub/sub 으로 무효화를 전파한다. payload: "{userId},{userId}..."
+ *
+ * 오프라인(null) 결과는 캐시하지 않는다 - 새로 접속한 유저를 TTL 동안 놓치지 않도록.
+ * Redis 조회와 캐시 저장 사이에 무효화가 도착하면 조회 결과를 캐시하지 않는다 (유저별 무효화 세대, stripe 단위).
+ * 캐시가 stale 이면 전송 대상 서버에 세션이 없어 실패(410)하고, 호출 쪽이 무효화 후 다시 조회해 재전송한다.
+ * lease 가 만료된(죽은) 노드를 가리키는 라우팅은 오프라인으로 취급한다 (PresenceLeaseRegistry).
+ * Redis 장애(RedisCircuitBreaker OPEN) 중에는 캐시에 있는 라우팅만 쓰고 나머지는 오프라인으로 본다 - 로컬 세션 / Kafka 로 전달.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(UserRouteCacheProperty.class)
+public class UserRouteCache {
+
+    private static final String TOPIC = "user-route-invalidation";
+    /** 무효화 세대 stripe 수 (2의 거듭제곱). 같은 stripe 의 다른 유저 무효화는 캐시 저장을 한 번 건너뛰게 할 뿐 */
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedissonClient redissonClient;
+    private final PresenceLeaseRegistry presenceLeaseRegistry;
+    private final UserRouteCacheProperty routeCacheProperty;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final Cache<Long, String> routes;
+    private final Cache<Long, Set<String>> deviceRoutes;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    private RTopic topic;
+    private int listenerId;
+
+    public UserRouteCache(RedisTemplate<String, Object> redisTemplate,
+                          RedissonClient redissonClient,
+                          PresenceLeaseRegistry presenceLeaseRegistry,
+                          UserRouteCacheProperty routeCacheProperty,
+                          RedisCircuitBreaker redisCircuitBreaker,
+                          MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.redissonClient = redissonClient;
+        this.presenceLeaseRegistry = presenceLeaseRegistry;
+        this.routeCacheProperty = routeCacheProperty;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.routes = Caffeine.newBuilder()
+                .maximumSize(routeCacheProperty.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(routeCacheProperty.getTtlSeconds()))
+                .build();
+        this.deviceRoutes = Caffeine.newBuilder()
+                .maximumSize(routeCacheProperty.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(routeCacheProperty.getTtlSeconds()))
+                .build();
+
+        this.hitCounter = Counter.builder("chat.route.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("chat.route.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidationCounter = Counter.builder("chat.route.cache.invalidations")
+                .description("Route entries dropped by connect/disconnect notifications or failed deliveries")
+                .register(meterRegistry);
+        Gauge.builder("chat.route.cache.size", routes, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, payload) -> apply(payload));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        topic.removeListener(listenerId);
+    }
+
+    /**
+     * @return 유저가 접속한 서버 주소, 오프라인(또는 lease 가 만료된 노드)이면 null
+     */
+    public String getServer(Long userId) {
+        if (routeCacheProperty.isEnabled()) {
+            String cached = routes.getIfPresent(userId);
+            if (cached != null) {
+                hitCounter.increment();
+                return alive(userId, cached);
+            }
+            missCounter.increment();
+        }
+
+        long generation = generation(userId);
+        String server = redisCircuitBreaker.call(
+                () -> (String) redisTemplate.opsForValue().get(routeKey(userId)), () -> null);
+        if (server != null && routeCacheProperty.isEnabled()) {
+            cacheIfCurrent(routes, userId, server, generation);
+        }
+        return server != null ? alive(userId, server) : null;
+    }
+
+    /**
+     * 여러 유저 조회 - 캐시에 없는 유저만 MGET 한 번으로 조회
+     * @return 온라인 유저만 담은 userId -> 서버 주소
+     */
+    public Map<Long, String> getServers(Collection<Long> userIds) {
+        Map<Long, String> servers = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long userId : userIds) {
+            String cached = routeCacheProperty.isEnabled() ? routes.getIfPresent(userId) : null;
+            if (cached != null) {
+                hitCounter.increment();
+                putIfAlive(servers, userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return servers;
+        }
+
+        missCounter.increment(misses.size());
+        long[] missGenerations = new long[misses.size()];
+        for (int i = 0; i < misses.size(); i++) {
+            missGenerations[i] = generation(misses.get(i));
+        }
+        List<Object> loaded = redisCircuitBreaker.call(
+                () -> redisTemplate.opsForValue().multiGet(misses.stream().map(UserRouteCache::routeKey).toList()),
+                () -> null);
+        if (loaded == null) {
+            return servers;
+        }
+        for (int i = 0; i < misses.size(); i++) {
+            String server = (String) loaded.get(i);
+            if (server == null) {
+                continue;
+            }
+            if (routeCacheProperty.isEnabled()) {
+                cacheIfCurrent(routes, misses.get(i), server, missGenerations[i]);
+            }
+            putIfAlive(servers, misses.get(i), server);
+        }
+        return servers;
+    }
+
+    /**
+     * 유저마다 디바이스가 접속한 모든 노드 (user:{id}:devices 의 field). 노드별로 세션에 전달할 때
+     * user:{id} 의 대표 노드 하나만 보면 다른 노드에 접속한 디바이스가 메시지를 받지 못한다.
+     * 캐시에 없는 유저만 파이프라인 HKEYS 한 번으로 조회
+     * @return 온라인 유저만 담은 userId -> lease 가 살아 있는 노드 주소들
+     */
+    public Map<Long, Set<String>> getDeviceServers(Collection<Long> userIds) {
+        Map<Long, Set<String>> servers = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long userId : userIds) {
+            Set<String> cached = routeCacheProperty.isEnabled() ? deviceRoutes.getIfPresent(userId) : null;
+            if (cached != null) {
+                hitCounter.increment();
+                putIfAlive(servers, userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return servers;
+        }
+
+        missCounter.increment(misses.size());
+        long[] missGenerations = new long[misses.size()];
+        for (int i = 0; i < misses.size(); i++) {
+            missGenerations[i] = generation(misses.get(i));
+        }
+        List<Object> loaded = redisCircuitBreaker.call(() -> redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                for (Long userId : misses) {
+                    operations.opsForHash().keys((K) devicesKey(userId));
+                }
+                return null;
+            }
+        }), () -> null);
+        if (loaded == null) {
+            return servers;
+        }
+        for (int i = 0; i < misses.size(); i++) {
+            Set<String> deviceServers = new HashSet<>();
+            if (loaded.get(i) instanceof Collection<?> fields) {
+                fields.forEach(field -> deviceServers.add(field.toString()));
+            }
+            if (deviceServers.isEmpty()) {
+                continue;
+            }
+            if (routeCacheProperty.isEnabled()) {
+                cacheIfCurrent(deviceRoutes, misses.get(i), Set.copyOf(deviceServers), missGenerations[i]);
+            }
+            putIfAlive(servers, misses.get(i), deviceServers);
+        }
+        return servers;
+    }
+
+    /** lease 가 만료된 노드는 빼고, 남는 노드가 없으면 오프라인 */
+    private void putIfAlive(Map<Long, Set<String>> servers, Long userId, Set<String> deviceServers) {
+        Set<String> alive = new HashSet<>(deviceServers.size());
+        for (String server : deviceServers) {
+            if (presenceLeaseRegistry.isAlive(server)) {
+                alive.add(server);
+            }
+        }
+        if (!alive.isEmpty()) {
+            servers.put(userId, alive);
+        }
+    }
+
+    private void putIfAlive(Map<Long, String> servers, Long userId, String server) {
+        String alive = alive(userId, server);
+        if (alive != null) {
+            servers.put(userId, alive);
+        }
+    }
+
+    /** 죽은 노드를 가리키면 캐시에서 버리고 오프라인으로 취급 (죽은 주소로 포워딩 + 재시도하지 않도록) */
+    private String alive(Long userId, String server) {
+        if (presenceLeaseRegistry.isAlive(server)) {
+            return server;
+        }
+        invalidate(userId);
+        return null;
+    }
+
+    private long generation(Long userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * 조회 시작 이후 무효화가 없었을 때만 저장. 세대 확인과 저장을 같은 key 의 compute 안에서 하고,
+     * invalidate 는 세대를 올린 뒤 제거하므로 확인 직후 도착한 무효화도 저장한 값을 지운다.
+     */
+    private <V> void cacheIfCurrent(Cache<Long, V> cache, Long userId, V value, long generation) {
+        cache.asMap().compute(userId, (id, current) -> generation(id) == generation ? value : current);
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (GENERATION_STRIPES - 1);
+    }
+
+    private static String routeKey(Long userId) {
+        return "user:" + userId;
+    }
+
+    private static String devicesKey(Long userId) {
+        return "user:" + userId + ":devices";
+    }
+
+    /** 전송 실패 등으로 캐시가 틀렸다고 판단될 때 - 이 노드에서만 제거 */
+    public void invalidate(Long userId) {
+        // 세대를 먼저 올려야 진행 중인 조회가 이전 라우팅을 다시 캐시하지 않음
+        generations.incrementAndGet(stripe(userId));
+        boolean removed = routes.asMap().remove(userId) != null;
+        if (deviceRoutes.asMap().remove(userId) != null || removed) {
+            invalidationCounter.increment();
+        }
+    }
+
+    /** 라우팅이 바뀌었을 때 (접속 / 해제) - 이 노드는 바로, 다른 노드는 pub/sub 으로 제거 */
+    public void invalidateEverywhere(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        userIds.forEach(this::invalidate);
+        if (redisCircuitBreaker.isDegraded()) {
+            return;
+        }
+        String payload = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            topic.publish(payload);
+        } catch (Exception e) {
+            // 전파 실패 시 다른 노드는 TTL 이 지나거나 전송이 실패할 때 다시 조회함
+            log.error("Failed to publish route invalidation for {} users: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    void apply(String payload) {
+        try {
+            for (String userId : payload.split(",")) {
+                invalidate(Long.parseLong(userId));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed route invalidation payload: {}", payload);
+        }
+    }
+}
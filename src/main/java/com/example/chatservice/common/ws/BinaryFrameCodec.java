@@ -0,0 +1,248 @@
+package com.example.chatservice.common.ws;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 바이너리 서브 프로토콜(chat.binary.v1) 프레임 인코더/디코더.
+ *
+ * <pre>
+ * frame   = type(1 byte) body
+ * SEND    = varint chatRoomId | varint receiverId | bytes content      (0 = 값 없음)
+ * BATCH   = varint chatRoomId | varint receiverId | varint count | bytes content * count
+ * MESSAGE = varint messageId | varint senderId | varint chatRoomId | varint sentAt(epoch ms) | bytes content
+ * MESSAGES = varint count | (varint length | MESSAGE frame) * count   (아웃바운드 coalescing 을 협상한 세션)
+ * RESUME_TRUNCATED = varint chatRoomId   (이 방의 놓친 메시지를 다 보내지 못함 - 클라이언트가 REST 로 이어서 조회)
+ * RESUME_COMPLETE  = varint replayed     (resume 재전송 끝, 이후는 라이브 메시지)
+ * ERROR   = bytes reason
+ * COMPRESSED = raw deflate(frame)  (애플리케이션 레벨 압축 opt-in 세션, WebSocketCompressor 참고)
+ * bytes   = varint length | UTF-8
+ * </pre>
+ * id는 모두 unsigned LEB128 varint로 쓰기 때문에 작은 id일수록 바이트 수가 줄어든다.
+ */
+public final class BinaryFrameCodec {
+
+    public static final byte TYPE_SEND = 0x01;
+    public static final byte TYPE_MESSAGE = 0x02;
+    public static final byte TYPE_SEND_BATCH = 0x03;
+    public static final byte TYPE_MESSAGE_BATCH = 0x04;
+    public static final byte TYPE_RESUME_TRUNCATED = 0x05;
+    public static final byte TYPE_RESUME_COMPLETE = 0x06;
+    public static final byte TYPE_COMPRESSED = 0x7E;
+    public static final byte TYPE_ERROR = 0x7F;
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private BinaryFrameCodec() {
+    }
+
+    /** 클라이언트 → 서버 SEND / BATCH 프레임을 JSON 경로와 같은 InboundFrame으로 변환 */
+    public static InboundFrame decodeInbound(ByteBuffer buffer) {
+        try {
+            byte type = buffer.get();
+            if (type != TYPE_SEND && type != TYPE_SEND_BATCH) {
+                throw new IllegalArgumentException("Unsupported frame type: " + type);
+            }
+            long chatRoomId = readVarint(buffer);
+            long receiverId = readVarint(buffer);
+            Long chatRoom = chatRoomId == 0 ? null : chatRoomId;
+            Long receiver = receiverId == 0 ? null : receiverId;
+
+            if (type == TYPE_SEND) {
+                return new InboundFrame(readString(buffer), chatRoom, receiver);
+            }
+
+            long count = readVarint(buffer);
+            // 각 항목은 최소 1바이트(길이)이므로 남은 바이트보다 많을 수 없음
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid batch size: " + count);
+            }
+            List<String> contents = new ArrayList<>((int) count);
+            for (int i = 0; i < count; i++) {
+                contents.add(readString(buffer));
+            }
+            return InboundFrame.batch(contents, chatRoom, receiver);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary frame", e);
+        }
+    }
+
+    public static byte[] encodeSend(Long chatRoomId, Long receiverId, String content) {
+        byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+        long room = chatRoomId != null ? chatRoomId : 0;
+        long receiver = receiverId != null ? receiverId : 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + varintSize(room) + varintSize(receiver)
+                + varintSize(contentBytes.length) + contentBytes.length);
+        buffer.put(TYPE_SEND);
+        writeVarint(buffer, room);
+        writeVarint(buffer, receiver);
+        writeBytes(buffer, contentBytes);
+        return buffer.array();
+    }
+
+    public static byte[] encodeSendBatch(Long chatRoomId, Long receiverId, List<String> contents) {
+        long room = chatRoomId != null ? chatRoomId : 0;
+        long receiver = receiverId != null ? receiverId : 0;
+
+        List<byte[]> encoded = new ArrayList<>(contents.size());
+        int size = 1 + varintSize(room) + varintSize(receiver) + varintSize(contents.size());
+        for (String content : contents) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += varintSize(bytes.length) + bytes.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(TYPE_SEND_BATCH);
+        writeVarint(buffer, room);
+        writeVarint(buffer, receiver);
+        writeVarint(buffer, contents.size());
+        for (byte[] bytes : encoded) {
+            writeBytes(buffer, bytes);
+        }
+        return buffer.array();
+    }
+
+    public static byte[] encodeMessage(long messageId, long senderId, long chatRoomId, long sentAtMillis, String content) {
+        byte[] contentBytes = content != null ? content.getBytes(StandardCharsets.UTF_8) : new byte[0];
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + varintSize(messageId) + varintSize(senderId)
+                + varintSize(chatRoomId) + varintSize(sentAtMillis)
+                + varintSize(contentBytes.length) + contentBytes.length);
+        buffer.put(TYPE_MESSAGE);
+        writeVarint(buffer, messageId);
+        writeVarint(buffer, senderId);
+        writeVarint(buffer, chatRoomId);
+        writeVarint(buffer, sentAtMillis);
+        writeBytes(buffer, contentBytes);
+        return buffer.array();
+    }
+
+    /**
+     * SessionManager.sendToUser 로 들어오는 메시지 Map(createMessageData / toWebSocketPayload)을 MESSAGE 프레임으로 변환
+     */
+    public static byte[] encodeMessage(Map<?, ?> messageData) {
+        Object sentAt = messageData.containsKey("sentAt") ? messageData.get("sentAt") : messageData.get("createdAt");
+        Object content = messageData.get("content");
+        return encodeMessage(
+                toLong(messageData.get("messageId")),
+                toLong(messageData.get("senderId")),
+                toLong(messageData.get("chatRoomId")),
+                toEpochMillis(sentAt),
+                content != null ? content.toString() : null
+        );
+    }
+
+    /**
+     * 이미 인코딩된 MESSAGE 프레임 여러 개를 하나의 MESSAGES 프레임으로 묶는다 (프레임 내용은 복사만 함)
+     */
+    public static byte[] encodeMessageBatch(List<ByteBuffer> messageFrames) {
+        int size = 1 + varintSize(messageFrames.size());
+        for (ByteBuffer frame : messageFrames) {
+            size += varintSize(frame.remaining()) + frame.remaining();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(TYPE_MESSAGE_BATCH);
+        writeVarint(buffer, messageFrames.size());
+        for (ByteBuffer frame : messageFrames) {
+            writeVarint(buffer, frame.remaining());
+            buffer.put(frame.duplicate());
+        }
+        return buffer.array();
+    }
+
+    public static byte[] encodeResumeTruncated(long chatRoomId) {
+        return encodeVarintFrame(TYPE_RESUME_TRUNCATED, chatRoomId);
+    }
+
+    public static byte[] encodeResumeComplete(long replayed) {
+        return encodeVarintFrame(TYPE_RESUME_COMPLETE, replayed);
+    }
+
+    private static byte[] encodeVarintFrame(byte type, long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + varintSize(value));
+        buffer.put(type);
+        writeVarint(buffer, value);
+        return buffer.array();
+    }
+
+    public static byte[] encodeError(String reason) {
+        byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + varintSize(reasonBytes.length) + reasonBytes.length);
+        buffer.put(TYPE_ERROR);
+        writeBytes(buffer, reasonBytes);
+        return buffer.array();
+    }
+
+    public static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    private static void writeBytes(ByteBuffer buffer, byte[] bytes) {
+        writeVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        long length = readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid field length: " + length);
+        }
+        byte[] bytes = new byte[(int) length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toLong(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return Long.parseLong(value.toString());
+    }
+
+    private static long toEpochMillis(Object sentAt) {
+        if (sentAt instanceof LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        if (sentAt instanceof String text && !text.isEmpty()) {
+            return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.chatservice.common.ws;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+
+/**
+ * chat.binary.v1 서브 프로토콜을 선택한 클라이언트의 프레임 처리.
+ * 연결/종료 처리는 JSON 핸들러와 같은 경로(SubProtocolRoutingHandler)를 사용하고,
+ * 여기서는 바이너리 디코딩과 에러 프레임만 담당한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatBinaryWebSocketHandler extends BinaryWebSocketHandler {
+
+    private final InboundMessageDispatcher inboundMessageDispatcher;
+    private final InboundSessionPipeline inboundSessionPipeline;
+    private final OutboundSessionPipeline outboundSessionPipeline;
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        Long senderId = (Long) session.getAttributes().get("userId");
+
+        log.info("Received binary message from user {}: {} bytes", senderId, message.getPayloadLength());
+
+        InboundFrame frame;
+        try {
+            // 컨테이너 버퍼는 재사용될 수 있으므로 디코딩은 I/O 스레드에서 끝낸다
+            frame = BinaryFrameCodec.decodeInbound(message.getPayload());
+        } catch (Exception e) {
+            log.error("Error decoding binary message from user {}", senderId, e);
+            sendError(session, "Failed to process message");
+            return;
+        }
+
+        inboundSessionPipeline.submit(session, () -> processFrame(session, frame));
+    }
+
+    private void processFrame(WebSocketSession session, InboundFrame frame) {
+        Long senderId = (Long) session.getAttributes().get("userId");
+        try {
+            if (!inboundMessageDispatcher.dispatch(session, frame)) {
+                sendError(session, "chatRoomId is required. Connect with ?chatRoomId=X or include in first message");
+            }
+        } catch (Exception e) {
+            log.error("Error processing binary message from user {}", senderId, e);
+            sendError(session, "Failed to process message");
+        }
+    }
+
+    private void sendError(WebSocketSession session, String reason) {
+        outboundSessionPipeline.enqueue(session, new BinaryMessage(BinaryFrameCodec.encodeError(reason)));
+    }
+}
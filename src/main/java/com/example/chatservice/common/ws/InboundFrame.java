@@ -0,0 +1,58 @@
+package com.example.chatservice.common.ws;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 클라이언트가 WebSocket으로 보낸 프레임을 파싱한 결과.
+ * Map을 거치지 않고 필요한 필드만 바로 담는다.
+ */
+@Getter
+public class InboundFrame {
+
+    private final String content;
+    private final Long chatRoomId;
+    private final Long receiverId;
+
+    /** 배치 프레임일 때만 값이 있음 (한 채팅방에 보내는 여러 메시지) */
+    private final List<String> contents;
+
+    /** resume 프레임일 때만 값이 있음 (chatRoomId -> 클라이언트가 마지막으로 받은 messageId) */
+    private final Map<Long, Long> resumeWatermarks;
+
+    public InboundFrame(String content, Long chatRoomId, Long receiverId) {
+        this(content, chatRoomId, receiverId, null, null);
+    }
+
+    private InboundFrame(String content, Long chatRoomId, Long receiverId, List<String> contents,
+                         Map<Long, Long> resumeWatermarks) {
+        this.content = content;
+        this.chatRoomId = chatRoomId;
+        this.receiverId = receiverId;
+        this.contents = contents;
+        this.resumeWatermarks = resumeWatermarks;
+    }
+
+    /** JSON이 아닌 일반 텍스트는 payload 전체를 content로 사용 */
+    public static InboundFrame plainText(String payload) {
+        return new InboundFrame(payload, null, null);
+    }
+
+    public static InboundFrame batch(List<String> contents, Long chatRoomId, Long receiverId) {
+        return new InboundFrame(null, chatRoomId, receiverId, List.copyOf(contents), null);
+    }
+
+    public static InboundFrame resume(Map<Long, Long> resumeWatermarks) {
+        return new InboundFrame(null, null, null, null, Map.copyOf(resumeWatermarks));
+    }
+
+    public boolean isBatch() {
+        return contents != null;
+    }
+
+    public boolean isResume() {
+        return resumeWatermarks != null;
+    }
+}
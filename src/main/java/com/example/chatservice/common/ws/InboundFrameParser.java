@@ -0,0 +1,151 @@
+package com.example.chatservice.common.ws;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 인바운드 WebSocket 프레임 파서.
+ * readValue(payload, Map.class) 대신 스트리밍 JsonParser로 한 번에 읽어서
+ * 프레임마다 생기는 Map/박싱 객체를 만들지 않는다.
+ */
+@Component
+public class InboundFrameParser {
+
+    private final ObjectReader objectReader;
+
+    public InboundFrameParser(ObjectMapper objectMapper) {
+        // ObjectReader는 불변 + thread-safe 이므로 한 번 만들어서 재사용
+        this.objectReader = objectMapper.reader();
+    }
+
+    public InboundFrame parse(String payload) throws IOException {
+        try (JsonParser parser = objectReader.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                // JSON 객체가 아니면 일반 텍스트 메시지로 처리
+                return InboundFrame.plainText(payload);
+            }
+
+            boolean hasContent = false;
+            String content = null;
+            Long chatRoomId = null;
+            Long receiverId = null;
+            List<String> batchContents = null;
+            Map<Long, Long> resumeWatermarks = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "content" -> {
+                        hasContent = true;
+                        content = readText(parser, value);
+                    }
+                    case "chatRoomId" -> chatRoomId = readLong(parser, value, field);
+                    case "receiverId" -> receiverId = readLong(parser, value, field);
+                    case "messages" -> batchContents = readBatchContents(parser, value);
+                    case "resume" -> resumeWatermarks = readWatermarks(parser, value);
+                    default -> parser.skipChildren(); // 모르는 필드는 값 전체를 건너뜀
+                }
+            }
+
+            if (resumeWatermarks != null) {
+                // {"resume":{"12":345,"13":0}} - 재접속 후 방별 마지막 수신 messageId 이후 메시지 재전송 요청
+                return InboundFrame.resume(resumeWatermarks);
+            }
+
+            if (batchContents != null) {
+                // {"chatRoomId":1,"messages":[{"content":"a"},"b",...]} - 오프라인 outbox 재전송용 배치 프레임
+                return InboundFrame.batch(batchContents, chatRoomId, receiverId);
+            }
+
+            if (!hasContent) {
+                // content가 없으면 전체 payload를 content로 사용
+                content = payload;
+            } else if (content == null) {
+                throw new IllegalArgumentException("content must not be null");
+            }
+
+            return new InboundFrame(content, chatRoomId, receiverId);
+        } catch (JsonParseException e) {
+            // JSON이 아닌 경우 - 일반 텍스트 메시지로 처리
+            return InboundFrame.plainText(payload);
+        }
+    }
+
+    private String readText(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            return objectReader.readTree(parser).toString();
+        }
+        return parser.getText();
+    }
+
+    private List<String> readBatchContents(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("messages must be an array");
+        }
+
+        List<String> contents = new ArrayList<>();
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            String content = element == JsonToken.START_OBJECT
+                    ? readObjectContent(parser)
+                    : readText(parser, element);
+            if (content == null) {
+                throw new IllegalArgumentException("content must not be null");
+            }
+            contents.add(content);
+        }
+        return contents;
+    }
+
+    private Map<Long, Long> readWatermarks(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("resume must be an object");
+        }
+
+        Map<Long, Long> watermarks = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Long chatRoomId = Long.valueOf(parser.currentName());
+            Long lastMessageId = readLong(parser, parser.nextToken(), "resume." + chatRoomId);
+            watermarks.put(chatRoomId, lastMessageId != null ? lastMessageId : 0L);
+        }
+        return watermarks;
+    }
+
+    private String readObjectContent(JsonParser parser) throws IOException {
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(field)) {
+                content = readText(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    private Long readLong(JsonParser parser, JsonToken value, String field) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_STRING -> Long.valueOf(parser.getText());
+            default -> throw new IllegalArgumentException(field + " must be a number");
+        };
+    }
+}
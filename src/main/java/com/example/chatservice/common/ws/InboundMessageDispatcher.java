@@ -0,0 +1,80 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.interceptor.JwtHandshakeInterceptor;
+import com.example.chatservice.message.service.MessageResumeService;
+import com.example.chatservice.message.service.MessageService;
+import com.example.chatservice.property.WebSocketInboundProperty;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * JSON / 바이너리 핸들러가 공통으로 사용하는 인바운드 메시지 처리 경로.
+ * 프레임 포맷과 상관없이 같은 MessageService 로직을 탄다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InboundMessageDispatcher {
+
+    private final MessageService messageService;
+    private final MessageResumeService messageResumeService;
+    private final WebSocketInboundProperty inboundProperty;
+
+    /**
+     * @return chatRoomId를 세션/프레임 어디에서도 찾지 못하면 false
+     */
+    public boolean dispatch(WebSocketSession session, InboundFrame frame) {
+        Long senderId = (Long) session.getAttributes().get("userId");
+
+        // 핸드셰이크에서 만들어 둔 SecurityContext 재사용 (JPA Auditing 용) - 프레임마다 객체를 새로 만들지 않음
+        SecurityContextHolder.setContext(
+                (SecurityContext) session.getAttributes().get(JwtHandshakeInterceptor.SECURITY_CONTEXT_ATTRIBUTE));
+        try {
+            return dispatchFrame(session, senderId, frame);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private boolean dispatchFrame(WebSocketSession session, Long senderId, InboundFrame frame) {
+        if (frame.isResume()) {
+            // 연결 중 resume 요청 - chatRoomId 와 무관하게 방별 watermark 이후 메시지 재전송
+            if (messageResumeService.isEnabled()) {
+                messageResumeService.resume(session, frame.getResumeWatermarks());
+            }
+            return true;
+        }
+
+        // chatRoomId는 세션에서 먼저 확인
+        Long chatRoomId = (Long) session.getAttributes().get("chatRoomId");
+
+        // chatRoomId는 메시지에서도 받을 수 있음 (세션에 없을 때만)
+        if (chatRoomId == null && frame.getChatRoomId() != null) {
+            chatRoomId = frame.getChatRoomId();
+            // 세션에 저장 (다음 메시지부터 사용)
+            session.getAttributes().put("chatRoomId", chatRoomId);
+        }
+
+        if (chatRoomId == null) {
+            log.error("chatRoomId not found for user {}", senderId);
+            return false;
+        }
+
+        if (frame.isBatch()) {
+            if (frame.getContents().size() > inboundProperty.getMaxBatchSize()) {
+                throw new IllegalArgumentException("Batch size exceeds limit: " + frame.getContents().size());
+            }
+            // 배치 프레임 - 한 번의 샤드 트랜잭션으로 저장
+            messageService.sendMessagesViaWebSocket(senderId, frame.getReceiverId(), chatRoomId, frame.getContents());
+            return true;
+        }
+
+        // receiverId는 선택적 (1:1 채팅일 때만 필요, 그룹 채팅은 null)
+        messageService.sendMessageViaWebSocket(senderId, frame.getReceiverId(), chatRoomId, frame.getContent());
+        return true;
+    }
+}
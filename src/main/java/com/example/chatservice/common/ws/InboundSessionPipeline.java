@@ -0,0 +1,123 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.property.WebSocketInboundProperty;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 세션별 인바운드 파이프라인.
+ * 컨테이너 I/O 스레드는 프레임을 큐에 넣기만 하고, DB 트랜잭션/Redis 호출은 virtual thread 워커가 처리한다.
+ * 세션마다 워커는 최대 하나만 돌기 때문에 같은 세션 안에서는 수신 순서가 유지된다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(WebSocketInboundProperty.class)
+public class InboundSessionPipeline {
+
+    private static final String SLOW_DOWN_JSON = "{\"error\": \"slow down\", \"code\": \"SLOW_DOWN\"}";
+
+    private final Map<String, SessionInbox> inboxes = new ConcurrentHashMap<>();
+    private final ExecutorService inboundExecutor;
+    private final WebSocketInboundProperty inboundProperty;
+    private final OutboundSessionPipeline outboundPipeline;
+
+    public InboundSessionPipeline(
+            @Qualifier("inboundMessageExecutor") ExecutorService inboundExecutor,
+            WebSocketInboundProperty inboundProperty,
+            OutboundSessionPipeline outboundPipeline) {
+        this.inboundExecutor = inboundExecutor;
+        this.inboundProperty = inboundProperty;
+        this.outboundPipeline = outboundPipeline;
+    }
+
+    /**
+     * 세션 큐에 작업을 넣는다. 큐가 가득 차면 overflow 정책에 따라 처리하고 false를 반환한다.
+     */
+    public boolean submit(WebSocketSession session, Runnable task) {
+        SessionInbox inbox = inboxes.computeIfAbsent(session.getId(),
+                id -> new SessionInbox(inboundProperty.getQueueCapacity()));
+
+        if (!inbox.queue.offer(task)) {
+            onOverflow(session);
+            return false;
+        }
+
+        // 이미 워커가 돌고 있으면 그 워커가 이어서 처리
+        if (inbox.draining.compareAndSet(false, true)) {
+            inboundExecutor.execute(() -> drain(session.getId(), inbox));
+        }
+        return true;
+    }
+
+    public void remove(WebSocketSession session) {
+        SessionInbox inbox = inboxes.remove(session.getId());
+        if (inbox != null && !inbox.queue.isEmpty()) {
+            log.info("Discarding {} queued inbound frames of closed session {}", inbox.queue.size(), session.getId());
+            inbox.queue.clear();
+        }
+    }
+
+    public int getQueuedCount(WebSocketSession session) {
+        SessionInbox inbox = inboxes.get(session.getId());
+        return inbox != null ? inbox.queue.size() : 0;
+    }
+
+    private void drain(String sessionId, SessionInbox inbox) {
+        while (true) {
+            Runnable task;
+            while ((task = inbox.queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Inbound task failed for session {}", sessionId, e);
+                }
+            }
+
+            inbox.draining.set(false);
+            // draining 해제 직후에 들어온 작업이 있으면 다시 점유해서 처리 (lost wake-up 방지)
+            if (inbox.queue.isEmpty() || !inbox.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void onOverflow(WebSocketSession session) {
+        Long userId = (Long) session.getAttributes().get("userId");
+        log.warn("Inbound queue full for user {} (session {}), policy={}",
+                userId, session.getId(), inboundProperty.getOverflowPolicy());
+
+        try {
+            switch (inboundProperty.getOverflowPolicy()) {
+                case CLOSE -> session.close(CloseStatus.SERVICE_OVERLOAD.withReason("Inbound queue full"));
+                // 수신 경로(컨테이너 스레드)에서는 직접 쓰지 않고 아웃바운드 큐에 넣는다 - 느린 클라이언트에 막히지 않고 전송 순서도 유지
+                case SLOW_DOWN -> outboundPipeline.enqueue(session, SubProtocolRoutingHandler.isBinary(session)
+                        ? new BinaryMessage(BinaryFrameCodec.encodeError("slow down"))
+                        : new TextMessage(SLOW_DOWN_JSON));
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply inbound overflow policy for session {}", session.getId(), e);
+        }
+    }
+
+    private static class SessionInbox {
+        private final BlockingQueue<Runnable> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private SessionInbox(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
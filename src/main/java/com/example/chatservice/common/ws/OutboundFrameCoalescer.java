@@ -0,0 +1,106 @@
+package com.example.chatservice.common.ws;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 아웃바운드 큐에 밀린 작은 frame 여러 개를 한 frame 으로 합친다 (핸드셰이크에서 ?coalesce=array 로 요청한 세션만).
+ * JSON 세션은 TextMessage 들을 JSON 배열 하나로, 바이너리 세션은 MESSAGE 프레임들을 MESSAGES 프레임 하나로 묶는다.
+ * 압축된 frame, ping 같은 제어 frame 은 합치지 않고 순서만 유지한 채 그대로 보낸다.
+ */
+public final class OutboundFrameCoalescer {
+
+    public static final String COALESCE_PARAM = "coalesce";
+    public static final String ARRAY = "array";
+
+    private static final String COALESCE_ATTRIBUTE = "coalesce";
+
+    private final boolean binary;
+    private final List<WebSocketMessage<?>> pending = new ArrayList<>();
+    private int pendingBytes;
+
+    private OutboundFrameCoalescer(boolean binary) {
+        this.binary = binary;
+    }
+
+    public static void enable(WebSocketSession session) {
+        session.getAttributes().put(COALESCE_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    public static boolean isEnabled(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get(COALESCE_ATTRIBUTE));
+    }
+
+    /** drain 한 번(세션 워커 한 개) 동안만 쓰는 버퍼 */
+    public static OutboundFrameCoalescer forSession(WebSocketSession session) {
+        return new OutboundFrameCoalescer(SubProtocolRoutingHandler.isBinary(session));
+    }
+
+    public boolean isMergeable(WebSocketMessage<?> frame) {
+        if (binary) {
+            return frame instanceof BinaryMessage message
+                    && message.getPayloadLength() > 0
+                    && message.getPayload().get(message.getPayload().position()) == BinaryFrameCodec.TYPE_MESSAGE;
+        }
+        return frame instanceof TextMessage;
+    }
+
+    /** 합칠 frame 추가. 이 frame 을 더하면 maxFrameBytes 를 넘는지 먼저 fits() 로 확인 */
+    public void add(WebSocketMessage<?> frame) {
+        pending.add(frame);
+        pendingBytes += frame.getPayloadLength();
+    }
+
+    public boolean fits(WebSocketMessage<?> frame, int maxFrameBytes) {
+        // 구분자/길이 prefix 몫으로 frame 당 최대 3 byte 를 여유로 잡음
+        return pending.isEmpty()
+                || pendingBytes + frame.getPayloadLength() + 3 * (pending.size() + 2) <= maxFrameBytes;
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /** 모인 frame 을 한 frame 으로 만들고 버퍼를 비운다. 한 개뿐이면 원본 그대로 */
+    public WebSocketMessage<?> flush() {
+        try {
+            if (pending.size() == 1) {
+                return pending.getFirst();
+            }
+            return binary ? mergeBinary() : mergeText();
+        } finally {
+            pending.clear();
+            pendingBytes = 0;
+        }
+    }
+
+    private TextMessage mergeText() {
+        StringBuilder json = new StringBuilder(pendingBytes + pending.size() + 2);
+        json.append('[');
+        for (int i = 0; i < pending.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(((TextMessage) pending.get(i)).getPayload());
+        }
+        return new TextMessage(json.append(']'));
+    }
+
+    private BinaryMessage mergeBinary() {
+        List<ByteBuffer> frames = new ArrayList<>(pending.size());
+        for (WebSocketMessage<?> frame : pending) {
+            frames.add(((BinaryMessage) frame).getPayload());
+        }
+        return new BinaryMessage(BinaryFrameCodec.encodeMessageBatch(frames));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.chatservice.common.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * 여러 수신자에게 보낼 한 건의 메시지를 한 번만 인코딩해 두고 공유하는 frame 묶음.
+ *
+ * JSON(TextMessage) / 바이너리 프레임 / 압축 결과를 처음 필요할 때 한 번 만들고 이후 수신자는 같은 값을 받는다.
+ * 바이너리 쪽은 byte[] 만 공유하고 BinaryMessage 는 전송마다 새로 감싼다 - 컨테이너가 전송 중 ByteBuffer 의 position 을
+ * 옮기므로 여러 세션 파이프라인이 같은 버퍼를 쓰면 서로의 전송을 깨뜨린다. (TextMessage 는 String 기반이라 공유 가능)
+ * 지연 생성 필드는 동기화하지 않는다 - 경합 시 같은 값을 두 번 만들 뿐이고 결과는 불변이다.
+ */
+public final class OutboundPayload {
+
+    private final Object message;
+    private final ObjectMapper objectMapper;
+
+    private TextMessage textMessage;
+    private byte[] binaryFrame;
+
+    // WebSocketCompressor 가 채우는 압축 결과 (압축 이득이 없으면 WebSocketCompressor.NOT_COMPRESSIBLE)
+    byte[] deflatedText;
+    byte[] deflatedBinary;
+
+    private OutboundPayload(Object message, ObjectMapper objectMapper, TextMessage textMessage, byte[] binaryFrame) {
+        this.message = message;
+        this.objectMapper = objectMapper;
+        this.textMessage = textMessage;
+        this.binaryFrame = binaryFrame;
+    }
+
+    /** 메시지 객체로부터 필요한 형식을 지연 인코딩 */
+    public static OutboundPayload of(Object message, ObjectMapper objectMapper) {
+        return new OutboundPayload(message, objectMapper, null, null);
+    }
+
+    /**
+     * 이미 인코딩된 frame 을 그대로 사용 (예: 다른 노드가 보낸 payload 를 디코딩 없이 전달)
+     * @param binaryFrame 바이너리 서브 프로토콜용 MESSAGE 프레임, 없으면 null (바이너리 세션에도 JSON 전송)
+     */
+    public static OutboundPayload preEncoded(TextMessage json, byte[] binaryFrame) {
+        return new OutboundPayload(null, null, json, binaryFrame);
+    }
+
+    public TextMessage textMessage() {
+        if (textMessage == null) {
+            try {
+                textMessage = new TextMessage(objectMapper.writeValueAsString(message));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return textMessage;
+    }
+
+    /** 바이너리 프레임으로 표현할 수 없는 메시지(Map 이 아닌 객체)면 null */
+    public byte[] binaryFrame() {
+        if (binaryFrame == null && message instanceof Map<?, ?> messageData) {
+            binaryFrame = BinaryFrameCodec.encodeMessage(messageData);
+        }
+        return binaryFrame;
+    }
+
+    /** 호출마다 새 BinaryMessage (frame byte[] 는 공유) - 세션 간에 ByteBuffer position 을 공유하지 않도록 */
+    public BinaryMessage binaryMessage() {
+        byte[] frame = binaryFrame();
+        return frame != null ? new BinaryMessage(frame) : null;
+    }
+}
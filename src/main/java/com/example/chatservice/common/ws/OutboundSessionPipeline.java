@@ -0,0 +1,386 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.property.WebSocketOutboundProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 세션별 아웃바운드 큐.
+ * 호출 스레드(Kafka listener, retry scheduler, Tomcat 요청 스레드)는 frame 을 큐에 넣고 바로 돌아가고,
+ * 실제 소켓 쓰기는 세션당 하나의 virtual thread 워커가 순서대로 처리한다. 느린 클라이언트는 자기 큐만 밀린다.
+ *
+ * 큐 한도(개수 / byte)는 soft limit 이다 - 동시에 넣는 경우 잠깐 초과할 수 있다.
+ * 핸드셰이크에서 ?coalesce=array 를 보낸 세션은 밀린 frame 을 합쳐서 보낸다 (OutboundFrameCoalescer).
+ * 재접속 resume 중에는 라이브 frame 을 보류해 두고, 재전송 frame 을 먼저 보낸 뒤 이어서 보낸다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(WebSocketOutboundProperty.class)
+public class OutboundSessionPipeline {
+
+    private static final String RESYNC_JSON = "{\"type\": \"RESYNC\", \"dropped\": %d}";
+
+    private final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private final ExecutorService outboundExecutor;
+    private final WebSocketOutboundProperty outboundProperty;
+
+    private final AtomicLong totalQueuedMessages = new AtomicLong();
+    private final AtomicLong totalQueuedBytes = new AtomicLong();
+    private final Counter droppedCounter;
+    private final Counter overflowCounter;
+    private final Counter evictionCounter;
+    private final DistributionSummary coalescedFrames;
+
+    public OutboundSessionPipeline(
+            @Qualifier("outboundMessageExecutor") ExecutorService outboundExecutor,
+            WebSocketOutboundProperty outboundProperty,
+            MeterRegistry meterRegistry) {
+        this.outboundExecutor = outboundExecutor;
+        this.outboundProperty = outboundProperty;
+
+        Gauge.builder("chat.ws.outbound.queued.messages", totalQueuedMessages, AtomicLong::get)
+                .description("Frames waiting in per-session outbound queues")
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.outbound.queued.bytes", totalQueuedBytes, AtomicLong::get)
+                .description("Payload bytes waiting in per-session outbound queues")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("chat.ws.outbound.dropped")
+                .description("Frames discarded by DROP_OLDEST / COALESCE")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("chat.ws.outbound.overflow")
+                .tag("policy", outboundProperty.getOverflowPolicy().name())
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("chat.ws.outbound.evictions")
+                .description("Slow sessions disconnected because their outbound queue overflowed")
+                .register(meterRegistry);
+        this.coalescedFrames = DistributionSummary.builder("chat.ws.outbound.coalesced.frames")
+                .description("Queued frames merged into one WebSocket frame for coalescing sessions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * frame 을 세션 큐에 넣는다. 블로킹하지 않으며, 한도를 넘기면 overflow 정책을 적용한다.
+     * @return frame 이 큐에 들어갔으면 true (DISCONNECT 로 세션을 끊었거나 닫힌 세션이면 false)
+     */
+    public boolean enqueue(WebSocketSession session, WebSocketMessage<?> frame) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        SessionOutbox outbox = outboxes.computeIfAbsent(session.getId(), id -> new SessionOutbox());
+        if (outbox.held != null) {
+            synchronized (outbox) {
+                if (outbox.held != null) {
+                    return hold(session, outbox, frame);
+                }
+            }
+        }
+        return offerAndDrain(session, outbox, frame);
+    }
+
+    /**
+     * resume 시작 - 이후 enqueue 되는 라이브 frame 은 endReplay 전까지 보류된다.
+     */
+    public void beginReplay(WebSocketSession session) {
+        SessionOutbox outbox = outboxes.computeIfAbsent(session.getId(), id -> new SessionOutbox());
+        synchronized (outbox) {
+            if (outbox.held == null) {
+                outbox.held = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * 재전송 frame 은 보류 없이 바로 큐에 넣는다.
+     * @return 보류가 이미 풀렸거나(보류 한도 초과) 세션이 닫혔으면 false - 재전송을 멈춰야 함
+     */
+    public boolean enqueueReplay(WebSocketSession session, WebSocketMessage<?> frame) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox == null || outbox.held == null || !session.isOpen()) {
+            return false;
+        }
+        return offerAndDrain(session, outbox, frame);
+    }
+
+    /** resume 종료 - 보류했던 라이브 frame 을 순서대로 큐에 넣는다. */
+    public void endReplay(WebSocketSession session) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox != null) {
+            synchronized (outbox) {
+                release(session, outbox);
+            }
+        }
+    }
+
+    private boolean hold(WebSocketSession session, SessionOutbox outbox, WebSocketMessage<?> frame) {
+        if (outbox.held.size() >= outboundProperty.getMaxQueuedMessages()) {
+            // 재전송이 너무 길어져 라이브 frame 이 쌓이면 보류를 풀고 라이브 전송을 우선 (재전송은 중단됨)
+            log.warn("Releasing {} held live frames of session {} before replay finished",
+                    outbox.held.size(), session.getId());
+            release(session, outbox);
+            return offerAndDrain(session, outbox, frame);
+        }
+        outbox.held.offer(frame);
+        return true;
+    }
+
+    /** outbox 락을 잡은 상태에서 호출 */
+    private void release(WebSocketSession session, SessionOutbox outbox) {
+        ArrayDeque<WebSocketMessage<?>> held = outbox.held;
+        if (held == null) {
+            return;
+        }
+        WebSocketMessage<?> frame;
+        while ((frame = held.poll()) != null) {
+            offerAndDrain(session, outbox, frame);
+        }
+        outbox.held = null;
+    }
+
+    private boolean offerAndDrain(WebSocketSession session, SessionOutbox outbox, WebSocketMessage<?> frame) {
+        if (outbox.evicted) {
+            return false;
+        }
+
+        int size = frame.getPayloadLength();
+        if (outbox.messages.get() + 1 > outboundProperty.getMaxQueuedMessages()
+                || outbox.bytes.get() + size > outboundProperty.getMaxQueuedBytes()) {
+            if (!onOverflow(session, outbox, size)) {
+                return false;
+            }
+        }
+
+        offer(outbox, frame);
+
+        // 이미 워커가 돌고 있으면 그 워커가 이어서 처리
+        if (outbox.draining.compareAndSet(false, true)) {
+            outboundExecutor.execute(() -> drain(session, outbox));
+        }
+        return true;
+    }
+
+    /** 핸드셰이크에서 frame 합치기를 요청한 세션 (서버 설정으로 끌 수 있음) */
+    public void enableCoalescing(WebSocketSession session) {
+        if (outboundProperty.isCoalesceEnabled()) {
+            OutboundFrameCoalescer.enable(session);
+        }
+    }
+
+    public void remove(WebSocketSession session) {
+        SessionOutbox outbox = outboxes.remove(session.getId());
+        if (outbox != null) {
+            int discarded = clear(outbox);
+            if (discarded > 0) {
+                log.info("Discarding {} queued outbound frames of closed session {}", discarded, session.getId());
+            }
+        }
+    }
+
+    public int getQueuedCount(WebSocketSession session) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        return outbox != null ? outbox.messages.get() : 0;
+    }
+
+    private void drain(WebSocketSession session, SessionOutbox outbox) {
+        boolean coalescing = OutboundFrameCoalescer.isEnabled(session);
+        while (true) {
+            if (coalescing) {
+                drainCoalescing(session, outbox);
+            } else {
+                WebSocketMessage<?> frame;
+                while ((frame = poll(outbox)) != null) {
+                    if (!send(session, outbox, frame)) {
+                        break;
+                    }
+                }
+            }
+
+            outbox.draining.set(false);
+            // draining 해제 직후에 들어온 frame 이 있으면 다시 점유해서 처리 (lost wake-up 방지)
+            if (outbox.queue.isEmpty() || !outbox.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 유휴 상태에서 깨어난 경우 최대 coalesceMaxDelayMillis 만큼 뒤따르는 frame 을 기다린 뒤,
+     * 그 시점까지 밀린 frame 을 최대 크기 안에서 합쳐 보낸다. 계속 밀려 있는 동안에는 기다리지 않는다
+     * (직전 전송 동안 쌓인 frame 이 곧 다음 묶음).
+     */
+    private void drainCoalescing(WebSocketSession session, SessionOutbox outbox) {
+        long maxDelayMillis = outboundProperty.getCoalesceMaxDelayMillis();
+        if (maxDelayMillis > 0 && outbox.messages.get() == 1) {
+            try {
+                Thread.sleep(maxDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        OutboundFrameCoalescer coalescer = OutboundFrameCoalescer.forSession(session);
+        int maxFrameBytes = outboundProperty.getCoalesceMaxFrameBytes();
+        WebSocketMessage<?> frame;
+        while ((frame = poll(outbox)) != null) {
+            if (coalescer.isMergeable(frame) && coalescer.fits(frame, maxFrameBytes)) {
+                coalescer.add(frame);
+                continue;
+            }
+            if (!coalescer.isEmpty() && !sendCoalesced(session, outbox, coalescer)) {
+                return;
+            }
+            if (coalescer.isMergeable(frame)) {
+                coalescer.add(frame);
+            } else if (!send(session, outbox, frame)) {
+                return;
+            }
+        }
+        if (!coalescer.isEmpty()) {
+            sendCoalesced(session, outbox, coalescer);
+        }
+    }
+
+    private boolean sendCoalesced(WebSocketSession session, SessionOutbox outbox, OutboundFrameCoalescer coalescer) {
+        coalescedFrames.record(coalescer.size());
+        return send(session, outbox, coalescer.flush());
+    }
+
+    /**
+     * @return 세션이 닫혀서 큐를 비웠으면 false
+     */
+    private boolean send(WebSocketSession session, SessionOutbox outbox, WebSocketMessage<?> frame) {
+        if (!session.isOpen()) {
+            clear(outbox);
+            outboxes.remove(session.getId(), outbox);
+            return false;
+        }
+        try {
+            // 큐 밖에서 직접 보내는 경로(인바운드 slow down 등)와 겹치지 않도록 세션 단위로 동기화
+            synchronized (session) {
+                session.sendMessage(frame);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to send outbound frame to session {}: {}", session.getId(), e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * @return 새 frame 을 이어서 큐에 넣어도 되면 true
+     */
+    private boolean onOverflow(WebSocketSession session, SessionOutbox outbox, int incomingSize) {
+        overflowCounter.increment();
+        WebSocketOutboundProperty.OverflowPolicy policy = outboundProperty.getOverflowPolicy();
+        log.warn("Outbound queue full for user {} (session {}, {} frames / {} bytes), policy={}",
+                session.getAttributes().get("userId"), session.getId(),
+                outbox.messages.get(), outbox.bytes.get(), policy);
+
+        switch (policy) {
+            case DROP_OLDEST -> {
+                while (outbox.messages.get() + 1 > outboundProperty.getMaxQueuedMessages()
+                        || outbox.bytes.get() + incomingSize > outboundProperty.getMaxQueuedBytes()) {
+                    if (poll(outbox) == null) {
+                        break;
+                    }
+                    droppedCounter.increment();
+                }
+                return true;
+            }
+            case COALESCE -> {
+                int dropped = clear(outbox);
+                droppedCounter.increment(dropped);
+                offer(outbox, resyncFrame(session, dropped));
+                return true;
+            }
+            case DISCONNECT -> {
+                evict(session, outbox);
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void evict(WebSocketSession session, SessionOutbox outbox) {
+        if (outbox.evicted) {
+            return;
+        }
+        outbox.evicted = true;
+        evictionCounter.increment();
+        clear(outbox);
+
+        // close 도 소켓 쓰기라 블로킹될 수 있으므로 워커에서 처리
+        outboundExecutor.execute(() -> {
+            try {
+                session.close(CloseStatus.SERVICE_OVERLOAD.withReason("Outbound queue overflow"));
+            } catch (Exception e) {
+                log.debug("Failed to close slow session {}: {}", session.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private WebSocketMessage<?> resyncFrame(WebSocketSession session, int dropped) {
+        if (SubProtocolRoutingHandler.isBinary(session)) {
+            return new BinaryMessage(BinaryFrameCodec.encodeError("resync:" + dropped));
+        }
+        return new TextMessage(RESYNC_JSON.formatted(dropped));
+    }
+
+    private void offer(SessionOutbox outbox, WebSocketMessage<?> frame) {
+        int size = frame.getPayloadLength();
+        outbox.queue.offer(frame);
+        outbox.messages.incrementAndGet();
+        outbox.bytes.addAndGet(size);
+        totalQueuedMessages.incrementAndGet();
+        totalQueuedBytes.addAndGet(size);
+    }
+
+    private WebSocketMessage<?> poll(SessionOutbox outbox) {
+        WebSocketMessage<?> frame = outbox.queue.poll();
+        if (frame != null) {
+            int size = frame.getPayloadLength();
+            outbox.messages.decrementAndGet();
+            outbox.bytes.addAndGet(-size);
+            totalQueuedMessages.decrementAndGet();
+            totalQueuedBytes.addAndGet(-size);
+        }
+        return frame;
+    }
+
+    private int clear(SessionOutbox outbox) {
+        int cleared = 0;
+        while (poll(outbox) != null) {
+            cleared++;
+        }
+        return cleared;
+    }
+
+    private static class SessionOutbox {
+        private final Queue<WebSocketMessage<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger messages = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile boolean evicted;
+        /** resume 중 보류된 라이브 frame (resume 중이 아니면 null, outbox 락으로 보호) */
+        private volatile ArrayDeque<WebSocketMessage<?>> held;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.message.service.PendingLastMessageFlushService;
+import com.example.chatservice.property.WebSocketDrainProperty;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 종료 시 WebSocket 세션 drain.
+ *
+ * 1. 새 핸드셰이크 거절 (DrainingHandshakeInterceptor 가 503 응답)
+ * 2. PendingLastMessageFlushService 의 pending lastMessageId flush 완료 대기
+ * 3. 이 노드 유저들의 presence(user:{id}) 를 Lua 스크립트로 일괄 정리 - 이후 개별 close 는 Redis 를 건드리지 않음
+ * 4. 세션을 batchSize 개씩 batchInterval 간격으로 1012(Service Restart, reconnect-elsewhere) 로 닫음
+ *
+ * 가장 먼저 stop 되는 phase 라서 drain 하는 동안 Kafka listener / HTTP / DB 는 아직 살아 있다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(WebSocketDrainProperty.class)
+public class SessionDrainCoordinator implements SmartLifecycle {
+
+    public static final CloseStatus RECONNECT_ELSEWHERE = CloseStatus.SERVICE_RESTARTED.withReason("reconnect-elsewhere");
+
+    private final SessionManager sessionManager;
+    private final PendingLastMessageFlushService pendingLastMessageFlushService;
+    private final WebSocketDrainProperty drainProperty;
+
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    public SessionDrainCoordinator(
+            SessionManager sessionManager,
+            PendingLastMessageFlushService pendingLastMessageFlushService,
+            WebSocketDrainProperty drainProperty) {
+        this.sessionManager = sessionManager;
+        this.pendingLastMessageFlushService = pendingLastMessageFlushService;
+        this.drainProperty = drainProperty;
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            if (drainProperty.isEnabled()) {
+                drain();
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    void drain() {
+        draining = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainProperty.getMaxDrainSeconds());
+        log.info("Draining WebSocket sessions: {} sessions, batchSize={}, interval={}ms",
+                sessionManager.getSessionCount(), drainProperty.getBatchSize(), drainProperty.getBatchIntervalMillis());
+
+        // 세션을 닫기 전에 pending lastMessageId 를 먼저 반영
+        pendingLastMessageFlushService.flushAllPendingMessages();
+
+        sessionManager.releaseAllPresence(drainProperty.getPresenceCleanupChunkSize());
+
+        List<WebSocketSession> sessions = sessionManager.getAllSessions();
+        int closed = 0;
+        for (WebSocketSession session : sessions) {
+            close(session);
+            closed++;
+
+            if (closed % drainProperty.getBatchSize() == 0 && closed < sessions.size()) {
+                if (System.nanoTime() > deadline) {
+                    log.warn("Drain deadline exceeded, closing remaining {} sessions at once", sessions.size() - closed);
+                    continue;
+                }
+                try {
+                    Thread.sleep(drainProperty.getBatchIntervalMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    deadline = 0; // 남은 세션은 기다리지 않고 닫음
+                }
+            }
+        }
+        log.info("WebSocket drain completed: {} sessions closed", closed);
+    }
+
+    private void close(WebSocketSession session) {
+        try {
+            if (session.isOpen()) {
+                session.close(RECONNECT_ELSEWHERE);
+            }
+        } catch (Exception e) {
+            log.debug("Failed to close session {} during drain: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.property.WebSocketHeartbeatProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서버 주도 ping/pong 하트비트 + 유휴 세션 정리.
+ *
+ * 세션마다 ScheduledFuture 를 만드는 대신 HashedWheelTimer 하나에 타임아웃을 올린다 (등록/취소 O(1)).
+ * 프레임을 받을 때는 lastSeen 만 갱신하고 타이머는 다시 걸지 않는다. 타이머가 만료되면 그때 lastSeen 을 보고
+ * ping 을 보내거나, idle-timeout 을 넘겼으면 half-open 세션으로 판단해 닫고 user:{id} 라우팅도 바로 지운다.
+ * ping 전송 / close 는 블로킹될 수 있으므로 휠 스레드가 아닌 별도 executor 에서 실행한다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(WebSocketHeartbeatProperty.class)
+public class SessionHeartbeatMonitor {
+
+    private final Map<String, HeartbeatState> states = new ConcurrentHashMap<>();
+    private final SessionManager sessionManager;
+    private final ExecutorService heartbeatExecutor;
+    private final WebSocketHeartbeatProperty heartbeatProperty;
+    private final Timer timer;
+    private final Counter reapedCounter;
+    private final Counter pingCounter;
+
+    public SessionHeartbeatMonitor(
+            SessionManager sessionManager,
+            @Qualifier("heartbeatExecutor") ExecutorService heartbeatExecutor,
+            WebSocketHeartbeatProperty heartbeatProperty,
+            MeterRegistry meterRegistry) {
+        this.sessionManager = sessionManager;
+        this.heartbeatExecutor = heartbeatExecutor;
+        this.heartbeatProperty = heartbeatProperty;
+        this.timer = new HashedWheelTimer(
+                Thread.ofPlatform().name("ws-heartbeat-wheel").daemon(true).factory(),
+                heartbeatProperty.getTickMillis(), TimeUnit.MILLISECONDS,
+                heartbeatProperty.getTicksPerWheel());
+
+        this.reapedCounter = Counter.builder("chat.ws.sessions.reaped")
+                .description("Sessions closed by the idle reaper (no frame or pong within idle timeout)")
+                .register(meterRegistry);
+        this.pingCounter = Counter.builder("chat.ws.heartbeat.pings")
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.heartbeat.tracked", states, Map::size)
+                .register(meterRegistry);
+    }
+
+    public void register(Long userId, WebSocketSession session) {
+        if (!heartbeatProperty.isEnabled()) {
+            return;
+        }
+        HeartbeatState state = new HeartbeatState(userId, session);
+        states.put(session.getId(), state);
+        schedule(state, TimeUnit.SECONDS.toNanos(heartbeatProperty.getPingIntervalSeconds()));
+    }
+
+    /** 프레임(pong 포함)을 받을 때마다 호출 - volatile 쓰기 한 번 */
+    public void touch(WebSocketSession session) {
+        HeartbeatState state = states.get(session.getId());
+        if (state != null) {
+            state.lastSeenNanos = System.nanoTime();
+        }
+    }
+
+    public void unregister(WebSocketSession session) {
+        HeartbeatState state = states.remove(session.getId());
+        if (state != null && state.timeout != null) {
+            state.timeout.cancel();
+        }
+    }
+
+    public long getReapedCount() {
+        return (long) reapedCounter.count();
+    }
+
+    @PreDestroy
+    void stop() {
+        timer.stop();
+    }
+
+    private void schedule(HeartbeatState state, long delayNanos) {
+        state.timeout = timer.newTimeout(timeout -> check(state), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** 휠 스레드에서 실행 - 판단만 하고 I/O 는 executor 로 넘김 */
+    private void check(HeartbeatState state) {
+        if (states.get(state.session.getId()) != state) {
+            return; // 이미 정리된 세션
+        }
+
+        long idleNanos = System.nanoTime() - state.lastSeenNanos;
+        long pingIntervalNanos = TimeUnit.SECONDS.toNanos(heartbeatProperty.getPingIntervalSeconds());
+        long idleTimeoutNanos = TimeUnit.SECONDS.toNanos(heartbeatProperty.getIdleTimeoutSeconds());
+
+        if (idleNanos >= idleTimeoutNanos || !state.session.isOpen()) {
+            heartbeatExecutor.execute(() -> reap(state));
+            return;
+        }
+
+        if (idleNanos >= pingIntervalNanos) {
+            heartbeatExecutor.execute(() -> ping(state));
+            schedule(state, Math.min(pingIntervalNanos, idleTimeoutNanos - idleNanos));
+        } else {
+            // 최근에 프레임을 받았으면 ping 없이 남은 시간만큼 다시 대기
+            schedule(state, pingIntervalNanos - idleNanos);
+        }
+    }
+
+    private void ping(HeartbeatState state) {
+        if (sessionManager.sendPing(state.userId, state.session)) {
+            pingCounter.increment();
+        }
+    }
+
+    private void reap(HeartbeatState state) {
+        if (states.remove(state.session.getId(), state)) {
+            reapedCounter.increment();
+            log.warn("Reaping idle WebSocket session: userId={}, sessionId={}", state.userId, state.session.getId());
+
+            // close 완료(afterConnectionClosed)를 기다리지 않고 라우팅부터 제거 - 유령 세션으로 메시지가 가지 않도록
+            sessionManager.removeSession(state.userId, state.session);
+            try {
+                state.session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("Idle timeout"));
+            } catch (Exception e) {
+                log.debug("Failed to close idle session {}: {}", state.session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static class HeartbeatState {
+        private final Long userId;
+        private final WebSocketSession session;
+        private volatile long lastSeenNanos = System.nanoTime();
+        private volatile Timeout timeout;
+
+        private HeartbeatState(Long userId, WebSocketSession session) {
+            this.userId = userId;
+            this.session = session;
+        }
+    }
+}
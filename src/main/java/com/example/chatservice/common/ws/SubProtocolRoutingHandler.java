@@ -0,0 +1,64 @@
+package com.example.chatservice.common.ws;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.util.List;
+
+/**
+ * /chat 엔드포인트의 진입점.
+ * 핸드셰이크에서 클라이언트가 고른 Sec-WebSocket-Protocol 에 따라 JSON / 바이너리 핸들러로 나눈다.
+ * 서브 프로토콜을 보내지 않은 기존 클라이언트는 JSON 으로 처리된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubProtocolRoutingHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
+
+    public static final String JSON_PROTOCOL = "chat.json.v1";
+    public static final String BINARY_PROTOCOL = "chat.binary.v1";
+
+    private final WebSocketHandler webSocketHandler;
+    private final ChatBinaryWebSocketHandler binaryWebSocketHandler;
+    private final SessionHeartbeatMonitor sessionHeartbeatMonitor;
+
+    public static boolean isBinary(WebSocketSession session) {
+        return BINARY_PROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(JSON_PROTOCOL, BINARY_PROTOCOL);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        // 세션 등록(userId, chatRoomId, SessionManager)은 프로토콜과 무관하므로 공통 경로 사용
+        webSocketHandler.afterConnectionEstablished(session);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        // pong 을 포함해 어떤 프레임이든 받으면 살아있는 세션으로 간주
+        sessionHeartbeatMonitor.touch(session);
+        if (isBinary(session)) {
+            binaryWebSocketHandler.handleMessage(session, message);
+        } else {
+            webSocketHandler.handleMessage(session, message);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        webSocketHandler.handleTransportError(session, exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        webSocketHandler.afterConnectionClosed(session, status);
+    }
+}
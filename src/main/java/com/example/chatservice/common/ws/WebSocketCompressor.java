@@ -0,0 +1,239 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.property.WebSocketCompressionProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * 애플리케이션 레벨 아웃바운드 압축 (메시지 단위 raw deflate, context takeover 없음) - 명시적 opt-in.
+ *
+ * 기본 압축 경로는 표준 permessage-deflate 확장이다. 클라이언트(브라우저 포함)가 핸드셰이크에서 제안하면
+ * Tomcat(PerMessageDeflate)이 협상하고 프레임을 투명하게 압축하므로 이 클래스는 관여하지 않는다.
+ * 다만 확장은 크기와 상관없이 모든 프레임을 압축하므로, 확장을 쓸 수 없거나 작은 메시지의 CPU 비용을 피하고 싶은
+ * 자체 클라이언트를 위해 아래 조건을 모두 만족할 때만 크기 기준(min-payload-bytes) 압축을 한다.
+ * <ul>
+ *   <li>서버 설정 app.websocket.compression.enabled=true (기본 false)</li>
+ *   <li>핸드셰이크 쿼리 ?compress=deflate</li>
+ *   <li>permessage-deflate 를 협상하지 않은 세션 (협상했으면 이중 압축이 되므로 건너뜀)</li>
+ * </ul>
+ * 이 방식을 요청한 클라이언트는 다음 프레임 형식을 처리해야 한다.
+ * <ul>
+ *   <li>JSON 세션: min-payload-bytes 이상이면 TextMessage 대신 deflate 한 UTF-8 JSON 을 binary 프레임으로 받음</li>
+ *   <li>바이너리 세션: COMPRESSED(0x7E) 타입 바이트 + deflate 한 원본 프레임</li>
+ * </ul>
+ * Deflater 는 세션마다 하나를 만들어 재사용하고(네이티브 메모리 할당 비용 절감) 연결 종료 시 해제한다.
+ * 해제 이후 도착한 팬아웃은 압축하지 않은 원본을 보낸다 (닫히는 세션이라 어차피 전송되지 않음).
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(WebSocketCompressionProperty.class)
+public class WebSocketCompressor {
+
+    public static final String COMPRESS_PARAM = "compress";
+    public static final String DEFLATE = "deflate";
+
+    /** Tomcat / 브라우저가 쓰는 표준 확장 이름 */
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private static final String DEFLATER_ATTRIBUTE = "deflater";
+
+    // payload 압축 캐시에서 "압축 이득 없음" 표시 (null 은 아직 계산 전)
+    static final byte[] NOT_COMPRESSIBLE = new byte[0];
+
+    private final WebSocketCompressionProperty compressionProperty;
+    private final Timer compressionTimer;
+    private final DistributionSummary compressionRatio;
+    private final Counter originalBytes;
+    private final Counter compressedBytes;
+    private final Counter skippedCount;
+
+    public WebSocketCompressor(WebSocketCompressionProperty compressionProperty, MeterRegistry meterRegistry) {
+        this.compressionProperty = compressionProperty;
+        this.compressionTimer = Timer.builder("chat.ws.compression.time")
+                .description("Time spent deflating outbound WebSocket payloads")
+                .register(meterRegistry);
+        this.compressionRatio = DistributionSummary.builder("chat.ws.compression.ratio")
+                .description("Compressed size / original size of outbound WebSocket payloads")
+                .register(meterRegistry);
+        this.originalBytes = Counter.builder("chat.ws.compression.bytes")
+                .tag("stage", "original")
+                .register(meterRegistry);
+        this.compressedBytes = Counter.builder("chat.ws.compression.bytes")
+                .tag("stage", "compressed")
+                .register(meterRegistry);
+        this.skippedCount = Counter.builder("chat.ws.compression.skipped")
+                .description("Payloads sent uncompressed because deflate did not shrink them")
+                .register(meterRegistry);
+    }
+
+    /** 핸드셰이크에서 압축을 요청한 세션에 Deflater 를 붙인다 */
+    public void enable(WebSocketSession session) {
+        if (!compressionProperty.isEnabled()) {
+            return;
+        }
+        if (negotiatedPerMessageDeflate(session)) {
+            log.info("Session {} negotiated {} - skipping application-level compression", session.getId(), PERMESSAGE_DEFLATE);
+            return;
+        }
+        session.getAttributes().put(DEFLATER_ATTRIBUTE, new SessionDeflater(new Deflater(compressionProperty.getLevel(), true)));
+        log.info("Compression enabled for session {} (min {} bytes)", session.getId(), compressionProperty.getMinPayloadBytes());
+    }
+
+    public void release(WebSocketSession session) {
+        Object deflater = session.getAttributes().remove(DEFLATER_ATTRIBUTE);
+        if (deflater instanceof SessionDeflater d) {
+            synchronized (d) {
+                d.released = true;
+                d.deflater.end();
+            }
+        }
+    }
+
+    public WebSocketMessage<?> encodeText(WebSocketSession session, String json) {
+        SessionDeflater deflater = deflaterOf(session);
+        // 문자 수 >= byte 수 / 3 이므로 문자 수로 먼저 거르고 byte 변환은 압축 대상일 때만
+        if (deflater == null || json.length() < compressionProperty.getMinPayloadBytes() / 3) {
+            return new TextMessage(json);
+        }
+
+        byte[] input = json.getBytes(StandardCharsets.UTF_8);
+        if (input.length < compressionProperty.getMinPayloadBytes()) {
+            return new TextMessage(json);
+        }
+
+        byte[] compressed = deflate(deflater, input, 0);
+        return compressed != null ? new BinaryMessage(compressed) : new TextMessage(json);
+    }
+
+    public WebSocketMessage<?> encodeBinary(WebSocketSession session, byte[] frame) {
+        SessionDeflater deflater = deflaterOf(session);
+        if (deflater == null || frame.length < compressionProperty.getMinPayloadBytes()) {
+            return new BinaryMessage(frame);
+        }
+
+        byte[] compressed = deflate(deflater, frame, 1);
+        if (compressed == null) {
+            return new BinaryMessage(frame);
+        }
+        compressed[0] = BinaryFrameCodec.TYPE_COMPRESSED;
+        return new BinaryMessage(compressed);
+    }
+
+    /**
+     * 팬아웃용. 압축 결과도 payload 에 캐시해 수신자 수와 무관하게 한 번만 deflate 한다
+     * (레벨이 전역 설정이고 메시지마다 reset 하므로 세션이 달라도 결과가 같음).
+     * 캐시는 byte[] 만 하고 BinaryMessage 는 세션마다 새로 만든다 (ByteBuffer position 을 세션 간에 공유하지 않도록)
+     */
+    public WebSocketMessage<?> encode(WebSocketSession session, OutboundPayload payload) {
+        SessionDeflater deflater = deflaterOf(session);
+
+        if (SubProtocolRoutingHandler.isBinary(session) && payload.binaryFrame() != null) {
+            if (deflater == null || payload.binaryFrame().length < compressionProperty.getMinPayloadBytes()) {
+                return payload.binaryMessage();
+            }
+            if (payload.deflatedBinary == null) {
+                byte[] compressed = deflate(deflater, payload.binaryFrame(), 1);
+                if (compressed == null && deflater.released) {
+                    // 해제된 세션의 결과는 캐시하지 않음 (다른 수신자는 압축 이득이 있을 수 있음)
+                    return payload.binaryMessage();
+                }
+                if (compressed != null) {
+                    compressed[0] = BinaryFrameCodec.TYPE_COMPRESSED;
+                }
+                payload.deflatedBinary = compressed != null ? compressed : NOT_COMPRESSIBLE;
+            }
+            return payload.deflatedBinary != NOT_COMPRESSIBLE ? new BinaryMessage(payload.deflatedBinary) : payload.binaryMessage();
+        }
+
+        TextMessage text = payload.textMessage();
+        if (deflater == null || text.getPayloadLength() < compressionProperty.getMinPayloadBytes()) {
+            return text;
+        }
+        if (payload.deflatedText == null) {
+            byte[] compressed = deflate(deflater, text.asBytes(), 0);
+            if (compressed == null && deflater.released) {
+                return text;
+            }
+            payload.deflatedText = compressed != null ? compressed : NOT_COMPRESSIBLE;
+        }
+        return payload.deflatedText != NOT_COMPRESSIBLE ? new BinaryMessage(payload.deflatedText) : text;
+    }
+
+    private SessionDeflater deflaterOf(WebSocketSession session) {
+        Object deflater = session.getAttributes().get(DEFLATER_ATTRIBUTE);
+        return deflater instanceof SessionDeflater d ? d : null;
+    }
+
+    private static boolean negotiatedPerMessageDeflate(WebSocketSession session) {
+        try {
+            return session.getExtensions().stream().anyMatch(e -> PERMESSAGE_DEFLATE.equalsIgnoreCase(e.getName()));
+        } catch (UnsupportedOperationException e) {
+            // 확장 정보를 노출하지 않는 세션 구현 (SockJS 등)
+            return false;
+        }
+    }
+
+    /**
+     * @param reserve 결과 배열 앞쪽에 비워둘 byte 수 (타입 헤더용)
+     * @return 압축 결과가 원본보다 작지 않거나 세션의 Deflater 가 이미 해제됐으면 null
+     */
+    private byte[] deflate(SessionDeflater sessionDeflater, byte[] input, int reserve) {
+        long start = System.nanoTime();
+        byte[] output = new byte[reserve + Math.max(64, input.length / 2)];
+        int length = reserve;
+
+        synchronized (sessionDeflater) {
+            // 연결 종료(release)와 팬아웃이 겹친 경우 - end() 된 Deflater 는 건드리지 않음
+            if (sessionDeflater.released) {
+                return null;
+            }
+            Deflater deflater = sessionDeflater.deflater;
+            deflater.reset();
+            deflater.setInput(input);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                length += deflater.deflate(output, length, output.length - length);
+            }
+        }
+        compressionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        int compressedLength = length - reserve;
+        if (compressedLength >= input.length) {
+            skippedCount.increment();
+            return null;
+        }
+
+        originalBytes.increment(input.length);
+        compressedBytes.increment(compressedLength);
+        compressionRatio.record((double) compressedLength / input.length);
+        return Arrays.copyOf(output, length);
+    }
+
+    /** 세션별 Deflater - released 는 이 객체의 모니터 안에서만 읽고 쓴다 (encode 쪽 읽기는 캐시 여부 판단용 힌트) */
+    private static final class SessionDeflater {
+
+        private final Deflater deflater;
+        private volatile boolean released;
+
+        private SessionDeflater(Deflater deflater) {
+            this.deflater = deflater;
+        }
+    }
+}
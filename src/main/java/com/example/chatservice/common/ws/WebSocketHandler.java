@@ -1,16 +1,11 @@
 package com.example.chatservice.common.ws;
 
+import com.example.chatservice.common.LocalRoomIndex;
 import com.example.chatservice.common.SessionManager;
-import com.example.chatservice.message.service.MessageService;
-import com.example.chatservice.user.UserPrincipal;
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.chatservice.interceptor.JwtHandshakeInterceptor;
+import com.example.chatservice.message.service.MessageResumeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
@@ -18,7 +13,7 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.net.URI;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 @Component
@@ -26,18 +21,31 @@ import java.util.Map;
 @Slf4j
 public class WebSocketHandler extends TextWebSocketHandler {
 
-    private final MessageService messageService;
-    private final ObjectMapper objectMapper;
+    private static final String CHAT_ROOM_REQUIRED_ERROR =
+            "{\"error\": \"chatRoomId is required. Connect with ?chatRoomId=X or include in first message\"}";
+    private static final String PROCESS_FAILED_ERROR = "{\"error\": \"Failed to process message\"}";
+
+    private final InboundFrameParser inboundFrameParser;
+    private final InboundMessageDispatcher inboundMessageDispatcher;
+    private final InboundSessionPipeline inboundSessionPipeline;
+    private final OutboundSessionPipeline outboundSessionPipeline;
+    private final WebSocketCompressor webSocketCompressor;
     private final SessionManager sessionManager;
+    private final LocalRoomIndex localRoomIndex;
+    private final SessionHeartbeatMonitor sessionHeartbeatMonitor;
+    private final MessageResumeService messageResumeService;
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         try {
-            Long userId = extractUserId(session);
+            // userId 는 핸드셰이크에서 JWT 검증 후 저장된 값만 신뢰 (JwtHandshakeInterceptor)
+            Long userId = (Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+            if (userId == null) {
+                throw new IllegalArgumentException("Unauthenticated WebSocket session");
+            }
             Long chatRoomId = extractChatRoomId(session);
 
-            // Session에 userId, chatRoomId 저장
-            session.getAttributes().put("userId", userId);
+            // Session에 chatRoomId 저장
             if (chatRoomId != null) {
                 session.getAttributes().put("chatRoomId", chatRoomId);
                 log.info("WebSocket connected! userId={}, chatRoomId={}, sessionId={}", userId, chatRoomId, session.getId());
@@ -45,8 +53,33 @@ public class WebSocketHandler extends TextWebSocketHandler {
                 log.info("WebSocket connected! userId={} (no chatRoomId), sessionId={}", userId, session.getId());
             }
 
+            // ?compress=deflate 로 애플리케이션 레벨 압축을 요청한 클라이언트만 큰 payload 를 압축해서 받음 (서버 opt-in 필요)
+            if (WebSocketCompressor.DEFLATE.equals(extractQueryParameter(session, WebSocketCompressor.COMPRESS_PARAM))) {
+                webSocketCompressor.enable(session);
+            }
+            // ?coalesce=array 로 요청한 클라이언트는 몰린 메시지를 JSON 배열(바이너리는 MESSAGES) frame 으로 받음
+            if (OutboundFrameCoalescer.ARRAY.equals(extractQueryParameter(session, OutboundFrameCoalescer.COALESCE_PARAM))) {
+                outboundSessionPipeline.enableCoalescing(session);
+            }
+
+            // ?resume=12:345,13:0 (방:마지막 수신 messageId) - 등록 전에 라이브 frame 보류를 시작해야 빈틈이 없음
+            Map<Long, Long> resumeWatermarks = extractResumeWatermarks(session);
+            if (!resumeWatermarks.isEmpty()) {
+                messageResumeService.beginReplay(session);
+            }
+
             // SessionManager에 등록 (Redis에도 저장됨)
             sessionManager.addSession(userId, session);
+            // Kafka 팬아웃용 로컬 방 인덱스 (첫 디바이스일 때만 DB 조회)
+            localRoomIndex.onUserConnected(userId, session.getId());
+            // 서버 주도 ping + 유휴(half-open) 세션 정리 대상으로 등록
+            sessionHeartbeatMonitor.register(userId, session);
+
+            // 재전송은 샤드 DB 조회가 있으므로 세션 인바운드 워커에서 (이후 인바운드 프레임은 재전송 뒤에 처리됨)
+            if (!resumeWatermarks.isEmpty()
+                    && !inboundSessionPipeline.submit(session, () -> messageResumeService.replay(session, resumeWatermarks))) {
+                messageResumeService.endReplay(session);
+            }
         } catch (IllegalArgumentException e) {
             log.error("Invalid WebSocket connection parameters: {}", e.getMessage());
             session.close(CloseStatus.BAD_DATA.withReason("Invalid parameters: " + e.getMessage()));
@@ -69,90 +102,54 @@ public class WebSocketHandler extends TextWebSocketHandler {
 
         log.info("Received message from user {}: {}", senderId, payload);
 
-        // Security Context 설정
-        UserPrincipal userPrincipal = new UserPrincipal(senderId, "username"); // username은 필요시 조회
-        Authentication authentication = new UsernamePasswordAuthenticationToken(
-                userPrincipal,
-                null,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-        );
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
+        InboundFrame frame;
         try {
-            // chatRoomId는 세션에서 먼저 확인
-            Long chatRoomId = (Long) session.getAttributes().get("chatRoomId");
-            String content;
-            Long receiverId = null;
-            
-            // JSON 파싱 시도
-            try {
-                Map<String, Object> messageData = objectMapper.readValue(payload, Map.class);
-                
-                // content 추출
-                if (messageData.containsKey("content")) {
-                    content = messageData.get("content").toString();
-                } else {
-                    // content가 없으면 전체 payload를 content로 사용
-                    content = payload;
-                }
-                
-                // chatRoomId는 메시지에서도 받을 수 있음 (세션에 없을 때만)
-                if (chatRoomId == null && messageData.containsKey("chatRoomId") && messageData.get("chatRoomId") != null) {
-                    chatRoomId = Long.valueOf(messageData.get("chatRoomId").toString());
-                    // 세션에 저장 (다음 메시지부터 사용)
-                    session.getAttributes().put("chatRoomId", chatRoomId);
-                }
-                
-                // receiverId는 선택적 (1:1 채팅일 때만 필요, 그룹 채팅은 null)
-                if (messageData.containsKey("receiverId") && messageData.get("receiverId") != null) {
-                    receiverId = Long.valueOf(messageData.get("receiverId").toString());
-                }
-                
-            } catch (JsonParseException e) {
-                // JSON이 아닌 경우 - 일반 텍스트 메시지로 처리
-                log.info("Received plain text message from user {}: {}", senderId, payload);
-                content = payload;
-            }
-            
-            // chatRoomId 확인
-            if (chatRoomId == null) {
-                String errorMsg = "{\"error\": \"chatRoomId is required. Connect with ?chatRoomId=X or include in first message\"}";
-                session.sendMessage(new TextMessage(errorMsg));
-                log.error("chatRoomId not found for user {}", senderId);
-                return;
-            }
+            // 스트리밍 파서로 한 번에 파싱 (JSON이 아니면 일반 텍스트로 처리됨)
+            frame = inboundFrameParser.parse(payload);
+        } catch (Exception e) {
+            log.error("Error parsing message from user {}", senderId, e);
+            sendError(session, PROCESS_FAILED_ERROR);
+            return;
+        }
 
-            //1번
-            messageService.sendMessageViaWebSocket(senderId, receiverId, chatRoomId, content);
+        // DB 트랜잭션/Redis 처리는 세션 워커에서 (I/O 스레드 블로킹 방지)
+        inboundSessionPipeline.submit(session, () -> processFrame(session, frame));
+    }
 
+    private void processFrame(WebSocketSession session, InboundFrame frame) {
+        Long senderId = (Long) session.getAttributes().get("userId");
+        try {
+            if (!inboundMessageDispatcher.dispatch(session, frame)) {
+                sendError(session, CHAT_ROOM_REQUIRED_ERROR);
+            }
         } catch (Exception e) {
             log.error("Error processing message from user {}", senderId, e);
-            session.sendMessage(new TextMessage("{\"error\": \"Failed to process message\"}"));
+            sendError(session, PROCESS_FAILED_ERROR);
         }
     }
 
+    private void sendError(WebSocketSession session, String errorMsg) {
+        // 일반 메시지와 같은 아웃바운드 큐로 보내 순서/동시 전송 문제를 피함
+        outboundSessionPipeline.enqueue(session, new TextMessage(errorMsg));
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         Long userId = (Long) session.getAttributes().get("userId");
+        inboundSessionPipeline.remove(session);
+        outboundSessionPipeline.remove(session);
+        webSocketCompressor.release(session);
+        sessionHeartbeatMonitor.unregister(session);
 
         if (userId != null) {
-            sessionManager.removeSession(userId);
+            // 이 디바이스 세션만 제거 (같은 유저의 다른 디바이스는 유지)
+            sessionManager.removeSession(userId, session);
+            // 마지막 디바이스인지는 인덱스가 세션 단위로 원자적으로 판단 (재접속과 겹쳐도 인덱스를 지우지 않음)
+            localRoomIndex.onUserDisconnected(userId, session.getId());
             log.info("WebSocket disconnected! userId={}", userId);
         }
     }
 
-    private Long extractUserId(WebSocketSession session) {
-        String userIdStr = extractQueryParameter(session, "userId");
-        if (userIdStr == null || userIdStr.isEmpty()) {
-            throw new IllegalArgumentException("userId is required in query parameter. Format: ws://host/chat?userId=X&chatRoomId=Y");
-        }
-        try {
-            return Long.parseLong(userIdStr);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("userId must be a valid number", e);
-        }
-    }
-    
     private Long extractChatRoomId(WebSocketSession session) {
         String chatRoomIdStr = extractQueryParameter(session, "chatRoomId");
         if (chatRoomIdStr == null || chatRoomIdStr.isEmpty()) {
@@ -166,6 +163,25 @@ public class WebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    private Map<Long, Long> extractResumeWatermarks(WebSocketSession session) {
+        String resume = extractQueryParameter(session, "resume");
+        if (resume == null || !messageResumeService.isEnabled()) {
+            return Map.of();
+        }
+        Map<Long, Long> watermarks = new HashMap<>();
+        try {
+            for (String entry : resume.split(",")) {
+                int separator = entry.indexOf(':');
+                watermarks.put(Long.parseLong(entry.substring(0, separator)),
+                        Long.parseLong(entry.substring(separator + 1)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Invalid resume parameter, ignoring: {}", resume);
+            return Map.of(); // resume 은 선택적이므로 예외를 던지지 않음
+        }
+        return watermarks;
+    }
+
     private String extractQueryParameter(WebSocketSession session, String paramName) {
         URI uri = session.getUri();
         if (uri == null) {
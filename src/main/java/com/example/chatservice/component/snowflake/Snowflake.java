@@ -44,6 +44,13 @@ public class Snowflake {
 			| sequence;
 	}
 
+	/**
+	 * 해당 시각 이후에 발급된 id 는 모두 이 값 이상 (시간 범위를 id 범위 조건으로 바꿀 때 사용)
+	 */
+	public long minIdAt(long epochMillis) {
+		return Math.max(0, epochMillis - startTimeMillis) << (NODE_ID_BITS + SEQUENCE_BITS);
+	}
+
 	private long waitNextMillis(long currentTimestamp) {
 		while (currentTimestamp <= lastTimeMillis) {
 			currentTimestamp = System.currentTimeMillis();
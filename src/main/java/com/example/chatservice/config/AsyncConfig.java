@@ -41,4 +41,53 @@ public class AsyncConfig {
 
         return executor;
     }
+
+    /**
+     * WebSocket 세션별 인바운드 큐를 비우는 워커.
+     * DB 트랜잭션/Redis 호출 동안 블로킹되므로 플랫폼 스레드 풀 대신 virtual thread 를 사용
+     */
+    @Bean(name = "inboundMessageExecutor")
+    public ExecutorService inboundMessageExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-inbound-", 0).factory());
+    }
+
+    /**
+     * WebSocket 세션별 아웃바운드 큐를 비우는 워커. 느린 클라이언트로의 소켓 쓰기 동안 블로킹되므로 virtual thread
+     */
+    @Bean(name = "outboundMessageExecutor")
+    public ExecutorService outboundMessageExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-outbound-", 0).factory());
+    }
+
+    /**
+     * 하트비트 ping / 유휴 세션 close 전송용. 타이머 휠 스레드가 소켓 I/O 에 묶이지 않도록 분리
+     */
+    @Bean(name = "heartbeatExecutor")
+    public ExecutorService heartbeatExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-heartbeat-", 0).factory());
+    }
+
+    /**
+     * 노드 간 포워딩 HttpClient 의 응답 처리 스레드. 종료 시 남은 응답 콜백을 정리하도록 빈 라이프사이클에 묶는다
+     */
+    @Bean(name = "internalHttpExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService internalHttpExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("internal-http-", 0).factory());
+    }
+
+    /**
+     * presence 쓰기를 모아서 Redis 에 반영하는 단일 writer (PresenceWriteCoalescer)
+     */
+    @Bean(name = "presenceWriteExecutor")
+    public ExecutorService presenceWriteExecutor() {
+        return Executors.newSingleThreadExecutor(Thread.ofVirtual().name("presence-writer").factory());
+    }
+
+    /**
+     * 노드 presence lease 갱신 / 죽은 노드 정리. 주기 작업 하나뿐이라 단일 스레드
+     */
+    @Bean(name = "presenceLeaseScheduler", destroyMethod = "shutdownNow")
+    public ScheduledExecutorService presenceLeaseScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("presence-lease").daemon().factory());
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.chatservice.config;
+
+import com.example.chatservice.property.InternalHttpClientProperty;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@EnableConfigurationProperties(InternalHttpClientProperty.class)
+public class InternalHttpClientConfig {
+
+    /**
+     * 노드 간 포워딩용 JDK HttpClient. 대상 노드별로 keep-alive 연결을 재사용 (요청마다 새 연결 X),
+     * 응답 처리는 virtual thread 에서 하므로 sendAsync 호출 스레드(Tomcat / Kafka)를 막지 않는다
+     */
+    @Bean
+    public HttpClient internalHttpClient(InternalHttpClientProperty property,
+                                         @Qualifier("internalHttpExecutor") ExecutorService internalHttpExecutor) {
+        return HttpClient.newBuilder()
+                .version(property.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(property.getConnectTimeoutMillis()))
+                .executor(internalHttpExecutor)
+                .build();
+    }
+
+}
@@ -1,13 +1,23 @@
 package com.example.chatservice.config;
 
+import com.example.chatservice.common.ServerInfoProvider;
 import com.example.chatservice.message.event.ChatMessageEvent;
+import com.example.chatservice.message.kafka.NodeDeliveryProducer;
+import com.example.chatservice.property.KafkaDeliveryProperty;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
@@ -22,6 +32,7 @@ import java.util.Map;
  * Producer와 Consumer 설정
  */
 @Configuration
+@EnableConfigurationProperties(KafkaDeliveryProperty.class)
 public class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
@@ -86,11 +97,73 @@ public class KafkaConfig {
         
         return factory;
     }
-}
 
+    /**
+     * ROUTED 모드 fan-out 단계. 노드 토픽 발행 확인 콜백에서 커밋하므로 순서가 뒤섞인 ack 를 허용 (앞 레코드가 끝날 때까지 커밋 보류)
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ChatMessageEvent> chatFanoutListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ChatMessageEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
 
+    /**
+     * 노드별 delivery 레코드 (ROUTED 모드) - 값은 바이너리 DeliveryEnvelope 그대로
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> nodeDeliveryProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.RETRIES_CONFIG, 3);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
 
+        return new DefaultKafkaProducerFactory<>(config);
+    }
 
+    @Bean
+    public KafkaTemplate<String, byte[]> nodeDeliveryKafkaTemplate() {
+        return new KafkaTemplate<>(nodeDeliveryProducerFactory());
+    }
 
+    @Bean
+    public ConsumerFactory<String, byte[]> nodeDeliveryConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        // 처음 뜨는 노드는 자기 토픽에 쌓여 있던 (이전 실행 때의) 전달을 다시 보내지 않음
+        // 커밋이 없을 때(처음 뜬 노드) 컨슈머 할당 전에 이미 발행된 레코드도 받도록 - 토픽 보존 기간이 재처리 상한
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
+        return new DefaultKafkaConsumerFactory<>(config);
+    }
 
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> nodeDeliveryListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(nodeDeliveryConsumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * 이 노드의 delivery 토픽 (KafkaAdmin 이 기동 시 생성)
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.kafka.delivery", name = "mode", havingValue = "ROUTED")
+    public NewTopic nodeDeliveryTopic(ServerInfoProvider serverInfoProvider, KafkaDeliveryProperty deliveryProperty) {
+        return TopicBuilder.name(NodeDeliveryProducer.topicFor(deliveryProperty, serverInfoProvider.getServerAddress()))
+                .partitions(deliveryProperty.getNodeTopicPartitions())
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(deliveryProperty.getNodeTopicRetentionMillis()))
+                .build();
+    }
+}
@@ -17,4 +17,16 @@ public class MessageRetryExecutorConfig {
         return Executors.newScheduledThreadPool(2);
     }
 
+    /**
+     * ForwardCoalescer 의 window flush 전용. 재시도 / 링크 재연결 작업이 밀려도 flush 가 늦어지지 않도록 retryScheduler 와 분리
+     */
+    @Bean(name = "forwardFlushScheduler", destroyMethod = "shutdown")
+    public ScheduledExecutorService forwardFlushScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "forward-coalesce-flush");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
 }
@@ -1,14 +1,21 @@
 package com.example.chatservice.config;
 
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
+@EnableConfigurationProperties(RedisCircuitBreakerProperty.class)
 public class RedisConfig {
 
     @Value("${spring.data.redis.host}")
@@ -18,8 +25,12 @@ public class RedisConfig {
     private int port;
 
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory(host, port);
+    public RedisConnectionFactory redisConnectionFactory(RedisCircuitBreakerProperty breakerProperty) {
+        // 기본 60초 타임아웃이면 Redis 가 멈췄을 때 circuit breaker 가 열리기 전까지 요청 스레드가 오래 묶임
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofMillis(breakerProperty.getCommandTimeoutMillis()))
+                .build();
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port), clientConfiguration);
     }
 
     @Bean
@@ -1,23 +1,28 @@
 package com.example.chatservice.config;
 
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties(RedisCircuitBreakerProperty.class)
 public class RedissonConfig {
 
     @Bean(destroyMethod = "shutdown")
     public RedissonClient redissonClient(
             @Value("${spring.data.redis.host}") String host,
-            @Value("${spring.data.redis.port}") int port
+            @Value("${spring.data.redis.port}") int port,
+            RedisCircuitBreakerProperty breakerProperty
     ) {
         Config config = new Config();
         config.useSingleServer()
-                .setAddress("redis://" + host + ":" + port);
+                .setAddress("redis://" + host + ":" + port)
+                .setTimeout((int) breakerProperty.getCommandTimeoutMillis());
         return Redisson.create(config);
     }
 }
@@ -1,6 +1,9 @@
 package com.example.chatservice.config;
 
-import com.example.chatservice.common.ws.WebSocketHandler;
+import com.example.chatservice.common.ws.SubProtocolRoutingHandler;
+import com.example.chatservice.interceptor.DrainingHandshakeInterceptor;
+import com.example.chatservice.interceptor.JwtHandshakeInterceptor;
+import com.example.chatservice.message.link.NodeLinkServerHandler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -12,11 +15,20 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketConfigurer {
 
-    private final WebSocketHandler webSocketHandler;
+    private final SubProtocolRoutingHandler subProtocolRoutingHandler;
+    private final DrainingHandshakeInterceptor drainingHandshakeInterceptor;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final NodeLinkServerHandler nodeLinkServerHandler;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(webSocketHandler, "/chat")
+        // JSON(기본) / 바이너리(chat.binary.v1) 는 핸드셰이크의 서브 프로토콜로 선택
+        registry.addHandler(subProtocolRoutingHandler, "/chat")
+                // 종료 중이면 JWT 검증 전에 거절, JWT 는 핸드셰이크에서 한 번만 검증
+                .addInterceptors(drainingHandshakeInterceptor, jwtHandshakeInterceptor)
                 .setAllowedOrigins("*");
+
+        // 노드 간 상시 링크 (app.forward.transport=LINK). /internal/message 와 같이 내부망 전용
+        registry.addHandler(nodeLinkServerHandler, "/internal/link");
     }
 }
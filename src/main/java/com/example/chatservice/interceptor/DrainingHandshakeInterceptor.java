@@ -0,0 +1,38 @@
+package com.example.chatservice.interceptor;
+
+import com.example.chatservice.common.ws.SessionDrainCoordinator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * 종료(drain) 중인 노드는 새 WebSocket 핸드셰이크를 503 으로 거절해 클라이언트가 다른 노드로 붙게 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class DrainingHandshakeInterceptor implements HandshakeInterceptor {
+
+    private final SessionDrainCoordinator sessionDrainCoordinator;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (sessionDrainCoordinator.isDraining()) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set("Retry-After", "1");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.chatservice.interceptor;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.chatservice.jwt.JWTProvider;
+import com.example.chatservice.user.UserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * WebSocket 핸드셰이크 시점에 JWT 를 한 번만 검증하고, 인증 정보를 세션 attribute 에 캐싱한다.
+ * 이후 프레임마다 principal / authentication 객체를 새로 만들지 않는다.
+ *
+ * 브라우저 WebSocket API 는 헤더를 지정할 수 없으므로 Authorization 헤더가 없으면 ?token= 쿼리 파라미터를 사용한다.
+ */
+@Slf4j
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+    public static final String PRINCIPAL_ATTRIBUTE = "principal";
+    public static final String SECURITY_CONTEXT_ATTRIBUTE = "securityContext";
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = resolveToken(request);
+        if (token == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            DecodedJWT decodedJWT = JWTProvider.verifyAccessToken(token);
+
+            Long userId = decodedJWT.getClaim("userId").asLong();
+            if (userId == null) {
+                log.warn("WebSocket handshake rejected: userId claim not found");
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+
+            // 세션 동안 불변 - 프레임 처리 시에는 이 객체들을 그대로 재사용
+            UserPrincipal userPrincipal = new UserPrincipal(userId, decodedJWT.getSubject());
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                    userPrincipal,
+                    null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+            );
+
+            attributes.put(USER_ID_ATTRIBUTE, userId);
+            attributes.put(PRINCIPAL_ATTRIBUTE, userPrincipal);
+            attributes.put(SECURITY_CONTEXT_ATTRIBUTE, new SecurityContextImpl(authentication));
+            return true;
+
+        } catch (JWTVerificationException e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String resolveToken(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+
+        String token = UriComponentsBuilder.fromUri(request.getURI())
+                .build()
+                .getQueryParams()
+                .getFirst("token");
+        return token == null || token.isEmpty() ? null : token;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.chatservice.message.channel;
+
+import com.example.chatservice.common.RedisCircuitBreaker;
+import com.example.chatservice.common.ServerInfoProvider;
+import com.example.chatservice.common.ws.BinaryFrameCodec;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.EnvelopeFanout;
+import com.example.chatservice.message.link.NodeLinkFrameCodec;
+import com.example.chatservice.message.service.DeliveryTransport;
+import com.example.chatservice.message.service.DeliveryTransportUnavailableException;
+import com.example.chatservice.property.MessageForwardProperty;
+import com.example.chatservice.property.RedisNodeChannelProperty;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 노드마다 자기 Redis 채널(node:{serverAddress})을 구독하고, 다른 노드로 보낼 envelope 를 그 채널에 publish 한다.
+ * 이미 라우팅 조회로 붙어 있는 Redis 연결을 그대로 쓰므로 노드 간 HTTP 연결 / 요청 비용이 없다.
+ *
+ * <pre>
+ * 채널 메시지 = varint replyLength | replyTo (보낸 노드 주소, UTF-8) | 노드 링크 프레임 (NodeLinkFrameCodec DELIVER / ACK)
+ * </pre>
+ * 받은 노드는 envelope 를 세션으로 전달한 뒤 보낸 노드 채널로 같은 seq 의 ACK(세션이 없던 receiverId)를 publish 한다.
+ * publish 를 받은 구독자가 없으면(대상 노드가 구독 전 / 다운) 바로 DeliveryTransportUnavailableException 으로 실패시켜 HTTP 로 대체한다.
+ * 이 노드는 전송 방식 설정과 상관없이 항상 구독한다 (롤링 배포 중 다른 노드가 REDIS 로 보내도 받을 수 있도록).
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(RedisNodeChannelProperty.class)
+public class RedisNodeChannelTransport implements DeliveryTransport {
+
+    static final String CHANNEL_PREFIX = "node:";
+
+    private final RedissonClient redissonClient;
+    private final ServerInfoProvider serverInfoProvider;
+    private final EnvelopeFanout envelopeFanout;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final RedisNodeChannelProperty channelProperty;
+    private final AtomicLong seq = new AtomicLong();
+    private final Map<Long, CompletableFuture<long[]>> pending = new ConcurrentHashMap<>();
+    private final Map<String, RTopic> topics = new ConcurrentHashMap<>();
+    private RTopic inbox;
+    private int listenerId;
+
+    public RedisNodeChannelTransport(RedissonClient redissonClient,
+                                     ServerInfoProvider serverInfoProvider,
+                                     EnvelopeFanout envelopeFanout,
+                                     RedisCircuitBreaker redisCircuitBreaker,
+                                     RedisNodeChannelProperty channelProperty) {
+        this.redissonClient = redissonClient;
+        this.serverInfoProvider = serverInfoProvider;
+        this.envelopeFanout = envelopeFanout;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.channelProperty = channelProperty;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        inbox = topic(serverInfoProvider.getServerAddress());
+        listenerId = inbox.addListener(byte[].class, (channel, body) -> onMessage(body));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        inbox.removeListener(listenerId);
+        pending.values().forEach(ack -> ack.completeExceptionally(
+                new DeliveryTransportUnavailableException("Redis node channel shut down")));
+    }
+
+    @Override
+    public MessageForwardProperty.Transport transport() {
+        return MessageForwardProperty.Transport.REDIS;
+    }
+
+    /**
+     * ACK 가 제때 오지 않으면 TimeoutException 으로 실패
+     */
+    @Override
+    public CompletableFuture<long[][]> send(String serverAddress, DeliveryEnvelope envelope) {
+        if (redisCircuitBreaker.isDegraded()) {
+            return CompletableFuture.failedFuture(new DeliveryTransportUnavailableException("Redis is degraded"));
+        }
+        if (pending.size() >= channelProperty.getMaxPendingEnvelopes()) {
+            return CompletableFuture.failedFuture(new DeliveryTransportUnavailableException(
+                    "Too many unacknowledged envelopes on Redis node channels"));
+        }
+
+        long envelopeSeq = seq.incrementAndGet();
+        CompletableFuture<long[]> ack = new CompletableFuture<>();
+        pending.put(envelopeSeq, ack);
+        ack.whenComplete((result, e) -> pending.remove(envelopeSeq));
+
+        byte[] body = wrap(serverInfoProvider.getServerAddress(), NodeLinkFrameCodec.encodeDeliver(envelopeSeq, envelope));
+        topic(serverAddress).publishAsync(body).whenComplete((receivers, e) -> {
+            if (e != null) {
+                ack.completeExceptionally(e);
+            } else if (receivers == 0) {
+                ack.completeExceptionally(new DeliveryTransportUnavailableException(
+                        "No subscriber on " + CHANNEL_PREFIX + serverAddress));
+            }
+        });
+        return ack.orTimeout(channelProperty.getAckTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(envelope::notConnectedPerDelivery);
+    }
+
+    void onMessage(byte[] body) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            String replyTo = readReplyTo(buffer);
+            if (buffer.get(buffer.position()) == NodeLinkFrameCodec.TYPE_DELIVER) {
+                NodeLinkFrameCodec.Deliver deliver = NodeLinkFrameCodec.decodeDeliver(buffer);
+                long[] notConnected = envelopeFanout.deliverAll(deliver.envelope());
+                topic(replyTo).publishAsync(wrap(serverInfoProvider.getServerAddress(),
+                        NodeLinkFrameCodec.encodeAck(deliver.seq(), notConnected)));
+                return;
+            }
+            NodeLinkFrameCodec.Ack ack = NodeLinkFrameCodec.decodeAck(buffer);
+            CompletableFuture<long[]> waiting = pending.get(ack.seq());
+            if (waiting != null) {
+                waiting.complete(ack.notConnected());
+            }
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            log.error("Dropped malformed message on Redis node channel: {}", e.getMessage());
+        }
+    }
+
+    private RTopic topic(String serverAddress) {
+        return topics.computeIfAbsent(serverAddress,
+                address -> redissonClient.getTopic(CHANNEL_PREFIX + address, ByteArrayCodec.INSTANCE));
+    }
+
+    static byte[] wrap(String replyTo, byte[] frame) {
+        byte[] address = replyTo.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryFrameCodec.varintSize(address.length) + address.length + frame.length);
+        BinaryFrameCodec.writeVarint(buffer, address.length);
+        return buffer.put(address).put(frame).array();
+    }
+
+    private static String readReplyTo(ByteBuffer buffer) {
+        long length = BinaryFrameCodec.readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid reply address length: " + length);
+        }
+        byte[] address = new byte[(int) length];
+        buffer.get(address);
+        return new String(address, StandardCharsets.UTF_8);
+    }
+}
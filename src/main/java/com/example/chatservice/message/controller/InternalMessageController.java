@@ -1,106 +1,113 @@
 package com.example.chatservice.message.controller;
 
 import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.message.envelope.EnvelopeFanout;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 public class InternalMessageController {
 
+    private final DeliveryEnvelopeCodec deliveryEnvelopeCodec;
+    private final EnvelopeFanout envelopeFanout;
     private final SessionManager sessionManager;
 
     /**
-     * 다른 서버에서 메시지를 전달받는 엔드포인트 (단일 유저)
-     * 예: 8080 서버에서 8081 서버로 메시지 전달
+     * 다른 서버에서 메시지를 전달받는 엔드포인트 (단건 / 여러 수신자 / ForwardCoalescer 가 모은 여러 메시지 모두)
+     * 요청: 바이너리 DeliveryEnvelope (application/x-chat-envelope)
+     * 응답: deliveries 순서대로, 이 서버에 세션이 없어 전달하지 못한 receiverId 목록 - 보낸 쪽이 라우팅을 다시 조회해 재전송
      */
-    @PostMapping("/internal/message")
-    public void receiveMessageFromOtherServer(@RequestBody Map<String, Object> request) {
-        try {
-            Long receiverId = Long.valueOf(request.get("receiverId").toString());
-            Long senderId = Long.valueOf(request.get("senderId").toString());
-            String content = request.get("content").toString();
-
-            log.info("Received message from other server: receiverId={}, senderId={}, content={}",
-                    receiverId, senderId, content);
-
-            // 메시지 데이터 구성
-            Map<String, Object> messageData = createMessageData(request);
-
-            // SessionManager를 통해 해당 유저에게 전송
-            sessionManager.sendToUser(receiverId, messageData);
-
-            log.info("Message delivered to user {} via WebSocket", receiverId);
+    @PostMapping(value = "/internal/message/envelope", consumes = DeliveryEnvelopeCodec.BINARY_CONTENT_TYPE)
+    public ResponseEntity<long[][]> receiveBinaryEnvelope(@RequestBody byte[] body) {
+        return receive(() -> DeliveryEnvelopeCodec.decodeBinary(ByteBuffer.wrap(body)));
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to process message from other server", e);
-            throw new RuntimeException("Failed to process internal message", e);
-        }
+    /**
+     * JSON DeliveryEnvelope (app.forward.codec=JSON, 디버깅 / 호환용)
+     */
+    @PostMapping(value = "/internal/message/envelope", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<long[][]> receiveJsonEnvelope(@RequestBody byte[] body) {
+        return receive(() -> deliveryEnvelopeCodec.decodeJson(body));
     }
 
     /**
-     * 다른 서버에서 배치로 메시지를 전달받는 엔드포인트 (여러 유저)
-     * 예: 8080 서버에서 8081 서버로 200명의 유저에게 메시지 전달
+     * 이전 릴리스 노드가 보내는 단건 전달 (롤링 배포 호환용, 다음 릴리스에서 제거).
+     * 이전 릴리스와 같은 계약 - 세션이 없어도 200 (보내는 쪽은 응답 본문 / 410 을 해석하지 않음), 깨진 요청은 400
      */
+    @Deprecated(forRemoval = true)
+    @PostMapping("/internal/message")
+    public ResponseEntity<Void> receiveLegacyMessage(@RequestBody Map<String, Object> request) {
+        return legacy(() -> DeliveryEnvelope.of(List.of(legacyDelivery(request, List.of(request.get("receiverId"))))));
+    }
 
-    /// TODO  post 요청을 /internal/message 에서는 250번 보낼때 이걸써서 한번에 보내겟다는 뜻인가?
+    /**
+     * 이전 릴리스 노드가 보내는 여러 수신자 전달 (롤링 배포 호환용, 다음 릴리스에서 제거)
+     */
+    @Deprecated(forRemoval = true)
     @PostMapping("/internal/message/batch")
-    public void receiveMessageBatch(@RequestBody Map<String, Object> request) {
-        try {
-            @SuppressWarnings("unchecked")
-            List<Integer> receiverIdsRaw = (List<Integer>) request.get("receiverIds");
-            List<Long> receiverIds = receiverIdsRaw.stream()
-                    .map(Integer::longValue)
-                    .toList();
-
-            Long senderId = Long.valueOf(request.get("senderId").toString());
-            String content = request.get("content").toString();
-
-            log.info("[BATCH] Received message from other server for {} users: senderId={}, content={}",
-                    receiverIds.size(), senderId, content);
-
-            // 메시지 데이터 구성
-            Map<String, Object> messageData = createMessageData(request);
-
-            // 각 유저에게 WebSocket으로 전송
-            int successCount = 0;
-            for (Long receiverId : receiverIds) {
-                try {
-                    sessionManager.sendToUser(receiverId, messageData);
-                    successCount++;
-                } catch (Exception e) {
-                    log.error("[BATCH] Failed to send message to user {}", receiverId, e);
-                }
-            }
-
-            log.info("[BATCH] Message delivered to {}/{} users via WebSocket", successCount, receiverIds.size());
+    public ResponseEntity<Void> receiveLegacyBatch(@RequestBody Map<String, Object> request) {
+        return legacy(() -> DeliveryEnvelope.of(List.of(legacyDelivery(request, (List<?>) request.get("receiverIds")))));
+    }
 
-        } catch (Exception e) {
-            log.error("[BATCH] Failed to process batch message from other server", e);
-            throw new RuntimeException("Failed to process internal batch message", e);
+    private ResponseEntity<Void> legacy(Supplier<DeliveryEnvelope> decoder) {
+        ResponseEntity<long[][]> response = receive(decoder);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return ResponseEntity.status(response.getStatusCode()).build();
+        }
+        long notConnected = Arrays.stream(response.getBody()).mapToLong(receivers -> receivers.length).sum();
+        if (notConnected > 0) {
+            log.warn("{} users of a message from a previous-release node are not connected to this server", notConnected);
         }
+        return ResponseEntity.ok().build();
     }
 
-    private Map<String, Object> createMessageData(Map<String, Object> request) {
-        Long messageId = Long.valueOf(request.get("messageId").toString());
-        Long senderId = Long.valueOf(request.get("senderId").toString());
-        String content = request.get("content").toString();
-        Long chatRoomId = Long.valueOf(request.get("chatRoomId").toString());
-        Object sentAt = request.get("sentAt");
+    private ResponseEntity<long[][]> receive(Supplier<DeliveryEnvelope> decoder) {
+        DeliveryEnvelope envelope;
+        try {
+            envelope = decoder.get();
+        } catch (IllegalArgumentException e) {
+            // 모르는 버전 / 깨진 envelope - 재시도해도 같으므로 4xx
+            log.error("Rejected delivery envelope from other server: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(envelopeFanout.deliver(envelope));
+    }
 
-        return Map.of(
-                "messageId", messageId,
-                "senderId", senderId,
-                "content", content,
-                "chatRoomId", chatRoomId,
-                "sentAt", sentAt != null ? sentAt.toString() : ""
-        );
+    /**
+     * 이전 릴리스의 Map 요청을 DeliveryEnvelope.Delivery 로 - client payload 는 여기서 한 번만 인코딩
+     */
+    private DeliveryEnvelope.Delivery legacyDelivery(Map<String, Object> request, List<?> receiverIds) {
+        try {
+            long messageId = Long.parseLong(request.get("messageId").toString());
+            long chatRoomId = Long.parseLong(request.get("chatRoomId").toString());
+            Object sentAt = request.get("sentAt");
+            Map<String, Object> messageData = Map.of(
+                    "messageId", messageId,
+                    "senderId", Long.valueOf(request.get("senderId").toString()),
+                    "content", request.get("content").toString(),
+                    "chatRoomId", chatRoomId,
+                    "sentAt", sentAt != null ? sentAt : "");
+            long[] receivers = receiverIds.stream()
+                    .mapToLong(receiverId -> Long.parseLong(receiverId.toString()))
+                    .toArray();
+            return DeliveryEnvelope.Delivery.of(receivers, messageId, chatRoomId, sessionManager.encode(messageData));
+        } catch (NullPointerException | ClassCastException e) {
+            throw new IllegalArgumentException("Malformed legacy message from other server: " + request.keySet(), e);
+        }
     }
 }
@@ -4,6 +4,7 @@ import com.example.chatservice.common.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Builder;
 import lombok.Getter;
@@ -15,7 +16,8 @@ import java.time.LocalDateTime;
 @Entity
 @Getter
 @NoArgsConstructor
-@Table(name = "messages")
+// 방별 keyset 조회(chat_room_id = ? AND id > ? ORDER BY id) 용 복합 인덱스
+@Table(name = "messages", indexes = @Index(name = "idx_messages_chat_room_id_id", columnList = "chat_room_id, id"))
 public class Message {
 
     @Id
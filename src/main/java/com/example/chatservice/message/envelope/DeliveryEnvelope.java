@@ -0,0 +1,56 @@
+package com.example.chatservice.message.envelope;
+
+import com.example.chatservice.common.ws.OutboundPayload;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 노드 간 전달 단위. 보내는 노드가 클라이언트용 payload 를 미리 인코딩해서 담고,
+ * 받는 노드는 payload 를 다시 디코딩하지 않고 그대로 소켓에 쓴다 (OutboundPayload.preEncoded).
+ *
+ * @param version 와이어 포맷 버전 (DeliveryEnvelopeCodec.VERSION)
+ */
+public record DeliveryEnvelope(int version, List<Delivery> deliveries) {
+
+    public static DeliveryEnvelope of(List<Delivery> deliveries) {
+        return new DeliveryEnvelope(DeliveryEnvelopeCodec.VERSION, deliveries);
+    }
+
+    /**
+     * envelope 전체 기준으로 받은 미전달 receiverId(노드 링크 / Redis 채널 ACK)를 deliveries 별로 나눈다
+     */
+    public long[][] notConnectedPerDelivery(long[] notConnected) {
+        long[][] perDelivery = new long[deliveries.size()][];
+        if (notConnected.length == 0) {
+            Arrays.fill(perDelivery, new long[0]);
+            return perDelivery;
+        }
+        Set<Long> missing = Arrays.stream(notConnected).boxed().collect(Collectors.toSet());
+        for (int i = 0; i < perDelivery.length; i++) {
+            perDelivery[i] = Arrays.stream(deliveries.get(i).receiverIds()).filter(missing::contains).toArray();
+        }
+        return perDelivery;
+    }
+
+    /**
+     * 메시지 하나를 같은 노드의 여러 수신자에게
+     *
+     * @param json        JSON 세션용 client payload (UTF-8)
+     * @param binaryFrame 바이너리 서브 프로토콜 세션용 MESSAGE 프레임, 없으면 null (바이너리 세션에도 JSON 전송)
+     */
+    public record Delivery(long messageId, long chatRoomId, long[] receiverIds, byte[] json, byte[] binaryFrame) {
+
+        public static Delivery of(long[] receiverIds, long messageId, long chatRoomId, OutboundPayload payload) {
+            return new Delivery(messageId, chatRoomId, receiverIds,
+                    payload.textMessage().asBytes(), payload.binaryFrame());
+        }
+
+        public OutboundPayload toPayload() {
+            return OutboundPayload.preEncoded(new TextMessage(json), binaryFrame);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.chatservice.message.envelope;
+
+import com.example.chatservice.common.ws.BinaryFrameCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DeliveryEnvelope 인코더/디코더.
+ *
+ * <pre>
+ * 바이너리 (application/x-chat-envelope, 기본)
+ * envelope = version(1 byte) | varint count | delivery * count
+ * delivery = varint messageId | varint chatRoomId | varint receiverCount | varint receiverId * receiverCount
+ *            | varint jsonLength | json | varint binaryLength | binaryFrame   (binaryLength 0 = 없음)
+ *
+ * JSON (application/json, 디버깅 / 호환용)
+ * {"v":1,"deliveries":[{"messageId":..,"chatRoomId":..,"receiverIds":[..],"payload":"{client json}","binary":"base64"}]}
+ * </pre>
+ * 모르는 version 은 IllegalArgumentException - 롤링 배포 중에는 새 버전을 보내기 전에 모든 노드가 읽을 수 있어야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeliveryEnvelopeCodec {
+
+    public static final int VERSION = 1;
+    public static final String BINARY_CONTENT_TYPE = "application/x-chat-envelope";
+
+    private final ObjectMapper objectMapper;
+
+    public static byte[] encodeBinary(DeliveryEnvelope envelope) {
+        int size = 1 + BinaryFrameCodec.varintSize(envelope.deliveries().size());
+        for (DeliveryEnvelope.Delivery delivery : envelope.deliveries()) {
+            size += deliverySize(delivery);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) envelope.version());
+        BinaryFrameCodec.writeVarint(buffer, envelope.deliveries().size());
+        for (DeliveryEnvelope.Delivery delivery : envelope.deliveries()) {
+            BinaryFrameCodec.writeVarint(buffer, delivery.messageId());
+            BinaryFrameCodec.writeVarint(buffer, delivery.chatRoomId());
+            BinaryFrameCodec.writeVarint(buffer, delivery.receiverIds().length);
+            for (long receiverId : delivery.receiverIds()) {
+                BinaryFrameCodec.writeVarint(buffer, receiverId);
+            }
+            writeBytes(buffer, delivery.json());
+            writeBytes(buffer, delivery.binaryFrame() != null ? delivery.binaryFrame() : new byte[0]);
+        }
+        return buffer.array();
+    }
+
+    public static DeliveryEnvelope decodeBinary(ByteBuffer buffer) {
+        try {
+            int version = buffer.get();
+            checkVersion(version);
+            int count = readCount(buffer);
+            List<DeliveryEnvelope.Delivery> deliveries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long messageId = BinaryFrameCodec.readVarint(buffer);
+                long chatRoomId = BinaryFrameCodec.readVarint(buffer);
+                long[] receiverIds = new long[readCount(buffer)];
+                for (int j = 0; j < receiverIds.length; j++) {
+                    receiverIds[j] = BinaryFrameCodec.readVarint(buffer);
+                }
+                byte[] json = readBytes(buffer);
+                byte[] binaryFrame = readBytes(buffer);
+                deliveries.add(new DeliveryEnvelope.Delivery(messageId, chatRoomId, receiverIds, json,
+                        binaryFrame.length == 0 ? null : binaryFrame));
+            }
+            return new DeliveryEnvelope(version, deliveries);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated delivery envelope", e);
+        }
+    }
+
+    public byte[] encodeJson(DeliveryEnvelope envelope) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("v", envelope.version());
+        ArrayNode deliveries = root.putArray("deliveries");
+        for (DeliveryEnvelope.Delivery delivery : envelope.deliveries()) {
+            ObjectNode node = deliveries.addObject();
+            node.put("messageId", delivery.messageId());
+            node.put("chatRoomId", delivery.chatRoomId());
+            ArrayNode receiverIds = node.putArray("receiverIds");
+            for (long receiverId : delivery.receiverIds()) {
+                receiverIds.add(receiverId);
+            }
+            node.put("payload", new String(delivery.json(), StandardCharsets.UTF_8));
+            if (delivery.binaryFrame() != null) {
+                node.put("binary", delivery.binaryFrame());
+            }
+        }
+        try {
+            return objectMapper.writeValueAsBytes(root);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public DeliveryEnvelope decodeJson(byte[] body) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed delivery envelope", e);
+        }
+        int version = root.path("v").asInt(-1);
+        checkVersion(version);
+
+        List<DeliveryEnvelope.Delivery> deliveries = new ArrayList<>();
+        for (JsonNode node : root.path("deliveries")) {
+            JsonNode receiverNodes = node.path("receiverIds");
+            long[] receiverIds = new long[receiverNodes.size()];
+            for (int i = 0; i < receiverIds.length; i++) {
+                receiverIds[i] = receiverNodes.get(i).asLong(); // long 범위 그대로 (Integer 캐스팅 X)
+            }
+            try {
+                deliveries.add(new DeliveryEnvelope.Delivery(
+                        node.path("messageId").asLong(),
+                        node.path("chatRoomId").asLong(),
+                        receiverIds,
+                        node.path("payload").asText().getBytes(StandardCharsets.UTF_8),
+                        node.hasNonNull("binary") ? node.get("binary").binaryValue() : null));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Malformed binary frame in delivery envelope", e);
+            }
+        }
+        return new DeliveryEnvelope(version, deliveries);
+    }
+
+    private static void checkVersion(int version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported delivery envelope version: " + version);
+        }
+    }
+
+    private static int deliverySize(DeliveryEnvelope.Delivery delivery) {
+        int size = BinaryFrameCodec.varintSize(delivery.messageId())
+                + BinaryFrameCodec.varintSize(delivery.chatRoomId())
+                + BinaryFrameCodec.varintSize(delivery.receiverIds().length);
+        for (long receiverId : delivery.receiverIds()) {
+            size += BinaryFrameCodec.varintSize(receiverId);
+        }
+        int binaryLength = delivery.binaryFrame() != null ? delivery.binaryFrame().length : 0;
+        return size + BinaryFrameCodec.varintSize(delivery.json().length) + delivery.json().length
+                + BinaryFrameCodec.varintSize(binaryLength) + binaryLength;
+    }
+
+    private static void writeBytes(ByteBuffer buffer, byte[] bytes) {
+        BinaryFrameCodec.writeVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        int length = readCount(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /** 길이 / 개수는 남은 바이트보다 클 수 없음 (각 항목 최소 1바이트) - 잘못된 입력으로 큰 배열을 잡지 않도록 */
+    private static int readCount(ByteBuffer buffer) {
+        long count = BinaryFrameCodec.readVarint(buffer);
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length in delivery envelope: " + count);
+        }
+        return (int) count;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.chatservice.message.envelope;
+
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.ws.OutboundPayload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 다른 노드에서 받은 envelope 를 이 노드의 세션으로 전달 (HTTP / 노드 링크 공통).
+ * 미리 인코딩된 payload 를 그대로 쓰므로 메시지를 다시 디코딩 / 직렬화하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EnvelopeFanout {
+
+    private final SessionManager sessionManager;
+
+    /**
+     * @return envelope 전체에서 이 서버에 세션이 없어 전달하지 못한 receiverId (노드 링크 / Redis 채널 ACK 용)
+     */
+    public long[] deliverAll(DeliveryEnvelope envelope) {
+        return Arrays.stream(deliver(envelope))
+                .flatMapToLong(Arrays::stream)
+                .toArray();
+    }
+
+    /**
+     * @return deliveries 순서대로, 이 서버에 세션이 없어 전달하지 못한 receiverId 목록
+     */
+    public long[][] deliver(DeliveryEnvelope envelope) {
+        long[][] notConnectedPerDelivery = new long[envelope.deliveries().size()][];
+        int sent = 0;
+        for (int i = 0; i < notConnectedPerDelivery.length; i++) {
+            DeliveryEnvelope.Delivery delivery = envelope.deliveries().get(i);
+            OutboundPayload payload = delivery.toPayload();
+            List<Long> notConnected = new ArrayList<>();
+            for (long receiverId : delivery.receiverIds()) {
+                try {
+                    if (sessionManager.sendToUser(receiverId, payload)) {
+                        sent++;
+                    } else {
+                        notConnected.add(receiverId);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to deliver message {} to user {}", delivery.messageId(), receiverId, e);
+                }
+            }
+            notConnectedPerDelivery[i] = notConnected.stream().mapToLong(Long::longValue).toArray();
+        }
+        log.debug("Delivered {} messages from other node to {} users", notConnectedPerDelivery.length, sent);
+        return notConnectedPerDelivery;
+    }
+}
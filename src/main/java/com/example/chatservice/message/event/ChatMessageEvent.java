@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,6 +23,13 @@ public class ChatMessageEvent {
     private Long chatRoomId;
     private LocalDateTime createdAt;
 
+    /** 이 유저들에게만 전달 (다른 노드로 직접 전달하지 못했을 때의 Kafka 대체 경로). null 이면 방 전체 브로드캐스트 */
+    private List<Long> receiverIds;
+
+    public ChatMessageEvent(Long messageId, Long senderId, String content, Long chatRoomId, LocalDateTime createdAt) {
+        this(messageId, senderId, content, chatRoomId, createdAt, null);
+    }
+
     public Map<String, Object> toWebSocketPayload() {
         return Map.of(
             "messageId", messageId,
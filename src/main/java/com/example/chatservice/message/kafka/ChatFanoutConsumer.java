@@ -0,0 +1,154 @@
+package com.example.chatservice.message.kafka;
+
+import com.example.chatservice.chat.repository.UserChatRepository;
+import com.example.chatservice.common.PresenceLeaseRegistry;
+import com.example.chatservice.common.RedisCircuitBreaker;
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.UserRouteCache;
+import com.example.chatservice.common.ws.OutboundPayload;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.event.ChatMessageEvent;
+import com.example.chatservice.property.KafkaDeliveryProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ROUTED 모드의 fan-out 단계.
+ * 클러스터 전체가 하나의 그룹(chat-fanout)으로 chat-messages 를 나눠 읽고, 메시지마다 참여자의 디바이스가 접속한
+ * 모든 노드(user:{id}:devices)를 찾아 노드별 토픽으로 envelope 를 하나씩 발행한다. 노드는 자기 토픽만 읽으므로 클러스터 전체 consume 량이
+ * 노드 수 x 메시지 수에서 메시지 수 + 실제 전달이 필요한 (메시지, 노드) 쌍 수로 줄어든다.
+ *
+ * 클라이언트 payload 는 여기서 한 번만 인코딩하고 노드는 그 바이트를 그대로 소켓에 쓴다.
+ * 라우팅이 없는 (오프라인) 참여자는 건너뛴다 - 재접속 resume 으로 받는다.
+ * Redis 가 degraded 면 라우팅을 조회할 수 없으므로 살아 있는 모든 노드(PresenceLeaseRegistry 스냅샷) 토픽으로 참여자 전체를 보내고,
+ * 받은 노드는 자기 세션에만 전달하고 다시 라우팅하지 않는다.
+ *
+ * 커밋은 노드 토픽 발행이 모두 확인된 뒤 발행 콜백에서 한다 (asyncAcks 컨테이너) - 리스너 스레드는 브로커 확인을 기다리지 않는다.
+ * 발행이 실패한 레코드는 커밋하지 않으므로 그 뒤 레코드의 커밋도 보류되고, 리밸런스 / 재시작 때 그 지점부터 다시 처리된다.
+ *
+ * 노드 토픽은 노드 주소별로 만들어지고 자동으로 지우지 않는다. 보존 기간(nodeTopicRetentionMillis)이 지난 레코드만 브로커가 지우므로
+ * 없어진 주소의 토픽은 운영에서 정리한다. 같은 주소로 재시작한 노드는 커밋된 offset 부터 이어 읽고
+ * (그 사이 레코드의 수신자는 이미 다른 노드에 재접속했으므로 다시 라우팅됨), 커밋이 없으면 보존된 처음부터 읽는다 (earliest).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.kafka.delivery", name = "mode", havingValue = "ROUTED")
+public class ChatFanoutConsumer {
+
+    private final UserChatRepository userChatRepository;
+    private final UserRouteCache userRouteCache;
+    private final SessionManager sessionManager;
+    private final NodeDeliveryProducer nodeDeliveryProducer;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final PresenceLeaseRegistry presenceLeaseRegistry;
+    private final Cache<Long, List<Long>> roomMembers;
+
+    public ChatFanoutConsumer(UserChatRepository userChatRepository,
+                              UserRouteCache userRouteCache,
+                              SessionManager sessionManager,
+                              NodeDeliveryProducer nodeDeliveryProducer,
+                              RedisCircuitBreaker redisCircuitBreaker,
+                              PresenceLeaseRegistry presenceLeaseRegistry,
+                              KafkaDeliveryProperty deliveryProperty) {
+        this.userChatRepository = userChatRepository;
+        this.userRouteCache = userRouteCache;
+        this.sessionManager = sessionManager;
+        this.nodeDeliveryProducer = nodeDeliveryProducer;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.presenceLeaseRegistry = presenceLeaseRegistry;
+        this.roomMembers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(deliveryProperty.getMemberCacheMillis()))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @KafkaListener(
+        topics = "chat-messages",
+        groupId = "chat-fanout",
+        containerFactory = "chatFanoutListenerContainerFactory"
+    )
+    public void fanOut(ChatMessageEvent event, Acknowledgment ack) {
+        try {
+            List<Long> receivers = receiversOf(event);
+            boolean degraded = redisCircuitBreaker.isDegraded();
+            Map<String, List<Long>> serverToUserIds = degraded ? toEveryLiveNode(receivers) : toDeviceNodes(receivers);
+
+            if (serverToUserIds.isEmpty()) {
+                ack.acknowledge();
+                return;
+            }
+
+            // 인코딩은 노드 수와 무관하게 한 번
+            OutboundPayload payload = sessionManager.encode(event.toWebSocketPayload());
+            List<CompletableFuture<?>> sends = new ArrayList<>(serverToUserIds.size());
+            for (Map.Entry<String, List<Long>> entry : serverToUserIds.entrySet()) {
+                DeliveryEnvelope envelope = DeliveryEnvelope.of(List.of(DeliveryEnvelope.Delivery.of(
+                        entry.getValue().stream().mapToLong(Long::longValue).toArray(),
+                        event.getMessageId(), event.getChatRoomId(), payload)));
+                sends.add(degraded
+                        ? nodeDeliveryProducer.sendWithoutReroute(entry.getKey(), event.getChatRoomId(), envelope)
+                        : nodeDeliveryProducer.send(entry.getKey(), event.getChatRoomId(), envelope));
+            }
+            // 노드 토픽에 모두 들어간 뒤에 커밋 (중간에 죽으면 재처리 - 일부 노드는 중복 수신, 클라이언트가 messageId 로 제거)
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).whenComplete((ignored, e) -> {
+                if (e != null) {
+                    log.error("[Kafka Fan-out] Failed to publish node deliveries: messageId={}", event.getMessageId(), e);
+                    return; // 재처리를 위해 커밋하지 않음
+                }
+                log.debug("[Kafka Fan-out] messageId={} routed to {} nodes ({} receivers, degraded={})",
+                        event.getMessageId(), serverToUserIds.size(), receivers.size(), degraded);
+                ack.acknowledge();
+            });
+        } catch (Exception e) {
+            log.error("[Kafka Fan-out] Failed to fan out message: messageId={}", event.getMessageId(), e);
+            // 재처리를 위해 커밋하지 않음 (ack.acknowledge() 호출 안 함)
+        }
+    }
+
+    /** 여러 노드에 디바이스가 있는 유저는 그 노드들 envelope 에 모두 포함 */
+    private Map<String, List<Long>> toDeviceNodes(List<Long> receivers) {
+        Map<String, List<Long>> serverToUserIds = new HashMap<>();
+        userRouteCache.getDeviceServers(receivers).forEach((userId, servers) -> servers.forEach(server ->
+                serverToUserIds.computeIfAbsent(server, k -> new ArrayList<>()).add(userId)));
+        return serverToUserIds;
+    }
+
+    /** Redis degraded - 어느 노드에 접속했는지 모르므로 모든 노드에 참여자 전체를 보냄 (노드는 자기 세션에만 전달) */
+    private Map<String, List<Long>> toEveryLiveNode(List<Long> receivers) {
+        if (receivers.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, List<Long>> serverToUserIds = new HashMap<>();
+        for (String server : presenceLeaseRegistry.liveNodes()) {
+            serverToUserIds.put(server, receivers);
+        }
+        return serverToUserIds;
+    }
+
+    /** 지정 수신자 이벤트(직접 전달 실패 대체)는 그대로, 아니면 발신자를 뺀 방 참여자 전체 */
+    private List<Long> receiversOf(ChatMessageEvent event) {
+        if (event.getReceiverIds() != null) {
+            return event.getReceiverIds();
+        }
+        List<Long> members = roomMembers.get(event.getChatRoomId(), userChatRepository::findActiveUserIdsByChatRoomId);
+        List<Long> receivers = new ArrayList<>(members.size());
+        for (Long userId : members) {
+            if (!userId.equals(event.getSenderId())) {
+                receivers.add(userId);
+            }
+        }
+        return receivers;
+    }
+}
@@ -1,35 +1,32 @@
 package com.example.chatservice.message.kafka;
 
-import com.example.chatservice.chat.entity.UserChat;
-import com.example.chatservice.chat.repository.UserChatRepository;
-import com.example.chatservice.common.ServerInfoProvider;
+import com.example.chatservice.common.LocalRoomIndex;
 import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.ws.OutboundPayload;
 import com.example.chatservice.message.event.ChatMessageEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Kafka Consumer
- * Kafka 토픽에서 메시지를 소비하여 WebSocket으로 전달
+ * Kafka 토픽에서 메시지를 소비하여 WebSocket으로 전달 (BROADCAST 모드 - ROUTED 는 ChatFanoutConsumer / NodeDeliveryConsumer)
  */
 @Component
+@ConditionalOnProperty(prefix = "app.kafka.delivery", name = "mode", havingValue = "BROADCAST", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class ChatMessageConsumer {
 
-    private final UserChatRepository userChatRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final LocalRoomIndex localRoomIndex;
     private final SessionManager sessionManager;
-    private final ServerInfoProvider serverInfoProvider;
 
     /**
      * Kafka 토픽에서 메시지를 소비
@@ -44,55 +41,41 @@ public class ChatMessageConsumer {
             log.info("[Kafka Consumer] Received message: messageId={}, chatRoomId={}, senderId={}", 
                     event.getMessageId(), event.getChatRoomId(), event.getSenderId());
             
-            String myServer = serverInfoProvider.getServerAddress();
-            
-            // 1. 채팅방 참여자 조회
-            List<UserChat> participants = userChatRepository
-                .findActiveByChatRoomWithUser(event.getChatRoomId());
-            
-            if (participants.isEmpty()) {
-                log.warn("[Kafka Consumer] No participants found for chatRoomId={}", event.getChatRoomId());
+            if (event.getReceiverIds() != null) {
+                deliverToReceivers(event);
                 ack.acknowledge();
                 return;
             }
-            
-            // 2. Redis Pipeline으로 서버 정보 일괄 조회 (성능 최적화)
-            List<String> userKeys = participants.stream()
-                .map(uc -> "user:" + uc.getUser().getId())
-                .collect(Collectors.toList());
-            
-            List<Object> serversRaw = redisTemplate.opsForValue().multiGet(userKeys);
-            
-            // 3. 내 서버에 연결된 유저만 필터링
-            List<Long> myUsers = new ArrayList<>();
-            for (int i = 0; i < participants.size(); i++) {
-                Long userId = participants.get(i).getUser().getId();
-                String targetServer = serversRaw.get(i) != null ? serversRaw.get(i).toString() : null;
-                
-                // 발신자는 이미 동기로 받았으므로 제외
-                if (userId.equals(event.getSenderId())) {
-                    log.debug("[Kafka Consumer] Skipping sender: userId={}", userId);
-                    continue;
-                }
-                
-                // 내 서버에 연결된 유저만
-                if (myServer.equals(targetServer)) {
+
+            // 1. 이 노드에 접속한 방 참여자를 로컬 인덱스에서 조회 (DB / Redis 조회 없음)
+            Collection<Long> localUsers = localRoomIndex.getLocalUsers(event.getChatRoomId());
+
+            if (localUsers.isEmpty()) {
+                log.debug("[Kafka Consumer] No local subscribers for chatRoomId={}", event.getChatRoomId());
+                ack.acknowledge();
+                return;
+            }
+
+            // 2. 발신자는 이미 동기로 받았으므로 제외
+            List<Long> myUsers = new ArrayList<>(localUsers.size());
+            for (Long userId : localUsers) {
+                if (!userId.equals(event.getSenderId())) {
                     myUsers.add(userId);
                 }
             }
-            
-            log.info("[Kafka Consumer] Delivering to {} users on this server ({})", 
-                    myUsers.size(), myServer);
-            
-            // 4. WebSocket으로 전달 (Event와 동일한 payload)
-            Map<String, Object> messageData = event.toWebSocketPayload();
+
+            log.info("[Kafka Consumer] Delivering to {} users on this server",
+                    myUsers.size());
+
+            // 3. WebSocket으로 전달 (Event와 동일한 payload, 인코딩은 수신자 수와 무관하게 한 번)
+            OutboundPayload payload = sessionManager.encode(event.toWebSocketPayload());
             
             int successCount = 0;
             int failCount = 0;
             
             for (Long userId : myUsers) {
                 try {
-                    sessionManager.sendToUser(userId, messageData);
+                    sessionManager.sendToUser(userId, payload);
                     successCount++;
                     log.debug("[Kafka Consumer] Delivered to user: userId={}", userId);
                 } catch (Exception e) {
@@ -104,7 +87,7 @@ public class ChatMessageConsumer {
             log.info("[Kafka Consumer] Delivery complete: success={}, failed={}, total={}", 
                     successCount, failCount, myUsers.size());
             
-            // 5. 처리 완료 후 수동 커밋
+            // 4. 처리 완료 후 수동 커밋
             ack.acknowledge();
             log.debug("[Kafka Consumer] Message acknowledged: messageId={}", event.getMessageId());
             
@@ -114,6 +97,32 @@ public class ChatMessageConsumer {
             // 재처리를 위해 커밋하지 않음 (ack.acknowledge() 호출 안 함)
         }
     }
+
+    /**
+     * 지정 수신자 이벤트 - 다른 노드가 직접 전달(HTTP / 링크)에 실패해 Kafka 로 돌린 것.
+     * 모든 노드가 받지만 세션을 가진 노드만 전달한다 (발신자 제외 규칙 없음)
+     */
+    private void deliverToReceivers(ChatMessageEvent event) {
+        OutboundPayload payload = null;
+        int delivered = 0;
+        for (Long userId : event.getReceiverIds()) {
+            if (!sessionManager.isUserConnected(userId)) {
+                continue;
+            }
+            if (payload == null) {
+                payload = sessionManager.encode(event.toWebSocketPayload());
+            }
+            try {
+                if (sessionManager.sendToUser(userId, payload)) {
+                    delivered++;
+                }
+            } catch (Exception e) {
+                log.error("[Kafka Consumer] Failed to deliver directed message to user: userId={}", userId, e);
+            }
+        }
+        log.info("[Kafka Consumer] Directed message {} delivered to {}/{} receivers on this server",
+                event.getMessageId(), delivered, event.getReceiverIds().size());
+    }
 }
 
 
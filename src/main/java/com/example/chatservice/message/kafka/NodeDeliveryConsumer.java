@@ -0,0 +1,106 @@
+package com.example.chatservice.message.kafka;
+
+import com.example.chatservice.common.ServerInfoProvider;
+import com.example.chatservice.common.UserRouteCache;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.message.envelope.EnvelopeFanout;
+import com.example.chatservice.property.KafkaDeliveryProperty;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ROUTED 모드에서 이 노드 토픽(chat-node.{serverAddress})만 읽어 envelope 의 payload 를 그대로 세션에 전달.
+ * 세션이 없던 수신자는 디바이스 노드 목록을 다시 조회해 이 노드가 아닌 노드들의 토픽으로 한 번만 다시 보낸다
+ * (fan-out 때 이미 받은 노드는 중복 수신 - 클라이언트가 messageId 로 제거).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.kafka.delivery", name = "mode", havingValue = "ROUTED")
+public class NodeDeliveryConsumer {
+
+    private final EnvelopeFanout envelopeFanout;
+    private final UserRouteCache userRouteCache;
+    private final NodeDeliveryProducer nodeDeliveryProducer;
+    private final String serverAddress;
+    private final String topic;
+
+    public NodeDeliveryConsumer(EnvelopeFanout envelopeFanout,
+                                UserRouteCache userRouteCache,
+                                NodeDeliveryProducer nodeDeliveryProducer,
+                                ServerInfoProvider serverInfoProvider,
+                                KafkaDeliveryProperty deliveryProperty) {
+        this.envelopeFanout = envelopeFanout;
+        this.userRouteCache = userRouteCache;
+        this.nodeDeliveryProducer = nodeDeliveryProducer;
+        this.serverAddress = serverInfoProvider.getServerAddress();
+        this.topic = NodeDeliveryProducer.topicFor(deliveryProperty, serverAddress);
+    }
+
+    /** @KafkaListener 의 topics / groupId SpEL 에서 사용 (#{__listener.topic}) */
+    public String getTopic() {
+        return topic;
+    }
+
+    @KafkaListener(
+        topics = "#{__listener.topic}",
+        groupId = "#{__listener.topic}",
+        containerFactory = "nodeDeliveryListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, byte[]> record, Acknowledgment ack) {
+        DeliveryEnvelope envelope;
+        try {
+            envelope = DeliveryEnvelopeCodec.decodeBinary(ByteBuffer.wrap(record.value()));
+        } catch (IllegalArgumentException e) {
+            // 모르는 버전 / 깨진 레코드 - 재처리해도 같으므로 건너뜀
+            log.error("[Kafka Node] Dropped malformed delivery record: offset={}, {}", record.offset(), e.getMessage());
+            ack.acknowledge();
+            return;
+        }
+
+        try {
+            long[][] notConnected = envelopeFanout.deliver(envelope);
+            if (record.headers().lastHeader(NodeDeliveryProducer.REROUTED_HEADER) == null) {
+                reroute(envelope, notConnected);
+            }
+            ack.acknowledge();
+        } catch (Exception e) {
+            log.error("[Kafka Node] Failed to deliver record: offset={}", record.offset(), e);
+            // 재처리를 위해 커밋하지 않음 (ack.acknowledge() 호출 안 함)
+        }
+    }
+
+    /** fan-out 이후 다른 노드로 재접속한 수신자 - 캐시를 버리고 디바이스 노드를 다시 조회해 그 노드들 토픽으로 */
+    private void reroute(DeliveryEnvelope envelope, long[][] notConnected) {
+        for (int i = 0; i < notConnected.length; i++) {
+            if (notConnected[i].length == 0) {
+                continue;
+            }
+            DeliveryEnvelope.Delivery delivery = envelope.deliveries().get(i);
+            List<Long> receiverIds = new ArrayList<>(notConnected[i].length);
+            for (long receiverId : notConnected[i]) {
+                userRouteCache.invalidate(receiverId);
+                receiverIds.add(receiverId);
+            }
+            Map<String, List<Long>> serverToUserIds = new HashMap<>();
+            userRouteCache.getDeviceServers(receiverIds).forEach((userId, servers) -> servers.forEach(server -> {
+                if (!server.equals(serverAddress)) {
+                    serverToUserIds.computeIfAbsent(server, k -> new ArrayList<>()).add(userId);
+                }
+            }));
+            serverToUserIds.forEach((server, userIds) -> nodeDeliveryProducer.sendRerouted(server, delivery.chatRoomId(),
+                    DeliveryEnvelope.of(List.of(new DeliveryEnvelope.Delivery(delivery.messageId(), delivery.chatRoomId(),
+                            userIds.stream().mapToLong(Long::longValue).toArray(), delivery.json(), delivery.binaryFrame())))));
+        }
+    }
+}
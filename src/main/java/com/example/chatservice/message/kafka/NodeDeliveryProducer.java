@@ -0,0 +1,81 @@
+package com.example.chatservice.message.kafka;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.property.KafkaDeliveryProperty;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ROUTED 모드에서 노드별 토픽(chat-node.{serverAddress})으로 DeliveryEnvelope 발행.
+ * 방 id 를 key 로 써서 같은 방의 메시지는 노드 토픽 안에서도 같은 파티션으로 (순서 유지)
+ */
+@Slf4j
+@Component
+public class NodeDeliveryProducer {
+
+    /**
+     * 받은 노드가 다시 보내지 않는 레코드 - stale 라우팅으로 한 번 다시 보낸 레코드(노드 간 핑퐁 방지)와
+     * Redis degraded 중 모든 노드로 보낸 레코드(어차피 모든 노드가 받음)
+     */
+    static final String REROUTED_HEADER = "chat-rerouted";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final KafkaDeliveryProperty deliveryProperty;
+
+    public NodeDeliveryProducer(@Qualifier("nodeDeliveryKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate,
+                                KafkaDeliveryProperty deliveryProperty) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.deliveryProperty = deliveryProperty;
+    }
+
+    public static String topicFor(KafkaDeliveryProperty deliveryProperty, String serverAddress) {
+        return deliveryProperty.getNodeTopicPrefix() + serverAddress.replace(':', '-');
+    }
+
+    /**
+     * @return 브로커 확인 future - fan-out 단계는 모두 확인된 뒤에 원본 레코드를 커밋한다
+     */
+    public CompletableFuture<SendResult<String, byte[]>> send(String serverAddress, Long chatRoomId, DeliveryEnvelope envelope) {
+        return kafkaTemplate.send(new ProducerRecord<>(topicFor(deliveryProperty, serverAddress), chatRoomId.toString(),
+                DeliveryEnvelopeCodec.encodeBinary(envelope)));
+    }
+
+    /**
+     * 받은 노드가 세션 없는 수신자를 다시 라우팅하지 않는 발행 (Redis degraded 중 전체 노드 발행용)
+     * @return 브로커 확인 future
+     */
+    public CompletableFuture<SendResult<String, byte[]>> sendWithoutReroute(String serverAddress, Long chatRoomId,
+                                                                           DeliveryEnvelope envelope) {
+        return kafkaTemplate.send(withoutReroute(serverAddress, chatRoomId, envelope));
+    }
+
+    void sendRerouted(String serverAddress, Long chatRoomId, DeliveryEnvelope envelope) {
+        ProducerRecord<String, byte[]> record = withoutReroute(serverAddress, chatRoomId, envelope);
+        try {
+            kafkaTemplate.send(record)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("[Kafka] Failed to send rerouted node delivery: topic={}, key={}",
+                                record.topic(), record.key(), ex);
+                    }
+                });
+        } catch (Exception e) {
+            log.error("[Kafka] Exception while sending rerouted node delivery: topic={}", record.topic(), e);
+        }
+    }
+
+    private ProducerRecord<String, byte[]> withoutReroute(String serverAddress, Long chatRoomId, DeliveryEnvelope envelope) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topicFor(deliveryProperty, serverAddress),
+                chatRoomId.toString(), DeliveryEnvelopeCodec.encodeBinary(envelope));
+        record.headers().add(REROUTED_HEADER, "1".getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
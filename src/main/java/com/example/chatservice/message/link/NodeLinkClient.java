@@ -0,0 +1,226 @@
+package com.example.chatservice.message.link;
+
+import com.example.chatservice.common.PresenceLeaseRegistry;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.service.DeliveryTransport;
+import com.example.chatservice.property.MessageForwardProperty;
+import com.example.chatservice.property.NodeLinkProperty;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대상 노드별 상시 WebSocket 링크(/internal/link).
+ * 메시지마다 HTTP 요청을 만드는 대신 한 연결 위에 DeliveryEnvelope 를 담은 DELIVER 프레임을 ack 를 기다리지 않고 연달아 보내고(pipelining),
+ * 같은 순서로 돌아오는 ACK 를 seq 로 매칭해 future 를 완료한다.
+ *
+ * 링크가 없거나 끊긴 동안은 NodeLinkUnavailableException 으로 바로 실패시켜 호출 쪽이 HTTP 로 대체하고,
+ * 뒤에서 지수 backoff 로 재연결한다. 끊기면 ack 를 기다리던 프레임은 모두 실패 처리 (호출 쪽 재시도).
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(NodeLinkProperty.class)
+public class NodeLinkClient implements DeliveryTransport {
+
+    private final PresenceLeaseRegistry presenceLeaseRegistry;
+    private final ScheduledExecutorService reconnectScheduler;
+    private final NodeLinkProperty linkProperty;
+    private final WebSocketClient webSocketClient;
+    private final Map<String, Link> links = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public NodeLinkClient(PresenceLeaseRegistry presenceLeaseRegistry,
+                          @Qualifier("retryScheduler") ScheduledExecutorService reconnectScheduler,
+                          NodeLinkProperty linkProperty) {
+        this(presenceLeaseRegistry, reconnectScheduler, linkProperty, new StandardWebSocketClient());
+    }
+
+    NodeLinkClient(PresenceLeaseRegistry presenceLeaseRegistry,
+                   ScheduledExecutorService reconnectScheduler,
+                   NodeLinkProperty linkProperty,
+                   WebSocketClient webSocketClient) {
+        this.presenceLeaseRegistry = presenceLeaseRegistry;
+        this.reconnectScheduler = reconnectScheduler;
+        this.linkProperty = linkProperty;
+        this.webSocketClient = webSocketClient;
+    }
+
+    @Override
+    public MessageForwardProperty.Transport transport() {
+        return MessageForwardProperty.Transport.LINK;
+    }
+
+    /**
+     * 링크가 없으면 NodeLinkUnavailableException, ack 가 제때 오지 않으면 TimeoutException 으로 실패
+     */
+    @Override
+    public CompletableFuture<long[][]> send(String serverAddress, DeliveryEnvelope envelope) {
+        Link link = links.computeIfAbsent(serverAddress, Link::new);
+        return link.send(envelope).thenApply(envelope::notConnectedPerDelivery);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        links.values().forEach(Link::close);
+        links.clear();
+    }
+
+    /** 테스트용 - 링크가 열려 있는지 */
+    boolean isConnected(String serverAddress) {
+        Link link = links.get(serverAddress);
+        return link != null && link.session != null;
+    }
+
+    private final class Link extends BinaryWebSocketHandler {
+
+        private final String serverAddress;
+        private final AtomicLong seq = new AtomicLong();
+        private final Map<Long, CompletableFuture<long[]>> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean connecting = new AtomicBoolean(false);
+        private final ByteArrayOutputStream assembler = new ByteArrayOutputStream();
+        private volatile WebSocketSession session;
+        private volatile long backoffMillis = linkProperty.getReconnectBackoffMillis();
+
+        Link(String serverAddress) {
+            this.serverAddress = serverAddress;
+            connect();
+        }
+
+        CompletableFuture<long[]> send(DeliveryEnvelope envelope) {
+            WebSocketSession current = session;
+            if (current == null) {
+                return CompletableFuture.failedFuture(new NodeLinkUnavailableException("No link to " + serverAddress));
+            }
+            if (pending.size() >= linkProperty.getMaxPendingFrames()) {
+                return CompletableFuture.failedFuture(new NodeLinkUnavailableException(
+                        "Too many unacknowledged frames to " + serverAddress));
+            }
+
+            long frameSeq = seq.incrementAndGet();
+            CompletableFuture<long[]> ack = new CompletableFuture<>();
+            pending.put(frameSeq, ack);
+            ack.whenComplete((result, e) -> pending.remove(frameSeq));
+            try {
+                current.sendMessage(new BinaryMessage(NodeLinkFrameCodec.encodeDeliver(frameSeq, envelope)));
+            } catch (Exception e) {
+                // 쓰기 시간/버퍼 초과 등 - 링크를 끊고 재연결, 이 프레임은 HTTP 로 대체
+                ack.completeExceptionally(new NodeLinkUnavailableException("Link write to " + serverAddress + " failed: " + e.getMessage()));
+                closeSession(current, CloseStatus.SESSION_NOT_RELIABLE);
+                return ack;
+            }
+            return ack.orTimeout(linkProperty.getAckTimeoutMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private void connect() {
+            if (closed || !connecting.compareAndSet(false, true)) {
+                return;
+            }
+            URI uri = URI.create("ws://" + serverAddress + "/internal/link");
+            webSocketClient.execute(this, null, uri)
+                    .orTimeout(linkProperty.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((established, e) -> {
+                        connecting.set(false);
+                        if (e != null) {
+                            log.warn("Node link to {} failed to connect: {}", serverAddress, e.getMessage());
+                            scheduleReconnect();
+                        }
+                    });
+        }
+
+        private void scheduleReconnect() {
+            if (closed) {
+                return;
+            }
+            if (!presenceLeaseRegistry.isAlive(serverAddress)) {
+                // 죽은 노드 - 재연결하지 않고 링크를 버림 (다시 살아나면 다음 전송 때 새로 만듦)
+                links.remove(serverAddress, this);
+                failPending(new NodeLinkUnavailableException("Node " + serverAddress + " is dead"));
+                return;
+            }
+            long delay = backoffMillis;
+            backoffMillis = Math.min(backoffMillis * 2, linkProperty.getMaxReconnectBackoffMillis());
+            reconnectScheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession established) {
+            session = new ConcurrentWebSocketSessionDecorator(established,
+                    linkProperty.getSendTimeLimitMillis(), linkProperty.getSendBufferSizeLimitBytes());
+            backoffMillis = linkProperty.getReconnectBackoffMillis();
+            log.info("Node link to {} established", serverAddress);
+        }
+
+        @Override
+        protected void handleBinaryMessage(WebSocketSession ignored, BinaryMessage message) {
+            ByteBuffer frame = NodeLinkFrameCodec.assemble(assembler, message.getPayload(), message.isLast());
+            if (frame == null) {
+                return;
+            }
+            NodeLinkFrameCodec.Ack ack = NodeLinkFrameCodec.decodeAck(frame);
+            CompletableFuture<long[]> waiting = pending.get(ack.seq());
+            if (waiting != null) {
+                waiting.complete(ack.notConnected());
+            }
+        }
+
+        @Override
+        public boolean supportsPartialMessages() {
+            return true;
+        }
+
+        @Override
+        public void handleTransportError(WebSocketSession failed, Throwable exception) {
+            log.warn("Node link to {} failed: {}", serverAddress, exception.getMessage());
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession closedSession, CloseStatus status) {
+            session = null;
+            assembler.reset();
+            log.warn("Node link to {} closed: {}", serverAddress, status);
+            failPending(new NodeLinkUnavailableException("Link to " + serverAddress + " closed: " + status));
+            scheduleReconnect();
+        }
+
+        private void failPending(Exception cause) {
+            pending.values().forEach(ack -> ack.completeExceptionally(cause));
+        }
+
+        private void closeSession(WebSocketSession target, CloseStatus status) {
+            try {
+                target.close(status);
+            } catch (Exception e) {
+                log.debug("Failed to close node link to {}: {}", serverAddress, e.getMessage());
+            }
+        }
+
+        void close() {
+            WebSocketSession current = session;
+            if (current != null) {
+                closeSession(current, CloseStatus.GOING_AWAY);
+            }
+            failPending(new NodeLinkUnavailableException("Node link client shut down"));
+        }
+    }
+}
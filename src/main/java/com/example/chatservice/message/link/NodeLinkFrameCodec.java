@@ -0,0 +1,101 @@
+package com.example.chatservice.message.link;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 노드 간 링크(/internal/link) 바이너리 프레임 인코더/디코더.
+ *
+ * <pre>
+ * DELIVER = type(1) | seq(8) | 바이너리 DeliveryEnvelope (DeliveryEnvelopeCodec)
+ * ACK     = type(1) | seq(8) | count(4) | 세션이 없어 전달하지 못한 receiverId(8) * count (envelope 전체)
+ * </pre>
+ * seq 는 링크마다 1 부터 증가하고, 받는 쪽은 프레임을 도착 순서대로 처리해 같은 순서로 ACK 한다.
+ */
+public final class NodeLinkFrameCodec {
+
+    public static final byte TYPE_DELIVER = 0x01;
+    public static final byte TYPE_ACK = 0x02;
+
+    /** 프레임 하나의 상한 - 조립 중인 partial message 가 이보다 커지면 링크를 끊음 */
+    static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private NodeLinkFrameCodec() {
+    }
+
+    public record Deliver(long seq, DeliveryEnvelope envelope) {
+    }
+
+    public record Ack(long seq, long[] notConnected) {
+    }
+
+    public static byte[] encodeDeliver(long seq, DeliveryEnvelope envelope) {
+        byte[] encoded = DeliveryEnvelopeCodec.encodeBinary(envelope);
+        return ByteBuffer.allocate(1 + 8 + encoded.length)
+                .put(TYPE_DELIVER).putLong(seq).put(encoded)
+                .array();
+    }
+
+    public static byte[] encodeAck(long seq, long[] notConnected) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 4 + notConnected.length * 8);
+        buffer.put(TYPE_ACK).putLong(seq).putInt(notConnected.length);
+        for (long receiverId : notConnected) {
+            buffer.putLong(receiverId);
+        }
+        return buffer.array();
+    }
+
+    public static Deliver decodeDeliver(ByteBuffer buffer) {
+        expectType(buffer, TYPE_DELIVER);
+        long seq = buffer.getLong();
+        return new Deliver(seq, DeliveryEnvelopeCodec.decodeBinary(buffer));
+    }
+
+    public static Ack decodeAck(ByteBuffer buffer) {
+        expectType(buffer, TYPE_ACK);
+        return new Ack(buffer.getLong(), readIds(buffer));
+    }
+
+    /**
+     * WebSocket partial message 조립. 마지막 조각이면 완성된 프레임, 아니면 null
+     */
+    static ByteBuffer assemble(ByteArrayOutputStream pending, ByteBuffer part, boolean last) {
+        if (pending.size() == 0 && last) {
+            return part;
+        }
+        if (pending.size() + part.remaining() > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("Node link frame exceeds " + MAX_FRAME_BYTES + " bytes");
+        }
+        byte[] bytes = new byte[part.remaining()];
+        part.get(bytes);
+        pending.writeBytes(bytes);
+        if (!last) {
+            return null;
+        }
+        ByteBuffer frame = ByteBuffer.wrap(pending.toByteArray());
+        pending.reset();
+        return frame;
+    }
+
+    private static void expectType(ByteBuffer buffer, byte type) {
+        byte actual = buffer.get();
+        if (actual != type) {
+            throw new IllegalArgumentException("Unexpected node link frame type: " + actual);
+        }
+    }
+
+    private static long[] readIds(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / 8) {
+            throw new IllegalArgumentException("Invalid receiver count: " + count);
+        }
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getLong();
+        }
+        return ids;
+    }
+}
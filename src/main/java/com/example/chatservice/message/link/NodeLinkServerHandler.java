@@ -0,0 +1,63 @@
+package com.example.chatservice.message.link;
+
+import com.example.chatservice.message.envelope.EnvelopeFanout;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 다른 노드가 연결해 오는 링크(/internal/link)의 받는 쪽.
+ * 한 세션의 프레임은 컨테이너가 순서대로 하나씩 넘겨주므로 도착 순서대로 전달하고 같은 순서로 ACK 한다.
+ * envelope 의 payload 는 보낸 노드가 인코딩한 바이트를 그대로 쓰고,
+ * WebSocket 전송은 세션 아웃바운드 큐에 넣기만 하므로 이 스레드가 느린 클라이언트에 묶이지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NodeLinkServerHandler extends BinaryWebSocketHandler {
+
+    private static final String ASSEMBLER_ATTR = "nodeLinkAssembler";
+
+    private final EnvelopeFanout envelopeFanout;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.getAttributes().put(ASSEMBLER_ATTR, new ByteArrayOutputStream());
+        log.info("Node link established from {}", session.getRemoteAddress());
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        ByteArrayOutputStream assembler = (ByteArrayOutputStream) session.getAttributes().get(ASSEMBLER_ATTR);
+        ByteBuffer frame = NodeLinkFrameCodec.assemble(assembler, message.getPayload(), message.isLast());
+        if (frame == null) {
+            return;
+        }
+
+        NodeLinkFrameCodec.Deliver deliver = NodeLinkFrameCodec.decodeDeliver(frame);
+        long[] notConnected = envelopeFanout.deliverAll(deliver.envelope());
+        session.sendMessage(new BinaryMessage(NodeLinkFrameCodec.encodeAck(deliver.seq(), notConnected)));
+    }
+
+    @Override
+    public boolean supportsPartialMessages() {
+        return true;
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Node link from {} failed: {}", session.getRemoteAddress(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        log.info("Node link from {} closed: {}", session.getRemoteAddress(), status);
+    }
+}
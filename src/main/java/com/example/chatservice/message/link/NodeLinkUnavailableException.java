@@ -0,0 +1,13 @@
+package com.example.chatservice.message.link;
+
+import com.example.chatservice.message.service.DeliveryTransportUnavailableException;
+
+/**
+ * 대상 노드와의 링크가 아직 연결되지 않았거나 끊긴 상태 - 호출 쪽은 HTTP 로 대체 전송한다
+ */
+public class NodeLinkUnavailableException extends DeliveryTransportUnavailableException {
+
+    public NodeLinkUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.chatservice.message.repository;
+
+import com.example.chatservice.message.entity.Message;
+
+import java.util.List;
+
+public interface MessageBatchRepository {
+
+    /**
+     * 여러 메시지를 JDBC batch insert로 저장 (현재 샤드 트랜잭션에 참여)
+     */
+    void batchInsert(List<Message> messages);
+}
@@ -0,0 +1,38 @@
+package com.example.chatservice.message.repository;
+
+import com.example.chatservice.message.entity.Message;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Message는 id를 직접 할당하기 때문에 saveAll()을 쓰면 merge → 건별 SELECT 가 발생한다.
+ * 배치 저장은 JdbcTemplate batchUpdate로 처리한다.
+ * (MySQL에서 multi-row insert로 묶이려면 JDBC URL에 rewriteBatchedStatements=true 필요)
+ */
+public class MessageBatchRepositoryImpl implements MessageBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (id, message, sender_id, chat_room_id, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MessageBatchRepositoryImpl(@Qualifier("messageDataSource") DataSource messageDataSource) {
+        // messageTransactionManager 와 같은 DataSource 이므로 진행 중인 트랜잭션 커넥션을 그대로 사용
+        this.jdbcTemplate = new JdbcTemplate(messageDataSource);
+    }
+
+    @Override
+    public void batchInsert(List<Message> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setString(2, message.getMessage());
+            ps.setLong(3, message.getSenderId());
+            ps.setLong(4, message.getChatRoomId());
+            ps.setTimestamp(5, Timestamp.valueOf(message.getCreatedAt()));
+        });
+    }
+}
@@ -10,7 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 import java.util.Optional;
 
-public interface MessageRepository extends JpaRepository<Message, Long> {
+public interface MessageRepository extends JpaRepository<Message, Long>, MessageBatchRepository {
 
     // 특정 메시지 이후의 안읽은 메시지 개수 계산
     long countByChatRoomIdAndIdGreaterThan(Long chatRoomId, Long lastReadMessageId);
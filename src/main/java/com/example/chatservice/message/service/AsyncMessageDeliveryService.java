@@ -3,6 +3,7 @@ package com.example.chatservice.message.service;
 import com.example.chatservice.chat.entity.UserChat;
 import com.example.chatservice.chat.repository.UserChatRepository;
 import com.example.chatservice.common.ServerInfoProvider;
+import com.example.chatservice.common.UserRouteCache;
 import com.example.chatservice.message.controller.request.MessageRequest;
 import com.example.chatservice.message.entity.Message;
 import com.example.chatservice.message.repository.MessageRepository;
@@ -10,7 +11,6 @@ import com.example.chatservice.sharding.Sharding;
 import com.example.chatservice.sharding.ShardingTarget;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,7 +28,7 @@ public class AsyncMessageDeliveryService {
     private final MessageRepository messageRepository;
     private final UserChatRepository userChatRepository;
     private final MessageDeliveryService messageDeliveryService;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final UserRouteCache userRouteCache;
     private final ServerInfoProvider serverInfoProvider;
 
     @Async("messageExecutor")
@@ -73,6 +73,10 @@ public class AsyncMessageDeliveryService {
         int sameServerCount = 0;
         int offlineCount = 0;
 
+        // 참여자 전체 라우팅을 한 번에 조회 (캐시에 없는 유저만 MGET 한 번)
+        Map<Long, String> participantServers = userRouteCache.getServers(
+                userChats.stream().map(userChat -> userChat.getUser().getId()).toList());
+
         for (UserChat userChat : userChats) {
             Long participantId = userChat.getUser().getId();
 
@@ -82,9 +86,7 @@ public class AsyncMessageDeliveryService {
                 continue;
             }
 
-            // Redis에서 유저가 연결된 서버 찾기
-            String redisKey = "user:" + participantId;
-            String targetServer = (String) redisTemplate.opsForValue().get(redisKey);
+            String targetServer = participantServers.get(participantId);
 
             if (targetServer == null) {
                 // 오프라인 유저 - 스킵
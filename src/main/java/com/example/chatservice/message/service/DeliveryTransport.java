@@ -0,0 +1,21 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.property.MessageForwardProperty;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 다른 노드로 DeliveryEnvelope 를 보내는 전송 방식 (app.forward.transport 로 선택).
+ * HTTP(InternalMessageClient), 노드 링크(NodeLinkClient), Redis 노드 채널(RedisNodeChannelTransport)
+ */
+public interface DeliveryTransport {
+
+    MessageForwardProperty.Transport transport();
+
+    /**
+     * @return envelope 의 deliveries 순서대로, 대상 노드에 세션이 없어 전달하지 못한 receiverId 목록.
+     *         지금 이 방식으로 보낼 수 없으면 DeliveryTransportUnavailableException 으로 실패 (호출 쪽은 HTTP 로 대체)
+     */
+    CompletableFuture<long[][]> send(String serverAddress, DeliveryEnvelope envelope);
+}
@@ -0,0 +1,11 @@
+package com.example.chatservice.message.service;
+
+/**
+ * 전송 방식 자체를 지금 쓸 수 없는 상태 (링크 미연결, 대상 노드가 채널을 구독하지 않음 등) - 호출 쪽은 HTTP 로 대체 전송한다
+ */
+public class DeliveryTransportUnavailableException extends RuntimeException {
+
+    public DeliveryTransportUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.common.CircuitBreakerStateMachine;
+import com.example.chatservice.property.ForwardCircuitBreakerProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 대상 노드별 circuit breaker + bulkhead.
+ * 느린 / 죽어가는 노드 하나로 가는 전송과 재시도가 retryScheduler 와 HTTP 연결을 잡고 있으면
+ * 건강한 노드로 가는 전송까지 밀리므로, 노드마다 따로 끊어서 문제 노드로 가는 전송은 바로 Kafka 로 돌린다.
+ * - breaker: 연속 실패가 쌓이면 OPEN, openMillis 후 시험 전송 하나로 복구 확인 (RedisCircuitBreaker 와 같은 CircuitBreakerStateMachine)
+ * - bulkhead: 대상 노드별로 진행 중인 전송(재시도 대기 포함) 수 상한
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ForwardCircuitBreakerProperty.class)
+public class ForwardCircuitBreaker {
+
+    private final ForwardCircuitBreakerProperty breakerProperty;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TargetBreaker> breakers;
+    private final Counter openRejections;
+    private final Counter bulkheadRejections;
+    private final Map<CircuitBreakerStateMachine.State, Counter> transitionCounters;
+
+    public ForwardCircuitBreaker(ForwardCircuitBreakerProperty breakerProperty, MeterRegistry meterRegistry) {
+        this.breakerProperty = breakerProperty;
+        this.meterRegistry = meterRegistry;
+        // evictionListener 는 만료 처리와 같은 원자적 연산 안에서 돈다 - 같은 노드로 바로 다시 만든 breaker 의 gauge 등록보다
+        // 항상 먼저 지워지므로 (비동기 removalListener 와 달리) 새 gauge 를 지우거나 이전 breaker 의 gauge 를 물려받지 않음
+        this.breakers = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(breakerProperty.getIdleExpireMillis()))
+                .<String, TargetBreaker>evictionListener((target, breaker, cause) -> {
+                    if (breaker != null) {
+                        meterRegistry.remove(breaker.stateGauge);
+                    }
+                })
+                .build();
+        this.openRejections = rejectionCounter(meterRegistry, "open");
+        this.bulkheadRejections = rejectionCounter(meterRegistry, "bulkhead");
+        // 전이 카운터는 대상 노드 태그 없이 전체 합계 - 모든 대상 breaker 가 같은 카운터를 공유
+        this.transitionCounters = CircuitBreakerStateMachine.transitionCounters(meterRegistry, "chat.forward.breaker.transitions");
+    }
+
+    /**
+     * 대상 노드로의 전송(재시도 포함) 하나를 시작한다.
+     * @return 전송 permit. breaker 가 OPEN 이거나 bulkhead 가 가득 차면 null (호출 쪽은 Kafka 로 대체)
+     */
+    public Permit tryAcquire(String serverAddress) {
+        if (!breakerProperty.isEnabled()) {
+            return new Permit(null, CircuitBreakerStateMachine.NO_PERMIT);
+        }
+        TargetBreaker breaker = breakers.get(serverAddress, TargetBreaker::new);
+        if (!breaker.bulkhead.tryAcquire()) {
+            bulkheadRejections.increment();
+            return null;
+        }
+        long attempt = breaker.stateMachine.allowRequest();
+        if (attempt == CircuitBreakerStateMachine.NO_PERMIT) {
+            breaker.bulkhead.release();
+            openRejections.increment();
+            return null;
+        }
+        return new Permit(breaker, attempt);
+    }
+
+    /** 모니터링 / 테스트용 - 아직 전송한 적 없는 노드는 CLOSED */
+    public CircuitBreakerStateMachine.State getState(String serverAddress) {
+        TargetBreaker breaker = breakers.getIfPresent(serverAddress);
+        return breaker != null ? breaker.stateMachine.getState() : CircuitBreakerStateMachine.State.CLOSED;
+    }
+
+    /**
+     * 전송 하나가 끝날 때까지 들고 있는 bulkhead 자리. 시도마다 결과를 알려주고 마지막에 release.
+     * 시도마다 상태 머신에서 받은 permit 을 같이 넘기므로 이전 상태에서 시작한 시도의 결과는 breaker 에 반영되지 않는다
+     */
+    public final class Permit {
+
+        private final TargetBreaker breaker;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private volatile long attempt;
+
+        private Permit(TargetBreaker breaker, long attempt) {
+            this.breaker = breaker;
+            this.attempt = attempt;
+        }
+
+        /** 재시도 직전 - 그 사이 OPEN 이 됐으면 false */
+        public boolean allowRetry() {
+            if (breaker == null) {
+                return true;
+            }
+            long next = breaker.stateMachine.allowRequest();
+            if (next != CircuitBreakerStateMachine.NO_PERMIT) {
+                attempt = next;
+                return true;
+            }
+            openRejections.increment();
+            return false;
+        }
+
+        public void onSuccess() {
+            if (breaker != null) {
+                breaker.onSuccess(attempt);
+            }
+        }
+
+        public void onFailure() {
+            if (breaker != null) {
+                breaker.onFailure(attempt);
+            }
+        }
+
+        public void release() {
+            if (breaker != null && released.compareAndSet(false, true)) {
+                breaker.bulkhead.release();
+            }
+        }
+    }
+
+    private final class TargetBreaker {
+
+        private final String serverAddress;
+        private final CircuitBreakerStateMachine stateMachine = new CircuitBreakerStateMachine(
+                breakerProperty::getFailureThreshold, breakerProperty::getOpenMillis, transitionCounters);
+        private final Semaphore bulkhead = new Semaphore(breakerProperty.getMaxInFlightPerTarget());
+        private final Gauge stateGauge;
+
+        TargetBreaker(String serverAddress) {
+            this.serverAddress = serverAddress;
+            this.stateGauge = Gauge.builder("chat.forward.breaker.state", stateMachine, machine -> machine.getState().ordinal())
+                    .description("Per-target forward circuit breaker state (0=closed, 1=half-open, 2=open)")
+                    .tag("target", serverAddress)
+                    .register(meterRegistry);
+        }
+
+        void onSuccess(long attempt) {
+            if (stateMachine.onSuccess(attempt)) {
+                log.info("Forward circuit breaker to {} closed", serverAddress);
+            }
+        }
+
+        void onFailure(long attempt) {
+            if (stateMachine.onFailure(attempt)) {
+                log.error("Forward circuit breaker to {} opened after {} consecutive failures - falling back to Kafka",
+                        serverAddress, stateMachine.consecutiveFailures());
+            }
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("chat.forward.breaker.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.property.ForwardCoalesceProperty;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대상 노드별로 짧은 시간(maxDelayMillis) 또는 개수(maxDeliveries) 동안 쌓인 전송을
+ * 메시지 / 방과 상관없이 DeliveryEnvelope 하나로 묶어 보낸다 (HTTP 요청 / Redis publish 한 번).
+ * 바쁜 방에서 메시지마다 노드마다 요청이 나가던 것을 노드당 window 마다 한 번으로 줄인다.
+ *
+ * 각 전송은 자기 future 로 결과(대상 노드에 세션이 없던 receiverId)를 받으므로 재시도 / stale 재조회는 전송 단위로 그대로 동작한다.
+ * 대상별 버퍼는 window 하나 동안만 쓰고 비우는 시점에 맵에서 뺀다 - 사라진 노드 주소가 맵에 계속 남지 않도록.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ForwardCoalesceProperty.class)
+public class ForwardCoalescer {
+
+    private final ScheduledExecutorService flushScheduler;
+    private final ForwardCoalesceProperty coalesceProperty;
+    private final Map<Target, TargetBuffer> buffers = new ConcurrentHashMap<>();
+
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Timer latency;
+
+    public ForwardCoalescer(@Qualifier("forwardFlushScheduler") ScheduledExecutorService flushScheduler,
+                            ForwardCoalesceProperty coalesceProperty,
+                            MeterRegistry meterRegistry) {
+        this.flushScheduler = flushScheduler;
+        this.coalesceProperty = coalesceProperty;
+
+        this.batchSize = DistributionSummary.builder("chat.forward.coalesce.batch.size")
+                .description("Deliveries sent per envelope to one target node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("chat.forward.coalesce.wait")
+                .description("Time a delivery waits in the coalescing window before its envelope is sent")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.latency = Timer.builder("chat.forward.coalesce.latency")
+                .description("Time from enqueue until the target node acknowledged the envelope")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return coalesceProperty.isEnabled();
+    }
+
+    /**
+     * @return 대상 노드에 세션이 없어 전달하지 못한 receiverId 목록
+     */
+    public CompletableFuture<long[]> enqueue(DeliveryTransport transport, String serverAddress,
+                                             DeliveryEnvelope.Delivery delivery) {
+        PendingDelivery pending = new PendingDelivery(delivery, System.nanoTime(), new CompletableFuture<>());
+        Target target = new Target(transport, serverAddress);
+        // 방금 flush 되어 맵에서 빠진 버퍼를 집었으면 새 버퍼로 다시
+        while (!buffers.computeIfAbsent(target, TargetBuffer::new).add(pending)) {
+            Thread.onSpinWait();
+        }
+        return pending.result();
+    }
+
+    /** 보낼 전송이 쌓여 있는 대상 노드 수 */
+    int bufferedTargets() {
+        return buffers.size();
+    }
+
+    private void send(Target target, List<PendingDelivery> batch) {
+        String serverAddress = target.serverAddress();
+        long sentAt = System.nanoTime();
+        List<DeliveryEnvelope.Delivery> deliveries = new ArrayList<>(batch.size());
+        for (PendingDelivery pending : batch) {
+            queueWait.record(sentAt - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+            deliveries.add(pending.delivery());
+        }
+        batchSize.record(batch.size());
+
+        CompletableFuture<long[][]> sent;
+        try {
+            sent = target.transport().send(serverAddress, DeliveryEnvelope.of(deliveries));
+        } catch (RuntimeException e) {
+            // 동기 예외도 묶인 전송 모두에 전달 (flush 스케줄러에서 삼켜지면 future 가 영영 끝나지 않음)
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((notConnected, e) -> {
+            long now = System.nanoTime();
+            for (int i = 0; i < batch.size(); i++) {
+                PendingDelivery delivery = batch.get(i);
+                latency.record(now - delivery.enqueuedAt(), TimeUnit.NANOSECONDS);
+                if (e != null) {
+                    delivery.result().completeExceptionally(e);
+                } else if (notConnected == null || i >= notConnected.length) {
+                    delivery.result().completeExceptionally(new IllegalStateException(
+                            "Envelope response from " + serverAddress + " is missing delivery " + i));
+                } else {
+                    delivery.result().complete(notConnected[i]);
+                }
+            }
+        });
+    }
+
+    private final class TargetBuffer {
+
+        private final Target target;
+        private List<PendingDelivery> pending = new ArrayList<>();
+        private ScheduledFuture<?> flushTask;
+        private boolean retired;
+
+        TargetBuffer(Target target) {
+            this.target = target;
+        }
+
+        /** @return 이미 비워져 맵에서 빠진 버퍼면 false (호출자가 새 버퍼로 다시 시도) */
+        boolean add(PendingDelivery delivery) {
+            List<PendingDelivery> full = null;
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                pending.add(delivery);
+                if (pending.size() >= coalesceProperty.getMaxDeliveries()) {
+                    full = drain();
+                } else if (flushTask == null) {
+                    flushTask = flushScheduler.schedule(this::flush, coalesceProperty.getMaxDelayMillis(), TimeUnit.MILLISECONDS);
+                }
+            }
+            if (full != null) {
+                send(target, full);
+            }
+            return true;
+        }
+
+        void flush() {
+            List<PendingDelivery> batch;
+            synchronized (this) {
+                batch = drain();
+            }
+            if (!batch.isEmpty()) {
+                send(target, batch);
+            }
+        }
+
+        private List<PendingDelivery> drain() {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+            retired = true;
+            buffers.remove(target, this);
+            List<PendingDelivery> batch = pending;
+            pending = List.of();
+            return batch;
+        }
+    }
+
+    private record Target(DeliveryTransport transport, String serverAddress) {
+    }
+
+    private record PendingDelivery(DeliveryEnvelope.Delivery delivery,
+                                   long enqueuedAt,
+                                   CompletableFuture<long[]> result) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.chatservice.message.service;
+
+/**
+ * 대상 노드가 요청 자체를 거부함 (4xx - 모르는 envelope 버전 / 깨진 요청 등). 같은 요청을 다시 보내도 결과가 같으므로
+ * 호출 쪽은 재시도하지 않고 Kafka 로 넘긴다
+ */
+public class ForwardRejectedException extends RuntimeException {
+
+    public ForwardRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.chatservice.message.service;
 
+import com.example.chatservice.common.RedisCircuitBreaker;
 import com.example.chatservice.property.HotRoomProperty;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.redis.connection.RedisConnection;
@@ -13,15 +15,38 @@ import java.time.Duration;
 import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @EnableConfigurationProperties(HotRoomProperty.class)
 public class HotRoomDetectionService {
 
+    private static final int LOCAL_COUNTER_MAX_ROOMS = 100_000;
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final HotRoomProperty hotRoomProperty;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+
+    /** Redis 장애(degraded) 시 사용하는 노드 로컬 카운터. 노드 하나가 본 트래픽만 세므로 클러스터 전체보다 덜 민감하다 */
+    private final Cache<Long, LocalRoomCounter> localCounters;
+
+    public HotRoomDetectionService(RedisTemplate<String, Object> redisTemplate,
+                                   HotRoomProperty hotRoomProperty,
+                                   RedisCircuitBreaker redisCircuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.hotRoomProperty = hotRoomProperty;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.localCounters = Caffeine.newBuilder()
+                .maximumSize(LOCAL_COUNTER_MAX_ROOMS)
+                .expireAfterAccess(Duration.ofSeconds(Math.max(hotRoomProperty.getModeTtlSeconds(), 1)))
+                .build();
+    }
 
     public boolean isHotRoom(Long chatRoomId) {
+        return redisCircuitBreaker.call(
+                () -> isHotRoomInRedis(chatRoomId),
+                () -> isHotRoomLocally(chatRoomId));
+    }
+
+    private boolean isHotRoomInRedis(Long chatRoomId) {
         Duration hotWindow = Duration.ofSeconds(hotRoomProperty.getWindowSeconds());
         Duration hotModeTtl = Duration.ofSeconds(hotRoomProperty.getModeTtlSeconds());
 
@@ -60,7 +85,25 @@ public class HotRoomDetectionService {
         return "hot".equals(mode);
     }
 
+    /**
+     * Redis 없이 노드 로컬 고정 윈도우로 핫룸 판단 (Redis 경로와 같은 enter/exit 임계값 사용)
+     */
+    boolean isHotRoomLocally(Long chatRoomId) {
+        LocalRoomCounter counter = localCounters.get(chatRoomId, id -> new LocalRoomCounter());
+        return counter.record(System.currentTimeMillis(),
+                hotRoomProperty.getWindowSeconds() * 1000L,
+                hotRoomProperty.getEnterThreshold(),
+                hotRoomProperty.getExitThreshold());
+    }
+
+    /**
+     * degraded 모드에서는 디바운스 상태(lastApplied)와 pending flush 를 Redis 에 둘 수 없으므로 스킵하지 않고 바로 DB 갱신
+     */
     public boolean shouldSkipHotUpdate(Long chatRoomId) {
+        return redisCircuitBreaker.call(() -> shouldSkipHotUpdateInRedis(chatRoomId), () -> false);
+    }
+
+    private boolean shouldSkipHotUpdateInRedis(Long chatRoomId) {
         Duration hotDebounce = Duration.ofSeconds(hotRoomProperty.getDebounceSeconds());
         Duration hotModeTtl = Duration.ofSeconds(hotRoomProperty.getModeTtlSeconds());
 
@@ -87,6 +130,27 @@ public class HotRoomDetectionService {
         return Duration.ofSeconds(hotRoomProperty.getDebounceSeconds());
     }
 
+    private static final class LocalRoomCounter {
+        private long windowStart;
+        private long count;
+        private boolean hot;
+
+        synchronized boolean record(long now, long windowMillis, long enterThreshold, long exitThreshold) {
+            if (now - windowStart >= windowMillis) {
+                windowStart = now;
+                count = 0;
+            }
+            count++;
+
+            if (count >= enterThreshold) {
+                hot = true;
+            } else if (hot && count <= exitThreshold) {
+                hot = false;
+            }
+            return hot;
+        }
+    }
+
     private String msgCountKey(Long chatRoomId) {
         return "chat:%d:msgCount".formatted(chatRoomId);
     }
@@ -0,0 +1,164 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.property.InternalHttpClientProperty;
+import com.example.chatservice.property.MessageForwardProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 다른 노드의 /internal/message/envelope 로 DeliveryEnvelope 를 비동기 POST.
+ * 대상이 404 면 (envelope 엔드포인트가 없는 이전 릴리스 노드) /internal/message 로 수신자별 전송 - 롤링 배포 호환.
+ * 대상 노드별 동시 요청 수를 Semaphore 로 제한해 느린 노드 하나가 연결을 무한히 늘리지 못하게 하고,
+ * 한도를 넘으면 기다리지 않고 바로 실패시킨다 (호출 쪽 재시도 스케줄로 넘어감).
+ */
+@Slf4j
+@Component
+public class InternalMessageClient implements DeliveryTransport {
+
+    private static final String ENVELOPE_PATH = "/internal/message/envelope";
+    private static final String BASELINE_PATH = "/internal/message";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final DeliveryEnvelopeCodec deliveryEnvelopeCodec;
+    private final InternalHttpClientProperty property;
+    private final MessageForwardProperty forwardProperty;
+    private final Map<String, Semaphore> inFlightPerTarget = new ConcurrentHashMap<>();
+
+    public InternalMessageClient(HttpClient internalHttpClient,
+                                 ObjectMapper objectMapper,
+                                 DeliveryEnvelopeCodec deliveryEnvelopeCodec,
+                                 InternalHttpClientProperty property,
+                                 MessageForwardProperty forwardProperty) {
+        this.httpClient = internalHttpClient;
+        this.objectMapper = objectMapper;
+        this.deliveryEnvelopeCodec = deliveryEnvelopeCodec;
+        this.property = property;
+        this.forwardProperty = forwardProperty;
+    }
+
+    @Override
+    public MessageForwardProperty.Transport transport() {
+        return MessageForwardProperty.Transport.HTTP;
+    }
+
+    @Override
+    public CompletableFuture<long[][]> send(String serverAddress, DeliveryEnvelope envelope) {
+        byte[] body;
+        String contentType;
+        if (forwardProperty.getCodec() == MessageForwardProperty.Codec.JSON) {
+            body = deliveryEnvelopeCodec.encodeJson(envelope);
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+        } else {
+            body = DeliveryEnvelopeCodec.encodeBinary(envelope);
+            contentType = DeliveryEnvelopeCodec.BINARY_CONTENT_TYPE;
+        }
+        return post(serverAddress, ENVELOPE_PATH, body, contentType)
+                .thenCompose(response -> response.statusCode() == 404
+                        ? sendToBaseline(serverAddress, envelope)
+                        : CompletableFuture.completedFuture(readBody(serverAddress, response)));
+    }
+
+    /**
+     * 롤링 배포 중 아직 envelope 엔드포인트가 없는 (이전 릴리스) 노드 - 수신자마다 /internal/message 로 보낸다.
+     * 한 번에 하나씩 보내 대상 노드별 동시 요청 한도를 넘지 않게 하고, 이전 릴리스는 미전달 수신자를 알려주지 않으므로
+     * 모두 전달된 것으로 본다. 이 경로에서만 client payload 를 다시 읽어 Map 요청으로 바꾼다
+     */
+    private CompletableFuture<long[][]> sendToBaseline(String serverAddress, DeliveryEnvelope envelope) {
+        log.debug("{} has no {} (previous release), falling back to {}", serverAddress, ENVELOPE_PATH, BASELINE_PATH);
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (DeliveryEnvelope.Delivery delivery : envelope.deliveries()) {
+            for (long receiverId : delivery.receiverIds()) {
+                chain = chain.thenCompose(ignored -> post(serverAddress, BASELINE_PATH,
+                        baselineRequest(delivery, receiverId), MediaType.APPLICATION_JSON_VALUE)
+                        .thenAccept(response -> {
+                            if (response.statusCode() / 100 != 2) {
+                                throw new IllegalStateException("Forward to " + serverAddress + BASELINE_PATH
+                                        + " failed with status " + response.statusCode());
+                            }
+                        }));
+            }
+        }
+        return chain.thenApply(ignored -> {
+            long[][] notConnected = new long[envelope.deliveries().size()][];
+            Arrays.fill(notConnected, new long[0]);
+            return notConnected;
+        });
+    }
+
+    /** 이전 릴리스 /internal/message 요청: client payload 필드 (messageId, senderId, content, chatRoomId, sentAt) + receiverId */
+    private byte[] baselineRequest(DeliveryEnvelope.Delivery delivery, long receiverId) {
+        try {
+            ObjectNode request = (ObjectNode) objectMapper.readTree(delivery.json());
+            request.put("receiverId", receiverId);
+            return objectMapper.writeValueAsBytes(request);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long[][] readBody(String serverAddress, HttpResponse<String> response) {
+        if (response.statusCode() / 100 == 4) {
+            // 받는 노드가 요청 자체를 거부 - 재시도 대상 아님
+            throw new ForwardRejectedException("Forward to " + serverAddress
+                    + " rejected with status " + response.statusCode());
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Forward to " + serverAddress
+                    + " failed with status " + response.statusCode());
+        }
+        try {
+            return objectMapper.readValue(response.body(), long[][].class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid forward response from " + serverAddress, e);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(String serverAddress, String path, byte[] body, String contentType) {
+        Semaphore inFlight = inFlightPerTarget.computeIfAbsent(serverAddress,
+                target -> new Semaphore(property.getMaxConcurrentPerTarget()));
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Too many in-flight requests to " + serverAddress));
+        }
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://" + serverAddress + path))
+                    .timeout(Duration.ofMillis(property.getRequestTimeoutMillis()))
+                    .header("Content-Type", contentType)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, e) -> inFlight.release());
+        } catch (RuntimeException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** 대상 노드로 진행 중인 요청 수 (테스트 / 모니터링용) */
+    int inFlight(String serverAddress) {
+        Semaphore inFlight = inFlightPerTarget.get(serverAddress);
+        return inFlight != null ? property.getMaxConcurrentPerTarget() - inFlight.availablePermits() : 0;
+    }
+}
@@ -1,44 +1,61 @@
 package com.example.chatservice.message.service;
 
+import com.example.chatservice.common.PresenceLeaseRegistry;
 import com.example.chatservice.common.ServerInfoProvider;
 import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.UserRouteCache;
 import com.example.chatservice.message.entity.Message;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.event.ChatMessageEvent;
+import com.example.chatservice.message.kafka.ChatMessageProducer;
+import com.example.chatservice.property.MessageForwardProperty;
 import com.example.chatservice.property.MessageForwardRetryProperty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@EnableConfigurationProperties(MessageForwardRetryProperty.class)
+@EnableConfigurationProperties({MessageForwardRetryProperty.class, MessageForwardProperty.class})
 public class MessageDeliveryService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final UserRouteCache userRouteCache;
+    private final PresenceLeaseRegistry presenceLeaseRegistry;
     private final SessionManager sessionManager;
     private final ServerInfoProvider serverInfoProvider;
-    private final RestTemplate restTemplate;
+    private final List<DeliveryTransport> deliveryTransports;
+    private final ForwardCoalescer forwardCoalescer;
+    private final ForwardCircuitBreaker forwardCircuitBreaker;
+    private final ChatMessageProducer chatMessageProducer;
     @Qualifier("retryScheduler")
     private final ScheduledExecutorService retryScheduler;
     private final MessageForwardRetryProperty retryProperty;
+    private final MessageForwardProperty forwardProperty;
 
     public void deliverMessage(Long receiverId, Message message) {
-        String redisKey = "user:" + receiverId;
-        String targetServer = (String) redisTemplate.opsForValue().get(redisKey);
+        // 노드 로컬 캐시 -> 없으면 Redis GET user:{id}
+        String targetServer = userRouteCache.getServer(receiverId);
 
-        log.info("Looking up user {} in Redis, found server: {}", receiverId, targetServer);
+        log.info("Looking up user {} route, found server: {}", receiverId, targetServer);
 
         if (targetServer == null) {
+            // Redis 장애로 라우팅을 못 찾았더라도 이 서버에 세션이 있으면 바로 전달 (다른 서버의 유저는 Kafka 브로드캐스트로 받음)
+            if (sessionManager.isUserConnected(receiverId)) {
+                deliverMessageLocally(receiverId, message);
+                return;
+            }
             log.warn("User {} is offline (not found in Redis)", receiverId);
             return;
         }
@@ -48,58 +65,90 @@ public class MessageDeliveryService {
 
         if (targetServer.equals(currentServer)) {
             log.info("User {} is on the same server. Sending directly.", receiverId);
-
-            Map<String, Object> messageData = createMessageData(message);
-            sessionManager.sendToUser(receiverId, messageData);
-            log.info("Message sent directly to user {}", receiverId);
+            deliverMessageLocally(receiverId, message);
         } else {
-            log.info("User {} is on different server {}. Forwarding via HTTP.", receiverId, targetServer);
+            log.info("User {} is on different server {}. Forwarding via {}.", receiverId, targetServer,
+                    forwardProperty.getTransport());
             forwardToOtherServer(targetServer, receiverId, message);
         }
     }
 
     private void forwardToOtherServer(String targetServer, Long receiverId, Message message) {
-        forwardToOtherServerWithRetry(targetServer, receiverId, message, 0);
+        String serverAddress = normalizeServerAddress(targetServer);
+        ForwardCircuitBreaker.Permit permit = forwardCircuitBreaker.tryAcquire(serverAddress);
+        if (permit == null) {
+            fallbackToKafka(serverAddress, List.of(receiverId), message);
+            return;
+        }
+        forwardToOtherServerWithRetry(targetServer, receiverId, message, permit, 0);
     }
 
-    private void forwardToOtherServerWithRetry(String targetServer, Long receiverId, Message message, int retryCount) {
+    /**
+     * 비동기 전송 - 호출 스레드(Tomcat / Kafka consumer)는 응답을 기다리지 않고 바로 돌아가고,
+     * 결과 처리(stale 재조회 / 재시도 스케줄)는 HttpClient / 링크의 콜백 스레드에서 한다.
+     * permit(대상 노드 bulkhead 자리)은 재시도를 포함해 전송이 끝날 때 반납한다
+     */
+    private void forwardToOtherServerWithRetry(String targetServer, Long receiverId, Message message,
+                                               ForwardCircuitBreaker.Permit permit, int retryCount) {
         // 서버 주소가 localhost 형식인지 확인하고 필요시 변환
         String serverAddress = normalizeServerAddress(targetServer);
         int maxRetries = retryProperty.getMaxRetries();
 
-        try {
-            Map<String, Object> request = createMessageData(message);
-            request.put("receiverId", receiverId);
-
-            String url = "http://" + serverAddress + "/internal/message";
+        if (retryCount > 0) {
+            if (!permit.allowRetry()) {
+                permit.release();
+                fallbackToKafka(serverAddress, List.of(receiverId), message);
+                return;
+            }
+            log.warn("Retrying ({}/{}) to forward message to user {}: {}",
+                    retryCount, maxRetries, receiverId, serverAddress);
+        } else {
+            log.info("Forwarding message to user {}: {}", receiverId, serverAddress);
+        }
 
-            if (retryCount > 0) {
-                log.warn("Retrying ({}/{}) to forward message to user {} via HTTP: {}",
-                        retryCount, maxRetries, receiverId, url);
-            } else {
-                log.info("Forwarding message to user {} via HTTP: {}", receiverId, url);
+        sendToServer(serverAddress, List.of(receiverId), message).whenComplete((notConnected, e) -> {
+            if (e == null) {
+                permit.onSuccess();
+                permit.release();
+                if (notConnected.length > 0) {
+                    // 대상 서버에 유저 세션이 없음 - 캐시된 라우팅이 stale
+                    rerouteStale(targetServer, receiverId, message);
+                } else {
+                    log.info("Message forwarded successfully to {} for user {}", serverAddress, receiverId);
+                }
+                return;
             }
 
-            restTemplate.postForObject(url, request, Void.class);
-            log.info("Message forwarded successfully to {} for user {}", serverAddress, receiverId);
+            if (isRejected(e)) {
+                // 노드는 응답했고 요청만 거부 (4xx) - 재시도해도 같으므로 breaker 실패로 세지 않고 바로 Kafka 로
+                log.error("Forward to {} for user {} rejected: {}", serverAddress, receiverId, e.getMessage());
+                permit.onSuccess();
+                permit.release();
+                fallbackToKafka(serverAddress, List.of(receiverId), message);
+                return;
+            }
 
-        } catch (Exception e) {
-            retryCount++;
-            final int nextRetryCount = retryCount; // 람다에서 사용하기 위해 final 변수로 복사
+            permit.onFailure();
+            int nextRetryCount = retryCount + 1;
             log.error("Failed to forward message to {} for user {} (attempt {}/{}): {}",
-                    serverAddress, receiverId, retryCount, maxRetries, e.getMessage());
+                    serverAddress, receiverId, nextRetryCount, maxRetries, e.getMessage());
 
-            if (retryCount < maxRetries) {
+            if (!presenceLeaseRegistry.isAlive(targetServer)) {
+                // 대상 노드 lease 만료 - 재시도 대신 정리된 라우팅으로 다시 조회
+                permit.release();
+                rerouteStale(targetServer, receiverId, message);
+            } else if (nextRetryCount < maxRetries) {
                 // ScheduledExecutorService를 사용하여 비동기로 재시도 (메인 스레드 블로킹 방지)
-                long delayMs = retryProperty.getBaseDelayMs() * retryCount;
                 retryScheduler.schedule(() -> {
-                    forwardToOtherServerWithRetry(targetServer, receiverId, message, nextRetryCount);
-                }, delayMs, TimeUnit.MILLISECONDS);
+                    forwardToOtherServerWithRetry(targetServer, receiverId, message, permit, nextRetryCount);
+                }, backoffDelayMs(nextRetryCount), TimeUnit.MILLISECONDS);
             } else {
                 log.error("Failed to forward message after {} attempts to {} for user {}",
                         maxRetries, serverAddress, receiverId, e);
+                permit.release();
+                fallbackToKafka(serverAddress, List.of(receiverId), message);
             }
-        }
+        });
     }
 
     /**
@@ -107,54 +156,190 @@ public class MessageDeliveryService {
      */
     public void deliverMessageLocally(Long receiverId, Message message) {
         Map<String, Object> messageData = createMessageData(message);
-        sessionManager.sendToUser(receiverId, messageData);
+        if (!sessionManager.sendToUser(receiverId, messageData)) {
+            // 캐시는 이 서버라고 했지만 세션이 없음 (이미 다른 서버로 재접속 등)
+            rerouteStale(serverInfoProvider.getServerAddress(), receiverId, message);
+            return;
+        }
         log.info("Message sent locally to user {}", receiverId);
     }
 
+    /**
+     * stale 라우팅으로 전달에 실패한 경우 캐시를 버리고 Redis 에서 다시 조회해 한 번 더 보낸다.
+     * 다시 조회해도 같은 서버(또는 오프라인)면 유저가 실제로 접속해 있지 않은 것이므로 멈춘다.
+     */
+    private void rerouteStale(String staleServer, Long receiverId, Message message) {
+        userRouteCache.invalidate(receiverId);
+        String freshServer = userRouteCache.getServer(receiverId);
+
+        if (freshServer == null || freshServer.equals(staleServer)) {
+            log.warn("User {} is not connected to {} and has no other route", receiverId, staleServer);
+            return;
+        }
+
+        log.info("Route of user {} changed from {} to {}. Redelivering.", receiverId, staleServer, freshServer);
+        if (freshServer.equals(serverInfoProvider.getServerAddress())) {
+            Map<String, Object> messageData = createMessageData(message);
+            if (!sessionManager.sendToUser(receiverId, messageData)) {
+                // 다시 조회해도 이 서버인데 세션이 없음 - 원격 전송 실패와 같이 Kafka 로 넘겨 세션을 가진 노드가 전달
+                fallbackToKafka(freshServer, List.of(receiverId), message);
+            }
+        } else {
+            forwardToOtherServer(freshServer, receiverId, message);
+        }
+    }
+
     /**
      * 다른 서버로 배치로 메시지 전송
      */
     public void deliverMessageBatch(String targetServer, List<Long> receiverIds, Message message) {
-        deliverMessageBatchWithRetry(targetServer, receiverIds, message, 0);
+        String serverAddress = normalizeServerAddress(targetServer);
+        ForwardCircuitBreaker.Permit permit = forwardCircuitBreaker.tryAcquire(serverAddress);
+        if (permit == null) {
+            fallbackToKafka(serverAddress, receiverIds, message);
+            return;
+        }
+        deliverMessageBatchWithRetry(targetServer, receiverIds, message, permit, 0);
     }
 
-    private void deliverMessageBatchWithRetry(String targetServer, List<Long> receiverIds, Message message, int retryCount) {
+    private void deliverMessageBatchWithRetry(String targetServer, List<Long> receiverIds, Message message,
+                                              ForwardCircuitBreaker.Permit permit, int retryCount) {
         String serverAddress = normalizeServerAddress(targetServer);
         int maxRetries = retryProperty.getMaxRetries();
 
-        try {
-            Map<String, Object> request = createMessageData(message);
-            request.put("receiverIds", receiverIds);  // 배열로 전송
-
-            String url = "http://" + serverAddress + "/internal/message/batch";
+        if (retryCount > 0) {
+            if (!permit.allowRetry()) {
+                permit.release();
+                fallbackToKafka(serverAddress, receiverIds, message);
+                return;
+            }
+            log.warn("[BATCH] Retrying ({}/{}) to forward message to {} users: {}",
+                    retryCount, maxRetries, receiverIds.size(), serverAddress);
+        } else {
+            log.info("[BATCH] Forwarding message to {} users: {}", receiverIds.size(), serverAddress);
+        }
 
-            if (retryCount > 0) {
-                log.warn("[BATCH] Retrying ({}/{}) to forward message to {} users via HTTP: {}",
-                        retryCount, maxRetries, receiverIds.size(), url);
-            } else {
-                log.info("[BATCH] Forwarding message to {} users via HTTP: {}", receiverIds.size(), url);
+        sendToServer(serverAddress, receiverIds, message).whenComplete((notConnected, e) -> {
+            if (e == null) {
+                permit.onSuccess();
+                permit.release();
+                log.info("[BATCH] Message forwarded successfully to {} for {} users", serverAddress, receiverIds.size());
+                // 대상 서버에 세션이 없던 유저는 stale 라우팅 - 다시 조회해서 개별 전송
+                if (notConnected != null) {
+                    for (long receiverId : notConnected) {
+                        rerouteStale(targetServer, receiverId, message);
+                    }
+                }
+                return;
             }
 
-            restTemplate.postForObject(url, request, Void.class);
-            log.info("[BATCH] Message forwarded successfully to {} for {} users", serverAddress, receiverIds.size());
+            if (isRejected(e)) {
+                log.error("[BATCH] Forward to {} for {} users rejected: {}", serverAddress, receiverIds.size(), e.getMessage());
+                permit.onSuccess();
+                permit.release();
+                fallbackToKafka(serverAddress, receiverIds, message);
+                return;
+            }
 
-        } catch (Exception e) {
-            retryCount++;
-            final int nextRetryCount = retryCount; // 람다에서 사용하기 위해 final 변수로 복사
+            permit.onFailure();
+            int nextRetryCount = retryCount + 1;
             log.error("[BATCH] Failed to forward message to {} for {} users (attempt {}/{}): {}",
-                    serverAddress, receiverIds.size(), retryCount, maxRetries, e.getMessage());
+                    serverAddress, receiverIds.size(), nextRetryCount, maxRetries, e.getMessage());
 
-            if (retryCount < maxRetries) {
+            if (!presenceLeaseRegistry.isAlive(targetServer)) {
+                permit.release();
+                receiverIds.forEach(receiverId -> rerouteStale(targetServer, receiverId, message));
+            } else if (nextRetryCount < maxRetries) {
                 // ScheduledExecutorService를 사용하여 비동기로 재시도 (메인 스레드 블로킹 방지)
-                long delayMs = retryProperty.getBaseDelayMs() * retryCount;
                 retryScheduler.schedule(() -> {
-                    deliverMessageBatchWithRetry(targetServer, receiverIds, message, nextRetryCount);
-                }, delayMs, TimeUnit.MILLISECONDS);
+                    deliverMessageBatchWithRetry(targetServer, receiverIds, message, permit, nextRetryCount);
+                }, backoffDelayMs(nextRetryCount), TimeUnit.MILLISECONDS);
             } else {
                 log.error("[BATCH] Failed to forward message after {} attempts to {} for {} users",
                         maxRetries, serverAddress, receiverIds.size(), e);
+                permit.release();
+                fallbackToKafka(serverAddress, receiverIds, message);
+            }
+        });
+    }
+
+    private static boolean isRejected(Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        return cause instanceof ForwardRejectedException;
+    }
+
+    /**
+     * 지수 backoff + jitter. base * 2^(n-1) 을 maxDelayMs 로 자르고 [절반, 전체] 사이에서 고른다 -
+     * 같은 노드 장애로 동시에 실패한 재시도들이 한꺼번에 다시 몰리지 않도록
+     */
+    long backoffDelayMs(int retryCount) {
+        long exponential = retryProperty.getBaseDelayMs() << Math.min(retryCount - 1, 20);
+        long cap = Math.max(1, Math.min(exponential, retryProperty.getMaxDelayMs()));
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    /**
+     * 대상 노드로 직접 전달할 수 없을 때 (breaker OPEN / bulkhead 초과 / 재시도 소진)
+     * 수신자를 지정한 이벤트를 Kafka 로 발행 - 세션을 가진 노드의 ChatMessageConsumer 가 전달한다
+     */
+    private void fallbackToKafka(String serverAddress, List<Long> receiverIds, Message message) {
+        log.warn("Forwarding to {} unavailable. Falling back to Kafka for {} users (messageId={})",
+                serverAddress, receiverIds.size(), message.getId());
+        chatMessageProducer.sendMessage(new ChatMessageEvent(
+                message.getId(),
+                message.getSenderId(),
+                message.getMessage(),
+                message.getChatRoomId(),
+                message.getCreatedAt(),
+                List.copyOf(receiverIds)));
+    }
+
+    /**
+     * 설정된 전송 방식으로 보낸다. LINK / REDIS 는 그 방식을 지금 쓸 수 없으면
+     * (링크 미연결, 대상 노드가 채널을 구독하지 않음 등) 이번 전송만 HTTP 로 대체.
+     * 클라이언트 payload 는 여기서 한 번만 인코딩하고, 받는 노드는 그 바이트를 그대로 소켓에 쓴다
+     * @return 대상 서버에 세션이 없어 전달하지 못한 receiverId 목록
+     */
+    private CompletableFuture<long[]> sendToServer(String serverAddress, List<Long> receiverIds, Message message) {
+        DeliveryEnvelope.Delivery delivery = DeliveryEnvelope.Delivery.of(
+                receiverIds.stream().mapToLong(Long::longValue).toArray(),
+                message.getId(),
+                message.getChatRoomId(),
+                sessionManager.encode(createMessageData(message)));
+        DeliveryTransport transport = deliveryTransport(forwardProperty.getTransport());
+        if (transport.transport() == MessageForwardProperty.Transport.HTTP) {
+            return send(transport, serverAddress, delivery);
+        }
+
+        return send(transport, serverAddress, delivery)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof DeliveryTransportUnavailableException) {
+                        log.debug("{} transport to {} unavailable, falling back to HTTP: {}",
+                                transport.transport(), serverAddress, cause.getMessage());
+                        return send(deliveryTransport(MessageForwardProperty.Transport.HTTP), serverAddress, delivery);
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    private CompletableFuture<long[]> send(DeliveryTransport transport, String serverAddress, DeliveryEnvelope.Delivery delivery) {
+        // 링크는 프레임마다 pipelining 하므로 묶지 않음
+        if (forwardCoalescer.isEnabled() && transport.transport() != MessageForwardProperty.Transport.LINK) {
+            // 같은 노드로 가는 다른 메시지와 묶어 envelope 하나로 전송
+            return forwardCoalescer.enqueue(transport, serverAddress, delivery);
+        }
+        return transport.send(serverAddress, DeliveryEnvelope.of(List.of(delivery)))
+                .thenApply(notConnected -> notConnected[0]);
+    }
+
+    private DeliveryTransport deliveryTransport(MessageForwardProperty.Transport type) {
+        for (DeliveryTransport transport : deliveryTransports) {
+            if (transport.transport() == type) {
+                return transport;
             }
         }
+        throw new IllegalStateException("No delivery transport for " + type);
     }
 
     private Map<String, Object> createMessageData(Message message) {
@@ -0,0 +1,211 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.common.LocalRoomIndex;
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.ws.BinaryFrameCodec;
+import com.example.chatservice.common.ws.OutboundSessionPipeline;
+import com.example.chatservice.common.ws.SubProtocolRoutingHandler;
+import com.example.chatservice.common.ws.WebSocketCompressor;
+import com.example.chatservice.component.snowflake.Snowflake;
+import com.example.chatservice.interceptor.JwtHandshakeInterceptor;
+import com.example.chatservice.message.entity.Message;
+import com.example.chatservice.message.event.ChatMessageEvent;
+import com.example.chatservice.property.WebSocketResumeProperty;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재접속한 클라이언트가 방별로 마지막에 받은 messageId(watermark) 를 보내면
+ * 그 이후 메시지만 해당 방의 샤드에서 keyset 조회로 읽어 보낸다.
+ *
+ * 재전송하는 동안 라이브 메시지는 아웃바운드 큐에서 보류했다가 재전송이 끝나면 이어서 보낸다.
+ * 접속 시점 전후로 겹치는 메시지는 중복으로 갈 수 있으므로 클라이언트는 messageId 로 중복을 거른다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(WebSocketResumeProperty.class)
+public class MessageResumeService {
+
+    private static final String TRUNCATED_JSON = "{\"type\": \"RESUME_TRUNCATED\", \"chatRoomId\": %d}";
+    private static final String COMPLETE_JSON = "{\"type\": \"RESUME_COMPLETE\", \"replayed\": %d}";
+    private static final long BACKPRESSURE_WAIT_MILLIS = 10;
+
+    private final MessageService messageService;
+    private final LocalRoomIndex localRoomIndex;
+    private final SessionManager sessionManager;
+    private final OutboundSessionPipeline outboundSessionPipeline;
+    private final WebSocketCompressor webSocketCompressor;
+    private final Snowflake snowflake;
+    private final WebSocketResumeProperty resumeProperty;
+
+    public boolean isEnabled() {
+        return resumeProperty.isEnabled();
+    }
+
+    /** 라이브 메시지 보류 시작 - 세션을 SessionManager 에 등록하기 전에 호출해야 빈틈이 없음 */
+    public void beginReplay(WebSocketSession session) {
+        outboundSessionPipeline.beginReplay(session);
+    }
+
+    public void endReplay(WebSocketSession session) {
+        outboundSessionPipeline.endReplay(session);
+    }
+
+    /** 연결 중 resume 프레임 - 보류 시작부터 재전송까지 한 번에 처리 */
+    public void resume(WebSocketSession session, Map<Long, Long> watermarks) {
+        beginReplay(session);
+        replay(session, watermarks);
+    }
+
+    /**
+     * watermark 이후 메시지를 보내고 보류했던 라이브 메시지를 풀어준다. 세션 인바운드 워커에서 실행된다.
+     */
+    public void replay(WebSocketSession session, Map<Long, Long> watermarks) {
+        try {
+            replayRooms(session, watermarks);
+        } catch (Exception e) {
+            log.error("Failed to replay missed messages for session {}", session.getId(), e);
+        } finally {
+            endReplay(session);
+        }
+    }
+
+    private void replayRooms(WebSocketSession session, Map<Long, Long> watermarks) {
+        Long userId = (Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(resumeProperty.getMaxReplayMillis());
+        // maxAge 보다 오래된 메시지는 id 조건으로 잘라냄 (snowflake id 상위 비트가 발급 시각)
+        long floorId = snowflake.minIdAt(
+                System.currentTimeMillis() - Duration.ofMinutes(resumeProperty.getMaxAgeMinutes()).toMillis());
+
+        int rooms = 0;
+        int replayed = 0;
+        for (Map.Entry<Long, Long> watermark : watermarks.entrySet()) {
+            Long chatRoomId = watermark.getKey();
+            // 참여 중인 방만 (LocalRoomIndex 는 접속 시 DB 에서 채워짐)
+            if (!localRoomIndex.isSubscribed(userId, chatRoomId)) {
+                log.warn("User {} requested resume for chat room {} without membership", userId, chatRoomId);
+                continue;
+            }
+            if (++rooms > resumeProperty.getMaxRooms() || System.nanoTime() > deadline) {
+                sendControl(session, truncatedFrame(session, chatRoomId));
+                continue;
+            }
+
+            long lastMessageId = watermark.getValue();
+            boolean truncated = lastMessageId < floorId - 1;
+            RoomReplay result = replayRoom(session, chatRoomId, Math.max(lastMessageId, floorId - 1), deadline);
+            if (result.sent() < 0) {
+                return; // 세션이 닫혔거나 보류가 풀림
+            }
+            replayed += result.sent();
+            if (truncated || result.truncated()) {
+                sendControl(session, truncatedFrame(session, chatRoomId));
+            }
+        }
+
+        log.info("Replayed {} missed messages to user {} (session {})", replayed, userId, session.getId());
+        sendControl(session, completeFrame(session, replayed));
+    }
+
+    /**
+     * (chat_room_id, id) 인덱스를 타는 keyset 조회로 페이지 단위로 읽어 보낸다.
+     * @return sent 가 -1 이면 중단됨
+     */
+    private RoomReplay replayRoom(WebSocketSession session, Long chatRoomId, long afterId, long deadline) {
+        int pageSize = resumeProperty.getPageSize();
+        int maxMessages = resumeProperty.getMaxMessagesPerRoom();
+        long cursor = afterId;
+        int sent = 0;
+
+        while (sent < maxMessages) {
+            if (System.nanoTime() > deadline) {
+                return new RoomReplay(sent, true);
+            }
+            int limit = Math.min(pageSize, maxMessages - sent);
+            List<Message> page = messageService.findMessagesAfter(chatRoomId, cursor, limit);
+            for (Message message : page) {
+                if (!outboundSessionPipeline.enqueueReplay(session, encode(session, message))) {
+                    return new RoomReplay(-1, true);
+                }
+                cursor = message.getId();
+                sent++;
+            }
+            if (page.size() < limit) {
+                return new RoomReplay(sent, false);
+            }
+            awaitOutboundCapacity(session, pageSize, deadline);
+        }
+        return new RoomReplay(sent, true);
+    }
+
+    /** 느린 클라이언트에게 재전송 frame 을 한꺼번에 쌓아 overflow 정책에 걸리지 않도록 큐가 빠질 때까지 대기 */
+    private void awaitOutboundCapacity(WebSocketSession session, int threshold, long deadline) {
+        while (session.isOpen()
+                && outboundSessionPipeline.getQueuedCount(session) > threshold
+                && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(BACKPRESSURE_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private WebSocketMessage<?> encode(WebSocketSession session, Message message) {
+        // 라이브 팬아웃(ChatMessageConsumer) 과 같은 payload 형식
+        ChatMessageEvent event = new ChatMessageEvent(message.getId(), message.getSenderId(),
+                message.getMessage(), message.getChatRoomId(), message.getCreatedAt());
+        return webSocketCompressor.encode(session, sessionManager.encode(event.toWebSocketPayload()));
+    }
+
+    /**
+     * 보류가 이미 풀렸으면(보류 한도 초과) 일반 큐로 보낸다 - 라이브 frame 뒤에 가지만 빠지지는 않는다.
+     * 그것도 실패했는데 세션이 열려 있으면 끊어서 클라이언트가 다시 resume 하게 한다 (완료/잘림 표시 없이 남겨두지 않음).
+     */
+    private void sendControl(WebSocketSession session, WebSocketMessage<?> frame) {
+        if (outboundSessionPipeline.enqueueReplay(session, frame) || outboundSessionPipeline.enqueue(session, frame)) {
+            return;
+        }
+        if (!session.isOpen()) {
+            return;
+        }
+        log.warn("Failed to enqueue resume control frame, closing session {}", session.getId());
+        try {
+            session.close(CloseStatus.SERVER_ERROR.withReason("Resume control frame dropped"));
+        } catch (IOException e) {
+            log.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private WebSocketMessage<?> truncatedFrame(WebSocketSession session, Long chatRoomId) {
+        if (SubProtocolRoutingHandler.isBinary(session)) {
+            return new BinaryMessage(BinaryFrameCodec.encodeResumeTruncated(chatRoomId));
+        }
+        return new TextMessage(TRUNCATED_JSON.formatted(chatRoomId));
+    }
+
+    private WebSocketMessage<?> completeFrame(WebSocketSession session, int replayed) {
+        if (SubProtocolRoutingHandler.isBinary(session)) {
+            return new BinaryMessage(BinaryFrameCodec.encodeResumeComplete(replayed));
+        }
+        return new TextMessage(COMPLETE_JSON.formatted(replayed));
+    }
+
+    private record RoomReplay(int sent, boolean truncated) {
+    }
+}
@@ -76,34 +76,84 @@ public class MessageService {
         log.info("Sending message to sender {} immediately", senderId);
         messageDeliveryService.deliverMessage(senderId, message);
 
-        Long messageId = message.getId();
+        publishAfterCommit(List.of(message));
+    }
+
+    /**
+     * 배치 메시지 전송 (오프라인 outbox 재전송 등).
+     * 한 번의 chained tx 안에서 JDBC batch insert 후 lastMessageId / 발신자 ReadStatus 는 최대 id로 한 번만 갱신한다.
+     */
+    @Sharding(target = ShardingTarget.MESSAGE, key = "#chatRoomId")
+    @Transactional(transactionManager = "chainedTransactionManager")
+    public void sendMessagesViaWebSocket(Long senderId, Long receiverId,
+                                         Long chatRoomId, List<String> contents) {
+        if (contents.isEmpty()) {
+            return;
+        }
+
+        User senderUser = userRepository.findById(senderId)
+                .orElseThrow(() -> new UserNotFoundException(senderId));
+        ChatRoom chatRoom = chatRepository.findById(chatRoomId)
+                .orElseThrow(() -> new ChatRoomNotFoundException(chatRoomId));
+
+        List<Message> messages = new ArrayList<>(contents.size());
+        for (String content : contents) {
+            messages.add(Message.builder()
+                    .id(snowflake.nextId())
+                    .senderId(senderUser.getId())
+                    .chatRoomId(chatRoom.getId())
+                    .message(content)
+                    .build());
+        }
+
+        messageRepository.batchInsert(messages);
+
+        // snowflake id는 단조 증가하므로 마지막 메시지가 최대 id
+        Long maxMessageId = messages.getLast().getId();
+        performUserChatLastMessageUpdate(chatRoom, maxMessageId);
+        performSenderReadStatusUpdate(senderUser.getId(), chatRoom.getId(), maxMessageId);
+
+        log.info("Sending {} batched messages to sender {} immediately", messages.size(), senderId);
+        for (Message message : messages) {
+            messageDeliveryService.deliverMessage(senderId, message);
+        }
+
+        publishAfterCommit(messages);
+    }
+
+    /** 커밋 이후 Kafka 발행 (메시지마다 1건, chatRoomId 키라서 같은 파티션으로 순서 유지) */
+    private void publishAfterCommit(List<Message> messages) {
         TransactionSynchronizationManager.registerSynchronization(
                 new TransactionSynchronization() {
                     @Override
                     public void afterCommit() {
-                        ChatMessageEvent event = new ChatMessageEvent(
-                                message.getId(),
-                                message.getSenderId(),
-                                message.getMessage(),
-                                message.getChatRoomId(),
-                                message.getCreatedAt()
-                        );
-                        chatMessageProducer.sendMessage(event);
+                        for (Message message : messages) {
+                            ChatMessageEvent event = new ChatMessageEvent(
+                                    message.getId(),
+                                    message.getSenderId(),
+                                    message.getMessage(),
+                                    message.getChatRoomId(),
+                                    message.getCreatedAt()
+                            );
+                            chatMessageProducer.sendMessage(event);
+                        }
                     }
                 }
         );
     }
 
-    /** Main DB 업데이트 핵심 로직 (호출 시점의 트랜잭션에서 실행) */
+    /**
+     * Main DB 업데이트 핵심 로직 (호출 시점의 트랜잭션에서 실행).
+     * Redis 장애(degraded) 중에는 디바운스 없이 바로 DB 를 갱신한다.
+     */
     private void performUserChatLastMessageUpdate(ChatRoom chatRoom, Long messageId) {
         boolean hotRoom = hotRoomDetectionService.isHotRoom(chatRoom.getId());
 
-        if (hotRoom && hotRoomDetectionService.shouldSkipHotUpdate(chatRoom.getId())) {
-            pendingLastMessageFlushService.scheduleFlush(
-                    chatRoom.getId(),
-                    messageId,
-                    hotRoomDetectionService.getDebounceDuration()
-            );
+        if (hotRoom && hotRoomDetectionService.shouldSkipHotUpdate(chatRoom.getId())
+                && pendingLastMessageFlushService.scheduleFlush(
+                        chatRoom.getId(),
+                        messageId,
+                        hotRoomDetectionService.getDebounceDuration())) {
             return;
         }
         pendingLastMessageFlushService.flushIfPending(chatRoom.getId());
@@ -138,6 +188,14 @@ public class MessageService {
         );
     }
 
+    /** 재접속 resume 용 keyset 조회 - afterId 보다 큰 메시지를 id 오름차순으로 limit 개 */
+    @Sharding(target = ShardingTarget.MESSAGE, key = "#chatRoomId")
+    @Transactional(readOnly = true, transactionManager = "messageTransactionManager")
+    public List<Message> findMessagesAfter(Long chatRoomId, long afterId, int limit) {
+        return messageRepository.findByChatRoomIdAndIdGreaterThanOrderByIdAsc(
+                chatRoomId, afterId, PageRequest.of(0, limit));
+    }
+
     @Sharding(target = ShardingTarget.MESSAGE, key = "#chatRoomId")
     @Transactional(readOnly = true, transactionManager = "messageTransactionManager")
     public List<MessageResponse> getMessages(
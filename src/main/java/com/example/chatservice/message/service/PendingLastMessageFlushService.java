@@ -1,6 +1,7 @@
 package com.example.chatservice.message.service;
 
 import com.example.chatservice.chat.repository.UserChatRepository;
+import com.example.chatservice.common.RedisCircuitBreaker;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
@@ -28,24 +29,28 @@ public class PendingLastMessageFlushService {
     private static final String FLUSH_QUEUE = "chat:lastMsg:flushQueue";
     private static final String PENDING_HASH_KEY = "chat:pendingLastMessages";
     private static final Duration PENDING_TTL = Duration.ofMinutes(10);
+    private static final Duration CONSUMER_ERROR_BACKOFF = Duration.ofSeconds(1);
 
     private final RedissonClient redissonClient;
     private final RedisTemplate<String, Object> redisTemplate;
     private final UserChatRepository userChatRepository;
     private final TransactionTemplate transactionTemplate;
     private final ExecutorService consumerExecutor;
+    private final RedisCircuitBreaker redisCircuitBreaker;
 
     public PendingLastMessageFlushService(
             RedissonClient redissonClient,
             RedisTemplate<String, Object> redisTemplate,
             UserChatRepository userChatRepository,
             TransactionTemplate transactionTemplate,
-            @Qualifier("lastMessageFlushExecutor") ExecutorService consumerExecutor) {
+            @Qualifier("lastMessageFlushExecutor") ExecutorService consumerExecutor,
+            RedisCircuitBreaker redisCircuitBreaker) {
         this.redissonClient = redissonClient;
         this.redisTemplate = redisTemplate;
         this.userChatRepository = userChatRepository;
         this.transactionTemplate = transactionTemplate;
         this.consumerExecutor = consumerExecutor;
+        this.redisCircuitBreaker = redisCircuitBreaker;
     }
 
     private RBlockingQueue<Long> flushQueue;
@@ -91,8 +96,9 @@ public class PendingLastMessageFlushService {
     /**
      * 서버 종료 시 Redis에 남아있는 모든 pending 메시지를 즉시 flush한다.
      * KEYS 명령어 대신 Hash entries를 사용하여 비블로킹 방식으로 처리한다.
+     * WebSocket drain(SessionDrainCoordinator) 시작 시 먼저 호출되고, drain 중 새로 쌓인 것은 @PreDestroy 에서 한 번 더 flush 된다.
      */
-    private void flushAllPendingMessages() {
+    public void flushAllPendingMessages() {
         try {
             // Hash에서 모든 pending 메시지 조회 (비블로킹)
             Map<Object, Object> allPending = redisTemplate.opsForHash().entries(PENDING_HASH_KEY);
@@ -116,8 +122,17 @@ public class PendingLastMessageFlushService {
     /**
      * 디바운스 구간에 스킵된 lastMessageId를 캐싱하고 지연 플러시를 예약한다.
      * 이미 스케줄링된 경우 새로운 스케줄링을 하지 않는다 (중복 방지).
+     *
+     * @return Redis 장애로 예약하지 못했으면 false - 호출자가 직접 DB 에 반영해야 한다
      */
-    public void scheduleFlush(Long chatRoomId, Long messageId, Duration delay) {
+    public boolean scheduleFlush(Long chatRoomId, Long messageId, Duration delay) {
+        return redisCircuitBreaker.call(() -> {
+            doScheduleFlush(chatRoomId, messageId, delay);
+            return true;
+        }, () -> false);
+    }
+
+    private void doScheduleFlush(Long chatRoomId, Long messageId, Duration delay) {
         // 최대 messageId를 Redis Hash에 캐싱 (이미 스케줄링되어 있어도 최신 값으로 업데이트)
         cachePendingMax(chatRoomId, messageId);
 
@@ -138,16 +153,22 @@ public class PendingLastMessageFlushService {
     }
 
     private void consume() {
-        try {
-            while (!Thread.currentThread().isInterrupted()) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
                 Long chatRoomId = flushQueue.take(); // 딜레이가 지난 항목만 도착
                 log.debug("Flush dequeue received chatRoomId={}", chatRoomId);
                 flush(chatRoomId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Redis 장애로 consumer 가 죽지 않도록 잠시 쉬고 계속 (복구 후 남은 pending 은 다시 flush 됨)
+                log.error("Unexpected error while flushing lastMessageId", e);
+                try {
+                    Thread.sleep(CONSUMER_ERROR_BACKOFF.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            log.error("Unexpected error while flushing lastMessageId", e);
         }
     }
 
@@ -156,6 +177,11 @@ public class PendingLastMessageFlushService {
      * 핫모드에서 쿨모드로 전환될 때 메모리 누수를 방지하기 위해 사용된다.
      */
     public void flushIfPending(Long chatRoomId) {
+        // Redis 장애 중에는 확인할 수 없음 - 호출자가 바로 DB 를 갱신하고, 남은 pending 은 지연 flush 가 정리
+        redisCircuitBreaker.run(() -> doFlushIfPending(chatRoomId), () -> { });
+    }
+
+    private void doFlushIfPending(Long chatRoomId) {
         // Hash 필드 존재 확인
         if (!redisTemplate.opsForHash().hasKey(PENDING_HASH_KEY, chatRoomId.toString())) {
             // pending이 없으면 아무것도 하지 않음
@@ -0,0 +1,27 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.forward.breaker")
+public class ForwardCircuitBreakerProperty {
+
+    private boolean enabled = true;
+
+    /** 대상 노드로의 전송이 연속으로 이 횟수만큼 실패하면 OPEN */
+    private int failureThreshold = 5;
+
+    /** OPEN 유지 시간. 지나면 시험 전송 하나로 복구 여부 확인 (HALF_OPEN) */
+    private long openMillis = 5000;
+
+    /** 대상 노드별로 동시에 진행 중인 전송 수 상한 (재시도 대기 포함, bulkhead). 넘치면 Kafka 로 대체 */
+    private int maxInFlightPerTarget = 512;
+
+    /** 전송이 없는 대상 노드의 breaker 를 정리하는 시간 */
+    private long idleExpireMillis = 600_000;
+}
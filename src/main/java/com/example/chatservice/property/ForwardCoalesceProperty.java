@@ -0,0 +1,21 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.forward.coalesce")
+public class ForwardCoalesceProperty {
+
+    private boolean enabled = true;
+
+    /** 대상 노드별 첫 전송 이후 뒤따르는 전송을 모으는 시간 */
+    private long maxDelayMillis = 5;
+
+    /** envelope 하나에 담는 전송(메시지 x 대상 노드) 수 상한. 차면 시간을 기다리지 않고 바로 보냄 */
+    private int maxDeliveries = 256;
+}
@@ -0,0 +1,25 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.internal-http")
+public class InternalHttpClientProperty {
+
+    /** 노드 간 연결 타임아웃. 같은 데이터센터 안이라 짧게 */
+    private long connectTimeoutMillis = 500;
+
+    /** 요청 전체(응답 헤더 수신까지) 타임아웃 */
+    private long requestTimeoutMillis = 2000;
+
+    /** 대상 노드별 동시 요청(연결) 상한. 넘으면 기다리지 않고 실패 -> 재시도 스케줄 */
+    private int maxConcurrentPerTarget = 64;
+
+    /** true 면 HTTP/2 (h2c) 시도, 대상이 지원하지 않으면 HTTP/1.1 keep-alive 로 동작 */
+    private boolean http2 = false;
+}
@@ -0,0 +1,33 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.kafka.delivery")
+public class KafkaDeliveryProperty {
+
+    public enum Mode {
+        /** 모든 노드가 chat-messages 전체를 읽고 로컬 방 참여자에게만 전달 (노드 수 x 메시지 수 만큼 consume) */
+        BROADCAST,
+        /** fan-out 단계(chat-fanout 그룹)가 참여자가 있는 노드를 찾아 노드별 토픽으로 envelope 발행, 노드는 자기 토픽만 consume */
+        ROUTED
+    }
+
+    private Mode mode = Mode.BROADCAST;
+
+    /** 노드별 토픽 이름 = prefix + serverAddress (':' 는 '-') */
+    private String nodeTopicPrefix = "chat-node.";
+
+    private int nodeTopicPartitions = 3;
+
+    /** 노드 토픽 보존 기간 (retention.ms). 없어진 노드 주소의 토픽이나 오래 내려가 있던 노드의 밀린 레코드가 이 이상 남지 않음 */
+    private long nodeTopicRetentionMillis = 600_000;
+
+    /** fan-out 단계의 방 참여자 목록 캐시 시간. 0 이면 메시지마다 DB 조회 */
+    private long memberCacheMillis = 1000;
+}
@@ -0,0 +1,34 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.forward")
+public class MessageForwardProperty {
+
+    public enum Transport {
+        /** /internal/message/envelope 로 DeliveryEnvelope POST */
+        HTTP,
+        /** 노드 간 상시 연결(/internal/link) 위에서 pipelining. 연결이 없으면 HTTP 로 대체 */
+        LINK,
+        /** 대상 노드가 구독하는 Redis 채널(node:{serverAddress})로 publish. 구독자가 없으면 HTTP 로 대체 */
+        REDIS
+    }
+
+    public enum Codec {
+        /** 컴팩트 바이너리 DeliveryEnvelope (기본) */
+        BINARY,
+        /** 사람이 읽을 수 있는 JSON DeliveryEnvelope (디버깅용) */
+        JSON
+    }
+
+    private Transport transport = Transport.HTTP;
+
+    /** HTTP 전송 시 envelope 인코딩. 노드 링크는 항상 바이너리 */
+    private Codec codec = Codec.BINARY;
+}
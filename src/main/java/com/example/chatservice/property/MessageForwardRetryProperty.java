@@ -12,4 +12,7 @@ public class MessageForwardRetryProperty {
     private int maxRetries;
     private long baseDelayMs;
 
+    /** 지수 backoff 상한 (baseDelayMs * 2^(n-1) 을 이 값으로 자르고 jitter 적용) */
+    private long maxDelayMs = 2000;
+
 }
@@ -0,0 +1,29 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.forward.link")
+public class NodeLinkProperty {
+
+    private long connectTimeoutMillis = 1000;
+
+    /** 보낸 프레임의 ack 를 기다리는 시간. 넘으면 실패로 보고 재시도 */
+    private long ackTimeoutMillis = 2000;
+
+    /** 링크당 ack 를 기다리는 프레임 상한. 넘으면 HTTP 로 대체 */
+    private int maxPendingFrames = 10000;
+
+    /** 연결이 끊긴 뒤 재연결 대기 (실패할 때마다 두 배, maxReconnectBackoffMillis 까지) */
+    private long reconnectBackoffMillis = 500;
+    private long maxReconnectBackoffMillis = 30000;
+
+    /** 소켓 쓰기가 이 시간 넘게 막히거나 버퍼가 넘치면 링크를 끊고 재연결 */
+    private int sendTimeLimitMillis = 2000;
+    private int sendBufferSizeLimitBytes = 4 * 1024 * 1024;
+}
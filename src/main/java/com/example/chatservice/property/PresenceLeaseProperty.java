@@ -0,0 +1,25 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.presence")
+public class PresenceLeaseProperty {
+
+    /** 노드 lease 유효 시간. 갱신이 이 시간 동안 없으면 죽은 노드로 판단 */
+    private long leaseTtlSeconds = 15;
+
+    /** lease 갱신 + 다른 노드 생존 확인 주기 (leaseTtlSeconds 보다 충분히 짧게) */
+    private long renewIntervalSeconds = 5;
+
+    /** 죽은 노드의 유저를 정리할 때 Lua 스크립트 한 번에 넘기는 유저 수 */
+    private int sweepChunkSize = 500;
+
+    /** 정리가 끝난 죽은 노드를 로컬에서 계속 죽은 것으로 취급하는 시간 (남아 있는 라우팅 캐시 보호) */
+    private long deadNodeRetentionSeconds = 600;
+}
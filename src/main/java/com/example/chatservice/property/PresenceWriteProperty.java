@@ -0,0 +1,28 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.presence.write")
+public class PresenceWriteProperty {
+
+    /** false 면 접속/해제마다 호출 스레드에서 바로 Redis 에 씀 */
+    private boolean coalesceEnabled = true;
+
+    /** 첫 요청 이후 뒤따르는 요청을 모으는 최대 시간 (presence 반영 지연 상한) */
+    private long maxDelayMillis = 2;
+
+    /** Lua 스크립트 한 번에 반영하는 최대 접속/해제 수 */
+    private int maxBatchSize = 500;
+
+    /** 대기 큐 크기. 가득 차면 핸드셰이크 스레드가 offerTimeoutMillis 까지만 자리를 기다린다 */
+    private int queueCapacity = 50_000;
+
+    /** 큐가 가득 찼을 때 기다리는 상한. 넘기면 큐를 거치지 않고 호출 스레드에서 바로 씀 (핸드셰이크가 무한정 막히지 않도록) */
+    private long offerTimeoutMillis = 50;
+}
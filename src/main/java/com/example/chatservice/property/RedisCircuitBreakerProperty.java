@@ -0,0 +1,27 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.redis.breaker")
+public class RedisCircuitBreakerProperty {
+
+    private boolean enabled = true;
+
+    /** 연속 실패(느린 호출 포함) 횟수가 이 값에 도달하면 OPEN */
+    private int failureThreshold = 5;
+
+    /** OPEN 유지 시간. 지나면 시험 호출 하나로 복구 여부 확인 (HALF_OPEN) */
+    private long openMillis = 5000;
+
+    /** 이보다 오래 걸린 호출은 결과는 쓰되 실패로 집계 */
+    private long slowCallMillis = 200;
+
+    /** Redis 명령 타임아웃 (Lettuce / Redisson). 멈춘 Redis 에 요청 스레드가 오래 묶이지 않도록 짧게 */
+    private long commandTimeoutMillis = 500;
+}
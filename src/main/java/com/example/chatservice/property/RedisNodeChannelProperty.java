@@ -0,0 +1,19 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.forward.redis")
+public class RedisNodeChannelProperty {
+
+    /** 대상 노드의 ACK 를 기다리는 시간. 넘으면 전송 실패 (재시도 / breaker 로 넘어감) */
+    private long ackTimeoutMillis = 2000;
+
+    /** ACK 를 기다리는 envelope 수 상한. 넘으면 이번 전송은 HTTP 로 대체 */
+    private int maxPendingEnvelopes = 10000;
+}
@@ -0,0 +1,21 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.route-cache")
+public class UserRouteCacheProperty {
+
+    private boolean enabled = true;
+
+    /** 노드당 캐시하는 최대 유저 수 */
+    private long maxSize = 100_000;
+
+    /** 무효화 메시지를 놓쳤을 때 stale 라우팅이 남아 있을 수 있는 최대 시간 */
+    private long ttlSeconds = 30;
+}
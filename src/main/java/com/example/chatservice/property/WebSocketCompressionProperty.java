@@ -0,0 +1,27 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.zip.Deflater;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.websocket.compression")
+public class WebSocketCompressionProperty {
+
+    /**
+     * 애플리케이션 레벨 압축(?compress=deflate, WebSocketCompressor) 허용 여부. 기본 false -
+     * 표준 permessage-deflate 는 이 값과 상관없이 클라이언트가 제안하면 Tomcat 이 협상한다
+     */
+    private boolean enabled = false;
+
+    /** 이 크기(byte) 미만의 payload 는 압축하지 않음 - 작은 메시지는 CPU 만 쓰고 이득이 거의 없다 */
+    private int minPayloadBytes = 1024;
+
+    /** Deflater 압축 레벨 (1 = BEST_SPEED ~ 9 = BEST_COMPRESSION) */
+    private int level = Deflater.DEFAULT_COMPRESSION;
+}
@@ -0,0 +1,27 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.websocket.drain")
+public class WebSocketDrainProperty {
+
+    private boolean enabled = true;
+
+    /** 한 번에 닫는 세션 수 */
+    private int batchSize = 500;
+
+    /** 배치 사이 대기 시간 - 재접속이 다른 노드로 한꺼번에 몰리지 않도록 */
+    private long batchIntervalMillis = 200;
+
+    /** drain 전체 상한. 넘기면 남은 세션은 한 번에 닫음 (spring.lifecycle.timeout-per-shutdown-phase 보다 짧게) */
+    private long maxDrainSeconds = 20;
+
+    /** presence 일괄 정리 시 Lua 스크립트 한 번에 넘길 유저 수 */
+    private int presenceCleanupChunkSize = 500;
+}
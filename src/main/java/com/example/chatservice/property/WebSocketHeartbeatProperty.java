@@ -0,0 +1,27 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.websocket.heartbeat")
+public class WebSocketHeartbeatProperty {
+
+    private boolean enabled = true;
+
+    /** 마지막 수신 이후 이 시간이 지나면 서버가 ping 을 보냄 */
+    private int pingIntervalSeconds = 25;
+
+    /** 마지막 수신(pong 포함) 이후 이 시간이 지나면 half-open 으로 보고 세션 정리 */
+    private int idleTimeoutSeconds = 75;
+
+    /** 타이머 휠 tick 간격 - 타임아웃 정밀도 */
+    private long tickMillis = 200;
+
+    /** 타이머 휠 슬롯 수 */
+    private int ticksPerWheel = 512;
+}
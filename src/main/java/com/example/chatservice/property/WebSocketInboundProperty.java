@@ -0,0 +1,29 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.websocket.inbound")
+public class WebSocketInboundProperty {
+
+    /** 세션별 인바운드 큐 최대 길이 */
+    private int queueCapacity = 256;
+
+    /** 배치 프레임 하나에 담을 수 있는 최대 메시지 수 */
+    private int maxBatchSize = 100;
+
+    /** 큐가 가득 찼을 때 처리 방식 */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.SLOW_DOWN;
+
+    public enum OverflowPolicy {
+        /** 해당 프레임은 버리고 클라이언트에게 slow down 프레임 전송 */
+        SLOW_DOWN,
+        /** 세션 종료 (1013 Try Again Later) */
+        CLOSE
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.websocket.outbound")
+public class WebSocketOutboundProperty {
+
+    /** 세션별 전송 대기 frame 최대 개수 */
+    private int maxQueuedMessages = 1000;
+
+    /** 세션별 전송 대기 payload 최대 byte 수 */
+    private long maxQueuedBytes = 1024 * 1024;
+
+    /** 한도를 넘겼을 때(느린 클라이언트) 처리 방식 */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DISCONNECT;
+
+    /** 클라이언트가 핸드셰이크에서 ?coalesce=array 를 보냈을 때 밀린 frame 합치기 허용 여부 */
+    private boolean coalesceEnabled = true;
+
+    /** 유휴 상태에서 첫 frame 이 들어왔을 때 뒤따르는 frame 을 모으려고 기다리는 최대 시간 */
+    private long coalesceMaxDelayMillis = 5;
+
+    /** 합친 frame 하나의 최대 크기 */
+    private int coalesceMaxFrameBytes = 64 * 1024;
+
+    public enum OverflowPolicy {
+        /** 가장 오래된 frame 부터 버려서 새 frame 을 넣음 */
+        DROP_OLDEST,
+        /** 밀린 frame 을 모두 버리고 유실 알림(RESYNC) 한 건으로 합침 - 클라이언트가 다시 조회 */
+        COALESCE,
+        /** 세션 종료 (1013 Try Again Later) - 클라이언트 재접속 후 resume */
+        DISCONNECT
+    }
+}
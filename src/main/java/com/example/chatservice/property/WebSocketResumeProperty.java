@@ -0,0 +1,30 @@
+package com.example.chatservice.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ToString
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.websocket.resume")
+public class WebSocketResumeProperty {
+
+    private boolean enabled = true;
+
+    /** keyset 조회 한 번에 읽는 메시지 수 */
+    private int pageSize = 200;
+
+    /** 방 하나에서 재전송하는 최대 메시지 수. 넘으면 RESUME_TRUNCATED 를 보내고 나머지는 REST 조회에 맡김 */
+    private int maxMessagesPerRoom = 1000;
+
+    /** 이보다 오래된 메시지는 재전송하지 않음 (snowflake id 범위 조건으로 변환) */
+    private long maxAgeMinutes = 1440;
+
+    /** 한 번의 resume 요청에서 처리하는 최대 방 수 */
+    private int maxRooms = 100;
+
+    /** resume 한 번의 전체 시간 상한 - 그동안 라이브 메시지는 보류되므로 짧게 유지 */
+    private long maxReplayMillis = 5000;
+}
@@ -0,0 +1,117 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.chat.repository.UserChatRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class LocalRoomIndexTest {
+
+    private final UserChatRepository userChatRepository = mock(UserChatRepository.class);
+    private final ScheduledExecutorService reloadScheduler = mock(ScheduledExecutorService.class);
+    private final LocalRoomIndex index = new LocalRoomIndex(userChatRepository, reloadScheduler);
+
+    @Test
+    @DisplayName("접속 시 참여 방을 인덱싱하고 끊기면 모두 제거한다")
+    void indexOnConnectAndDisconnect() {
+        when(userChatRepository.findActiveChatRoomIdsByUserId(1L)).thenReturn(List.of(10L, 20L));
+        when(userChatRepository.findActiveChatRoomIdsByUserId(2L)).thenReturn(List.of(10L));
+
+        index.onUserConnected(1L, "a");
+        index.onUserConnected(2L, "b");
+        index.onUserConnected(1L, "c"); // 두 번째 디바이스는 다시 조회하지 않음
+
+        assertThat(index.getLocalUsers(10L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.getLocalUsers(20L)).containsExactly(1L);
+        verify(userChatRepository, times(1)).findActiveChatRoomIdsByUserId(1L);
+
+        index.onUserDisconnected(1L, "a");
+        assertThat(index.getLocalUsers(20L)).containsExactly(1L); // 다른 디바이스가 남아 있음
+
+        index.onUserDisconnected(1L, "c");
+
+        assertThat(index.getLocalUsers(10L)).containsExactly(2L);
+        assertThat(index.getLocalUsers(20L)).isEmpty();
+        assertThat(index.getIndexedRoomCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("가입/나가기는 이 노드에 접속 중인 유저에게만 반영된다")
+    void joinAndLeaveOnlyForLocalUsers() {
+        when(userChatRepository.findActiveChatRoomIdsByUserId(1L)).thenReturn(List.of());
+        index.onUserConnected(1L, "a");
+
+        index.subscribe(1L, 30L);
+        index.subscribe(99L, 30L); // 다른 노드의 유저
+
+        assertThat(index.getLocalUsers(30L)).containsExactly(1L);
+
+        index.unsubscribe(1L, 30L);
+        assertThat(index.getLocalUsers(30L)).isEmpty();
+        assertThat(index.getIndexedRoomCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("재접속 후 이전 세션의 종료가 도착해도 인덱스를 지우지 않는다")
+    void reconnectBeforeOldSessionCloses() {
+        when(userChatRepository.findActiveChatRoomIdsByUserId(1L)).thenReturn(List.of(10L));
+        index.onUserConnected(1L, "old");
+
+        index.onUserConnected(1L, "new");
+        index.onUserDisconnected(1L, "old");
+        index.onUserDisconnected(1L, "old"); // 중복 종료 콜백
+
+        assertThat(index.getLocalUsers(10L)).containsExactly(1L);
+        assertThat(index.isSubscribed(1L, 10L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("참여 방 조회가 실패하면 자리표시를 지워 다음 디바이스가 다시 조회한다")
+    void retriesAfterLoadFailure() {
+        when(userChatRepository.findActiveChatRoomIdsByUserId(1L))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of(10L));
+
+        assertThatThrownBy(() -> index.onUserConnected(1L, "a")).isInstanceOf(IllegalStateException.class);
+        index.onUserConnected(1L, "b");
+
+        assertThat(index.getLocalUsers(10L)).containsExactly(1L);
+        verify(userChatRepository, times(2)).findActiveChatRoomIdsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("참여 방 조회가 실패해도 같은 유저의 다른 디바이스가 남아 있으면 entry 를 유지하고 나중에 다시 조회한다")
+    void keepsEntryAndReloadsWhenOtherDeviceConnected() throws Exception {
+        // a 의 조회가 끝나기 전에 b 가 접속 (b 는 조회하지 않음)
+        doAnswer(invocation -> {
+            index.onUserConnected(1L, "b");
+            throw new IllegalStateException("db down");
+        }).when(userChatRepository).findActiveChatRoomIdsByUserId(1L);
+
+        assertThatThrownBy(() -> index.onUserConnected(1L, "a")).isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<Runnable> reload = ArgumentCaptor.forClass(Runnable.class);
+        verify(reloadScheduler).schedule(reload.capture(), anyLong(), any(TimeUnit.class));
+        doReturn(List.of(10L)).when(userChatRepository).findActiveChatRoomIdsByUserId(1L);
+        reload.getValue().run();
+
+        // 재조회는 virtual thread 에서 실행됨
+        for (int i = 0; i < 100 && index.getLocalUsers(10L).isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(index.getLocalUsers(10L)).containsExactly(1L);
+        verify(userChatRepository, times(2)).findActiveChatRoomIdsByUserId(1L);
+        index.onUserDisconnected(1L, "b");
+        assertThat(index.getIndexedRoomCount()).isZero();
+    }
+}
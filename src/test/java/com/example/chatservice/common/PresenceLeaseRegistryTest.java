@@ -0,0 +1,65 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.PresenceLeaseProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PresenceLeaseRegistryTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOps;
+    private SetOperations<String, Object> setOps;
+    private PresenceLeaseRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        setOps = mock(SetOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.opsForSet()).thenReturn(setOps);
+
+        ServerInfoProvider serverInfoProvider = mock(ServerInfoProvider.class);
+        when(serverInfoProvider.getServerAddress()).thenReturn("localhost:8080");
+        registry = new PresenceLeaseRegistry(redisTemplate, serverInfoProvider,
+                mock(ScheduledExecutorService.class), new PresenceLeaseProperty());
+    }
+
+    @Test
+    @DisplayName("lease 가 만료된 노드는 죽은 노드로 보고, 락을 잡으면 그 노드의 유저를 정리한다")
+    void sweepsDeadNode() {
+        when(setOps.members("presence:nodes")).thenReturn(Set.of("localhost:8080", "localhost:8081", "localhost:8082"));
+        when(valueOps.multiGet(anyList())).thenAnswer(inv -> {
+            List<String> keys = inv.getArgument(0);
+            return keys.stream().map(key -> key.endsWith("8081") ? null : (Object) "1").toList();
+        });
+        when(valueOps.setIfAbsent(eq("presence:sweep:localhost:8081"), any(), any(Duration.class))).thenReturn(true);
+        when(setOps.pop("presence:node:localhost:8081:users", 500L)).thenReturn(Arrays.asList("1", "2")).thenReturn(List.of());
+
+        ReflectionTestUtils.invokeMethod(registry, "tick");
+
+        assertThat(registry.isAlive("localhost:8081")).isFalse();
+        assertThat(registry.isAlive("localhost:8082")).isTrue();
+        assertThat(registry.isAlive("localhost:9999")).isTrue(); // 모르는 노드는 방금 뜬 노드일 수 있음
+        assertThat(registry.liveNodes()).containsExactlyInAnyOrder("localhost:8080", "localhost:8082");
+        verify(redisTemplate).execute(eq(SessionManager.RELEASE_SERVER_SCRIPT),
+                eq(List.of("user:1", "user:1:devices", "user:2", "user:2:devices")), eq("localhost:8081"));
+        verify(setOps).remove("presence:nodes", "localhost:8081");
+    }
+}
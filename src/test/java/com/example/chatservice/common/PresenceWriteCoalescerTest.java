@@ -0,0 +1,157 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.PresenceWriteProperty;
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PresenceWriteCoalescerTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private UserRouteCache userRouteCache;
+    private ExecutorService executor;
+    private PresenceWriteProperty property;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        userRouteCache = mock(UserRouteCache.class);
+        executor = Executors.newSingleThreadExecutor();
+        property = new PresenceWriteProperty();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("짧은 시간 안에 들어온 접속/해제는 들어온 순서대로 Lua 스크립트 한 번으로 반영한다")
+    void coalescesWritesIntoOneRoundTrip() throws Exception {
+        property.setMaxDelayMillis(200);
+        PresenceWriteCoalescer coalescer = newCoalescer();
+
+        CompletableFuture<Void> first = coalescer.connect(1L);
+        CompletableFuture<Void> second = coalescer.connect(2L);
+        CompletableFuture<Void> third = coalescer.disconnect(1L);
+        CompletableFuture.allOf(first, second, third).get(2, TimeUnit.SECONDS);
+
+        verify(redisTemplate, times(1)).execute(eq(PresenceWriteCoalescer.PRESENCE_BATCH_SCRIPT),
+                eq(List.of("presence:node:localhost:8080:users",
+                        "user:1", "user:1:devices", "user:2", "user:2:devices", "user:1", "user:1:devices")),
+                eq("localhost:8080"), eq("C:1"), eq("C:2"), eq("D:1"));
+        verify(userRouteCache).invalidateEverywhere(argThat(userIds -> userIds.size() == 2));
+    }
+
+    @Test
+    @DisplayName("coalescing 을 끄면 호출 스레드에서 바로 반영한다")
+    void writesSynchronouslyWhenDisabled() {
+        property.setCoalesceEnabled(false);
+        PresenceWriteCoalescer coalescer = newCoalescer();
+
+        coalescer.connect(1L);
+
+        verify(redisTemplate).execute(eq(PresenceWriteCoalescer.PRESENCE_BATCH_SCRIPT), anyList(),
+                eq("localhost:8080"), eq("C:1"));
+    }
+
+    @Test
+    @DisplayName("종료 시 쓰기 스레드의 진행 중 배치가 끝난 뒤에 남은 큐를 반영해 순서가 뒤바뀌지 않는다")
+    void stopWaitsForInFlightBatch() throws Exception {
+        property.setMaxDelayMillis(0);
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            String write = invocation.getArgument(3);
+            if (write.equals("C:1")) {
+                firstBatchStarted.countDown();
+                // shutdownNow 의 인터럽트와 상관없이 Redis 왕복이 끝나는 상황 재현
+                while (true) {
+                    try {
+                        releaseFirstBatch.await();
+                        break;
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }
+            applied.add(write);
+            return null;
+        }).when(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class));
+        PresenceWriteCoalescer coalescer = newCoalescer();
+
+        coalescer.connect(1L);
+        firstBatchStarted.await(2, TimeUnit.SECONDS);
+        coalescer.disconnect(1L); // 쓰기 스레드가 C:1 을 반영하는 동안 큐에 남음
+        Thread stopper = Thread.ofPlatform().start(coalescer::stop);
+        Thread.sleep(100);
+
+        assertThat(applied).isEmpty(); // 진행 중 배치보다 먼저 flush 하지 않음
+        releaseFirstBatch.countDown();
+        stopper.join(5_000);
+
+        assertThat(applied).containsExactly("C:1", "D:1");
+    }
+
+    @Test
+    @DisplayName("큐가 offerTimeout 동안 가득 차 있으면 핸드셰이크를 막지 않고 바로 쓰고 overflow 로 집계한다")
+    void writesDirectlyWhenQueueStaysFull() throws Exception {
+        property.setMaxDelayMillis(0);
+        property.setQueueCapacity(1);
+        property.setOfferTimeoutMillis(10);
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            String write = invocation.getArgument(3);
+            if (write.equals("C:1")) {
+                firstBatchStarted.countDown();
+                releaseFirstBatch.await();
+            }
+            applied.add(write);
+            return null;
+        }).when(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class));
+        PresenceWriteCoalescer coalescer = newCoalescer();
+
+        coalescer.connect(1L);
+        firstBatchStarted.await(2, TimeUnit.SECONDS);
+        coalescer.connect(2L); // 큐의 유일한 자리를 채움
+        CompletableFuture<Void> overflowed = coalescer.connect(3L);
+
+        assertThat(overflowed).isCompleted();
+        assertThat(applied).containsExactly("C:3");
+        assertThat(meterRegistry.get("chat.presence.write.overflow").counter().count()).isEqualTo(1.0);
+        releaseFirstBatch.countDown();
+    }
+
+    private PresenceWriteCoalescer newCoalescer() {
+        ServerInfoProvider serverInfoProvider = mock(ServerInfoProvider.class);
+        when(serverInfoProvider.getServerAddress()).thenReturn("localhost:8080");
+        PresenceWriteCoalescer coalescer = new PresenceWriteCoalescer(redisTemplate, serverInfoProvider,
+                userRouteCache, executor, property, new RedisCircuitBreaker(new RedisCircuitBreakerProperty(), new SimpleMeterRegistry()), meterRegistry);
+        coalescer.start();
+        return coalescer;
+    }
+}
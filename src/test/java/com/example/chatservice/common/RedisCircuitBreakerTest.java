@@ -0,0 +1,110 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisCircuitBreakerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedisCircuitBreakerProperty property;
+    private RedisCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        property = new RedisCircuitBreakerProperty();
+        property.setFailureThreshold(3);
+        property.setOpenMillis(50);
+        breaker = new RedisCircuitBreaker(property, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("연속 실패가 임계값에 도달하면 OPEN 이 되고 Redis 를 호출하지 않고 fallback 을 반환한다")
+    void opensAfterConsecutiveFailures() {
+        AtomicInteger redisCalls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.call(() -> {
+                redisCalls.incrementAndGet();
+                throw new RedisConnectionFailureException("down");
+            }, () -> "fallback")).isEqualTo("fallback");
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerStateMachine.State.OPEN);
+        assertThat(breaker.isDegraded()).isTrue();
+        assertThat(breaker.call(() -> {
+            redisCalls.incrementAndGet();
+            return "redis";
+        }, () -> "fallback")).isEqualTo("fallback");
+        assertThat(redisCalls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("chat.redis.breaker.state").gauge().value()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("chat.redis.breaker.calls").tag("outcome", "rejected").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("OPEN 시간이 지나면 시험 호출이 성공할 때 CLOSED 로 돌아가고 recovery 리스너를 실행한다")
+    void closesAfterSuccessfulTrial() throws Exception {
+        CountDownLatch recovered = new CountDownLatch(1);
+        breaker.addRecoveryListener(recovered::countDown);
+        for (int i = 0; i < 3; i++) {
+            breaker.run(() -> { throw new RedisConnectionFailureException("down"); }, () -> { });
+        }
+
+        Thread.sleep(60);
+
+        assertThat(breaker.call(() -> "redis", () -> "fallback")).isEqualTo("redis");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerStateMachine.State.CLOSED);
+        assertThat(recovered.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("chat.redis.breaker.state").gauge().value()).isEqualTo(0.0);
+    }
+
+    @Test
+    @DisplayName("시험 호출이 실패하면 다시 OPEN 이 된다")
+    void reopensWhenTrialFails() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            breaker.run(() -> { throw new RedisConnectionFailureException("down"); }, () -> { });
+        }
+        Thread.sleep(60);
+
+        breaker.run(() -> { throw new RedisConnectionFailureException("still down"); }, () -> { });
+        property.setOpenMillis(60_000); // 다시 연 OPEN 이 검증 도중 만료되지 않도록 (설정은 매번 읽힘)
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerStateMachine.State.OPEN);
+        assertThat(breaker.call(() -> "redis", () -> "fallback")).isEqualTo("fallback");
+    }
+
+    @Test
+    @DisplayName("느린 호출은 결과는 반환하지만 실패로 집계한다")
+    void countsSlowCallsAsFailures() {
+        property.setSlowCallMillis(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.call(() -> {
+                sleepQuietly(2);
+                return "redis";
+            }, () -> "fallback")).isEqualTo("redis");
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerStateMachine.State.OPEN);
+        assertThat(meterRegistry.get("chat.redis.breaker.calls").tag("outcome", "slow").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.common.ws.OutboundPayload;
+import com.example.chatservice.common.ws.OutboundSessionPipeline;
+import com.example.chatservice.common.ws.WebSocketCompressor;
+import com.example.chatservice.property.WebSocketCompressionProperty;
+import com.example.chatservice.property.WebSocketOutboundProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SessionManagerTest {
+
+    private ObjectMapper objectMapper;
+    private SessionManager sessionManager;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = spy(new ObjectMapper());
+        ServerInfoProvider serverInfoProvider = mock(ServerInfoProvider.class);
+        when(serverInfoProvider.getServerAddress()).thenReturn("localhost:8080");
+        WebSocketCompressor compressor =
+                new WebSocketCompressor(new WebSocketCompressionProperty(), new SimpleMeterRegistry());
+
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        OutboundSessionPipeline outboundSessionPipeline = new OutboundSessionPipeline(
+                Executors.newVirtualThreadPerTaskExecutor(), new WebSocketOutboundProperty(), new SimpleMeterRegistry());
+        sessionManager = new SessionManager(redisTemplate, objectMapper, serverInfoProvider, compressor,
+                outboundSessionPipeline, mock(UserRouteCache.class), mock(PresenceLeaseRegistry.class),
+                mock(PresenceWriteCoalescer.class), mock(RedisCircuitBreaker.class));
+    }
+
+    @Test
+    @DisplayName("같은 유저의 모든 디바이스로 전송하고 JSON 직렬화는 한 번만 한다")
+    void fanOutToAllDevicesEncodingOnce() throws Exception {
+        WebSocketSession phone = mockSession("phone");
+        WebSocketSession laptop = mockSession("laptop");
+        sessionManager.addSession(1L, phone);
+        sessionManager.addSession(1L, laptop);
+
+        sessionManager.sendToUser(1L, Map.of("content", "hi"));
+
+        verify(phone, timeout(1000)).sendMessage(any(TextMessage.class));
+        verify(laptop, timeout(1000)).sendMessage(any(TextMessage.class));
+        verify(objectMapper, times(1)).writeValueAsString(any());
+        assertThat(sessionManager.getDeviceCount(1L)).isEqualTo(2);
+        assertThat(sessionManager.getSessionCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("한 디바이스가 끊겨도 다른 디바이스는 계속 메시지를 받는다")
+    void removingOneDeviceKeepsOthers() throws Exception {
+        WebSocketSession phone = mockSession("phone");
+        WebSocketSession laptop = mockSession("laptop");
+        sessionManager.addSession(1L, phone);
+        sessionManager.addSession(1L, laptop);
+
+        sessionManager.removeSession(1L, phone);
+        sessionManager.removeSession(1L, phone); // 중복 호출은 무시
+        sessionManager.sendToUser(1L, new HashMap<>(Map.of("content", "hi")));
+
+        verify(laptop, timeout(1000)).sendMessage(any(TextMessage.class));
+        verify(phone, never()).sendMessage(any(WebSocketMessage.class));
+        assertThat(sessionManager.isUserConnected(1L)).isTrue();
+        assertThat(sessionManager.getSessionCount()).isEqualTo(1);
+
+        sessionManager.removeSession(1L, laptop);
+        assertThat(sessionManager.isUserConnected(1L)).isFalse();
+        assertThat(sessionManager.sendToUser(1L, Map.of("content", "hi"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("encode 한 payload 는 모든 수신자에게 같은 frame 인스턴스로 전송된다")
+    @SuppressWarnings("rawtypes")
+    void preEncodedPayloadIsSharedAcrossRecipients() throws Exception {
+        WebSocketSession user1 = mockSession("u1");
+        WebSocketSession user2 = mockSession("u2");
+        sessionManager.addSession(1L, user1);
+        sessionManager.addSession(2L, user2);
+
+        OutboundPayload payload = sessionManager.encode(Map.of("content", "hi"));
+        sessionManager.sendToUser(1L, payload);
+        sessionManager.sendToUser(2L, payload);
+
+        ArgumentCaptor<WebSocketMessage> first = ArgumentCaptor.forClass(WebSocketMessage.class);
+        ArgumentCaptor<WebSocketMessage> second = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(user1, timeout(1000)).sendMessage(first.capture());
+        verify(user2, timeout(1000)).sendMessage(second.capture());
+        assertThat(first.getValue()).isSameAs(second.getValue());
+        verify(objectMapper, times(1)).writeValueAsString(any());
+    }
+
+    private WebSocketSession mockSession(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        return session;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.chatservice.common;
+
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
+import com.example.chatservice.property.UserRouteCacheProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserRouteCacheTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOps;
+    private PresenceLeaseRegistry presenceLeaseRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private UserRouteCache userRouteCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        presenceLeaseRegistry = mock(PresenceLeaseRegistry.class);
+        when(presenceLeaseRegistry.isAlive(anyString())).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        userRouteCache = new UserRouteCache(redisTemplate, mock(RedissonClient.class), presenceLeaseRegistry,
+                new UserRouteCacheProperty(), new RedisCircuitBreaker(new RedisCircuitBreakerProperty(), meterRegistry),
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("한 번 조회한 라우팅은 캐시에서 반환하고 Redis 를 다시 조회하지 않는다")
+    void cachesRoute() {
+        when(valueOps.get("user:1")).thenReturn("localhost:8081");
+
+        assertThat(userRouteCache.getServer(1L)).isEqualTo("localhost:8081");
+        assertThat(userRouteCache.getServer(1L)).isEqualTo("localhost:8081");
+
+        verify(valueOps, times(1)).get("user:1");
+        assertThat(meterRegistry.get("chat.route.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.route.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("오프라인(null) 결과는 캐시하지 않는다")
+    void doesNotCacheOffline() {
+        when(valueOps.get("user:1")).thenReturn(null, "localhost:8081");
+
+        assertThat(userRouteCache.getServer(1L)).isNull();
+        assertThat(userRouteCache.getServer(1L)).isEqualTo("localhost:8081");
+    }
+
+    @Test
+    @DisplayName("무효화 메시지를 받으면 해당 유저들의 라우팅을 다시 조회한다")
+    void invalidatesFromNotification() {
+        when(valueOps.get("user:1")).thenReturn("localhost:8081", "localhost:8082");
+        when(valueOps.get("user:2")).thenReturn("localhost:8081");
+        userRouteCache.getServer(1L);
+        userRouteCache.getServer(2L);
+
+        userRouteCache.apply("1,2");
+
+        assertThat(userRouteCache.getServer(1L)).isEqualTo("localhost:8082");
+        userRouteCache.getServer(2L);
+        verify(valueOps, times(2)).get("user:2");
+    }
+
+    @Test
+    @DisplayName("Redis 조회 중에 무효화가 도착하면 조회한 (이전) 라우팅을 캐시하지 않는다")
+    void doesNotCacheRouteInvalidatedDuringLoad() {
+        when(valueOps.get("user:1")).thenAnswer(invocation -> {
+            userRouteCache.apply("1"); // GET 과 캐시 저장 사이에 도착한 무효화
+            return "localhost:8081";
+        }).thenReturn("localhost:8082");
+
+        assertThat(userRouteCache.getServer(1L)).isEqualTo("localhost:8081");
+        assertThat(userRouteCache.getServer(1L)).isEqualTo("localhost:8082");
+        verify(valueOps, times(2)).get("user:1");
+    }
+
+    @Test
+    @DisplayName("lease 가 만료된 노드를 가리키는 라우팅은 오프라인으로 취급한다")
+    void treatsDeadNodeAsOffline() {
+        when(valueOps.get("user:1")).thenReturn("localhost:8081");
+        when(presenceLeaseRegistry.isAlive("localhost:8081")).thenReturn(false);
+
+        assertThat(userRouteCache.getServer(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("여러 유저 조회는 캐시에 없는 유저만 MGET 한 번으로 조회한다")
+    void bulkLookupUsesSingleMultiGet() {
+        when(valueOps.get("user:1")).thenReturn("localhost:8081");
+        userRouteCache.getServer(1L);
+        when(valueOps.multiGet(List.of("user:2", "user:3"))).thenReturn(Arrays.asList("localhost:8082", null));
+
+        Map<Long, String> servers = userRouteCache.getServers(List.of(1L, 2L, 3L));
+
+        assertThat(servers).containsExactlyInAnyOrderEntriesOf(Map.of(1L, "localhost:8081", 2L, "localhost:8082"));
+        verify(valueOps, times(1)).multiGet(anyList());
+    }
+
+    @Test
+    @DisplayName("디바이스 노드 조회는 user:{id}:devices 의 모든 노드를 돌려주고, 죽은 노드는 빼고, 무효화 전까지 캐시한다")
+    void deviceServersCoverEveryLiveNode() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(Set.of("localhost:8081", "localhost:8082", "localhost:8083"), Set.of()));
+        when(presenceLeaseRegistry.isAlive("localhost:8083")).thenReturn(false);
+
+        Map<Long, Set<String>> servers = userRouteCache.getDeviceServers(List.of(1L, 2L));
+        assertThat(servers).containsOnlyKeys(1L);
+        assertThat(servers.get(1L)).containsExactlyInAnyOrder("localhost:8081", "localhost:8082");
+
+        userRouteCache.getDeviceServers(List.of(1L));
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+
+        userRouteCache.invalidate(1L);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(Set.of("localhost:8082")));
+        assertThat(userRouteCache.getDeviceServers(List.of(1L)).get(1L)).containsExactly("localhost:8082");
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.chatservice.common.ws;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryFrameCodecTest {
+
+    @Test
+    @DisplayName("SEND 프레임을 인코딩/디코딩하면 같은 값이 나온다")
+    void sendRoundTrip() {
+        byte[] frame = BinaryFrameCodec.encodeSend(300L, Long.MAX_VALUE, "안녕하세요");
+
+        InboundFrame decoded = BinaryFrameCodec.decodeInbound(ByteBuffer.wrap(frame));
+
+        assertThat(decoded.getChatRoomId()).isEqualTo(300L);
+        assertThat(decoded.getReceiverId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(decoded.getContent()).isEqualTo("안녕하세요");
+    }
+
+    @Test
+    @DisplayName("BATCH 프레임은 여러 content를 순서대로 담는다")
+    void batchRoundTrip() {
+        byte[] frame = BinaryFrameCodec.encodeSendBatch(7L, null, java.util.List.of("a", "bb", "ccc"));
+
+        InboundFrame decoded = BinaryFrameCodec.decodeInbound(ByteBuffer.wrap(frame));
+
+        assertThat(decoded.isBatch()).isTrue();
+        assertThat(decoded.getContents()).containsExactly("a", "bb", "ccc");
+        assertThat(decoded.getChatRoomId()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("값이 없는 id는 0으로 인코딩되고 null로 디코딩된다")
+    void absentIds() {
+        byte[] frame = BinaryFrameCodec.encodeSend(null, null, "hi");
+
+        InboundFrame decoded = BinaryFrameCodec.decodeInbound(ByteBuffer.wrap(frame));
+
+        assertThat(frame).hasSize(1 + 1 + 1 + 1 + 2);
+        assertThat(decoded.getChatRoomId()).isNull();
+        assertThat(decoded.getReceiverId()).isNull();
+    }
+
+    @Test
+    @DisplayName("varint는 7비트 단위로 길이가 늘어난다")
+    void varintSize() {
+        assertThat(BinaryFrameCodec.varintSize(127)).isEqualTo(1);
+        assertThat(BinaryFrameCodec.varintSize(128)).isEqualTo(2);
+        assertThat(BinaryFrameCodec.varintSize(Long.MAX_VALUE)).isEqualTo(9);
+        assertThat(BinaryFrameCodec.varintSize(-1L)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("메시지 Map은 JSON보다 작은 MESSAGE 프레임으로 인코딩된다")
+    void encodeMessageMap() {
+        byte[] frame = BinaryFrameCodec.encodeMessage(Map.of(
+                "messageId", 1234567890123L,
+                "senderId", 1L,
+                "chatRoomId", 2L,
+                "content", "hi",
+                "sentAt", "2025-01-01T10:00:00"
+        ));
+
+        assertThat(frame[0]).isEqualTo(BinaryFrameCodec.TYPE_MESSAGE);
+        assertThat(frame.length).isLessThan(30);
+    }
+
+    @Test
+    @DisplayName("MESSAGES 프레임은 MESSAGE 프레임들을 길이 prefix 와 함께 그대로 담는다")
+    void messageBatchFrame() {
+        byte[] first = BinaryFrameCodec.encodeMessage(1L, 2L, 3L, 0L, "a");
+        byte[] second = BinaryFrameCodec.encodeMessage(4L, 5L, 6L, 0L, "bb");
+
+        ByteBuffer batch = ByteBuffer.wrap(BinaryFrameCodec.encodeMessageBatch(
+                java.util.List.of(ByteBuffer.wrap(first), ByteBuffer.wrap(second))));
+
+        assertThat(batch.get()).isEqualTo(BinaryFrameCodec.TYPE_MESSAGE_BATCH);
+        assertThat(BinaryFrameCodec.readVarint(batch)).isEqualTo(2);
+        byte[] decodedFirst = new byte[(int) BinaryFrameCodec.readVarint(batch)];
+        batch.get(decodedFirst);
+        byte[] decodedSecond = new byte[(int) BinaryFrameCodec.readVarint(batch)];
+        batch.get(decodedSecond);
+        assertThat(decodedFirst).isEqualTo(first);
+        assertThat(decodedSecond).isEqualTo(second);
+        assertThat(batch.hasRemaining()).isFalse();
+    }
+
+    @Test
+    @DisplayName("잘린 프레임은 IllegalArgumentException을 던진다")
+    void truncatedFrame() {
+        byte[] frame = BinaryFrameCodec.encodeSend(1L, 2L, "hello");
+        ByteBuffer truncated = ByteBuffer.wrap(frame, 0, frame.length - 2);
+
+        assertThatThrownBy(() -> BinaryFrameCodec.decodeInbound(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("resume 완료/잘림 표시는 ERROR 가 아닌 전용 타입으로 인코딩된다")
+    void resumeControlFrames() {
+        ByteBuffer complete = ByteBuffer.wrap(BinaryFrameCodec.encodeResumeComplete(300L));
+        ByteBuffer truncated = ByteBuffer.wrap(BinaryFrameCodec.encodeResumeTruncated(7L));
+
+        assertThat(complete.get()).isEqualTo(BinaryFrameCodec.TYPE_RESUME_COMPLETE);
+        assertThat(BinaryFrameCodec.readVarint(complete)).isEqualTo(300L);
+        assertThat(truncated.get()).isEqualTo(BinaryFrameCodec.TYPE_RESUME_TRUNCATED);
+        assertThat(BinaryFrameCodec.readVarint(truncated)).isEqualTo(7L);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.chatservice.common.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InboundFrameParserTest {
+
+    InboundFrameParser parser = new InboundFrameParser(new ObjectMapper());
+
+    @Test
+    @DisplayName("JSON 프레임에서 content, chatRoomId, receiverId를 한 번에 읽는다")
+    void parseJsonFrame() throws Exception {
+        InboundFrame frame = parser.parse("{\"content\":\"hello\",\"chatRoomId\":10,\"receiverId\":\"20\",\"extra\":{\"a\":[1,2]}}");
+
+        assertThat(frame.getContent()).isEqualTo("hello");
+        assertThat(frame.getChatRoomId()).isEqualTo(10L);
+        assertThat(frame.getReceiverId()).isEqualTo(20L);
+    }
+
+    @Test
+    @DisplayName("int 범위를 넘는 id도 손실 없이 읽는다")
+    void parseLargeIds() throws Exception {
+        InboundFrame frame = parser.parse("{\"content\":\"hi\",\"chatRoomId\":9007199254740993}");
+
+        assertThat(frame.getChatRoomId()).isEqualTo(9007199254740993L);
+        assertThat(frame.getReceiverId()).isNull();
+    }
+
+    @Test
+    @DisplayName("JSON이 아니면 payload 전체를 content로 사용한다")
+    void parsePlainText() throws Exception {
+        InboundFrame frame = parser.parse("just text");
+
+        assertThat(frame.getContent()).isEqualTo("just text");
+        assertThat(frame.getChatRoomId()).isNull();
+    }
+
+    @Test
+    @DisplayName("content 필드가 없으면 payload 전체를 content로 사용한다")
+    void parseWithoutContent() throws Exception {
+        String payload = "{\"chatRoomId\":1}";
+
+        InboundFrame frame = parser.parse(payload);
+
+        assertThat(frame.getContent()).isEqualTo(payload);
+        assertThat(frame.getChatRoomId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("숫자가 아닌 chatRoomId는 예외를 던진다")
+    void parseInvalidChatRoomId() {
+        assertThatThrownBy(() -> parser.parse("{\"content\":\"hi\",\"chatRoomId\":\"abc\"}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("messages 배열이 있으면 배치 프레임으로 파싱한다")
+    void parseBatchFrame() throws Exception {
+        InboundFrame frame = parser.parse("{\"chatRoomId\":3,\"messages\":[{\"content\":\"a\",\"clientId\":1},\"b\"]}");
+
+        assertThat(frame.isBatch()).isTrue();
+        assertThat(frame.getContents()).containsExactly("a", "b");
+        assertThat(frame.getChatRoomId()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("resume 객체가 있으면 방별 watermark 를 담은 resume 프레임으로 파싱한다")
+    void parseResumeFrame() throws Exception {
+        InboundFrame frame = parser.parse("{\"resume\":{\"12\":345,\"13\":0}}");
+
+        assertThat(frame.isResume()).isTrue();
+        assertThat(frame.getResumeWatermarks()).containsEntry(12L, 345L).containsEntry(13L, 0L);
+        assertThat(frame.isBatch()).isFalse();
+    }
+}
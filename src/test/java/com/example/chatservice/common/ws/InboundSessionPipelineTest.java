@@ -0,0 +1,92 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.property.WebSocketInboundProperty;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InboundSessionPipelineTest {
+
+    OutboundSessionPipeline outboundPipeline = mock(OutboundSessionPipeline.class);
+
+    @Test
+    @DisplayName("같은 세션의 작업은 들어온 순서대로 처리된다")
+    void keepsOrderWithinSession() throws Exception {
+        WebSocketInboundProperty property = new WebSocketInboundProperty();
+        property.setQueueCapacity(10_000);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        InboundSessionPipeline pipeline = new InboundSessionPipeline(executor, property, outboundPipeline);
+        WebSocketSession session = mockSession("s1");
+
+        List<Integer> processed = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            int seq = i;
+            pipeline.submit(session, () -> {
+                processed.add(seq);
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processed).isSorted().hasSize(1000);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 SLOW_DOWN 정책은 slow down 프레임을 아웃바운드 큐에 넣고 직접 쓰지 않는다")
+    void slowDownWhenQueueFull() throws Exception {
+        WebSocketInboundProperty property = new WebSocketInboundProperty();
+        property.setQueueCapacity(1);
+        List<Runnable> scheduled = new ArrayList<>();
+        ExecutorService executor = mock(ExecutorService.class);
+        doAnswer(inv -> scheduled.add(inv.getArgument(0))).when(executor).execute(any());
+        InboundSessionPipeline pipeline = new InboundSessionPipeline(executor, property, outboundPipeline);
+        WebSocketSession session = mockSession("s1");
+
+        assertThat(pipeline.submit(session, () -> { })).isTrue();
+        assertThat(pipeline.submit(session, () -> { })).isFalse();
+
+        verify(outboundPipeline).enqueue(eq(session), any(TextMessage.class));
+        verify(session, never()).sendMessage(any());
+        assertThat(scheduled).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 CLOSE 정책은 세션을 닫는다")
+    void closeWhenQueueFull() throws Exception {
+        WebSocketInboundProperty property = new WebSocketInboundProperty();
+        property.setQueueCapacity(1);
+        property.setOverflowPolicy(WebSocketInboundProperty.OverflowPolicy.CLOSE);
+        ExecutorService executor = mock(ExecutorService.class);
+        InboundSessionPipeline pipeline = new InboundSessionPipeline(executor, property, outboundPipeline);
+        WebSocketSession session = mockSession("s1");
+
+        pipeline.submit(session, () -> { });
+        pipeline.submit(session, () -> { });
+
+        verify(session).close(any(CloseStatus.class));
+    }
+
+    private WebSocketSession mockSession(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        lenient().when(session.getAttributes()).thenReturn(new HashMap<>(java.util.Map.of("userId", 1L)));
+        return session;
+    }
+}
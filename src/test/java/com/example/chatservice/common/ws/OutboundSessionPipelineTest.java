@@ -0,0 +1,172 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.property.WebSocketOutboundProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboundSessionPipelineTest {
+
+    @Test
+    @DisplayName("큐에 넣은 frame 은 워커가 넣은 순서대로 전송한다")
+    void sendsInOrderAsynchronously() throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        OutboundSessionPipeline pipeline = newPipeline(executor, new WebSocketOutboundProperty());
+        WebSocketSession session = mockSession("s1");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(pipeline.enqueue(session, new TextMessage("m" + i))).isTrue();
+        }
+
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, timeout(2000).times(100)).sendMessage(sent.capture());
+        assertThat(sent.getAllValues()).extracting(TextMessage::getPayload)
+                .containsExactlyElementsOf(IntStream.range(0, 100).mapToObj(i -> "m" + i).toList());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("DISCONNECT 정책은 한도를 넘긴 느린 세션을 끊는다")
+    void disconnectsSlowConsumer() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        WebSocketOutboundProperty property = new WebSocketOutboundProperty();
+        property.setMaxQueuedMessages(2);
+        OutboundSessionPipeline pipeline = newPipeline(capturingExecutor(scheduled), property);
+        WebSocketSession session = mockSession("s1");
+
+        assertThat(pipeline.enqueue(session, new TextMessage("a"))).isTrue();
+        assertThat(pipeline.enqueue(session, new TextMessage("b"))).isTrue();
+        assertThat(pipeline.enqueue(session, new TextMessage("c"))).isFalse();
+
+        scheduled.forEach(Runnable::run);
+        verify(session).close(CloseStatus.SERVICE_OVERLOAD.withReason("Outbound queue overflow"));
+        assertThat(pipeline.getQueuedCount(session)).isZero();
+    }
+
+    @Test
+    @DisplayName("DROP_OLDEST 정책은 오래된 frame 을 버리고 최신 frame 을 유지한다")
+    void dropsOldestFrames() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        WebSocketOutboundProperty property = new WebSocketOutboundProperty();
+        property.setMaxQueuedMessages(2);
+        property.setOverflowPolicy(WebSocketOutboundProperty.OverflowPolicy.DROP_OLDEST);
+        OutboundSessionPipeline pipeline = newPipeline(capturingExecutor(scheduled), property);
+        WebSocketSession session = mockSession("s1");
+
+        pipeline.enqueue(session, new TextMessage("a"));
+        pipeline.enqueue(session, new TextMessage("b"));
+        pipeline.enqueue(session, new TextMessage("c"));
+        assertThat(pipeline.getQueuedCount(session)).isEqualTo(2);
+
+        scheduled.forEach(Runnable::run);
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(2)).sendMessage(sent.capture());
+        assertThat(sent.getAllValues()).extracting(TextMessage::getPayload).containsExactly("b", "c");
+    }
+
+    @Test
+    @DisplayName("COALESCE 정책은 밀린 frame 을 RESYNC 알림 한 건으로 합친다")
+    void coalescesBacklogIntoResync() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        WebSocketOutboundProperty property = new WebSocketOutboundProperty();
+        property.setMaxQueuedMessages(2);
+        property.setOverflowPolicy(WebSocketOutboundProperty.OverflowPolicy.COALESCE);
+        OutboundSessionPipeline pipeline = newPipeline(capturingExecutor(scheduled), property);
+        WebSocketSession session = mockSession("s1");
+
+        pipeline.enqueue(session, new TextMessage("a"));
+        pipeline.enqueue(session, new TextMessage("b"));
+        pipeline.enqueue(session, new TextMessage("c"));
+
+        scheduled.forEach(Runnable::run);
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(2)).sendMessage(sent.capture());
+        assertThat(sent.getAllValues()).extracting(TextMessage::getPayload)
+                .containsExactly("{\"type\": \"RESYNC\", \"dropped\": 2}", "c");
+    }
+
+    @Test
+    @DisplayName("coalescing 세션은 밀린 JSON frame 을 최대 크기 안에서 배열 하나로 합친다")
+    void coalescesPendingFramesIntoArray() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        WebSocketOutboundProperty property = new WebSocketOutboundProperty();
+        property.setCoalesceMaxDelayMillis(0);
+        property.setCoalesceMaxFrameBytes(30);
+        OutboundSessionPipeline pipeline = newPipeline(capturingExecutor(scheduled), property);
+        WebSocketSession session = mockSession("s1");
+        pipeline.enableCoalescing(session);
+
+        pipeline.enqueue(session, new TextMessage("{\"id\":1}"));
+        pipeline.enqueue(session, new TextMessage("{\"id\":2}"));
+        pipeline.enqueue(session, new PingMessage());
+        pipeline.enqueue(session, new TextMessage("{\"id\":3}"));
+        pipeline.enqueue(session, new TextMessage("{\"id\":4}"));
+        pipeline.enqueue(session, new TextMessage("{\"id\":5}"));
+
+        scheduled.forEach(Runnable::run);
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.captor();
+        verify(session, times(4)).sendMessage(sent.capture());
+        List<WebSocketMessage<?>> frames = sent.getAllValues();
+        assertThat(frames.get(0).getPayload()).isEqualTo("[{\"id\":1},{\"id\":2}]");
+        assertThat(frames.get(1)).isInstanceOf(PingMessage.class);
+        assertThat(frames.get(2).getPayload()).isEqualTo("[{\"id\":3},{\"id\":4}]");
+        assertThat(frames.get(3).getPayload()).isEqualTo("{\"id\":5}");
+    }
+
+    @Test
+    @DisplayName("resume 중 라이브 frame 은 보류했다가 재전송 frame 뒤에 보낸다")
+    void holdsLiveFramesDuringReplay() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        OutboundSessionPipeline pipeline = newPipeline(capturingExecutor(scheduled), new WebSocketOutboundProperty());
+        WebSocketSession session = mockSession("s1");
+
+        pipeline.beginReplay(session);
+        pipeline.enqueue(session, new TextMessage("live"));
+        assertThat(pipeline.enqueueReplay(session, new TextMessage("replay-1"))).isTrue();
+        assertThat(pipeline.enqueueReplay(session, new TextMessage("replay-2"))).isTrue();
+        assertThat(pipeline.getQueuedCount(session)).isEqualTo(2);
+        pipeline.endReplay(session);
+
+        assertThat(pipeline.enqueueReplay(session, new TextMessage("late"))).isFalse();
+        scheduled.forEach(Runnable::run);
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(3)).sendMessage(sent.capture());
+        assertThat(sent.getAllValues()).extracting(TextMessage::getPayload)
+                .containsExactly("replay-1", "replay-2", "live");
+    }
+
+    private OutboundSessionPipeline newPipeline(ExecutorService executor, WebSocketOutboundProperty property) {
+        return new OutboundSessionPipeline(executor, property, new SimpleMeterRegistry());
+    }
+
+    private ExecutorService capturingExecutor(List<Runnable> scheduled) {
+        ExecutorService executor = mock(ExecutorService.class);
+        doAnswer(inv -> scheduled.add(inv.getArgument(0))).when(executor).execute(any());
+        return executor;
+    }
+
+    private WebSocketSession mockSession(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        return session;
+    }
+}
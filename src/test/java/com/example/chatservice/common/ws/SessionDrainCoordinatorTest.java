@@ -0,0 +1,52 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.message.service.PendingLastMessageFlushService;
+import com.example.chatservice.property.WebSocketDrainProperty;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SessionDrainCoordinatorTest {
+
+    @Test
+    @DisplayName("flush → presence 일괄 정리 → 세션 close 순서로 drain 하고 새 핸드셰이크는 거절 상태가 된다")
+    void drainsInOrder() throws Exception {
+        SessionManager sessionManager = mock(SessionManager.class);
+        PendingLastMessageFlushService flushService = mock(PendingLastMessageFlushService.class);
+        WebSocketDrainProperty property = new WebSocketDrainProperty();
+        property.setBatchSize(2);
+        property.setBatchIntervalMillis(1);
+
+        List<WebSocketSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            WebSocketSession session = mock(WebSocketSession.class);
+            when(session.isOpen()).thenReturn(true);
+            sessions.add(session);
+        }
+        when(sessionManager.getAllSessions()).thenReturn(sessions);
+
+        SessionDrainCoordinator coordinator = new SessionDrainCoordinator(sessionManager, flushService, property);
+        coordinator.start();
+        assertThat(coordinator.isDraining()).isFalse();
+
+        coordinator.stop();
+
+        assertThat(coordinator.isDraining()).isTrue();
+        assertThat(coordinator.isRunning()).isFalse();
+        InOrder inOrder = inOrder(flushService, sessionManager, sessions.getFirst());
+        inOrder.verify(flushService).flushAllPendingMessages();
+        inOrder.verify(sessionManager).releaseAllPresence(property.getPresenceCleanupChunkSize());
+        inOrder.verify(sessions.getFirst()).close(SessionDrainCoordinator.RECONNECT_ELSEWHERE);
+        for (WebSocketSession session : sessions) {
+            verify(session).close(SessionDrainCoordinator.RECONNECT_ELSEWHERE);
+        }
+    }
+}
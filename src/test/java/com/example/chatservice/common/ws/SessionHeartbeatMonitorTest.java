@@ -0,0 +1,87 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.property.WebSocketHeartbeatProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SessionHeartbeatMonitorTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SessionManager sessionManager = mock(SessionManager.class);
+    private SessionHeartbeatMonitor monitor;
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("ping 간격이 지나면 ping 을 보내고 idle-timeout 전에는 세션을 유지한다")
+    void sendsPingWhenIdle() {
+        monitor = newMonitor(1, 30);
+        WebSocketSession session = mockSession("s1");
+        when(sessionManager.sendPing(1L, session)).thenReturn(true);
+
+        monitor.register(1L, session);
+
+        verify(sessionManager, timeout(3000).atLeastOnce()).sendPing(1L, session);
+        verify(sessionManager, never()).removeSession(any(), any());
+        assertThat(monitor.getReapedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("idle-timeout 동안 아무 프레임도 없으면 세션을 닫고 라우팅을 제거한다")
+    void reapsIdleSession() throws Exception {
+        monitor = newMonitor(1, 1);
+        WebSocketSession session = mockSession("s1");
+
+        monitor.register(1L, session);
+
+        verify(sessionManager, timeout(3000)).removeSession(1L, session);
+        verify(session, timeout(1000)).close(any(CloseStatus.class));
+        assertThat(monitor.getReapedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("unregister 된 세션은 정리하지 않는다")
+    void unregisteredSessionIsNotReaped() throws Exception {
+        monitor = newMonitor(1, 1);
+        WebSocketSession session = mockSession("s1");
+
+        monitor.register(1L, session);
+        monitor.unregister(session);
+        Thread.sleep(1500);
+
+        verify(sessionManager, never()).removeSession(any(), any());
+        assertThat(monitor.getReapedCount()).isZero();
+    }
+
+    private SessionHeartbeatMonitor newMonitor(int pingIntervalSeconds, int idleTimeoutSeconds) {
+        WebSocketHeartbeatProperty property = new WebSocketHeartbeatProperty();
+        property.setPingIntervalSeconds(pingIntervalSeconds);
+        property.setIdleTimeoutSeconds(idleTimeoutSeconds);
+        property.setTickMillis(10);
+        property.setTicksPerWheel(64);
+        return new SessionHeartbeatMonitor(sessionManager, executor, property, new SimpleMeterRegistry());
+    }
+
+    private WebSocketSession mockSession(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}
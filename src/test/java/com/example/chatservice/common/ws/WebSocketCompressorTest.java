@@ -0,0 +1,143 @@
+package com.example.chatservice.common.ws;
+
+import com.example.chatservice.property.WebSocketCompressionProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebSocketCompressorTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    WebSocketCompressor compressor;
+    WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        WebSocketCompressionProperty property = new WebSocketCompressionProperty();
+        property.setEnabled(true);
+        property.setMinPayloadBytes(256);
+        compressor = new WebSocketCompressor(property, meterRegistry);
+
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getId()).thenReturn("s1");
+    }
+
+    @Test
+    @DisplayName("압축을 요청하지 않은 세션은 항상 텍스트 프레임으로 보낸다")
+    void notNegotiated() {
+        WebSocketMessage<?> message = compressor.encodeText(session, "a".repeat(4096));
+
+        assertThat(message).isInstanceOf(TextMessage.class);
+    }
+
+    @Test
+    @DisplayName("기준 크기 미만이면 압축하지 않는다")
+    void belowThreshold() {
+        compressor.enable(session);
+
+        WebSocketMessage<?> message = compressor.encodeText(session, "{\"content\":\"hi\"}");
+
+        assertThat(message).isInstanceOf(TextMessage.class);
+    }
+
+    @Test
+    @DisplayName("기준 크기 이상이면 deflate 된 binary 프레임을 보내고 원문으로 복원된다")
+    void compressLargePayload() throws Exception {
+        compressor.enable(session);
+        String json = "{\"content\":\"" + "안녕하세요 ".repeat(200) + "\"}";
+
+        WebSocketMessage<?> first = compressor.encodeText(session, json);
+        WebSocketMessage<?> second = compressor.encodeText(session, json); // Deflater 재사용
+
+        assertThat(first).isInstanceOf(BinaryMessage.class);
+        assertThat(inflate(((BinaryMessage) first).getPayload())).isEqualTo(json);
+        assertThat(inflate(((BinaryMessage) second).getPayload())).isEqualTo(json);
+        assertThat(meterRegistry.get("chat.ws.compression.ratio").summary().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("chat.ws.compression.ratio").summary().max()).isLessThan(0.5);
+    }
+
+    @Test
+    @DisplayName("바이너리 세션은 COMPRESSED 타입 바이트를 앞에 붙인다")
+    void compressBinaryFrame() {
+        compressor.enable(session);
+        byte[] frame = BinaryFrameCodec.encodeMessage(1L, 2L, 3L, 0L, "x".repeat(2000));
+
+        BinaryMessage message = (BinaryMessage) compressor.encodeBinary(session, frame);
+
+        assertThat(message.getPayload().get(0)).isEqualTo(BinaryFrameCodec.TYPE_COMPRESSED);
+        assertThat(message.getPayloadLength()).isLessThan(frame.length);
+    }
+
+    @Test
+    @DisplayName("permessage-deflate 를 협상한 세션은 이중 압축하지 않도록 애플리케이션 레벨 압축을 건너뛴다")
+    void skipsWhenExtensionNegotiated() {
+        when(session.getExtensions()).thenReturn(List.of(new WebSocketExtension("permessage-deflate")));
+        compressor.enable(session);
+
+        WebSocketMessage<?> message = compressor.encodeText(session, "a".repeat(4096));
+
+        assertThat(message).isInstanceOf(TextMessage.class);
+    }
+
+    @Test
+    @DisplayName("Deflater 를 해제한 뒤 도착한 팬아웃은 예외 없이 원본을 보내고 결과를 캐시하지 않는다")
+    void encodesAfterRelease() {
+        compressor.enable(session);
+        Map<String, Object> deflaterOnly = Map.copyOf(session.getAttributes());
+        compressor.release(session);
+        // release 이전에 Deflater 를 집어 든 팬아웃 스레드 재현
+        when(session.getAttributes()).thenReturn(new ConcurrentHashMap<>(deflaterOnly));
+        OutboundPayload payload = OutboundPayload.preEncoded(new TextMessage("a".repeat(4096)), null);
+
+        WebSocketMessage<?> message = compressor.encode(session, payload);
+
+        assertThat(message).isInstanceOf(TextMessage.class);
+        assertThat(payload.deflatedText).isNull();
+    }
+
+    @Test
+    @DisplayName("팬아웃 수신자마다 압축 결과를 새 BinaryMessage 로 감싸 한 세션의 전송이 다른 세션의 버퍼 position 을 옮기지 않는다")
+    void doesNotShareBufferAcrossRecipients() throws Exception {
+        compressor.enable(session);
+        String json = "{\"content\":\"" + "안녕하세요 ".repeat(200) + "\"}";
+        OutboundPayload payload = OutboundPayload.preEncoded(new TextMessage(json), null);
+
+        BinaryMessage first = (BinaryMessage) compressor.encode(session, payload);
+        inflate(first.getPayload()); // 컨테이너 전송처럼 버퍼를 끝까지 읽음
+        BinaryMessage second = (BinaryMessage) compressor.encode(session, payload);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(inflate(second.getPayload())).isEqualTo(json);
+        assertThat(meterRegistry.get("chat.ws.compression.ratio").summary().count()).isEqualTo(1);
+    }
+
+    private String inflate(ByteBuffer payload) throws Exception {
+        byte[] input = new byte[payload.remaining()];
+        payload.get(input);
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(input);
+        byte[] output = new byte[64 * 1024];
+        int length = inflater.inflate(output);
+        inflater.end();
+        return new String(output, 0, length, StandardCharsets.UTF_8);
+    }
+}
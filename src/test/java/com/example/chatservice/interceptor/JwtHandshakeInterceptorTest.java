@@ -0,0 +1,81 @@
+package com.example.chatservice.interceptor;
+
+import com.example.chatservice.jwt.JWTProvider;
+import com.example.chatservice.user.UserPrincipal;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtHandshakeInterceptorTest {
+
+    JwtHandshakeInterceptor interceptor = new JwtHandshakeInterceptor();
+
+    @BeforeAll
+    static void setUpKeys() {
+        JWTProvider jwtProvider = new JWTProvider();
+        jwtProvider.setSecretKey("SECRET");
+        jwtProvider.setTokenTime(300);
+    }
+
+    @Test
+    @DisplayName("유효한 토큰이면 userId와 SecurityContext를 세션 attribute에 저장한다")
+    void acceptValidToken() {
+        String token = JWTProvider.generateToken(7L, "userA");
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/chat");
+        servletRequest.setQueryString("token=" + token + "&chatRoomId=1");
+        Map<String, Object> attributes = new HashMap<>();
+
+        boolean accepted = interceptor.beforeHandshake(new ServletServerHttpRequest(servletRequest),
+                new ServletServerHttpResponse(new MockHttpServletResponse()), null, attributes);
+
+        assertThat(accepted).isTrue();
+        assertThat(attributes.get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE)).isEqualTo(7L);
+        UserPrincipal principal = (UserPrincipal) attributes.get(JwtHandshakeInterceptor.PRINCIPAL_ATTRIBUTE);
+        assertThat(principal.getUsername()).isEqualTo("userA");
+        SecurityContext context = (SecurityContext) attributes.get(JwtHandshakeInterceptor.SECURITY_CONTEXT_ATTRIBUTE);
+        assertThat(context.getAuthentication().getPrincipal()).isSameAs(principal);
+    }
+
+    @Test
+    @DisplayName("Authorization 헤더의 Bearer 토큰도 허용한다")
+    void acceptBearerHeader() {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/chat");
+        servletRequest.addHeader("Authorization", "Bearer " + JWTProvider.generateToken(8L, "userB"));
+        Map<String, Object> attributes = new HashMap<>();
+
+        boolean accepted = interceptor.beforeHandshake(new ServletServerHttpRequest(servletRequest),
+                new ServletServerHttpResponse(new MockHttpServletResponse()), null, attributes);
+
+        assertThat(accepted).isTrue();
+        assertThat(attributes.get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE)).isEqualTo(8L);
+    }
+
+    @Test
+    @DisplayName("토큰이 없거나 위조되면 401로 핸드셰이크를 거절한다")
+    void rejectInvalidToken() throws Exception {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/chat");
+        servletRequest.setQueryString("token=invalid&userId=1");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+        Map<String, Object> attributes = new HashMap<>();
+
+        boolean accepted = interceptor.beforeHandshake(new ServletServerHttpRequest(servletRequest),
+                response, null, attributes);
+        response.flush();
+
+        assertThat(accepted).isFalse();
+        assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED.value());
+        assertThat(attributes).isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.chatservice.message.channel;
+
+import com.example.chatservice.common.RedisCircuitBreaker;
+import com.example.chatservice.common.ServerInfoProvider;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.EnvelopeFanout;
+import com.example.chatservice.message.service.DeliveryTransportUnavailableException;
+import com.example.chatservice.property.RedisNodeChannelProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedisNodeChannelTransportTest {
+
+    private static final String NODE_A = "localhost:8081";
+    private static final String NODE_B = "localhost:8082";
+
+    /** 채널 이름 -> 구독 리스너 (Redis pub/sub 대신 메모리에서 바로 전달) */
+    private final Map<String, List<MessageListener<byte[]>>> subscribers = new ConcurrentHashMap<>();
+
+    private RedisCircuitBreaker redisCircuitBreaker;
+    private EnvelopeFanout fanoutOnB;
+    private RedisNodeChannelTransport nodeA;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.getTopic(anyString(), any())).thenAnswer(inv -> {
+            String channel = inv.getArgument(0);
+            RTopic topic = mock(RTopic.class);
+            when(topic.addListener(eq(byte[].class), any(MessageListener.class))).thenAnswer(add -> {
+                subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(add.getArgument(1));
+                return 1;
+            });
+            when(topic.publishAsync(any())).thenAnswer(publish -> {
+                List<MessageListener<byte[]>> listeners = subscribers.getOrDefault(channel, List.of());
+                listeners.forEach(listener -> listener.onMessage(channel, publish.getArgument(0)));
+                return new CompletableFutureWrapper<>((long) listeners.size());
+            });
+            return topic;
+        });
+        redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+        fanoutOnB = mock(EnvelopeFanout.class);
+
+        nodeA = transport(redissonClient, NODE_A, mock(EnvelopeFanout.class));
+        transport(redissonClient, NODE_B, fanoutOnB);
+    }
+
+    @Test
+    @DisplayName("대상 노드 채널로 envelope 를 publish 하고, ACK 의 미전달 receiverId 를 delivery 별로 나눠 돌려준다")
+    void deliversAndMatchesAck() throws Exception {
+        when(fanoutOnB.deliverAll(any())).thenReturn(new long[]{3L});
+        DeliveryEnvelope envelope = DeliveryEnvelope.of(List.of(delivery(10L, 1L, 2L), delivery(11L, 3L)));
+
+        long[][] notConnected = nodeA.send(NODE_B, envelope).get(1, TimeUnit.SECONDS);
+
+        assertThat(notConnected[0]).isEmpty();
+        assertThat(notConnected[1]).containsExactly(3L);
+        verify(fanoutOnB).deliverAll(argThat(received ->
+                received.deliveries().size() == 2 && received.deliveries().get(1).messageId() == 11L));
+    }
+
+    @Test
+    @DisplayName("대상 노드가 채널을 구독하지 않으면 ACK 를 기다리지 않고 바로 실패한다 (HTTP 로 대체)")
+    void failsFastWithoutSubscriber() throws Exception {
+        CompletableFuture<long[][]> result = nodeA.send("localhost:8083",
+                DeliveryEnvelope.of(List.of(delivery(10L, 1L))));
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DeliveryTransportUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Redis 가 degraded 면 publish 하지 않고 바로 실패한다")
+    void failsWhenRedisDegraded() throws Exception {
+        when(redisCircuitBreaker.isDegraded()).thenReturn(true);
+
+        CompletableFuture<long[][]> result = nodeA.send(NODE_B, DeliveryEnvelope.of(List.of(delivery(10L, 1L))));
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(DeliveryTransportUnavailableException.class);
+        verifyNoInteractions(fanoutOnB);
+    }
+
+    private RedisNodeChannelTransport transport(RedissonClient redissonClient, String address, EnvelopeFanout fanout) {
+        ServerInfoProvider serverInfoProvider = mock(ServerInfoProvider.class);
+        when(serverInfoProvider.getServerAddress()).thenReturn(address);
+        RedisNodeChannelTransport transport = new RedisNodeChannelTransport(redissonClient, serverInfoProvider,
+                fanout, redisCircuitBreaker, new RedisNodeChannelProperty());
+        transport.subscribe();
+        return transport;
+    }
+
+    private static DeliveryEnvelope.Delivery delivery(long messageId, long... receiverIds) {
+        return new DeliveryEnvelope.Delivery(messageId, 100L, receiverIds, "{}".getBytes(StandardCharsets.UTF_8), null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.chatservice.message.controller;
+
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.ws.OutboundPayload;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.message.envelope.EnvelopeFanout;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(InternalMessageController.class)
+@ContextConfiguration(classes = {InternalMessageController.class, DeliveryEnvelopeCodec.class})
+class InternalMessageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private EnvelopeFanout envelopeFanout;
+
+    @MockitoBean
+    private SessionManager sessionManager;
+
+    @BeforeEach
+    void setUp() {
+        given(sessionManager.encode(any())).willAnswer(invocation ->
+                OutboundPayload.of(invocation.getArgument(0), objectMapper));
+    }
+
+    @Test
+    @DisplayName("이전 릴리스의 단건 전달을 받고, 이전 릴리스와 같이 세션이 없어도 200 을 돌려준다")
+    void receivesLegacyMessage() throws Exception {
+        given(envelopeFanout.deliver(any())).willReturn(new long[][]{{}}, new long[][]{{7L}});
+
+        mockMvc.perform(post("/internal/message")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(legacyMessage(Map.of("receiverId", 7))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/internal/message")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(legacyMessage(Map.of("receiverId", 7))))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<DeliveryEnvelope> captor = ArgumentCaptor.forClass(DeliveryEnvelope.class);
+        verify(envelopeFanout, times(2)).deliver(captor.capture());
+        DeliveryEnvelope.Delivery delivery = captor.getValue().deliveries().getFirst();
+        assertThat(delivery.messageId()).isEqualTo(10L);
+        assertThat(delivery.receiverIds()).containsExactly(7L);
+        assertThat(objectMapper.readTree(delivery.json()).path("content").asText()).isEqualTo("안녕");
+    }
+
+    @Test
+    @DisplayName("이전 릴리스의 여러 수신자 전달을 받아 모든 수신자에게 전달한다")
+    void receivesLegacyBatch() throws Exception {
+        given(envelopeFanout.deliver(any())).willReturn(new long[][]{{2L}});
+
+        mockMvc.perform(post("/internal/message/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(legacyMessage(Map.of("receiverIds", List.of(1, 2)))))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<DeliveryEnvelope> captor = ArgumentCaptor.forClass(DeliveryEnvelope.class);
+        verify(envelopeFanout).deliver(captor.capture());
+        assertThat(captor.getValue().deliveries().getFirst().receiverIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("필드가 빠진 이전 릴리스 요청은 400 으로 거부한다")
+    void rejectsMalformedLegacyMessage() throws Exception {
+        mockMvc.perform(post("/internal/message")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"receiverId\":7}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(envelopeFanout);
+    }
+
+    private String legacyMessage(Map<String, Object> receivers) throws Exception {
+        Map<String, Object> request = new HashMap<>(Map.of(
+                "messageId", 10,
+                "senderId", 1,
+                "content", "안녕",
+                "chatRoomId", 100,
+                "sentAt", "2026-01-01T00:00:00"));
+        request.putAll(receivers);
+        return objectMapper.writeValueAsString(request);
+    }
+}
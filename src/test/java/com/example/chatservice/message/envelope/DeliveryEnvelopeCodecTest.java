@@ -0,0 +1,85 @@
+package com.example.chatservice.message.envelope;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeliveryEnvelopeCodecTest {
+
+    private final DeliveryEnvelopeCodec codec = new DeliveryEnvelopeCodec(new ObjectMapper());
+
+    private final DeliveryEnvelope envelope = DeliveryEnvelope.of(List.of(
+            new DeliveryEnvelope.Delivery(1L, 10L, new long[]{1L, 5_000_000_000L},
+                    "{\"messageId\":1,\"content\":\"안녕\"}".getBytes(StandardCharsets.UTF_8), new byte[]{0x01, 0x02}),
+            new DeliveryEnvelope.Delivery(2L, 10L, new long[]{3L},
+                    "{\"messageId\":2}".getBytes(StandardCharsets.UTF_8), null)));
+
+    @Test
+    @DisplayName("바이너리 envelope 를 인코딩한 그대로 디코딩한다 (int 범위를 넘는 receiverId 포함)")
+    void binaryRoundTrip() {
+        DeliveryEnvelope decoded = DeliveryEnvelopeCodec.decodeBinary(
+                ByteBuffer.wrap(DeliveryEnvelopeCodec.encodeBinary(envelope)));
+
+        assertSameDeliveries(decoded);
+    }
+
+    @Test
+    @DisplayName("JSON envelope 를 인코딩한 그대로 디코딩한다 (int 범위를 넘는 receiverId 포함)")
+    void jsonRoundTrip() {
+        DeliveryEnvelope decoded = codec.decodeJson(codec.encodeJson(envelope));
+
+        assertSameDeliveries(decoded);
+    }
+
+    @Test
+    @DisplayName("바이너리 인코딩이 같은 내용의 JSON 인코딩보다 작다")
+    void binaryIsSmallerThanJson() {
+        assertThat(DeliveryEnvelopeCodec.encodeBinary(envelope).length)
+                .isLessThan(codec.encodeJson(envelope).length);
+    }
+
+    @Test
+    @DisplayName("모르는 버전은 거부한다")
+    void rejectsUnknownVersion() {
+        byte[] binary = DeliveryEnvelopeCodec.encodeBinary(envelope);
+        binary[0] = 2;
+
+        assertThatThrownBy(() -> DeliveryEnvelopeCodec.decodeBinary(ByteBuffer.wrap(binary)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decodeJson("{\"v\":2,\"deliveries\":[]}".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("잘린 바이너리 envelope 는 거부한다")
+    void rejectsTruncatedBinary() {
+        byte[] binary = DeliveryEnvelopeCodec.encodeBinary(envelope);
+
+        assertThatThrownBy(() -> DeliveryEnvelopeCodec.decodeBinary(ByteBuffer.wrap(Arrays.copyOf(binary, binary.length - 3))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertSameDeliveries(DeliveryEnvelope decoded) {
+        assertThat(decoded.version()).isEqualTo(DeliveryEnvelopeCodec.VERSION);
+        assertThat(decoded.deliveries()).hasSize(2);
+
+        DeliveryEnvelope.Delivery first = decoded.deliveries().get(0);
+        assertThat(first.messageId()).isEqualTo(1L);
+        assertThat(first.chatRoomId()).isEqualTo(10L);
+        assertThat(first.receiverIds()).containsExactly(1L, 5_000_000_000L);
+        assertThat(first.json()).isEqualTo(envelope.deliveries().get(0).json());
+        assertThat(first.binaryFrame()).containsExactly(0x01, 0x02);
+
+        DeliveryEnvelope.Delivery second = decoded.deliveries().get(1);
+        assertThat(second.receiverIds()).containsExactly(3L);
+        assertThat(second.binaryFrame()).isNull();
+    }
+}
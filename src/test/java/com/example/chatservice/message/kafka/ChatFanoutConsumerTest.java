@@ -0,0 +1,183 @@
+package com.example.chatservice.message.kafka;
+
+import com.example.chatservice.chat.repository.UserChatRepository;
+import com.example.chatservice.common.PresenceLeaseRegistry;
+import com.example.chatservice.common.RedisCircuitBreaker;
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.UserRouteCache;
+import com.example.chatservice.common.ws.OutboundPayload;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.event.ChatMessageEvent;
+import com.example.chatservice.property.KafkaDeliveryProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChatFanoutConsumerTest {
+
+    private static final long ROOM_ID = 100L;
+    private static final long SENDER_ID = 1L;
+
+    private UserChatRepository userChatRepository;
+    private UserRouteCache userRouteCache;
+    private NodeDeliveryProducer nodeDeliveryProducer;
+    private RedisCircuitBreaker redisCircuitBreaker;
+    private PresenceLeaseRegistry presenceLeaseRegistry;
+    private Acknowledgment ack;
+    private ChatFanoutConsumer consumer;
+
+    @Captor
+    private ArgumentCaptor<Collection<Long>> receivers;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userChatRepository = mock(UserChatRepository.class);
+        userRouteCache = mock(UserRouteCache.class);
+        nodeDeliveryProducer = mock(NodeDeliveryProducer.class);
+        when(nodeDeliveryProducer.send(anyString(), anyLong(), any(DeliveryEnvelope.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(nodeDeliveryProducer.sendWithoutReroute(anyString(), anyLong(), any(DeliveryEnvelope.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+        presenceLeaseRegistry = mock(PresenceLeaseRegistry.class);
+        ack = mock(Acknowledgment.class);
+        SessionManager sessionManager = mock(SessionManager.class);
+        when(sessionManager.encode(any())).thenReturn(OutboundPayload.preEncoded(new TextMessage("{\"messageId\":10}"), null));
+        consumer = new ChatFanoutConsumer(userChatRepository, userRouteCache, sessionManager,
+                nodeDeliveryProducer, redisCircuitBreaker, presenceLeaseRegistry, new KafkaDeliveryProperty());
+    }
+
+    @Test
+    @DisplayName("발신자를 뺀 방 참여자를 접속 노드별로 묶어 노드마다 envelope 하나를 발행한다")
+    void routesPerNode() {
+        when(userChatRepository.findActiveUserIdsByChatRoomId(ROOM_ID)).thenReturn(List.of(SENDER_ID, 2L, 3L, 4L, 5L));
+        when(userRouteCache.getDeviceServers(anyCollection()))
+                .thenReturn(Map.of(2L, Set.of("localhost:8081"), 3L, Set.of("localhost:8082"), 4L, Set.of("localhost:8081")));
+
+        consumer.fanOut(event(null), ack);
+
+        verify(userRouteCache).getDeviceServers(receivers.capture());
+        assertThat(receivers.getValue()).containsExactly(2L, 3L, 4L, 5L);
+
+        ArgumentCaptor<DeliveryEnvelope> envelope = ArgumentCaptor.forClass(DeliveryEnvelope.class);
+        verify(nodeDeliveryProducer).send(eq("localhost:8081"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactlyInAnyOrder(2L, 4L);
+        verify(nodeDeliveryProducer).send(eq("localhost:8082"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactly(3L);
+        verifyNoMoreInteractions(nodeDeliveryProducer);
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    @DisplayName("여러 노드에 디바이스가 접속한 유저는 그 노드들 envelope 에 모두 포함된다")
+    void routesToEveryDeviceNode() {
+        when(userChatRepository.findActiveUserIdsByChatRoomId(ROOM_ID)).thenReturn(List.of(SENDER_ID, 2L, 3L));
+        when(userRouteCache.getDeviceServers(anyCollection()))
+                .thenReturn(Map.of(2L, Set.of("localhost:8081", "localhost:8082"), 3L, Set.of("localhost:8082")));
+
+        consumer.fanOut(event(null), ack);
+
+        ArgumentCaptor<DeliveryEnvelope> envelope = ArgumentCaptor.forClass(DeliveryEnvelope.class);
+        verify(nodeDeliveryProducer).send(eq("localhost:8081"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactly(2L);
+        verify(nodeDeliveryProducer).send(eq("localhost:8082"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactlyInAnyOrder(2L, 3L);
+        verifyNoMoreInteractions(nodeDeliveryProducer);
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    @DisplayName("수신자를 지정한 이벤트는 방 참여자를 조회하지 않고 지정된 수신자에게만 보낸다")
+    void routesDirectedEvent() {
+        when(userRouteCache.getDeviceServers(anyCollection())).thenReturn(Map.of(7L, Set.of("localhost:8083")));
+
+        consumer.fanOut(event(List.of(7L)), ack);
+
+        verifyNoInteractions(userChatRepository);
+        verify(nodeDeliveryProducer).send(eq("localhost:8083"), eq(ROOM_ID), any(DeliveryEnvelope.class));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    @DisplayName("방 참여자 목록은 캐시해 메시지마다 DB 를 조회하지 않는다")
+    void cachesRoomMembers() {
+        when(userChatRepository.findActiveUserIdsByChatRoomId(ROOM_ID)).thenReturn(List.of(SENDER_ID, 2L));
+        when(userRouteCache.getDeviceServers(anyCollection())).thenReturn(Map.of());
+
+        consumer.fanOut(event(null), ack);
+        consumer.fanOut(event(null), ack);
+
+        verify(userChatRepository, times(1)).findActiveUserIdsByChatRoomId(ROOM_ID);
+        verify(nodeDeliveryProducer, never()).send(anyString(), anyLong(), any(DeliveryEnvelope.class));
+    }
+
+    @Test
+    @DisplayName("발행이 실패하면 커밋하지 않아 다시 처리된다")
+    void doesNotAckOnFailure() {
+        when(userChatRepository.findActiveUserIdsByChatRoomId(ROOM_ID)).thenReturn(List.of(SENDER_ID, 2L));
+        when(userRouteCache.getDeviceServers(anyCollection())).thenReturn(Map.of(2L, Set.of("localhost:8081")));
+        when(nodeDeliveryProducer.send(anyString(), anyLong(), any(DeliveryEnvelope.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        consumer.fanOut(event(null), ack);
+
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("Redis 가 degraded 면 라우팅 조회 없이 살아 있는 모든 노드에 참여자 전체를 보내고, 받은 노드는 다시 라우팅하지 않는다")
+    void sendsToEveryLiveNodeWhenRedisDegraded() {
+        when(redisCircuitBreaker.isDegraded()).thenReturn(true);
+        when(presenceLeaseRegistry.liveNodes()).thenReturn(Set.of("localhost:8081", "localhost:8082"));
+        when(userChatRepository.findActiveUserIdsByChatRoomId(ROOM_ID)).thenReturn(List.of(SENDER_ID, 2L, 3L));
+
+        consumer.fanOut(event(null), ack);
+
+        verifyNoInteractions(userRouteCache);
+        ArgumentCaptor<DeliveryEnvelope> envelope = ArgumentCaptor.forClass(DeliveryEnvelope.class);
+        verify(nodeDeliveryProducer).sendWithoutReroute(eq("localhost:8081"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactly(2L, 3L);
+        verify(nodeDeliveryProducer).sendWithoutReroute(eq("localhost:8082"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactly(2L, 3L);
+        verify(nodeDeliveryProducer, never()).send(anyString(), anyLong(), any(DeliveryEnvelope.class));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    @DisplayName("리스너는 발행 확인을 기다리지 않고, 확인이 오면 그때 커밋한다")
+    void acknowledgesWhenPublishCompletes() {
+        CompletableFuture<org.springframework.kafka.support.SendResult<String, byte[]>> published = new CompletableFuture<>();
+        when(userChatRepository.findActiveUserIdsByChatRoomId(ROOM_ID)).thenReturn(List.of(SENDER_ID, 2L));
+        when(userRouteCache.getDeviceServers(anyCollection())).thenReturn(Map.of(2L, Set.of("localhost:8081")));
+        when(nodeDeliveryProducer.send(anyString(), anyLong(), any(DeliveryEnvelope.class))).thenReturn(published);
+
+        consumer.fanOut(event(null), ack);
+        verify(ack, never()).acknowledge();
+
+        published.complete(null);
+        verify(ack).acknowledge();
+    }
+
+    private static ChatMessageEvent event(List<Long> receiverIds) {
+        ChatMessageEvent event = new ChatMessageEvent(10L, SENDER_ID, "hi", ROOM_ID, LocalDateTime.now());
+        event.setReceiverIds(receiverIds);
+        return event;
+    }
+}
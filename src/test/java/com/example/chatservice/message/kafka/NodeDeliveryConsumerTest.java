@@ -0,0 +1,87 @@
+package com.example.chatservice.message.kafka;
+
+import com.example.chatservice.common.ServerInfoProvider;
+import com.example.chatservice.common.UserRouteCache;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.message.envelope.EnvelopeFanout;
+import com.example.chatservice.property.KafkaDeliveryProperty;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NodeDeliveryConsumerTest {
+
+    private static final String LOCAL = "localhost:8080";
+    private static final long ROOM_ID = 100L;
+
+    private EnvelopeFanout envelopeFanout;
+    private UserRouteCache userRouteCache;
+    private NodeDeliveryProducer nodeDeliveryProducer;
+    private Acknowledgment ack;
+    private NodeDeliveryConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        envelopeFanout = mock(EnvelopeFanout.class);
+        userRouteCache = mock(UserRouteCache.class);
+        nodeDeliveryProducer = mock(NodeDeliveryProducer.class);
+        ack = mock(Acknowledgment.class);
+        ServerInfoProvider serverInfoProvider = mock(ServerInfoProvider.class);
+        when(serverInfoProvider.getServerAddress()).thenReturn(LOCAL);
+        consumer = new NodeDeliveryConsumer(envelopeFanout, userRouteCache, nodeDeliveryProducer,
+                serverInfoProvider, new KafkaDeliveryProperty());
+    }
+
+    @Test
+    @DisplayName("세션이 없던 수신자는 이 노드를 뺀 모든 디바이스 노드 토픽으로 다시 보낸다")
+    void reroutesToEveryOtherDeviceNode() {
+        when(envelopeFanout.deliver(any())).thenReturn(new long[][]{{2L, 3L}});
+        when(userRouteCache.getDeviceServers(anyCollection())).thenReturn(Map.of(
+                2L, Set.of(LOCAL, "localhost:8081", "localhost:8082"),
+                3L, Set.of("localhost:8082")));
+
+        consumer.consume(record(2L, 3L, 4L), ack);
+
+        verify(userRouteCache).invalidate(2L);
+        verify(userRouteCache).invalidate(3L);
+        ArgumentCaptor<DeliveryEnvelope> envelope = ArgumentCaptor.forClass(DeliveryEnvelope.class);
+        verify(nodeDeliveryProducer).sendRerouted(eq("localhost:8081"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactly(2L);
+        verify(nodeDeliveryProducer).sendRerouted(eq("localhost:8082"), eq(ROOM_ID), envelope.capture());
+        assertThat(envelope.getValue().deliveries().getFirst().receiverIds()).containsExactlyInAnyOrder(2L, 3L);
+        verify(nodeDeliveryProducer, never()).sendRerouted(eq(LOCAL), anyLong(), any());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    @DisplayName("이미 재전송된 레코드는 다시 재전송하지 않는다")
+    void doesNotRerouteTwice() {
+        when(envelopeFanout.deliver(any())).thenReturn(new long[][]{{2L}});
+        ConsumerRecord<String, byte[]> record = record(2L);
+        record.headers().add(NodeDeliveryProducer.REROUTED_HEADER, "1".getBytes(StandardCharsets.UTF_8));
+
+        consumer.consume(record, ack);
+
+        verifyNoInteractions(userRouteCache, nodeDeliveryProducer);
+        verify(ack).acknowledge();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long... receiverIds) {
+        DeliveryEnvelope envelope = DeliveryEnvelope.of(List.of(new DeliveryEnvelope.Delivery(
+                10L, ROOM_ID, receiverIds, "{\"messageId\":10}".getBytes(StandardCharsets.UTF_8), null)));
+        return new ConsumerRecord<>("chat-node", 0, 0L, String.valueOf(ROOM_ID), DeliveryEnvelopeCodec.encodeBinary(envelope));
+    }
+}
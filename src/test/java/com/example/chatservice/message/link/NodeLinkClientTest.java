@@ -0,0 +1,94 @@
+package com.example.chatservice.message.link;
+
+import com.example.chatservice.common.PresenceLeaseRegistry;
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.property.NodeLinkProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NodeLinkClientTest {
+
+    private WebSocketSession session;
+    private WebSocketHandler linkHandler;
+    private ScheduledExecutorService reconnectScheduler;
+    private NodeLinkClient client;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+        WebSocketClient webSocketClient = mock(WebSocketClient.class);
+        when(webSocketClient.execute(any(WebSocketHandler.class), nullable(WebSocketHttpHeaders.class), any(URI.class))).thenAnswer(inv -> {
+            linkHandler = inv.getArgument(0);
+            linkHandler.afterConnectionEstablished(session);
+            return CompletableFuture.completedFuture(session);
+        });
+        PresenceLeaseRegistry presenceLeaseRegistry = mock(PresenceLeaseRegistry.class);
+        when(presenceLeaseRegistry.isAlive(anyString())).thenReturn(true);
+        reconnectScheduler = mock(ScheduledExecutorService.class);
+        client = new NodeLinkClient(presenceLeaseRegistry, reconnectScheduler, new NodeLinkProperty(), webSocketClient);
+    }
+
+    @Test
+    @DisplayName("ack 를 기다리지 않고 프레임을 연달아 보내고, ACK 의 seq 로 각 전송을 완료한다")
+    void pipelinesFramesAndMatchesAcks() throws Exception {
+        client.send("localhost:8081", envelope(1L)).exceptionally(e -> null); // 첫 전송에서 링크 연결
+        CompletableFuture<long[][]> first = client.send("localhost:8081", envelope(1L));
+        CompletableFuture<long[][]> second = client.send("localhost:8081", envelope(2L, 3L));
+
+        ArgumentCaptor<BinaryMessage> sent = ArgumentCaptor.forClass(BinaryMessage.class);
+        verify(session, times(3)).sendMessage(sent.capture());
+        long firstSeq = NodeLinkFrameCodec.decodeDeliver(sent.getAllValues().get(1).getPayload()).seq();
+        NodeLinkFrameCodec.Deliver secondFrame = NodeLinkFrameCodec.decodeDeliver(sent.getAllValues().get(2).getPayload());
+        long secondSeq = secondFrame.seq();
+        assertThat(secondFrame.envelope().deliveries().getFirst().receiverIds()).containsExactly(2L, 3L);
+
+        linkHandler.handleMessage(session, new BinaryMessage(NodeLinkFrameCodec.encodeAck(firstSeq, new long[0])));
+        linkHandler.handleMessage(session, new BinaryMessage(NodeLinkFrameCodec.encodeAck(secondSeq, new long[]{3L})));
+
+        assertThat(first.get(1, TimeUnit.SECONDS)[0]).isEmpty();
+        assertThat(second.get(1, TimeUnit.SECONDS)[0]).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("링크가 끊기면 ack 를 기다리던 전송을 실패시키고 재연결을 예약한다")
+    void failsPendingAndReconnectsOnClose() throws Exception {
+        client.send("localhost:8081", envelope(1L));
+        CompletableFuture<long[][]> inFlight = client.send("localhost:8081", envelope(1L));
+
+        linkHandler.afterConnectionClosed(session, CloseStatus.SERVER_ERROR);
+
+        assertThat(inFlight).isCompletedExceptionally();
+        assertThatThrownBy(() -> inFlight.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(NodeLinkUnavailableException.class);
+        assertThat(client.isConnected("localhost:8081")).isFalse();
+        verify(reconnectScheduler).schedule(any(Runnable.class), eq(500L), eq(TimeUnit.MILLISECONDS));
+
+        CompletableFuture<long[][]> whileDown = client.send("localhost:8081", envelope(1L));
+        assertThatThrownBy(() -> whileDown.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(NodeLinkUnavailableException.class);
+    }
+
+    private static DeliveryEnvelope envelope(long... receiverIds) {
+        return DeliveryEnvelope.of(List.of(
+                new DeliveryEnvelope.Delivery(1L, 10L, receiverIds, "{}".getBytes(StandardCharsets.UTF_8), null)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.chatservice.message.link;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NodeLinkFrameCodecTest {
+
+    @Test
+    @DisplayName("DELIVER / ACK 프레임을 인코딩한 그대로 디코딩한다")
+    void roundTrip() {
+        byte[] payload = "{\"messageId\":1}".getBytes(StandardCharsets.UTF_8);
+        DeliveryEnvelope envelope = DeliveryEnvelope.of(List.of(
+                new DeliveryEnvelope.Delivery(1L, 10L, new long[]{1L, 2L}, payload, null)));
+
+        NodeLinkFrameCodec.Deliver deliver = NodeLinkFrameCodec.decodeDeliver(
+                ByteBuffer.wrap(NodeLinkFrameCodec.encodeDeliver(7L, envelope)));
+        NodeLinkFrameCodec.Ack ack = NodeLinkFrameCodec.decodeAck(
+                ByteBuffer.wrap(NodeLinkFrameCodec.encodeAck(7L, new long[]{2L})));
+
+        assertThat(deliver.seq()).isEqualTo(7L);
+        DeliveryEnvelope.Delivery delivery = deliver.envelope().deliveries().getFirst();
+        assertThat(delivery.receiverIds()).containsExactly(1L, 2L);
+        assertThat(delivery.json()).isEqualTo(payload);
+        assertThat(ack.seq()).isEqualTo(7L);
+        assertThat(ack.notConnected()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("partial message 조각을 마지막 조각이 올 때 하나의 프레임으로 합친다")
+    void assemblesPartialMessages() {
+        byte[] frame = NodeLinkFrameCodec.encodeAck(3L, new long[]{10L, 11L});
+        ByteArrayOutputStream assembler = new ByteArrayOutputStream();
+
+        assertThat(NodeLinkFrameCodec.assemble(assembler, ByteBuffer.wrap(frame, 0, 5), false)).isNull();
+        ByteBuffer assembled = NodeLinkFrameCodec.assemble(assembler, ByteBuffer.wrap(frame, 5, frame.length - 5), true);
+
+        assertThat(NodeLinkFrameCodec.decodeAck(assembled).notConnected()).containsExactly(10L, 11L);
+        assertThat(assembler.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("수신자 수가 남은 바이트보다 많으면 거부한다")
+    void rejectsInvalidReceiverCount() {
+        ByteBuffer buffer = ByteBuffer.allocate(13).put(NodeLinkFrameCodec.TYPE_ACK).putLong(1L).putInt(100);
+        buffer.flip();
+
+        assertThatThrownBy(() -> NodeLinkFrameCodec.decodeAck(buffer))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.common.CircuitBreakerStateMachine;
+import com.example.chatservice.property.ForwardCircuitBreakerProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForwardCircuitBreakerTest {
+
+    private static final String SLOW_NODE = "localhost:8081";
+    private static final String HEALTHY_NODE = "localhost:8082";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ForwardCircuitBreakerProperty property;
+    private ForwardCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        property = new ForwardCircuitBreakerProperty();
+        property.setFailureThreshold(3);
+        property.setOpenMillis(50);
+        property.setMaxInFlightPerTarget(2);
+        breaker = new ForwardCircuitBreaker(property, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("한 노드로의 연속 실패가 임계값에 도달하면 그 노드만 OPEN 이 되고 다른 노드는 계속 전송한다")
+    void opensPerTarget() {
+        failTimes(SLOW_NODE, 3);
+
+        assertThat(breaker.getState(SLOW_NODE)).isEqualTo(CircuitBreakerStateMachine.State.OPEN);
+        assertThat(breaker.tryAcquire(SLOW_NODE)).isNull();
+        assertThat(breaker.tryAcquire(HEALTHY_NODE)).isNotNull();
+        assertThat(meterRegistry.get("chat.forward.breaker.state").tag("target", SLOW_NODE).gauge().value())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("chat.forward.breaker.state").tag("target", HEALTHY_NODE).gauge().value())
+                .isZero();
+        assertThat(meterRegistry.get("chat.forward.breaker.rejected").tag("reason", "open").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("상태 전이 카운터는 생성 시 한 번 등록되고, 여러 대상 노드의 전이를 합산한다")
+    void registersTransitionCountersOnce() {
+        assertThat(meterRegistry.find("chat.forward.breaker.transitions").counters()).hasSize(3);
+
+        failTimes(SLOW_NODE, 3);
+        failTimes(HEALTHY_NODE, 3);
+
+        assertThat(meterRegistry.find("chat.forward.breaker.transitions").counters()).hasSize(3);
+        assertThat(meterRegistry.get("chat.forward.breaker.transitions").tag("state", "open").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("OPEN 시간이 지나면 시험 전송 하나만 통과시키고, 성공하면 CLOSED 로 돌아간다")
+    void closesAfterSuccessfulTrial() throws Exception {
+        failTimes(SLOW_NODE, 3);
+        Thread.sleep(60);
+
+        ForwardCircuitBreaker.Permit trial = breaker.tryAcquire(SLOW_NODE);
+        assertThat(trial).isNotNull();
+        assertThat(breaker.getState(SLOW_NODE)).isEqualTo(CircuitBreakerStateMachine.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire(SLOW_NODE)).isNull();
+
+        trial.onSuccess();
+        trial.release();
+
+        assertThat(breaker.getState(SLOW_NODE)).isEqualTo(CircuitBreakerStateMachine.State.CLOSED);
+        assertThat(breaker.tryAcquire(SLOW_NODE)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("OPEN 이전에 시작한 느린 전송의 성공은 HALF_OPEN 시험 전송 대신 breaker 를 닫지 않는다")
+    void ignoresResultsFromEarlierState() throws Exception {
+        ForwardCircuitBreaker.Permit slow = breaker.tryAcquire(SLOW_NODE);
+        failTimes(SLOW_NODE, 3);
+        Thread.sleep(60);
+        ForwardCircuitBreaker.Permit trial = breaker.tryAcquire(SLOW_NODE);
+
+        slow.onSuccess();
+        slow.release();
+
+        assertThat(breaker.getState(SLOW_NODE)).isEqualTo(CircuitBreakerStateMachine.State.HALF_OPEN);
+        trial.onFailure();
+        trial.release();
+        assertThat(breaker.getState(SLOW_NODE)).isEqualTo(CircuitBreakerStateMachine.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("유휴 만료된 노드의 breaker 를 다시 만들면 gauge 가 새 breaker 의 상태를 가리킨다")
+    void reRegistersGaugeAfterExpiry() throws Exception {
+        property.setIdleExpireMillis(20);
+        breaker = new ForwardCircuitBreaker(property, meterRegistry);
+        failTimes(SLOW_NODE, 3);
+        assertThat(meterRegistry.get("chat.forward.breaker.state").tag("target", SLOW_NODE).gauge().value()).isEqualTo(2.0);
+        Thread.sleep(40);
+
+        breaker.tryAcquire(SLOW_NODE).release();
+
+        assertThat(meterRegistry.get("chat.forward.breaker.state").tag("target", SLOW_NODE).gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("재시도 사이에 OPEN 이 되면 재시도를 막는다")
+    void blocksRetryWhenOpened() {
+        ForwardCircuitBreaker.Permit permit = breaker.tryAcquire(SLOW_NODE);
+        permit.onFailure();
+
+        failTimes(SLOW_NODE, 2);
+
+        assertThat(permit.allowRetry()).isFalse();
+    }
+
+    @Test
+    @DisplayName("노드별 진행 중 전송이 상한에 닿으면 거부하고, 반납하면 다시 받는다")
+    void limitsInFlightPerTarget() {
+        ForwardCircuitBreaker.Permit first = breaker.tryAcquire(SLOW_NODE);
+        ForwardCircuitBreaker.Permit second = breaker.tryAcquire(SLOW_NODE);
+
+        assertThat(breaker.tryAcquire(SLOW_NODE)).isNull();
+        assertThat(breaker.tryAcquire(HEALTHY_NODE)).isNotNull();
+        assertThat(meterRegistry.get("chat.forward.breaker.rejected").tag("reason", "bulkhead").counter().count())
+                .isEqualTo(1.0);
+
+        first.release();
+        first.release(); // 두 번 반납해도 자리는 하나만 돌아옴
+        assertThat(breaker.tryAcquire(SLOW_NODE)).isNotNull();
+        assertThat(breaker.tryAcquire(SLOW_NODE)).isNull();
+        second.release();
+    }
+
+    private void failTimes(String target, int times) {
+        for (int i = 0; i < times; i++) {
+            ForwardCircuitBreaker.Permit permit = breaker.tryAcquire(target);
+            permit.onFailure();
+            permit.release();
+        }
+    }
+}
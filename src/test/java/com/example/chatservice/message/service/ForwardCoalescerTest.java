@@ -0,0 +1,123 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.property.ForwardCoalesceProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ForwardCoalescerTest {
+
+    private DeliveryTransport transport;
+    private ScheduledExecutorService scheduler;
+    private ForwardCoalesceProperty property;
+    private SimpleMeterRegistry meterRegistry;
+    private ForwardCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        transport = mock(DeliveryTransport.class);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        property = new ForwardCoalesceProperty();
+        property.setMaxDelayMillis(50);
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new ForwardCoalescer(scheduler, property, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("window 안에 같은 노드로 가는 여러 메시지를 envelope 하나로 보내고 결과를 전송별로 나눠준다")
+    void coalescesDeliveriesPerTarget() throws Exception {
+        when(transport.send(eq("localhost:8081"), any(DeliveryEnvelope.class)))
+                .thenReturn(CompletableFuture.completedFuture(new long[][]{{}, {3L}}));
+
+        CompletableFuture<long[]> first = coalescer.enqueue(transport, "localhost:8081", delivery(10L, 1L));
+        CompletableFuture<long[]> second = coalescer.enqueue(transport, "localhost:8081", delivery(11L, 2L, 3L));
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEmpty();
+        assertThat(second.get(1, TimeUnit.SECONDS)).containsExactly(3L);
+
+        ArgumentCaptor<DeliveryEnvelope> envelope = ArgumentCaptor.forClass(DeliveryEnvelope.class);
+        verify(transport, times(1)).send(eq("localhost:8081"), envelope.capture());
+        assertThat(envelope.getValue().deliveries()).extracting(DeliveryEnvelope.Delivery::messageId).containsExactly(10L, 11L);
+        assertThat(envelope.getValue().deliveries().get(1).receiverIds()).containsExactly(2L, 3L);
+        assertThat(meterRegistry.get("chat.forward.coalesce.batch.size").summary().max()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("maxDeliveries 에 도달하면 window 를 기다리지 않고 바로 보낸다")
+    void sendsImmediatelyWhenFull() {
+        property.setMaxDelayMillis(60_000);
+        property.setMaxDeliveries(2);
+        when(transport.send(anyString(), any(DeliveryEnvelope.class)))
+                .thenReturn(CompletableFuture.completedFuture(new long[][]{{}, {}}));
+
+        coalescer.enqueue(transport, "localhost:8081", delivery(10L, 1L));
+        CompletableFuture<long[]> second = coalescer.enqueue(transport, "localhost:8081", delivery(11L, 2L));
+
+        assertThat(second).isCompleted();
+        verify(transport).send(eq("localhost:8081"), any(DeliveryEnvelope.class));
+    }
+
+    @Test
+    @DisplayName("envelope 전송이 실패하면 묶인 모든 전송이 실패한다 (전송별 재시도로 넘어감)")
+    void failsAllDeliveriesWhenEnvelopeFails() {
+        property.setMaxDeliveries(2);
+        when(transport.send(anyString(), any(DeliveryEnvelope.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+        CompletableFuture<long[]> first = coalescer.enqueue(transport, "localhost:8081", delivery(10L, 1L));
+        CompletableFuture<long[]> second = coalescer.enqueue(transport, "localhost:8081", delivery(11L, 2L));
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("envelope 전송이 동기 예외를 던져도 묶인 모든 전송이 실패로 끝난다")
+    void failsAllDeliveriesWhenSendThrows() {
+        property.setMaxDeliveries(2);
+        when(transport.send(anyString(), any(DeliveryEnvelope.class))).thenThrow(new IllegalStateException("encode"));
+
+        CompletableFuture<long[]> first = coalescer.enqueue(transport, "localhost:8081", delivery(10L, 1L));
+        CompletableFuture<long[]> second = coalescer.enqueue(transport, "localhost:8081", delivery(11L, 2L));
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("flush 한 대상의 버퍼는 맵에서 빠지고 다음 전송은 새 window 로 묶인다")
+    void removesBufferAfterFlush() throws Exception {
+        when(transport.send(anyString(), any(DeliveryEnvelope.class)))
+                .thenReturn(CompletableFuture.completedFuture(new long[][]{{}}));
+
+        coalescer.enqueue(transport, "localhost:8081", delivery(10L, 1L)).get(1, TimeUnit.SECONDS);
+        assertThat(coalescer.bufferedTargets()).isZero();
+
+        coalescer.enqueue(transport, "localhost:8081", delivery(11L, 2L)).get(1, TimeUnit.SECONDS);
+        assertThat(coalescer.bufferedTargets()).isZero();
+        verify(transport, times(2)).send(eq("localhost:8081"), any(DeliveryEnvelope.class));
+    }
+
+    private static DeliveryEnvelope.Delivery delivery(long messageId, long... receiverIds) {
+        return new DeliveryEnvelope.Delivery(messageId, 100L, receiverIds, "{}".getBytes(StandardCharsets.UTF_8), null);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.common.RedisCircuitBreaker;
+import com.example.chatservice.property.HotRoomProperty;
+import com.example.chatservice.property.RedisCircuitBreakerProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class HotRoomDetectionServiceTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private HotRoomDetectionService hotRoomDetectionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        HotRoomProperty hotRoomProperty = new HotRoomProperty();
+        hotRoomProperty.setWindowSeconds(60);
+        hotRoomProperty.setModeTtlSeconds(60);
+        hotRoomProperty.setDebounceSeconds(3);
+        hotRoomProperty.setEnterThreshold(3);
+        hotRoomProperty.setExitThreshold(1);
+
+        RedisCircuitBreakerProperty breakerProperty = new RedisCircuitBreakerProperty();
+        breakerProperty.setFailureThreshold(1);
+        hotRoomDetectionService = new HotRoomDetectionService(redisTemplate, hotRoomProperty,
+                new RedisCircuitBreaker(breakerProperty, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Redis 장애 시 노드 로컬 카운터로 핫룸을 판단한다")
+    void fallsBackToLocalCounters() {
+        assertThat(hotRoomDetectionService.isHotRoom(1L)).isFalse();
+        assertThat(hotRoomDetectionService.isHotRoom(1L)).isFalse();
+        assertThat(hotRoomDetectionService.isHotRoom(1L)).isTrue();
+        assertThat(hotRoomDetectionService.isHotRoom(2L)).isFalse();
+
+        // 첫 실패로 breaker 가 열린 뒤에는 Redis 를 호출하지 않음
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @DisplayName("Redis 장애 시 디바운스 스킵을 하지 않는다 (lastMessageId 를 바로 DB 에 반영)")
+    void doesNotSkipUpdatesWhenDegraded() {
+        assertThat(hotRoomDetectionService.shouldSkipHotUpdate(1L)).isFalse();
+    }
+}
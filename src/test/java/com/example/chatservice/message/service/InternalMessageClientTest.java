@@ -0,0 +1,185 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.message.envelope.DeliveryEnvelope;
+import com.example.chatservice.message.envelope.DeliveryEnvelopeCodec;
+import com.example.chatservice.property.InternalHttpClientProperty;
+import com.example.chatservice.property.MessageForwardProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InternalMessageClientTest {
+
+    private static final long BLOCKING_RECEIVER = 99L;
+    private static final long REJECTING_RECEIVER = 400L;
+    private static final long FAILING_RECEIVER = 503L;
+
+    private HttpServer server;
+    private String serverAddress;
+    private InternalHttpClientProperty property;
+    private MessageForwardProperty forwardProperty;
+    private DeliveryEnvelopeCodec codec;
+    private InternalMessageClient client;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicReference<String> receivedContentType = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        codec = new DeliveryEnvelopeCodec(new ObjectMapper());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/internal/message/envelope", exchange -> {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            receivedContentType.set(contentType);
+            byte[] request = exchange.getRequestBody().readAllBytes();
+            long[] receiverIds = receiverIds(contentType, request);
+            if (receiverIds[0] == REJECTING_RECEIVER || receiverIds[0] == FAILING_RECEIVER) {
+                exchange.sendResponseHeaders(receiverIds[0] == REJECTING_RECEIVER ? 400 : 503, -1);
+                exchange.close();
+                return;
+            }
+            if (receiverIds[0] == BLOCKING_RECEIVER) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // 마지막 수신자는 세션이 없다고 응답
+            byte[] body = ("[[" + receiverIds[receiverIds.length - 1] + "]]").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        serverAddress = "localhost:" + server.getAddress().getPort();
+
+        property = new InternalHttpClientProperty();
+        property.setMaxConcurrentPerTarget(1);
+        forwardProperty = new MessageForwardProperty();
+        client = new InternalMessageClient(HttpClient.newHttpClient(), new ObjectMapper(), codec, property, forwardProperty);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("기본은 바이너리 envelope 로 보내고 delivery 별 미전달 receiverId 를 돌려준다")
+    void postsBinaryEnvelope() throws Exception {
+        long[][] notConnected = client.send(serverAddress, envelope(1L, 2L)).get(5, TimeUnit.SECONDS);
+
+        assertThat(receivedContentType.get()).isEqualTo(DeliveryEnvelopeCodec.BINARY_CONTENT_TYPE);
+        assertThat(notConnected).hasDimensions(1, 1);
+        assertThat(notConnected[0]).containsExactly(2L);
+        assertThat(client.inFlight(serverAddress)).isZero();
+    }
+
+    @Test
+    @DisplayName("codec 이 JSON 이면 application/json 으로 보낸다")
+    void postsJsonEnvelope() throws Exception {
+        forwardProperty.setCodec(MessageForwardProperty.Codec.JSON);
+
+        long[][] notConnected = client.send(serverAddress, envelope(1L, 3L)).get(5, TimeUnit.SECONDS);
+
+        assertThat(receivedContentType.get()).startsWith("application/json");
+        assertThat(notConnected[0]).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("대상 노드별 동시 요청 한도를 넘으면 기다리지 않고 바로 실패한다")
+    void rejectsOverPerTargetLimit() throws Exception {
+        CompletableFuture<long[][]> first = client.send(serverAddress, envelope(BLOCKING_RECEIVER, 2L));
+        CompletableFuture<long[][]> second = client.send(serverAddress, envelope(BLOCKING_RECEIVER, 2L));
+
+        assertThat(second).isCompletedExceptionally();
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)[0]).containsExactly(2L);
+        assertThat(client.inFlight(serverAddress)).isZero();
+    }
+
+    @Test
+    @DisplayName("4xx 는 재시도하지 않도록 ForwardRejectedException, 그 외 실패 상태는 IllegalStateException 으로 끝난다")
+    void distinguishesRejectedFromFailed() {
+        CompletableFuture<long[][]> rejected = client.send(serverAddress, envelope(REJECTING_RECEIVER));
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(ForwardRejectedException.class);
+
+        CompletableFuture<long[][]> failed = client.send(serverAddress, envelope(FAILING_RECEIVER));
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(client.inFlight(serverAddress)).isZero();
+    }
+
+    @Test
+    @DisplayName("envelope 엔드포인트가 없는 (이전 릴리스) 노드에는 수신자마다 /internal/message 로 보낸다")
+    void fallsBackToBaselineEndpointOn404() throws Exception {
+        HttpServer baseline = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        List<JsonNode> received = new CopyOnWriteArrayList<>();
+        // 이전 릴리스 InternalMessageController 와 같은 모양: /internal/message, /internal/message/batch 만 있고 응답 본문 없음
+        baseline.createContext("/internal/message", exchange -> {
+            if (!"/internal/message".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            received.add(new ObjectMapper().readTree(exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        baseline.start();
+        try {
+            String baselineAddress = "localhost:" + baseline.getAddress().getPort();
+            DeliveryEnvelope envelope = DeliveryEnvelope.of(List.of(new DeliveryEnvelope.Delivery(10L, 100L, new long[]{1L, 2L},
+                    "{\"messageId\":10,\"senderId\":5,\"content\":\"hi\",\"chatRoomId\":100,\"sentAt\":\"2026-01-01T00:00\"}"
+                            .getBytes(StandardCharsets.UTF_8), null)));
+
+            long[][] notConnected = client.send(baselineAddress, envelope).get(5, TimeUnit.SECONDS);
+
+            assertThat(notConnected).hasDimensions(1, 0);
+            assertThat(received).extracting(request -> request.path("receiverId").asLong()).containsExactly(1L, 2L);
+            assertThat(received).allSatisfy(request -> {
+                assertThat(request.path("content").asText()).isEqualTo("hi");
+                assertThat(request.path("senderId").asLong()).isEqualTo(5L);
+                assertThat(request.path("chatRoomId").asLong()).isEqualTo(100L);
+            });
+            assertThat(client.inFlight(baselineAddress)).isZero();
+        } finally {
+            baseline.stop(0);
+        }
+    }
+
+    private long[] receiverIds(String contentType, byte[] request) {
+        DeliveryEnvelope envelope = DeliveryEnvelopeCodec.BINARY_CONTENT_TYPE.equals(contentType)
+                ? DeliveryEnvelopeCodec.decodeBinary(ByteBuffer.wrap(request))
+                : codec.decodeJson(request);
+        return envelope.deliveries().getFirst().receiverIds();
+    }
+
+    private static DeliveryEnvelope envelope(long... receiverIds) {
+        return DeliveryEnvelope.of(List.of(new DeliveryEnvelope.Delivery(
+                10L, 100L, receiverIds, "{\"messageId\":10}".getBytes(StandardCharsets.UTF_8), null)));
+    }
+}
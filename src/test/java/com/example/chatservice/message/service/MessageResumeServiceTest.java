@@ -0,0 +1,137 @@
+package com.example.chatservice.message.service;
+
+import com.example.chatservice.common.LocalRoomIndex;
+import com.example.chatservice.common.SessionManager;
+import com.example.chatservice.common.ws.BinaryFrameCodec;
+import com.example.chatservice.common.ws.OutboundSessionPipeline;
+import com.example.chatservice.common.ws.SubProtocolRoutingHandler;
+import com.example.chatservice.common.ws.WebSocketCompressor;
+import com.example.chatservice.component.snowflake.Snowflake;
+import com.example.chatservice.message.entity.Message;
+import com.example.chatservice.property.WebSocketResumeProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageResumeServiceTest {
+
+    private final MessageService messageService = mock(MessageService.class);
+    private final LocalRoomIndex localRoomIndex = mock(LocalRoomIndex.class);
+    private final SessionManager sessionManager = mock(SessionManager.class);
+    private final OutboundSessionPipeline outboundSessionPipeline = mock(OutboundSessionPipeline.class);
+    private final WebSocketCompressor webSocketCompressor = mock(WebSocketCompressor.class);
+    private final Snowflake snowflake = mock(Snowflake.class);
+    private final WebSocketResumeProperty property = new WebSocketResumeProperty();
+    private final WebSocketSession session = mock(WebSocketSession.class);
+
+    private MessageResumeService messageResumeService;
+
+    @BeforeEach
+    void setUp() {
+        property.setPageSize(2);
+        messageResumeService = new MessageResumeService(messageService, localRoomIndex, sessionManager,
+                outboundSessionPipeline, webSocketCompressor, snowflake, property);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("userId", 1L);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(snowflake.minIdAt(anyLong())).thenReturn(0L);
+        doReturn(new TextMessage("msg")).when(webSocketCompressor).encode(eq(session), any());
+        when(outboundSessionPipeline.enqueueReplay(eq(session), any())).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("watermark 이후 메시지를 keyset 페이지 단위로 보내고 보류를 푼다")
+    void replaysMissedMessagesByKeyset() {
+        when(localRoomIndex.isSubscribed(1L, 7L)).thenReturn(true);
+        when(messageService.findMessagesAfter(7L, 10L, 2)).thenReturn(List.of(message(11L), message(12L)));
+        when(messageService.findMessagesAfter(7L, 12L, 2)).thenReturn(List.of(message(13L)));
+
+        messageResumeService.resume(session, Map.of(7L, 10L));
+
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.captor();
+        verify(outboundSessionPipeline, times(4)).enqueueReplay(eq(session), sent.capture());
+        assertThat(sent.getAllValues().get(3).getPayload()).isEqualTo("{\"type\": \"RESUME_COMPLETE\", \"replayed\": 3}");
+        verify(outboundSessionPipeline).beginReplay(session);
+        verify(outboundSessionPipeline).endReplay(session);
+    }
+
+    @Test
+    @DisplayName("참여하지 않은 방은 조회하지 않는다")
+    void skipsRoomsWithoutMembership() {
+        messageResumeService.resume(session, Map.of(99L, 0L));
+
+        verify(messageService, never()).findMessagesAfter(anyLong(), anyLong(), anyInt());
+        verify(outboundSessionPipeline).endReplay(session);
+    }
+
+    @Test
+    @DisplayName("방별 최대 개수를 넘기면 RESUME_TRUNCATED 를 보낸다")
+    void sendsTruncatedNoticeWhenLimitReached() {
+        property.setMaxMessagesPerRoom(2);
+        when(localRoomIndex.isSubscribed(1L, 7L)).thenReturn(true);
+        when(messageService.findMessagesAfter(7L, 10L, 2)).thenReturn(List.of(message(11L), message(12L)));
+
+        messageResumeService.resume(session, Map.of(7L, 10L));
+
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.captor();
+        verify(outboundSessionPipeline, times(4)).enqueueReplay(eq(session), sent.capture());
+        assertThat(sent.getAllValues().get(2).getPayload()).isEqualTo("{\"type\": \"RESUME_TRUNCATED\", \"chatRoomId\": 7}");
+        verify(messageService, never()).findMessagesAfter(7L, 12L, 2);
+    }
+
+    @Test
+    @DisplayName("바이너리 세션에는 ERROR 가 아닌 RESUME_COMPLETE 프레임을 보낸다")
+    void sendsBinaryCompleteFrame() {
+        when(session.getAcceptedProtocol()).thenReturn(SubProtocolRoutingHandler.BINARY_PROTOCOL);
+
+        messageResumeService.resume(session, Map.of());
+
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.captor();
+        verify(outboundSessionPipeline).enqueueReplay(eq(session), sent.capture());
+        assertThat(((BinaryMessage) sent.getValue()).getPayload().get(0)).isEqualTo(BinaryFrameCodec.TYPE_RESUME_COMPLETE);
+    }
+
+    @Test
+    @DisplayName("보류가 풀려 재전송 큐에 못 넣은 완료 표시는 일반 큐로 보낸다")
+    void fallsBackToLiveQueueForControlFrame() throws Exception {
+        when(outboundSessionPipeline.enqueueReplay(eq(session), any())).thenReturn(false);
+        when(outboundSessionPipeline.enqueue(eq(session), any())).thenReturn(true);
+
+        messageResumeService.resume(session, Map.of());
+
+        verify(outboundSessionPipeline).enqueue(eq(session), any());
+        verify(session, never()).close(any(CloseStatus.class));
+    }
+
+    @Test
+    @DisplayName("완료 표시를 어느 큐에도 넣지 못하면 세션을 끊어 다시 resume 하게 한다")
+    void closesSessionWhenControlFrameDropped() throws Exception {
+        when(outboundSessionPipeline.enqueueReplay(eq(session), any())).thenReturn(false);
+        when(outboundSessionPipeline.enqueue(eq(session), any())).thenReturn(false);
+
+        messageResumeService.resume(session, Map.of());
+
+        verify(session).close(any(CloseStatus.class));
+    }
+
+    private Message message(Long id) {
+        return Message.builder().id(id).senderId(2L).chatRoomId(7L).message("m" + id).build();
+    }
+}
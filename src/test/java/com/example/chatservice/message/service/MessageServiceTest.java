@@ -121,6 +121,36 @@ class MessageServiceTest {
         verify(chatMessageProducer).sendMessage(any(ChatMessageEvent.class));
     }
 
+    @Test
+    @DisplayName("배치 전송은 메시지를 한 번에 저장하고 lastMessageId/ReadStatus를 최대 id로 한 번만 갱신한다.")
+    void sendMessagesBatchTest() {
+        // given
+        User sender = userRepository.save(User.builder().username("userA").build());
+        User other = userRepository.save(User.builder().username("userB").build());
+        Long chatRoomId = chatService.createChatRoom(sender.getId(), new ChatRequest(List.of(other.getId()))).getId();
+
+        // when
+        messageService.sendMessagesViaWebSocket(sender.getId(), null, chatRoomId, List.of("m1", "m2", "m3"));
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+
+        // then
+        List<Message> saved = messageRepository.findAll().stream()
+                .sorted(java.util.Comparator.comparing(Message::getId))
+                .toList();
+        assertThat(saved).extracting(Message::getMessage).containsExactly("m1", "m2", "m3");
+        Long maxId = saved.get(2).getId();
+
+        verify(userChatRepository, Mockito.times(1)).updateLastMessageIdForChat(chatRoomId, maxId);
+
+        ChatRoom chatRoom = chatRepository.findById(chatRoomId).orElseThrow();
+        ReadStatus rs = readStatusRepository.findByUserAndChatRoom(sender, chatRoom);
+        assertThat(rs.getLastReadMessageId()).isEqualTo(maxId);
+
+        verify(chatMessageProducer, Mockito.times(3)).sendMessage(any(ChatMessageEvent.class));
+    }
+
     @Test
     @DisplayName("hot room이면 lastMessageId 업데이트를 스킵하고 flush를 예약한다.")
     void sendMessageHotRoomTest() {
@@ -132,6 +162,7 @@ class MessageServiceTest {
         when(hotRoomDetectionService.isHotRoom(chatRoomId)).thenReturn(true);
         when(hotRoomDetectionService.shouldSkipHotUpdate(chatRoomId)).thenReturn(true);
         when(hotRoomDetectionService.getDebounceDuration()).thenReturn(java.time.Duration.ofSeconds(3));
+        when(pendingLastMessageFlushService.scheduleFlush(eq(chatRoomId), anyLong(), any())).thenReturn(true);
 
         // when
         messageService.sendMessageViaWebSocket(sender.getId(), other.getId(), chatRoomId, "hot");
@@ -144,6 +175,26 @@ class MessageServiceTest {
         verify(userChatRepository, Mockito.never()).updateLastMessageIdForChat(anyLong(), anyLong());
     }
 
+    @Test
+    @DisplayName("Redis 장애로 flush 를 예약하지 못하면 hot room 이어도 lastMessageId 를 바로 DB 에 반영한다.")
+    void sendMessageHotRoomDegradedTest() {
+        // given
+        User sender = userRepository.save(User.builder().username("userA").build());
+        User other = userRepository.save(User.builder().username("userB").build());
+        Long chatRoomId = chatService.createChatRoom(sender.getId(), new ChatRequest(List.of(other.getId()))).getId();
+
+        when(hotRoomDetectionService.isHotRoom(chatRoomId)).thenReturn(true);
+        when(hotRoomDetectionService.shouldSkipHotUpdate(chatRoomId)).thenReturn(true);
+        when(hotRoomDetectionService.getDebounceDuration()).thenReturn(java.time.Duration.ofSeconds(3));
+        when(pendingLastMessageFlushService.scheduleFlush(eq(chatRoomId), anyLong(), any())).thenReturn(false);
+
+        // when
+        messageService.sendMessageViaWebSocket(sender.getId(), other.getId(), chatRoomId, "hot");
+
+        // then
+        verify(userChatRepository).updateLastMessageIdForChat(eq(chatRoomId), anyLong());
+    }
+
     @Test
     @DisplayName("getMessages는 before/after를 합쳐 시간 순으로 반환한다.")
     void getMessagesTest() {